@@ -1,10 +1,13 @@
 import calendar.CalendarSuite;
 import calendar.ICalendarSuite;
+import calendar.JournaledSuite;
+import controller.CalendarServer;
 import controller.Controller;
 import controller.IController;
 import controller.ISwingController;
 import controller.SwingController;
 import view.IView;
+import view.OutputSink;
 import view.ScheduleView;
 import view.TextView;
 
@@ -13,29 +16,189 @@ import view.TextView;
  */
 public class CalendarApp {
 
+  private static final int HEADLESS_LINES_PER_FLUSH = 1024;
+  private static final long DEFAULT_SYNC_MILLIS = 10;
+
+  /**
+   * The options given after the mode (and script file) on the command line.
+   */
+  private static final class Options {
+    private OutputSink sink = OutputSink.everyLines(System.out, HEADLESS_LINES_PER_FLUSH);
+    private boolean pipelined = false;
+    private String snapshot = null;
+    private String journal = null;
+    private long syncMillis = DEFAULT_SYNC_MILLIS;
+    private int port = -1;
+  }
+
   /**
    * Runs the calendar program.
    *
    * @param args String[] from terminal
    */
   public static void main(String[] args) {
-    ICalendarSuite suite = new CalendarSuite();
     if (args.length == 0) {
+      ICalendarSuite suite = new CalendarSuite();
       ScheduleView scheduleView = new ScheduleView(suite);
       ISwingController swingController = new SwingController(suite, scheduleView);
       swingController.goDisplay();
-    } else {
-      IView view = new TextView();
-      IController controller = new Controller(suite, view);
-
-      if (args[1].equals("interactive")) {
+    } else if (args[1].equals("interactive")) {
+      Options options = parseOptions(args, 2, args[1]);
+      ICalendarSuite suite = loadSuite(options);
+      try {
+        IController controller = new Controller(suite, new TextView());
         controller.goInteractiveCalendar();
-      } else if (args[1].equals("headless")) {
-        if (args.length != 3) {
-          throw new IllegalArgumentException("Invalid number of arguments");
+      } finally {
+        closeSuite(suite);
+      }
+    } else if (args[1].equals("server")) {
+      Options options = parseOptions(args, 2, args[1]);
+      if (options.port < 0) {
+        throw new IllegalArgumentException("Server mode needs --port");
+      }
+      serve(loadSuite(options), options.port);
+    } else if (args[1].equals("headless")) {
+      if (args.length < 3) {
+        throw new IllegalArgumentException("Invalid number of arguments");
+      }
+      Options options = parseOptions(args, 3, args[1]);
+      ICalendarSuite suite = loadSuite(options);
+      try {
+        IView view = new TextView(options.sink);
+        IController controller = new Controller(suite, view);
+        if (options.pipelined) {
+          controller.goPipelinedHeadlessCalendar(args[2]);
+        } else {
+          controller.goHeadlessCalendar(args[2]);
+        }
+      } finally {
+        closeSuite(suite);
+      }
+    }
+  }
+
+  /**
+   * Serves the given suite to clients connecting on the given port until the program is stopped.
+   * On the way out the open connections are closed, the commands they are running finish, and
+   * then the suite is closed.
+   *
+   * @param suite ICalendarSuite
+   * @param port  the port to listen on
+   */
+  private static void serve(ICalendarSuite suite, int port) {
+    CalendarServer server;
+    try {
+      server = new CalendarServer(suite, port);
+    } catch (IllegalArgumentException e) {
+      closeSuite(suite);
+      throw e;
+    }
+    Thread serving = Thread.currentThread();
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      server.close();
+      try {
+        serving.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }));
+    System.out.println("Listening on port " + server.getPort());
+    try {
+      server.serve();
+    } finally {
+      closeSuite(suite);
+    }
+  }
+
+  /**
+   * Reads the options from the given position on. --flush and --pipeline are only allowed in
+   * headless mode, and --port only in server mode.
+   *
+   * @param args String[] from terminal
+   * @param from index of the first option
+   * @param mode the mode the program runs in
+   * @return Options
+   */
+  private static Options parseOptions(String[] args, int from, String mode) {
+    Options options = new Options();
+    boolean headless = mode.equals("headless");
+    for (int i = from; i < args.length; i++) {
+      boolean hasValue = i + 1 < args.length;
+      if (headless && args[i].equals("--flush") && hasValue) {
+        options.sink = flushPolicy(args[++i]);
+      } else if (headless && args[i].equals("--pipeline")) {
+        options.pipelined = true;
+      } else if (args[i].equals("--snapshot") && hasValue) {
+        options.snapshot = args[++i];
+      } else if (mode.equals("server") && args[i].equals("--port") && hasValue) {
+        try {
+          options.port = Integer.parseInt(args[++i]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Invalid port: " + args[i]);
+        }
+      } else if (args[i].equals("--journal") && hasValue) {
+        options.journal = args[++i];
+      } else if (args[i].equals("--sync") && hasValue) {
+        try {
+          options.syncMillis = Long.parseLong(args[++i]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Invalid sync interval: " + args[i]);
         }
-        controller.goHeadlessCalendar(args[2]);
+      } else {
+        throw new IllegalArgumentException("Invalid argument: " + args[i]);
       }
     }
+    if (options.snapshot != null && options.journal != null) {
+      throw new IllegalArgumentException("Cannot use --snapshot with --journal");
+    }
+    return options;
+  }
+
+  /**
+   * Returns the suite kept in the journal directory or saved to the snapshot file given in the
+   * options, or a new suite if neither was given.
+   *
+   * @param options Options
+   * @return ICalendarSuite
+   */
+  private static ICalendarSuite loadSuite(Options options) {
+    if (options.journal != null) {
+      return JournaledSuite.open(options.journal, options.syncMillis);
+    }
+    if (options.snapshot != null) {
+      return CalendarSuite.loadSnapshot(options.snapshot);
+    }
+    return new CalendarSuite();
+  }
+
+  /**
+   * Closes the given suite's journal, if it has one, once every change is on disk.
+   *
+   * @param suite ICalendarSuite
+   */
+  private static void closeSuite(ICalendarSuite suite) {
+    if (suite instanceof JournaledSuite) {
+      ((JournaledSuite) suite).close();
+    }
+  }
+
+  /**
+   * Returns a sink to System.out for the given flush policy: "command" hands output over after
+   * every command, "end" at the end of the script, and a number after that many lines.
+   *
+   * @param policy "command", "end" or a number of lines
+   * @return OutputSink
+   */
+  private static OutputSink flushPolicy(String policy) {
+    if (policy.equals("command")) {
+      return OutputSink.everyCommand(System.out);
+    } else if (policy.equals("end")) {
+      return OutputSink.endOfScript(System.out);
+    }
+    try {
+      return OutputSink.everyLines(System.out, Integer.parseInt(policy));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid flush policy: " + policy);
+    }
   }
 }
@@ -1,5 +1,7 @@
 package calendar;
 
+import java.util.List;
+
 /**
  * This class represents an event. All events have these variables and methods whether or not
  * they are a single event or a series. All events have at minimum a startDate, subject, and
@@ -8,14 +10,9 @@ package calendar;
  */
 public abstract class AbstractEvent implements IEvent {
 
-  protected Date startDate;
-  protected Date endDate;
-  protected int[] times = new int[4]; //array of start/end hours and minutes
-  // {startHour, startMinute, endHour, endMinute}
-  protected String location;
-  protected String subject;
-  protected String description;
-  protected String status; // public or private
+  protected DateTime start;
+  protected DateTime end;
+  protected EventText text; // subject, location, description and status; shared, never changed
 
 
   /**
@@ -25,11 +22,16 @@ public abstract class AbstractEvent implements IEvent {
    * @param startDateTTime the start date and start time as a string
    */
   public AbstractEvent(String subject, String startDateTTime) {
-    this.subject = subject;
-    String[] startString = startDateTTime.split("T");
-    this.startDate = new Date(startString[0]); // makes a new date w the start time
-    this.endDate = new Date(startString[0]);
-    this.times = new int[]{8, 0, 17, 0};
+    this.text = EventText.of(subject);
+    int dateLength = startDateTTime.indexOf('T');
+    int epochDay = DateTimeCodec.parseEpochDay(startDateTTime,
+            dateLength < 0 ? startDateTTime.length() : dateLength);
+    if (epochDay == DateTimeCodec.INVALID_DAY) {
+      throw new IllegalArgumentException("Invalid date");
+    }
+    Date date = Date.ofEpochDay(epochDay);
+    this.start = DateTime.of(date, 8, 0);
+    this.end = DateTime.of(date, 17, 0);
     initializeOtherProperties();
   }
 
@@ -41,32 +43,53 @@ public abstract class AbstractEvent implements IEvent {
    * @param endDateTTime   "YYYY-MM-DDThh:mm"
    */
   public AbstractEvent(String subject, String startDateTTime, String endDateTTime) {
-    this.subject = subject;
+    this.text = EventText.of(subject);
     parseDateTtime(startDateTTime, true);
     parseDateTtime(endDateTTime, false);
     initializeOtherProperties();
   }
 
+  /**
+   * Constructs a new event from its text, start and end.
+   *
+   * @param text  EventText
+   * @param start DateTime
+   * @param end   DateTime
+   */
+  AbstractEvent(EventText text, DateTime start, DateTime end) {
+    this.text = text;
+    this.start = start;
+    this.end = end;
+  }
+
   protected void initializeOtherProperties() {
-    this.location = "";
-    this.description = "";
-    this.status = "";
+    this.text = EventText.of(this.text.getSubject());
   }
 
   /**
-   * Creates a copy of this event.
+   * Swaps this event's text for the equal one the given dictionary holds. Events are only handed
+   * to a dictionary as they go into a calendar, and the text it gives back is equal, so readers
+   * of the event see the same text either way.
    *
-   * @param subject        String
-   * @param startDateTtime "YYYY-MM-DDThh:mm"
-   * @param endDateTtime   "YYYY-MM-DDThh:mm"
-   * @param location       String
-   * @param description    String
-   * @param status         String
+   * @param dictionary the dictionary of the calendar's suite
+   */
+  void shareText(TextDictionary dictionary) {
+    EventText shared = dictionary.intern(this.text);
+    if (shared != this.text) {
+      this.text = shared;
+    }
+  }
+
+  /**
+   * Creates a single event with the given text, start and end.
+   *
+   * @param text  EventText
+   * @param start DateTime
+   * @param end   DateTime
    * @return IEvent
    */
-  protected IEvent copy(String subject, String startDateTtime, String endDateTtime,
-                        String location, String description, String status) {
-    return new SingleEvent(subject, startDateTtime, endDateTtime, location, description, status);
+  protected IEvent copy(EventText text, DateTime start, DateTime end) {
+    return new SingleEvent(text, start, end);
   }
 
   /**
@@ -78,17 +101,9 @@ public abstract class AbstractEvent implements IEvent {
    */
   protected void parseDateTtime(String dateTtime, boolean isStart) {
     if (isStart) {
-      String[] startString = dateTtime.split("T");
-      String[] startTimeString = startString[1].split(":");
-      this.startDate = new Date(startString[0]);
-      this.times[0] = Integer.parseInt(startTimeString[0]);
-      this.times[1] = Integer.parseInt(startTimeString[1]);
+      this.start = DateTime.parse(dateTtime);
     } else {
-      String[] endString = dateTtime.split("T");
-      String[] endTimeString = endString[1].split(":");
-      this.endDate = new Date(endString[0]);
-      this.times[2] = Integer.parseInt(endTimeString[0]);
-      this.times[3] = Integer.parseInt(endTimeString[1]);
+      this.end = DateTime.parse(dateTtime);
     }
   }
 
@@ -100,37 +115,55 @@ public abstract class AbstractEvent implements IEvent {
    */
   public String getDateTtime(boolean getStart) {
     if (getStart) {
-      return startDate + "T" + String.format("%02d", this.times[0]) + ":" + String.format("%02d",
-              this.times[1]);
+      return this.start.toString();
     } else {
-      return endDate + "T" + String.format("%02d", this.times[2]) + ":" + String.format("%02d",
-              this.times[3]);
+      return this.end.toString();
     }
   }
 
   @Override
-  public abstract IEvent deepCopy(int timeAdjustment);
+  public IEvent deepCopy(int timeAdjustment) {
+    return this.moved(timeAdjustment * 60, timeAdjustment * 60);
+  }
 
   @Override
   public IEvent sameDay(IDate date) {
-    if (this.startDate.compare(date) == 0) {
-      return this.copy(this.subject, this.getDateTtime(true), this.getDateTtime(false),
-              this.location, this.description, this.status);
+    if (this.start.getDate().compare(date) == 0) {
+      return this.copy(this.text, this.start, this.end);
     }
     return null;
   }
 
+  @Override
+  public void collectOccurrences(long fromInstant, long toInstant, List<IEvent> into) {
+    if (this.getEndInstant() >= fromInstant && this.getStartInstant() <= toInstant) {
+      into.add(this.copy(this.text, this.start, this.end));
+    }
+  }
+
+  @Override
+  public long getStartInstant() {
+    return this.start.toInstant();
+  }
+
+  @Override
+  public long getEndInstant() {
+    return this.end.toInstant();
+  }
+
   @Override
   public boolean match(String subject, String startDateTtime, String endDateTtime) {
-    return this.subject.equals(subject) && getDateTtime(true).equals(startDateTtime)
-            && (getDateTtime(false).equals(endDateTtime) || endDateTtime.isEmpty());
+    return this.text.getSubject().equals(subject)
+            && this.start.toInstant() == DateTimeCodec.parseInstant(startDateTtime)
+            && (endDateTtime.isEmpty()
+            || this.end.toInstant() == DateTimeCodec.parseInstant(endDateTtime));
   }
 
   @Override
   public IEvent editEventProperty(String prop, String dateTtime, String newPropvalue) {
     switch (prop) {
       case "subject":
-        this.subject = newPropvalue;
+        this.text = this.text.withSubject(newPropvalue);
         break;
       case "start":
         parseDateTtime(newPropvalue, true);
@@ -139,19 +172,18 @@ public abstract class AbstractEvent implements IEvent {
         parseDateTtime(newPropvalue, false);
         break;
       case "description":
-        this.description = newPropvalue;
+        this.text = this.text.withDescription(newPropvalue);
         break;
       case "location":
-        this.location = newPropvalue;
+        this.text = this.text.withLocation(newPropvalue);
         break;
       case "status":
-        this.status = newPropvalue;
+        this.text = this.text.withStatus(newPropvalue);
         break;
       default:
         throw new IllegalArgumentException("Invalid property");
     }
-    return copy(this.subject, this.getDateTtime(true), this.getDateTtime(false), this.location,
-            this.description, this.status);
+    return this;
   }
 
   @Override
@@ -164,23 +196,6 @@ public abstract class AbstractEvent implements IEvent {
     return editEventProperty(prop, "", newPropvalue);
   }
 
-  @Override
-  public boolean isBusy(String dateTtime) {
-    String[] dateTime = dateTtime.split("T");
-    String[] timeString = dateTime[1].split(":");
-    int[] time = new int[2];
-    time[0] = Integer.parseInt(timeString[0]);
-    time[1] = Integer.parseInt(timeString[1]);
-    IDate date = new Date(dateTime[0]);
-    if (date.compare(this.startDate) == 0 && date.compare(this.endDate) == 0) {
-      if (this.times[0] <= time[0] && time[0] <= this.times[2] && this.times[1] <= time[1]
-              && time[1] <= this.times[3]) {
-        return true;
-      }
-    }
-    return date.compare(this.startDate) >= 0 && date.compare(this.endDate) <= 0;
-  }
-
   @Override
   public abstract boolean isSeries();
 
@@ -189,78 +204,83 @@ public abstract class AbstractEvent implements IEvent {
     if (!(obj instanceof IEvent)) {
       return false;
     }
-    return this.subject.equals(((IEvent) obj).getSubject())
-            && this.startDate.compare(((IEvent) obj).getStartDate()) == 0
-            && this.endDate.compare(((IEvent) obj).getEndDate()) == 0
-            && this.getStartTime().equals(((IEvent) obj).getStartTime())
-            && this.getEndTime().equals(((IEvent) obj).getEndTime());
+    IEvent other = (IEvent) obj;
+    return this.start.toInstant() == other.getStartInstant()
+            && this.end.toInstant() == other.getEnd().toInstant()
+            && this.text.getSubject().equals(other.getSubject());
   }
 
   @Override
   public int hashCode() {
-    return this.subject.hashCode() + this.getDateTtime(true).hashCode()
-            + this.getDateTtime(false).hashCode();
+    int result = this.text.getSubject().hashCode();
+    result = 31 * result + Long.hashCode(this.start.toInstant());
+    return 31 * result + Long.hashCode(this.end.toInstant());
   }
 
   @Override
   public String toString() {
-    String event = this.subject + ": " + this.startDate.toString() + " ";
+    String event = this.text.getSubject() + ": " + this.start.getDate().toString() + " ";
 
-    event += String.format("%02d", this.times[0]) + ":" +
-            String.format("%02d", this.times[1]) + " - "
-            + String.format("%02d", this.times[2]) + ":"
-            + String.format("%02d", this.times[3]);
-    if (this.location.isEmpty()) {
+    event += this.start.timeString() + " - " + this.end.timeString();
+    if (this.text.getLocation().isEmpty()) {
       return event;
     }
-    return event + " @ " + this.location;
+    return event + " @ " + this.text.getLocation();
+  }
+
+  @Override
+  public DateTime getStart() {
+    return this.start;
+  }
+
+  @Override
+  public DateTime getEnd() {
+    return this.end;
   }
 
   @Override
   public Date getStartDate() {
-    return this.startDate;
+    return this.start.getDate();
   }
 
   @Override
   public Date getEndDate() {
-    return this.endDate;
+    return this.end.getDate();
   }
 
   @Override
   public String getLocation() {
-    return this.location;
+    return this.text.getLocation();
   }
 
   @Override
   public String getSubject() {
-    return this.subject;
+    return this.text.getSubject();
   }
 
   @Override
   public String getDescription() {
-    return this.description;
+    return this.text.getDescription();
   }
 
   @Override
   public String getStatus() {
-    return this.status;
+    return this.text.getStatus().toString();
   }
 
   @Override
   public String getStartTime() {
-    return String.format("%02d", this.times[0]) + ":" + String.format("%02d",
-            this.times[1]);
+    return this.start.timeString();
   }
 
   @Override
   public String getEndTime() {
-    return String.format("%02d", this.times[2]) + ":" + String.format("%02d",
-            this.times[3]);
+    return this.end.timeString();
   }
 
   @Override
   public IDate getDate() {
-    return this.startDate;
+    return this.start.getDate();
   }
 
 }
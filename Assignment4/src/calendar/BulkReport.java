@@ -0,0 +1,105 @@
+package calendar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What came of creating a list of events at once: how many were created, and for each one that
+ * was not, its position in the list and why.
+ */
+public final class BulkReport {
+
+  /**
+   * An event of the list that was not created.
+   */
+  public static final class Failure {
+    private final int row;
+    private final String message;
+
+    private Failure(int row, String message) {
+      this.row = row;
+      this.message = message;
+    }
+
+    /**
+     * Returns the position of the event in the list, counting from 0.
+     *
+     * @return int
+     */
+    public int getRow() {
+      return this.row;
+    }
+
+    /**
+     * Returns why the event was not created.
+     *
+     * @return String
+     */
+    public String getMessage() {
+      return this.message;
+    }
+  }
+
+  private final List<IEvent> created;
+  private final List<Failure> failures;
+
+  /**
+   * Constructs an empty report.
+   */
+  BulkReport() {
+    this.created = new ArrayList<>();
+    this.failures = new ArrayList<>();
+  }
+
+  /**
+   * Records that the given event was created.
+   *
+   * @param event IEvent
+   */
+  void created(IEvent event) {
+    this.created.add(event);
+  }
+
+  /**
+   * Records that the event at the given row was not created, and why.
+   *
+   * @param row     position in the list
+   * @param message why it was not created
+   */
+  void failed(int row, String message) {
+    this.failures.add(new Failure(row, message));
+  }
+
+  /**
+   * Returns the events created, in the order of the list.
+   *
+   * @return list of events
+   */
+  List<IEvent> getCreatedEvents() {
+    return Collections.unmodifiableList(this.created);
+  }
+
+  /**
+   * Returns how many events were created.
+   *
+   * @return int
+   */
+  public int getCreated() {
+    return this.created.size();
+  }
+
+  /**
+   * Returns the events that were not created, in the order of the list.
+   *
+   * @return list of failures
+   */
+  public List<Failure> getFailures() {
+    return Collections.unmodifiableList(this.failures);
+  }
+
+  @Override
+  public String toString() {
+    return "Created " + this.created.size() + " events, " + this.failures.size() + " failed";
+  }
+}
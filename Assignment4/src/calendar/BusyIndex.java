@@ -0,0 +1,231 @@
+package calendar;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A free/busy index over the events of a calendar. Each day is a bitmap with one bit per minute,
+ * set when some event occupies that minute. An event occupies the minutes from its start up to,
+ * but not including, its end, or just its start minute when it has no length. Bitmaps are built
+ * from the calendar's events the first time a day is asked about and kept until an event touching
+ * that day is added, removed or edited, or until the index is full and the day is the least
+ * recently used. Readers may build days at the same time; a day built twice is built the same
+ * way. A bitmap is kept only if nothing was invalidated while it was built, so one built from an
+ * old version of the calendar is never kept.
+ *
+ * <p>A window of more days than the index keeps is counted from one search of the events over
+ * the whole window, without building or keeping a bitmap for each of its days.
+ */
+final class BusyIndex {
+
+  private static final int MINUTES_PER_DAY = 1440;
+  private static final int WORDS = (MINUTES_PER_DAY + 63) / 64;
+
+  private final IEventView events;
+  private final int capacity;
+  private final LinkedHashMap<Integer, long[]> days; // epoch day to its bitmap, in use order
+  private long generation; // invalidations so far
+
+  /**
+   * Creates an index answering for the events in the given store, keeping the bitmaps of at most
+   * the given number of days.
+   *
+   * @param events   the calendar's events
+   * @param capacity most days kept
+   */
+  BusyIndex(IEventView events, int capacity) {
+    this.events = events;
+    this.capacity = capacity;
+    this.days = new LinkedHashMap<Integer, long[]>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, long[]> eldest) {
+        return this.size() > BusyIndex.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns true if some event occupies the given minute.
+   *
+   * @param instant minutes since 1970-01-01T00:00
+   * @return boolean
+   */
+  boolean isBusy(long instant) {
+    int minute = (int) Math.floorMod(instant, (long) MINUTES_PER_DAY);
+    long[] bits = this.day((int) Math.floorDiv(instant, (long) MINUTES_PER_DAY));
+    return (bits[minute >>> 6] & (1L << minute)) != 0;
+  }
+
+  /**
+   * Returns how many minutes of the window [fromInstant, toInstant] some event occupies.
+   *
+   * @param fromInstant first minute of the window
+   * @param toInstant   last minute of the window
+   * @return long
+   */
+  long busyMinutes(long fromInstant, long toInstant) {
+    long total = 0;
+    int firstDay = (int) Math.floorDiv(fromInstant, (long) MINUTES_PER_DAY);
+    int lastDay = (int) Math.floorDiv(toInstant, (long) MINUTES_PER_DAY);
+    if (lastDay - firstDay >= this.capacity) {
+      return this.countWindow(fromInstant, toInstant);
+    }
+    for (int day = firstDay; day <= lastDay; day++) {
+      long dayStart = day * (long) MINUTES_PER_DAY;
+      int from = (int) Math.max(0, fromInstant - dayStart);
+      int to = (int) Math.min(MINUTES_PER_DAY, toInstant - dayStart + 1);
+      total += count(this.day(day), from, to);
+    }
+    return total;
+  }
+
+  /**
+   * Forgets the bitmaps of every day the window [fromInstant, toInstant] touches. Must be called
+   * whenever an event spanning that window is added, removed or changed.
+   *
+   * @param fromInstant first minute of the window
+   * @param toInstant   last minute of the window
+   */
+  synchronized void invalidate(long fromInstant, long toInstant) {
+    this.generation++;
+    int firstDay = (int) Math.floorDiv(fromInstant, (long) MINUTES_PER_DAY);
+    int lastDay = (int) Math.floorDiv(Math.max(fromInstant, toInstant),
+            (long) MINUTES_PER_DAY);
+    if ((long) lastDay - firstDay < this.days.size()) {
+      for (int day = firstDay; day <= lastDay; day++) {
+        this.days.remove(day);
+      }
+      return;
+    }
+    Iterator<Integer> known = this.days.keySet().iterator();
+    while (known.hasNext()) {
+      int day = known.next();
+      if (day >= firstDay && day <= lastDay) {
+        known.remove();
+      }
+    }
+  }
+
+  /**
+   * Returns how many days' bitmaps are kept.
+   *
+   * @return int
+   */
+  synchronized int size() {
+    return this.days.size();
+  }
+
+  /**
+   * Returns the bitmap of the given day, building it if it is not known.
+   */
+  private long[] day(int epochDay) {
+    long built;
+    synchronized (this) {
+      long[] bits = this.days.get(epochDay);
+      if (bits != null) {
+        return bits;
+      }
+      built = this.generation;
+    }
+    long[] bits = this.build(epochDay);
+    synchronized (this) {
+      if (built == this.generation) {
+        this.days.put(epochDay, bits);
+      }
+    }
+    return bits;
+  }
+
+  /**
+   * Returns how many minutes of the window [fromInstant, toInstant] some event occupies, from
+   * the occurrences in the window merged in order of their start.
+   */
+  private long countWindow(long fromInstant, long toInstant) {
+    List<IEvent> overlapping = new ArrayList<>();
+    this.events.overlapping(fromInstant, toInstant, overlapping::add);
+    List<IEvent> occurrences = new ArrayList<>();
+    for (IEvent event : overlapping) {
+      event.collectOccurrences(fromInstant, toInstant, occurrences);
+    }
+    occurrences.sort(Comparator.comparingLong(IEvent::getStartInstant));
+    long total = 0;
+    long covered = fromInstant; // minutes before this are counted or outside the window
+    for (IEvent occurrence : occurrences) {
+      long start = Math.max(occurrence.getStartInstant(), covered);
+      long end = Math.min(Math.max(occurrence.getEndInstant(),
+              occurrence.getStartInstant() + 1), toInstant + 1);
+      if (end > start) {
+        total += end - start;
+        covered = end;
+      }
+    }
+    return total;
+  }
+
+  private long[] build(int epochDay) {
+    long dayStart = epochDay * (long) MINUTES_PER_DAY;
+    long dayEnd = dayStart + MINUTES_PER_DAY - 1;
+    List<IEvent> overlapping = new ArrayList<>();
+    this.events.overlapping(dayStart, dayEnd, overlapping::add);
+    List<IEvent> occurrences = new ArrayList<>();
+    for (IEvent event : overlapping) {
+      event.collectOccurrences(dayStart, dayEnd, occurrences);
+    }
+    long[] bits = new long[WORDS];
+    for (IEvent occurrence : occurrences) {
+      long start = occurrence.getStartInstant();
+      long end = Math.max(occurrence.getEndInstant(), start + 1);
+      int from = (int) Math.max(0, start - dayStart);
+      int to = (int) Math.min(MINUTES_PER_DAY, end - dayStart);
+      set(bits, from, to);
+    }
+    return bits;
+  }
+
+  /**
+   * Sets the bits [from, to) of the given bitmap.
+   */
+  private static void set(long[] bits, int from, int to) {
+    if (from >= to) {
+      return;
+    }
+    int first = from >>> 6;
+    int last = (to - 1) >>> 6;
+    long firstMask = -1L << from;
+    long lastMask = -1L >>> -to;
+    if (first == last) {
+      bits[first] |= firstMask & lastMask;
+      return;
+    }
+    bits[first] |= firstMask;
+    for (int i = first + 1; i < last; i++) {
+      bits[i] = -1L;
+    }
+    bits[last] |= lastMask;
+  }
+
+  /**
+   * Returns how many of the bits [from, to) of the given bitmap are set.
+   */
+  private static int count(long[] bits, int from, int to) {
+    if (from >= to) {
+      return 0;
+    }
+    int first = from >>> 6;
+    int last = (to - 1) >>> 6;
+    long firstMask = -1L << from;
+    long lastMask = -1L >>> -to;
+    if (first == last) {
+      return Long.bitCount(bits[first] & firstMask & lastMask);
+    }
+    int total = Long.bitCount(bits[first] & firstMask);
+    for (int i = first + 1; i < last; i++) {
+      total += Long.bitCount(bits[i]);
+    }
+    return total + Long.bitCount(bits[last] & lastMask);
+  }
+}
@@ -1,7 +1,10 @@
 package calendar;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 /**
@@ -14,7 +17,16 @@ import java.util.regex.Pattern;
  */
 public class Calendar implements ICalendar {
 
-  private final List<IEvent> events;
+  private static final long PAGE_WINDOW = 7 * 1440L; // first window searched when paging
+  private static final int CACHED_DAYS = 256;
+  private static final Pattern WEEKDAYS = Pattern.compile("M?T?W?R?F?S?U?");
+
+  private final IEventStore store; // the events as they were created
+  private final BusyIndex busy; // which minutes of each day are taken
+  private final DayCache dayCache; // occurrences of recently listed days
+  private final TextDictionary dictionary; // texts shared by the events of the suite
+  private long changedFrom; // first minute changed since the last publish
+  private long changedTo; // last minute changed since the last publish
 
   /**
    * Constructor for a calendar. Takes in a dateString as the current date and initializes its
@@ -23,7 +35,103 @@ public class Calendar implements ICalendar {
    * @throws IllegalArgumentException when date format isn't matched
    */
   public Calendar() {
-    this.events = new ArrayList<>();
+    this(new HeapEventStore());
+  }
+
+  /**
+   * Constructs a calendar keeping its events in the given store.
+   *
+   * @param store IEventStore
+   */
+  Calendar(IEventStore store) {
+    this(store, new TextDictionary());
+  }
+
+  /**
+   * Constructs a calendar keeping its events in the given store and sharing their texts through
+   * the given dictionary, usually the one of its suite.
+   *
+   * @param store      IEventStore
+   * @param dictionary TextDictionary
+   */
+  Calendar(IEventStore store, TextDictionary dictionary) {
+    this.store = store;
+    this.dictionary = dictionary;
+    this.busy = new BusyIndex(store, CACHED_DAYS);
+    this.dayCache = new DayCache(CACHED_DAYS);
+    this.changedFrom = Long.MAX_VALUE;
+    this.changedTo = Long.MIN_VALUE;
+  }
+
+  /**
+   * Adds the given event to this calendar's store. Readers do not see it until the next publish.
+   *
+   * @param event IEvent
+   */
+  private void index(IEvent event) {
+    this.share(event);
+    this.store.add(event);
+    this.changed(event.getStartInstant(), event.getEndInstant());
+  }
+
+  /**
+   * Gives the given event the text this calendar's dictionary holds for it, so events with the
+   * same text share it.
+   *
+   * @param event IEvent
+   */
+  private void share(IEvent event) {
+    if (event instanceof AbstractEvent) {
+      ((AbstractEvent) event).shareText(this.dictionary);
+    }
+  }
+
+  /**
+   * Removes the given event from this calendar's store. Readers still see it until the next
+   * publish.
+   *
+   * @param event IEvent
+   */
+  private void unindex(IEvent event) {
+    this.store.remove(event);
+    this.changed(event.getStartInstant(), event.getEndInstant());
+  }
+
+  /**
+   * Widens the window of minutes changed since the last publish to cover [from, to].
+   */
+  private void changed(long from, long to) {
+    this.changedFrom = Math.min(this.changedFrom, from);
+    this.changedTo = Math.max(this.changedTo, to);
+  }
+
+  /**
+   * Makes the changes since the last publish seen by readers, then forgets what was worked out
+   * about the days they touched. The caches are cleared only after the new version is out, so a
+   * reader cannot cache a day from the version before it.
+   */
+  private void publish() {
+    this.store.publish();
+    if (this.changedFrom <= this.changedTo) {
+      this.busy.invalidate(this.changedFrom, this.changedTo);
+      this.dayCache.invalidate(this.changedFrom, this.changedTo);
+    }
+    this.changedFrom = Long.MAX_VALUE;
+    this.changedTo = Long.MIN_VALUE;
+  }
+
+  /**
+   * Returns the given dateTtime as minutes counted from 1970-01-01T00:00.
+   *
+   * @param dateTtime "YYYY-MM-DDThh:mm"
+   * @return long
+   */
+  private static long toInstant(String dateTtime) {
+    long instant = DateTimeCodec.parseInstant(dateTtime);
+    if (instant == DateTimeCodec.INVALID_INSTANT) {
+      throw new IllegalArgumentException("Invalid date");
+    }
+    return instant;
   }
 
   /**
@@ -33,7 +141,7 @@ public class Calendar implements ICalendar {
    * @throws IllegalArgumentException if not "YYYY-M(M)-D(D)"
    */
   private void validateDate(String date) throws IllegalArgumentException {
-    if (!Pattern.matches("^\\d\\d\\d\\d-\\d\\d?-\\d\\d?$", date)) {
+    if (!DateTimeCodec.isDate(date)) {
       throw new IllegalArgumentException("Invalid date");
     }
   }
@@ -45,38 +153,22 @@ public class Calendar implements ICalendar {
    * @throws IllegalArgumentException if not "YYYY-M(M)-D(D)Th(h):m(m)"
    */
   private void validateDateTtime(String dateTtime) throws IllegalArgumentException {
-    if (!Pattern.matches("^\\d\\d\\d\\d-\\d\\d?-\\d\\d?T\\d\\d?:\\d\\d?$", dateTtime)
-            || dateTtime.isEmpty()) {
+    if (!DateTimeCodec.isDateTime(dateTtime)) {
       throw new IllegalArgumentException("Invalid dateTtime: " + dateTtime);
     }
   }
 
+  /**
+   * Throws an exception if fromDateTtime comes after toDateTtime.
+   *
+   * @param fromDateTtime "YYYY-MM-DDThh:mm"
+   * @param toDateTtime   "YYYY-MM-DDThh:mm"
+   * @throws IllegalArgumentException if fromDateTtime is after toDateTtime
+   */
   private void validateDates(String fromDateTtime, String toDateTtime) {
-    String[] fromString = fromDateTtime.split("T");
-    String[] toString = toDateTtime.split("T");
-    IDate fromDate = new Date(fromString[0]);
-    IDate toDate = new Date(toString[0]);
-
-    String[] fromTime = fromString[1].split(":");
-    String[] toTime = toString[1].split(":");
-    int fromHour = Integer.parseInt(fromTime[0]);
-    int fromMinute = Integer.parseInt(fromTime[1]);
-
-    int toHour = Integer.parseInt(toTime[0]);
-    int toMinute = Integer.parseInt(toTime[1]);
-
-    if (fromDate.compare(toDate) == 1) {
+    if (toInstant(fromDateTtime) > toInstant(toDateTtime)) {
       throw new IllegalArgumentException("the from date can not come after the to date");
     }
-
-    if (fromHour > toHour) {
-      throw new IllegalArgumentException("the from date can not come after the to date");
-    }
-
-    if (fromDate.compare(toDate) == 0 && fromHour == toHour && fromMinute > toHour) {
-      throw new IllegalArgumentException("the from date can not come after the to date");
-    }
-
   }
 
   /**
@@ -86,7 +178,7 @@ public class Calendar implements ICalendar {
    * @throws IllegalArgumentException if not MTWRFSU
    */
   private void validateWeekdays(String weekdays) throws IllegalArgumentException {
-    if (!Pattern.matches("^M?T?W?R?F?S?U?$", weekdays) || weekdays.isEmpty()) {
+    if (!WEEKDAYS.matcher(weekdays).matches() || weekdays.isEmpty()) {
       throw new IllegalArgumentException("Invalid weekdays");
     }
   }
@@ -111,7 +203,7 @@ public class Calendar implements ICalendar {
    * @throws IllegalArgumentException when the event already exists
    */
   private void validateEvent(IEvent event) throws IllegalArgumentException {
-    if (this.events.contains(event)) {
+    if (this.store.contains(event)) {
       throw new IllegalArgumentException("event already exists");
     }
   }
@@ -128,42 +220,45 @@ public class Calendar implements ICalendar {
    */
   private IEvent findEvent(String subject, String startDateTtime, String endDateTtime)
           throws IllegalArgumentException {
-    IEvent temp = null;
-    for (IEvent event : this.events) {
+    DateTime start = DateTime.parse(startDateTtime);
+    DateTime end = endDateTtime.isEmpty() ? null : DateTime.parse(endDateTtime);
+    IEvent single = this.store.findSingle(subject, start.toInstant(), end);
+    if (single != null) {
+      return single;
+    }
+    for (IEvent event : this.store.findSeries(subject, start.getMinuteOfDay())) {
       if (event.match(subject, startDateTtime, endDateTtime)) {
-        temp = event;
-        break;
+        return event;
       }
     }
-    if (temp == null) {
-      throw new IllegalArgumentException("Event does not exist");
-    }
-    return temp;
+    throw new IllegalArgumentException("Event does not exist");
   }
 
   @Override
   public void addEvent(IEvent event) {
-    boolean add = true;
-    for (IEvent current : this.events) {
-      if (current.equals(event)) {
-        add = false;
-        break;
-      }
+    if (!this.store.contains(event)) {
+      this.index(event);
+      this.publish();
+    }
+  }
+
+  @Override
+  public List<IEvent> addEvents(List<IEvent> events) {
+    for (IEvent event : events) {
+      this.share(event);
     }
-    if (add) {
-      this.events.add(event);
+    List<IEvent> added = this.store.addAll(events);
+    for (IEvent event : added) {
+      this.changed(event.getStartInstant(), event.getEndInstant());
     }
+    this.publish();
+    return added;
   }
 
   @Override
   public void createSingleEvent(String subject, String startDateTtime, String endDateTtime)
           throws IllegalArgumentException {
-    validateDateTtime(startDateTtime);
-    validateDateTtime(endDateTtime);
-    validateDates(startDateTtime, endDateTtime);
-    IEvent temp = new SingleEvent(subject, startDateTtime, endDateTtime);
-    validateEvent(temp);
-    this.events.add(temp);
+    this.create(EventSpec.single(subject, startDateTtime, endDateTtime));
   }
 
   @Override
@@ -171,71 +266,164 @@ public class Calendar implements ICalendar {
                                              String endDateTtime, String weekdays,
                                              int timesRepeated)
           throws IllegalArgumentException {
-    if (timesRepeated <= 0) {
-      throw new IllegalArgumentException("Invalid times to repeat");
-    }
-    validateDateTtime(startDateTtime);
-    validateDateTtime(endDateTtime);
-    validateWeekdays(weekdays);
-    validateDates(startDateTtime, endDateTtime);
-    IEvent temp = new SeriesEvent(subject, startDateTtime, endDateTtime, weekdays,
-            timesRepeated);
-    validateEvent(temp);
-    this.events.add(temp);
-    this.sortEvents();
+    this.create(EventSpec.seriesTimes(subject, startDateTtime, endDateTtime, weekdays,
+            timesRepeated));
   }
 
   @Override
   public void createEventSeriesStopDate(String subject, String startDateTtime,
                                         String endDateTtime, String weekdays, String stopDate)
           throws IllegalArgumentException {
-    validateDateTtime(startDateTtime);
-    validateDateTtime(endDateTtime);
-    validateWeekdays(weekdays);
-    validateDate(stopDate);
-    validateDates(startDateTtime, endDateTtime);
-    IEvent temp = new SeriesEvent(subject, startDateTtime, endDateTtime, weekdays, stopDate);
-    validateEvent(temp);
-    this.events.add(temp);
-    this.sortEvents();
+    this.create(EventSpec.seriesUntil(subject, startDateTtime, endDateTtime, weekdays,
+            stopDate));
   }
 
   @Override
   public void createSingleAllDayEvent(String subject, String date)
           throws IllegalArgumentException {
-    validateDate(date);
-    IEvent temp = new SingleEvent(subject, date);
-    validateEvent(temp);
-    this.events.add(temp);
-    this.sortEvents();
+    this.create(EventSpec.allDay(subject, date));
   }
 
   @Override
   public void createAllDayEventSeriesTimesRepeated(String subject, String startDate,
                                                    String weekdays, int timesRepeated)
           throws IllegalArgumentException {
-    if (timesRepeated <= 0) {
-      throw new IllegalArgumentException("Invalid times to repeat");
-    }
-    validateDate(startDate);
-    validateWeekdays(weekdays);
-    IEvent temp = new SeriesEvent(subject, startDate, weekdays, timesRepeated);
-    validateEvent(temp);
-    this.events.add(temp);
-    this.sortEvents();
+    this.create(EventSpec.allDaySeriesTimes(subject, startDate, weekdays, timesRepeated));
   }
 
   @Override
   public void createAllDayEventSeriesStopDate(String subject, String startDate, String weekdays,
                                               String stopDate)
           throws IllegalArgumentException {
-    validateDate(startDate);
-    validateWeekdays(weekdays);
-    validateDate(stopDate);
-    IEvent temp = new SeriesEvent(subject, startDate, weekdays, stopDate);
+    this.create(EventSpec.allDaySeriesUntil(subject, startDate, weekdays, stopDate));
+  }
+
+  @Override
+  public BulkReport createEvents(Collection<EventSpec> specs) {
+    BulkReport report = new BulkReport();
+    String[] failures = new String[specs.size()];
+    List<IEvent> events = new ArrayList<>(specs.size());
+    int[] rows = new int[specs.size()];
+    int row = 0;
+    for (EventSpec spec : specs) {
+      try {
+        rows[events.size()] = row;
+        events.add(this.toEvent(spec));
+      } catch (IllegalArgumentException e) {
+        failures[row] = e.getMessage();
+      }
+      row++;
+    }
+    for (IEvent event : events) {
+      this.share(event);
+    }
+    // the store leaves out events equal to one it holds or one earlier in the list
+    List<IEvent> added = this.store.addAll(events);
+    int next = 0;
+    for (int i = 0; i < events.size(); i++) {
+      IEvent event = events.get(i);
+      if (next < added.size() && added.get(next) == event) {
+        next++;
+        report.created(event);
+        this.changed(event.getStartInstant(), event.getEndInstant());
+      } else {
+        failures[rows[i]] = "event already exists";
+      }
+    }
+    this.publish();
+    for (int i = 0; i < failures.length; i++) {
+      if (failures[i] != null) {
+        report.failed(i, failures[i]);
+      }
+    }
+    return report;
+  }
+
+  /**
+   * Creates the event the given spec describes and adds it to this calendar.
+   *
+   * @param spec EventSpec
+   * @throws IllegalArgumentException when the inputs are invalid or the event already exists
+   */
+  private void create(EventSpec spec) throws IllegalArgumentException {
+    IEvent temp = this.toEvent(spec);
     validateEvent(temp);
-    this.events.add(temp);
-    this.sortEvents();
+    this.index(temp);
+    this.publish();
+  }
+
+  /**
+   * Returns the event the given spec describes, checking its inputs the way the matching create
+   * method does. The event is not added to this calendar.
+   *
+   * @param spec EventSpec
+   * @return IEvent
+   * @throws IllegalArgumentException when the inputs are invalid
+   */
+  private IEvent toEvent(EventSpec spec) throws IllegalArgumentException {
+    switch (spec.getKind()) {
+      case SINGLE:
+        validateDateTtime(spec.getStart());
+        validateDateTtime(spec.getEnd());
+        validateDates(spec.getStart(), spec.getEnd());
+        return new SingleEvent(spec.getSubject(), spec.getStart(), spec.getEnd());
+      case SERIES_TIMES:
+        if (spec.getTimesRepeated() <= 0) {
+          throw new IllegalArgumentException("Invalid times to repeat");
+        }
+        validateDateTtime(spec.getStart());
+        validateDateTtime(spec.getEnd());
+        validateWeekdays(spec.getWeekdays());
+        validateDates(spec.getStart(), spec.getEnd());
+        return new SeriesEvent(spec.getSubject(), spec.getStart(), spec.getEnd(),
+                spec.getWeekdays(), spec.getTimesRepeated());
+      case SERIES_UNTIL:
+        validateDateTtime(spec.getStart());
+        validateDateTtime(spec.getEnd());
+        validateWeekdays(spec.getWeekdays());
+        validateDate(spec.getStopDate());
+        validateDates(spec.getStart(), spec.getEnd());
+        return new SeriesEvent(spec.getSubject(), spec.getStart(), spec.getEnd(),
+                spec.getWeekdays(), spec.getStopDate());
+      case ALL_DAY:
+        validateDate(spec.getStart());
+        return new SingleEvent(spec.getSubject(), spec.getStart());
+      case ALL_DAY_SERIES_TIMES:
+        if (spec.getTimesRepeated() <= 0) {
+          throw new IllegalArgumentException("Invalid times to repeat");
+        }
+        validateDate(spec.getStart());
+        validateWeekdays(spec.getWeekdays());
+        return new SeriesEvent(spec.getSubject(), spec.getStart(), spec.getWeekdays(),
+                spec.getTimesRepeated());
+      case ALL_DAY_SERIES_UNTIL:
+        validateDate(spec.getStart());
+        validateWeekdays(spec.getWeekdays());
+        validateDate(spec.getStopDate());
+        return new SeriesEvent(spec.getSubject(), spec.getStart(), spec.getWeekdays(),
+                spec.getStopDate());
+      default:
+        throw new IllegalArgumentException("Invalid event spec");
+    }
+  }
+
+  /**
+   * Swaps the given event for its edited copy, and for the event the edit split off from it if
+   * there is one. A series left with no occurrences is dropped.
+   *
+   * @param event   the event as it was
+   * @param changed the edited copy of it
+   * @param edited  what the edit returned: the copy itself or an event split off from it
+   */
+  private void reindex(IEvent event, IEvent changed, IEvent edited) {
+    this.unindex(event);
+    if (!changed.isSeries() || ((SeriesEvent) changed).hasOccurrences()) {
+      this.index(changed);
+    }
+    if (edited != changed) {
+      this.index(edited);
+    }
+    this.publish();
   }
 
   @Override
@@ -247,10 +435,9 @@ public class Calendar implements ICalendar {
     validateProperty(prop);
     validateDates(startDateTtime, endDateTtime);
     IEvent event = findEvent(eventSubject, startDateTtime, endDateTtime);
-    IEvent edited = event.editEventProperty(prop, startDateTtime, newPropvalue);
-    if (!event.equals(edited)) {
-      this.events.add(edited);
-    }
+    IEvent changed = event.duplicate();
+    IEvent edited = changed.editEventProperty(prop, startDateTtime, newPropvalue);
+    this.reindex(event, changed, edited);
   }
 
   @Override
@@ -259,10 +446,9 @@ public class Calendar implements ICalendar {
     validateDateTtime(dateTtime);
     validateProperty(prop);
     IEvent event = findEvent(eventSubject, dateTtime, "");
-    IEvent edited = event.editEventsProperty(prop, dateTtime, newPropvalue);
-    if (!event.equals(edited)) {
-      this.events.add(edited);
-    }
+    IEvent changed = event.duplicate();
+    IEvent edited = changed.editEventsProperty(prop, dateTtime, newPropvalue);
+    this.reindex(event, changed, edited);
   }
 
   @Override
@@ -271,127 +457,271 @@ public class Calendar implements ICalendar {
     validateDateTtime(dateTtime);
     validateProperty(prop);
     IEvent event = findEvent(eventSubject, dateTtime, "");
-    IEvent edited = event.editSeriesProperty(prop, newPropvalue);
-    if (!event.equals(edited)) {
-      this.events.add(edited);
-    }
+    IEvent changed = event.duplicate();
+    IEvent edited = changed.editSeriesProperty(prop, newPropvalue);
+    this.reindex(event, changed, edited);
   }
 
   @Override
   public ArrayList<IEvent> getEvents(String date) throws IllegalArgumentException {
     validateDate(date);
-    ArrayList<IEvent> events = new ArrayList<>();
     IDate day = new Date(date);
-    for (IEvent event : this.events) {
+    ArrayList<IEvent> events = this.dayCache.get(day.toEpochDay());
+    if (events != null) {
+      return events;
+    }
+    long generation = this.dayCache.generation();
+    long from = day.toEpochDay() * 1440L;
+    ArrayList<IEvent> overlapping = new ArrayList<>();
+    this.store.overlapping(from, from + 1439, overlapping::add);
+    events = new ArrayList<>();
+    for (IEvent event : overlapping) {
       IEvent temp = event.sameDay(day);
       if (temp != null) {
         events.add(temp);
       }
     }
+    this.dayCache.put(day.toEpochDay(), events, generation);
     return events;
   }
 
+  @Override
+  public long getDayCacheHits() {
+    return this.dayCache.getHits();
+  }
+
+  @Override
+  public long getDayCacheMisses() {
+    return this.dayCache.getMisses();
+  }
+
   @Override
   public ArrayList<IEvent> getEvents(String startDateTtime, String endDateTtime)
           throws IllegalArgumentException {
     validateDateTtime(startDateTtime);
     validateDateTtime(endDateTtime);
     validateDates(startDateTtime, endDateTtime);
-    String[] startDateTime = startDateTtime.split("T");
-    IDate start = new Date(startDateTime[0]);
-    int startTime = Integer.parseInt(startDateTime[1].replace(":", ""));
-    String[] endDateTime = endDateTtime.split("T");
-    IDate end = new Date(endDateTime[0]);
-    int endTime = Integer.parseInt(endDateTime[1].replace(":", ""));
-
-    IEvent temp;
-    IDate tracker = new Date(startDateTime[0]);
+    return occurrences(this.store.version(), toInstant(startDateTtime), toInstant(endDateTtime));
+  }
+
+  /**
+   * Returns every occurrence in the given version overlapping the window [from, to] ordered by
+   * start. Occurrences starting at the same minute keep the order of the events they come from.
+   *
+   * @param version the events to look through
+   * @param from    first minute of the window
+   * @param to      last minute of the window
+   * @return list of occurrences
+   */
+  private static ArrayList<IEvent> occurrences(IEventView version, long from, long to) {
+    ArrayList<IEvent> overlapping = new ArrayList<>();
+    version.overlapping(from, to, overlapping::add);
     ArrayList<IEvent> events = new ArrayList<>();
-    while (tracker.compare(end) <= 0) {
-      for (IEvent event : this.events) {
-        temp = event.sameDay(tracker);
-        if (temp != null) {
-          if (tracker.compare(start) == 0) {
-            int tempStartTime = Integer.parseInt(temp.getStartTime().replace(":", ""));
-            int tempEndTime = Integer.parseInt(temp.getEndTime().replace(":", ""));
-            if (tempStartTime >= startTime || tempEndTime >= startTime) {
-              events.add(temp);
-            }
-          } else if (tracker.compare(end) == 0) {
-            int tempStartTime = Integer.parseInt(temp.getStartTime().replace(":", ""));
-            int tempEndTime = Integer.parseInt(temp.getEndTime().replace(":", ""));
-            if (tempStartTime <= endTime || tempEndTime <= endTime) {
-              events.add(temp);
-            }
-          } else {
-            events.add(temp);
-          }
-        }
-      }
-      tracker = tracker.getNextDate(1);
+    for (IEvent event : overlapping) {
+      event.collectOccurrences(from, to, events);
     }
+    // stable, so occurrences starting together keep the order of their events
+    events.sort(Comparator.comparingLong(IEvent::getStartInstant));
     return events;
   }
 
-  @Override
-  public boolean showStatus(String dateTtime) throws IllegalArgumentException {
-    validateDateTtime(dateTtime);
-    for (IEvent event : this.events) {
-      if (event.isBusy(dateTtime)) {
-        return true;
+  /**
+   * Returns the occurrences starting in a window beginning at from, ordered by start. The window
+   * is widened until it holds at least the given number of occurrences or reaches past the last
+   * event, so the result is always a complete prefix of the occurrences starting at or after
+   * from.
+   *
+   * @param version the events to look through
+   * @param from    first minute an occurrence may start at
+   * @param needed  number of occurrences wanted
+   * @return list of occurrences
+   */
+  private static ArrayList<IEvent> occurrencesFrom(IEventView version, long from, int needed) {
+    long last = version.maxEnd();
+    for (long window = PAGE_WINDOW; ; window *= 2) {
+      long to = from + window;
+      ArrayList<IEvent> found = occurrences(version, from, to);
+      found.removeIf(event -> event.getStartInstant() < from);
+      if (found.size() >= needed || to >= last) {
+        return found;
       }
     }
-    return false;
+  }
+
+  /**
+   * Returns the occurrences starting in a window ending at to, ordered by start, keeping at most
+   * skip of those that start at to itself. The window is widened until it holds more than the
+   * given number of occurrences or reaches back before the first event, so the result is always
+   * a complete suffix of the occurrences before the position.
+   *
+   * @param version the events to look through
+   * @param to      last minute an occurrence may start at
+   * @param skip    number of occurrences starting at to to keep
+   * @param needed  number of occurrences wanted
+   * @return list of occurrences
+   */
+  private static ArrayList<IEvent> occurrencesBefore(IEventView version, long to, int skip,
+                                                     int needed) {
+    long first = version.minStart();
+    for (long window = PAGE_WINDOW; ; window *= 2) {
+      long from = to - window;
+      ArrayList<IEvent> found = occurrences(version, from, to);
+      found.removeIf(event -> event.getStartInstant() < from);
+      int atTo = found.size();
+      while (atTo > 0 && found.get(atTo - 1).getStartInstant() == to) {
+        atTo--;
+      }
+      found.subList(Math.min(found.size(), atTo + skip), found.size()).clear();
+      if (found.size() > needed || from <= first) {
+        return found;
+      }
+    }
+  }
+
+  /**
+   * Returns the cursor of the occurrence at the given index of a list ordered by start, which
+   * must hold every occurrence starting at the same minute before it.
+   *
+   * @param found ordered occurrences
+   * @param index position in found
+   * @return EventCursor
+   */
+  private static EventCursor cursorOf(List<IEvent> found, int index) {
+    long instant = found.get(index).getStartInstant();
+    int skip = 0;
+    while (index - skip > 0 && found.get(index - skip - 1).getStartInstant() == instant) {
+      skip++;
+    }
+    return new EventCursor(instant, skip);
   }
 
   @Override
-  public List<IEvent> getCalendarEvents() {
-    return this.events;
+  public EventPage getPage(String startDateTtime, int pageSize)
+          throws IllegalArgumentException {
+    validateDateTtime(startDateTtime);
+    return this.getPageAfter(new EventCursor(toInstant(startDateTtime), 0), pageSize);
   }
 
   @Override
-  public String getEventsToString(String startDateTtime, String endDateTtime) {
-    List<IEvent> list = this.getEvents(startDateTtime, endDateTtime);
-    String result = "";
-    for (int i = 0; i < list.size(); i++) {
-      if (i == 0) {
-        result += list.get(i).toString();
-      } else {
-        result += " " + list.get(i).toString();
-      }
+  public EventPage getPageAfter(EventCursor cursor, int pageSize)
+          throws IllegalArgumentException {
+    validatePageSize(pageSize);
+    IEventView version = this.store.version(); // one version for the whole page
+    long from = cursor.getInstant();
+    ArrayList<IEvent> found = occurrencesFrom(version, from, cursor.getSkip() + pageSize + 1);
+    int first = 0;
+    while (first < cursor.getSkip() && first < found.size()
+            && found.get(first).getStartInstant() == from) {
+      first++;
     }
-    return result;
+    int stop = Math.min(found.size(), first + pageSize);
+    EventCursor start = new EventCursor(from, first);
+    EventCursor end = stop == first ? start : cursorAfter(found, stop - 1);
+    return new EventPage(new ArrayList<>(found.subList(first, stop)), start, end,
+            first > 0 || version.minStart() < from, found.size() > stop);
+  }
+
+  @Override
+  public EventPage getPageBefore(EventCursor cursor, int pageSize)
+          throws IllegalArgumentException {
+    validatePageSize(pageSize);
+    IEventView version = this.store.version(); // one version for the whole page
+    long to = cursor.getInstant();
+    ArrayList<IEvent> found = occurrencesBefore(version, to, cursor.getSkip(), pageSize);
+    int stop = found.size();
+    int begin = Math.max(0, stop - pageSize);
+    EventCursor end = stop == 0 ? new EventCursor(to, 0) : cursorAfter(found, stop - 1);
+    if (end.getInstant() != to) {
+      end = new EventCursor(to, 0);
+    }
+    EventCursor start = begin == stop ? end : cursorOf(found, begin);
+    boolean hasNext = occurrencesFrom(version, to, end.getSkip() + 1).size() > end.getSkip();
+    return new EventPage(new ArrayList<>(found.subList(begin, stop)), start, end, begin > 0,
+            hasNext);
   }
 
   /**
-   * Sorts this calendar's events chronologically.
+   * Returns the cursor just past the occurrence at the given index of a list ordered by start.
+   *
+   * @param found ordered occurrences
+   * @param index position in found
+   * @return EventCursor
    */
-  public void sortEvents() {
-    for (int i = 1; i < this.events.size(); i++) {
-      IEvent event = events.get(i);
-      int j = i - 1;
+  private static EventCursor cursorAfter(List<IEvent> found, int index) {
+    EventCursor at = cursorOf(found, index);
+    return new EventCursor(at.getInstant(), at.getSkip() + 1);
+  }
 
-      while (j >= 0 && events.get(j).getDate().compare(event.getDate()) > 0) {
-        events.set(j + 1, events.get(j));
-        j--;
-      }
-      events.set(j + 1, event);
+  /**
+   * Throws an error if the page size is not positive.
+   *
+   * @param pageSize int
+   * @throws IllegalArgumentException when the page size is not positive
+   */
+  private void validatePageSize(int pageSize) throws IllegalArgumentException {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("Invalid page size");
     }
   }
 
   @Override
-  public ArrayList<IEvent> getFirstTen(String startDateString) {
-    ArrayList<IEvent> result = new ArrayList<IEvent>();
-
-    validateDate(startDateString);
-    IDate startDate = new Date(startDateString);
-    for (int i = 0; i < this.events.size(); i++) {
-      if (result.size() == 10) {
-        break;
+  public boolean showStatus(String dateTtime) throws IllegalArgumentException {
+    validateDateTtime(dateTtime);
+    return this.busy.isBusy(toInstant(dateTtime));
+  }
+
+  @Override
+  public long busyMinutes(String startDateTtime, String endDateTtime)
+          throws IllegalArgumentException {
+    validateDateTtime(startDateTtime);
+    validateDateTtime(endDateTtime);
+    validateDates(startDateTtime, endDateTtime);
+    return this.busy.busyMinutes(toInstant(startDateTtime), toInstant(endDateTtime));
+  }
+
+  @Override
+  public int getBusyDaysCached() {
+    return this.busy.size();
+  }
+
+  @Override
+  public long getEarliestStart() {
+    return this.store.version().minStart();
+  }
+
+  @Override
+  public long getLatestEnd() {
+    return this.store.version().maxEnd();
+  }
+
+  @Override
+  public List<IEvent> getCalendarEvents() {
+    return this.store.all();
+  }
+
+  @Override
+  public void forEachEvent(Consumer<? super IEvent> action) {
+    this.store.overlapping(Long.MIN_VALUE, Long.MAX_VALUE, action);
+  }
+
+  @Override
+  public void forEachEvent(String startDateTtime, String endDateTtime,
+                           Consumer<? super IEvent> action) throws IllegalArgumentException {
+    validateDateTtime(startDateTtime);
+    validateDateTtime(endDateTtime);
+    validateDates(startDateTtime, endDateTtime);
+    this.store.overlapping(toInstant(startDateTtime), toInstant(endDateTtime), action);
+  }
+
+  @Override
+  public String getEventsToString(String startDateTtime, String endDateTtime) {
+    List<IEvent> list = this.getEvents(startDateTtime, endDateTtime);
+    String result = "";
+    for (int i = 0; i < list.size(); i++) {
+      if (i == 0) {
+        result += list.get(i).toString();
       } else {
-        if (this.events.get(i).getDate().compare(startDate) >= 0) {
-          result.add(events.get(i));
-        }
+        result += " " + list.get(i).toString();
       }
     }
     return result;
@@ -1,9 +1,16 @@
 package calendar;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 
 /**
@@ -11,11 +18,23 @@ import java.util.regex.Pattern;
  * calendar suite is able to create new calendars, edit existing calendars, and copy events
  * between calendars. Calendars are stored in a hashmap using their name and the calendar created
  * under that name.
+ *
+ * <p>A suite may be shared between threads. The calendars are kept in concurrent maps, and
+ * calls that add, rename or change calendars hold the map of calendars. Each calendar has its
+ * own lock for changes; threads reading a calendar kept in memory take no lock and read the
+ * version of its events published when they started. The calendar in
+ * use belongs to a session: each thread or connection should work through its own session,
+ * which shares the calendars but not the calendar in use.
  */
 public class CalendarSuite implements ICalendarSuite {
 
-  private final Map<String, ICalendar> calendars;
+  private final Map<String, LockedCalendar> calendars;
   private final Map<String, TimeZone> timezones;
+  // directories of the calendars whose events are kept on disk, by calendar name
+  private final Map<String, String> stores;
+  private final TextDictionary dictionary; // texts shared by the events of every calendar
+  // false if calendars kept on disk are only named, with their stores left closed
+  private final boolean openStores;
   private String calendarInUse;
 
   /**
@@ -23,12 +42,82 @@ public class CalendarSuite implements ICalendarSuite {
    * calendarInUse to an empty.
    */
   public CalendarSuite() {
-    calendars = new HashMap<>();
-    timezones = new HashMap<>();
+    this(true);
+  }
+
+  /**
+   * Creates a CalendarSuite with only the Default calendar. A suite that does not open stores
+   * keeps the directory of each calendar created on disk but gives it no events, for a suite that
+   * is only folded into a snapshot while another suite has the stores open.
+   *
+   * @param openStores whether calendars kept on disk open their stores
+   */
+  CalendarSuite(boolean openStores) {
+    calendars = new ConcurrentHashMap<>();
+    timezones = new ConcurrentHashMap<>();
+    stores = new ConcurrentHashMap<>();
+    dictionary = new TextDictionary();
+    this.openStores = openStores;
     this.createCalendar("Default", "America/New_York");
     calendarInUse = "Default";
   }
 
+  /**
+   * Creates a CalendarSuite holding the given calendars. Used when a suite is loaded from a
+   * snapshot.
+   *
+   * @param calendars     calendars by name
+   * @param timezones     time zones by calendar name
+   * @param stores        store directories by calendar name, for calendars kept on disk
+   * @param calendarInUse name of the calendar in use, or an empty string
+   * @param dictionary    the dictionary the calendars' events share their texts through
+   * @param openStores    whether calendars kept on disk open their stores
+   */
+  CalendarSuite(Map<String, ICalendar> calendars, Map<String, TimeZone> timezones,
+                Map<String, String> stores, String calendarInUse, TextDictionary dictionary,
+                boolean openStores) {
+    this.calendars = new ConcurrentHashMap<>();
+    for (Map.Entry<String, ICalendar> entry : calendars.entrySet()) {
+      this.calendars.put(entry.getKey(), new LockedCalendar(entry.getValue(),
+              stores.containsKey(entry.getKey())));
+    }
+    this.timezones = new ConcurrentHashMap<>(timezones);
+    this.stores = new ConcurrentHashMap<>(stores);
+    this.dictionary = dictionary;
+    this.openStores = openStores;
+    this.calendarInUse = calendarInUse;
+  }
+
+  /**
+   * Creates a session of the given suite, sharing its calendars and starting with the same
+   * calendar in use.
+   *
+   * @param shared the suite whose calendars are shared
+   */
+  private CalendarSuite(CalendarSuite shared) {
+    this.calendars = shared.calendars;
+    this.timezones = shared.timezones;
+    this.stores = shared.stores;
+    this.dictionary = shared.dictionary;
+    this.openStores = shared.openStores;
+    this.calendarInUse = shared.calendarInUse;
+  }
+
+  /**
+   * Loads the suite saved to the given snapshot file.
+   *
+   * @param filePath a file written by saveSnapshot
+   * @return CalendarSuite
+   * @throws IllegalArgumentException if the file cannot be read or is not a snapshot
+   */
+  public static CalendarSuite loadSnapshot(String filePath) throws IllegalArgumentException {
+    try {
+      return SuiteSnapshot.read(Paths.get(filePath));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not read snapshot: " + filePath);
+    }
+  }
+
   /**
    * Validates that the given timezone is formatted correctly. Throws an error if it's invalid.
    *
@@ -74,7 +163,7 @@ public class CalendarSuite implements ICalendarSuite {
    * @throws IllegalArgumentException if not "YYYY-M(M)-D(D)"
    */
   private void validateDate(String date) throws IllegalArgumentException {
-    if (!Pattern.matches("^\\d\\d\\d\\d-\\d\\d?-\\d\\d?$", date)) {
+    if (!DateTimeCodec.isDate(date)) {
       throw new IllegalArgumentException("Invalid date");
     }
   }
@@ -86,34 +175,89 @@ public class CalendarSuite implements ICalendarSuite {
    * @throws IllegalArgumentException if not "YYYY-M(M)-D(D)Th(h):m(m)"
    */
   private void validateDateTtime(String dateTtime) throws IllegalArgumentException {
-    if (!Pattern.matches("^\\d\\d\\d\\d-\\d\\d?-\\d\\d?T\\d\\d?:\\d\\d?$", dateTtime)
-            || dateTtime.isEmpty()) {
+    if (!DateTimeCodec.isDateTime(dateTtime)) {
       throw new IllegalArgumentException("Invalid dateTtime");
     }
   }
 
   @Override
   public void createCalendar(String name, String timezone) throws IllegalArgumentException {
+    this.createCalendar(name, timezone, new Calendar(new HeapEventStore(), this.dictionary));
+  }
+
+  @Override
+  public void createCalendar(String name, String timezone, String directory)
+          throws IllegalArgumentException {
     validateTimezone(timezone);
-    if (calendars.containsKey(name)) {
-      throw new IllegalArgumentException("Calendar with name " + name + " already exists");
+    synchronized (this.calendars) {
+      if (calendars.containsKey(name)) {
+        throw new IllegalArgumentException("Calendar with name " + name + " already exists");
+      }
+      IEventStore store = new HeapEventStore();
+      if (this.openStores) {
+        try {
+          store = MappedEventStore.open(Paths.get(directory));
+        } catch (IOException e) {
+          throw new IllegalArgumentException("Could not open calendar store: " + directory);
+        }
+      }
+      this.stores.put(name, directory);
+      this.createCalendar(name, timezone, new Calendar(store, this.dictionary));
     }
-    this.calendars.put(name, new Calendar());
+  }
+
+  /**
+   * Adds the given calendar under the given name and time zone.
+   *
+   * @param name     String
+   * @param timezone String - "place/place"
+   * @param calendar the new calendar
+   * @throws IllegalArgumentException if the name is taken or the time zone is invalid
+   */
+  private void createCalendar(String name, String timezone, ICalendar calendar)
+          throws IllegalArgumentException {
+    validateTimezone(timezone);
     TimeZone tz;
     try {
       tz = TimeZone.getTimeZone(timezone);
     } catch (IllegalArgumentException e) {
       throw new IllegalArgumentException("Invalid time zone");
     }
-    this.timezones.put(name, tz);
+    synchronized (this.calendars) {
+      if (calendars.containsKey(name)) {
+        throw new IllegalArgumentException("Calendar with name " + name + " already exists");
+      }
+      // the time zone goes in first, so a calendar is never seen without one
+      this.timezones.put(name, tz);
+      // calendars kept on disk change their events in place, so their readers must lock
+      this.calendars.put(name, new LockedCalendar(calendar, this.stores.containsKey(name)));
+    }
+  }
+
+  @Override
+  public CalendarSuite newSession() {
+    return new CalendarSuite(this);
   }
 
   @Override
   public ICalendar getCalendar() throws IllegalArgumentException {
-    if (!this.calendarInUse.isEmpty()) {
-      return this.calendars.get(this.calendarInUse);
+    return this.inUse();
+  }
+
+  /**
+   * Returns the calendar in use. Throws an error if there is none, or if it was renamed by
+   * another session since this one started using it.
+   *
+   * @return LockedCalendar
+   * @throws IllegalArgumentException if no calendar is in use or it is no longer there
+   */
+  private LockedCalendar inUse() throws IllegalArgumentException {
+    validateInUse();
+    LockedCalendar calendar = this.calendars.get(this.calendarInUse);
+    if (calendar == null) {
+      throw new IllegalArgumentException("No such calendar: " + this.calendarInUse);
     }
-    throw new IllegalArgumentException("No calendar in use");
+    return calendar;
   }
 
   @Override
@@ -127,32 +271,185 @@ public class CalendarSuite implements ICalendarSuite {
   @Override
   public ArrayList<String> getCalendarNames() {
     ArrayList<String> calendarNames = new ArrayList<>();
-    for (Map.Entry<String, ICalendar> entry : this.calendars.entrySet()) {
+    for (Map.Entry<String, LockedCalendar> entry : this.calendars.entrySet()) {
       calendarNames.add(entry.getKey());
     }
     return calendarNames;
   }
 
+  /**
+   * Returns the calendar with the given name, or null if there is none.
+   *
+   * @param name String
+   * @return ICalendar or null
+   */
+  ICalendar getCalendar(String name) {
+    return this.calendars.get(name);
+  }
+
+  /**
+   * Returns the time zone of the calendar with the given name, or null if there is none.
+   *
+   * @param name String
+   * @return TimeZone or null
+   */
+  TimeZone getTimezone(String name) {
+    return this.timezones.get(name);
+  }
+
+  /**
+   * Returns the directory the events of the calendar with the given name are kept in, or null if
+   * they are kept in memory.
+   *
+   * @param name String
+   * @return String or null
+   */
+  String getStore(String name) {
+    return this.stores.get(name);
+  }
+
+  /**
+   * Returns the name of the calendar in use, or an empty string if none is.
+   *
+   * @return String
+   */
+  String calendarInUse() {
+    return this.calendarInUse;
+  }
+
   @Override
-  public void editCalendar(String name, String prop, String newPropValue)
+  public void saveSnapshot(String filePath) throws IllegalArgumentException {
+    try {
+      SuiteSnapshot.write(this, Paths.get(filePath));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not write snapshot: " + filePath);
+    }
+  }
+
+  @Override
+  public void exportCalendar(String name, String filePath) throws IllegalArgumentException {
+    validateCalendarName(name);
+    ICalendar calendar = this.calendars.get(name);
+    this.export(name, filePath, Long.MIN_VALUE, Long.MAX_VALUE, calendar::forEachEvent);
+  }
+
+  @Override
+  public void exportCalendar(String name, String startDateTtime, String endDateTtime,
+                             String filePath) throws IllegalArgumentException {
+    validateCalendarName(name);
+    validateDateTtime(startDateTtime);
+    validateDateTtime(endDateTtime);
+    long from = DateTimeCodec.parseInstant(startDateTtime);
+    long to = DateTimeCodec.parseInstant(endDateTtime);
+    if (from > to) {
+      throw new IllegalArgumentException("the from date can not come after the to date");
+    }
+    ICalendar calendar = this.calendars.get(name);
+    this.export(name, filePath, from, to,
+            action -> calendar.forEachEvent(startDateTtime, endDateTtime, action));
+  }
+
+  @Override
+  public ImportReport importCalendar(String name, String filePath)
+          throws IllegalArgumentException {
+    return this.importCalendar(name, filePath, calendar -> calendar);
+  }
+
+  /**
+   * Adds the events of an iCalendar file to a view of the calendar with the given name. The
+   * events are read first and added all at once.
+   *
+   * @param name     String
+   * @param filePath an iCalendar file
+   * @param view     returns the calendar the events are added through
+   * @return what was imported
+   * @throws IllegalArgumentException if there is no such calendar or the file cannot be read
+   */
+  ImportReport importCalendar(String name, String filePath, UnaryOperator<ICalendar> view)
           throws IllegalArgumentException {
     validateCalendarName(name);
-    if (!prop.equals("name") && !prop.equals("timezone")) {
-      throw new IllegalArgumentException("Invalid property");
-    }
-    if (prop.equals("name")) {
-      this.calendars.put(newPropValue, this.calendars.remove(name));
-      this.timezones.put(newPropValue, this.timezones.remove(name));
-    } else {
-      validateTimezone(newPropValue);
-      this.timezones.remove(name);
-      TimeZone tz;
-      try {
-        tz = TimeZone.getTimeZone(newPropValue);
-      } catch (IllegalArgumentException e) {
-        throw new IllegalArgumentException("Invalid time zone");
+    long started = System.nanoTime();
+    IcsReader reader = new IcsReader(this.timezones.get(name), this.dictionary);
+    List<IEvent> events;
+    try {
+      events = reader.read(Paths.get(filePath));
+    } catch (IOException | UncheckedIOException e) {
+      throw new IllegalArgumentException("Could not read calendar: " + filePath);
+    }
+    int added = view.apply(this.calendars.get(name)).addEvents(events).size();
+    return new ImportReport(added, reader.getSkipped() + events.size() - added,
+            System.nanoTime() - started);
+  }
+
+  /**
+   * Streams the events the given walk passes on into an iCalendar file, keeping what falls in
+   * the window [from, to].
+   *
+   * @param name     the calendar's name
+   * @param filePath where the file goes
+   * @param from     first minute of the window
+   * @param to       last minute of the window
+   * @param walk     passes each event to the action it is given
+   * @throws IllegalArgumentException if the file cannot be written
+   */
+  private void export(String name, String filePath, long from, long to,
+                      Consumer<Consumer<IEvent>> walk) throws IllegalArgumentException {
+    // the time zone is written for the part of the window the calendar's events cover
+    ICalendar calendar = this.calendars.get(name);
+    long first = Math.max(from, calendar.getEarliestStart());
+    long last = Math.min(to, calendar.getLatestEnd());
+    try (IcsWriter writer = new IcsWriter(Paths.get(filePath), name, this.timezones.get(name),
+            first, last)) {
+      walk.accept(event -> {
+        try {
+          writer.write(event, from, to);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (IOException | UncheckedIOException e) {
+      throw new IllegalArgumentException("Could not write calendar: " + filePath);
+    }
+  }
+
+  @Override
+  public void editCalendar(String name, String prop, String newPropValue)
+          throws IllegalArgumentException {
+    synchronized (this.calendars) {
+      validateCalendarName(name);
+      if (!prop.equals("name") && !prop.equals("timezone")) {
+        throw new IllegalArgumentException("Invalid property");
+      }
+      if (prop.equals("name")) {
+        if (newPropValue.isEmpty()) {
+          throw new IllegalArgumentException("Calendar name cannot be null or empty");
+        }
+        if (this.calendars.containsKey(newPropValue)) {
+          throw new IllegalArgumentException("Calendar with name " + newPropValue
+                  + " already exists");
+        }
+        // the calendar is briefly under both names rather than under neither
+        this.timezones.put(newPropValue, this.timezones.get(name));
+        if (this.stores.containsKey(name)) {
+          this.stores.put(newPropValue, this.stores.get(name));
+        }
+        this.calendars.putIfAbsent(newPropValue, this.calendars.get(name));
+        this.calendars.remove(name);
+        this.timezones.remove(name);
+        this.stores.remove(name);
+        if (this.calendarInUse.equals(name)) {
+          this.calendarInUse = newPropValue;
+        }
+      } else {
+        validateTimezone(newPropValue);
+        TimeZone tz;
+        try {
+          tz = TimeZone.getTimeZone(newPropValue);
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Invalid time zone");
+        }
+        this.timezones.put(name, tz);
       }
-      this.timezones.put(name, tz);
     }
   }
 
@@ -165,75 +462,162 @@ public class CalendarSuite implements ICalendarSuite {
   @Override
   public void copySingleEvent(String eventName, String startDateTtime, String targetCalendarName,
                               String newDateTtime) throws IllegalArgumentException {
+    this.copySingleEvent(eventName, startDateTtime, targetCalendarName, newDateTtime,
+            calendar -> calendar);
+  }
+
+  /**
+   * Copies an event of the calendar in use into a view of another calendar.
+   *
+   * @param eventName          subject of the event
+   * @param startDateTtime     when the event starts
+   * @param targetCalendarName the calendar to copy it to
+   * @param newDateTtime       "YYYY-MM-DDThh:mm"
+   * @param view               returns the calendar the copy is added through
+   * @throws IllegalArgumentException if there is no such event or calendar
+   */
+  void copySingleEvent(String eventName, String startDateTtime, String targetCalendarName,
+                       String newDateTtime, UnaryOperator<ICalendar> view)
+          throws IllegalArgumentException {
     validateInUse();
     validateCalendarName(targetCalendarName);
     validateDateTtime(startDateTtime);
     validateDateTtime(newDateTtime);
 
-    ArrayList<IEvent> events = this.calendars.get(calendarInUse).getEvents(startDateTtime,
-            startDateTtime);
-    int timeDifference =
-            (this.timezones.get(targetCalendarName).getRawOffset()
-                    - this.timezones.get(this.calendarInUse).getRawOffset()) / 3600000;
+    LockedCalendar source = this.inUse();
+    LockedCalendar target = this.calendars.get(targetCalendarName);
+    ZoneId sourceZone = this.timezones.get(calendarInUse).toZoneId();
+    ZoneId targetZone = this.timezones.get(targetCalendarName).toZoneId();
 
-    IEvent toCopy = null;
-    for (IEvent event : events) {
-      if (event.getSubject().equals(eventName)) {
-        toCopy = event;
+    LockedCalendar.copying(source, target, () -> {
+      IEvent toCopy = null;
+      for (IEvent event : source.getEvents(startDateTtime, startDateTtime)) {
+        if (event.getSubject().equals(eventName)) {
+          toCopy = event;
+        }
       }
-    }
-    if (toCopy == null) {
-      throw new IllegalArgumentException("No such event: " + eventName);
-    }
-    ICalendar target = this.calendars.get(targetCalendarName);
-    target.addEvent(toCopy.deepCopy(timeDifference));
+      if (toCopy == null) {
+        throw new IllegalArgumentException("No such event: " + eventName);
+      }
+      view.apply(target).addEvent(copyFor(toCopy, ZoneShift.between(sourceZone, targetZone,
+              toCopy.getStartInstant(), toCopy.getEndInstant())));
+    });
   }
 
   @Override
   public void copyDayEvents(String date, String targetCalendarName, String targetDate)
           throws IllegalArgumentException {
+    this.copyDayEvents(date, targetCalendarName, targetDate, calendar -> calendar);
+  }
+
+  /**
+   * Copies the events of a day of the calendar in use into a view of another calendar.
+   *
+   * @param date               "YYYY-MM-DD"
+   * @param targetCalendarName the calendar to copy them to
+   * @param targetDate         "YYYY-MM-DD"
+   * @param view               returns the calendar the copies are added through
+   * @throws IllegalArgumentException if there is no such calendar or a date is invalid
+   */
+  void copyDayEvents(String date, String targetCalendarName, String targetDate,
+                     UnaryOperator<ICalendar> view) throws IllegalArgumentException {
     validateInUse();
     validateCalendarName(targetCalendarName);
     validateDate(date);
     validateDate(targetDate);
 
-    ICalendar source = this.calendars.get(calendarInUse);
-    TimeZone sourceTZ = this.timezones.get(calendarInUse);
-    ICalendar target = this.calendars.get(targetCalendarName);
-    TimeZone targetTZ = this.timezones.get(targetCalendarName);
-
-    ArrayList<IEvent> events = source.getEvents(date);
-
-    // postive moves timezone forward
-    int timeDifference = (targetTZ.getRawOffset() - sourceTZ.getRawOffset()) / 3600000;
-
-    for (IEvent event : events) {
-      target.addEvent(event.deepCopy(timeDifference));
-    }
+    LockedCalendar source = this.inUse();
+    ZoneId sourceZone = this.timezones.get(calendarInUse).toZoneId();
+    LockedCalendar target = this.calendars.get(targetCalendarName);
+    ZoneId targetZone = this.timezones.get(targetCalendarName).toZoneId();
 
+    LockedCalendar.copying(source, target, () -> {
+      view.apply(target).addEvents(copiesFor(source.getEvents(date), sourceZone, targetZone));
+    });
   }
 
   @Override
   public void copyEventsRange(String startDate, String endDate, String targetCalendarName,
                               String targetStartDate) throws IllegalArgumentException {
+    this.copyEventsRange(startDate, endDate, targetCalendarName, targetStartDate,
+            calendar -> calendar);
+  }
+
+  /**
+   * Copies the events of a range of days of the calendar in use into a view of another
+   * calendar.
+   *
+   * @param startDate          "YYYY-MM-DD"
+   * @param endDate            "YYYY-MM-DD"
+   * @param targetCalendarName the calendar to copy them to
+   * @param targetStartDate    "YYYY-MM-DD"
+   * @param view               returns the calendar the copies are added through
+   * @throws IllegalArgumentException if there is no such calendar or a date is invalid
+   */
+  void copyEventsRange(String startDate, String endDate, String targetCalendarName,
+                       String targetStartDate, UnaryOperator<ICalendar> view)
+          throws IllegalArgumentException {
     validateInUse();
     validateCalendarName(targetCalendarName);
     validateDate(startDate);
     validateDate(endDate);
     validateDate(targetStartDate);
 
-    ICalendar source = this.calendars.get(calendarInUse);
-    TimeZone sourceTZ = this.timezones.get(calendarInUse);
-    ICalendar target = this.calendars.get(targetCalendarName);
-    TimeZone targetTZ = this.timezones.get(targetCalendarName);
+    LockedCalendar source = this.inUse();
+    ZoneId sourceZone = this.timezones.get(calendarInUse).toZoneId();
+    LockedCalendar target = this.calendars.get(targetCalendarName);
+    ZoneId targetZone = this.timezones.get(targetCalendarName).toZoneId();
 
-    ArrayList<IEvent> events = source.getEvents(startDate + "T00:00", endDate + "T23:59");
+    LockedCalendar.copying(source, target, () -> {
+      view.apply(target).addEvents(copiesFor(source.getEvents(startDate + "T00:00",
+              endDate + "T23:59"), sourceZone, targetZone));
+    });
+  }
 
-    // postive moves timezone forward
-    int timeDifference = (targetTZ.getRawOffset() - sourceTZ.getRawOffset()) / 3600000;
+  /**
+   * Returns the given event moved to the same instants on another calendar's clocks. Events are
+   * never changed once they are in a calendar, since an edit changes a duplicate, so an event that
+   * does not move is shared by both calendars rather than copied, and a moved copy shares the
+   * properties and removed days of the event it came from. The start and end are moved apart, so
+   * an event across a clock change in either zone keeps its real length.
+   *
+   * @param event IEvent
+   * @param shift the shift between the calendars' zones over the event's times
+   * @return IEvent
+   */
+  private static IEvent copyFor(IEvent event, ZoneShift shift) {
+    long start = event.getStartInstant();
+    long end = event.getEndInstant();
+    int startShift = (int) (shift.move(start) - start);
+    int endShift = (int) (shift.move(end) - end);
+    return startShift == 0 && endShift == 0 ? event : event.moved(startShift, endShift);
+  }
 
+  /**
+   * Returns the given events moved from one zone's clocks to another's, for another calendar, to
+   * be added to it at once. The shift between the zones is worked out once for the window the
+   * events cover.
+   *
+   * @param events events to copy
+   * @param from   the zone of the calendar they come from
+   * @param to     the zone of the calendar they are copied to
+   * @return list of copies
+   */
+  private static List<IEvent> copiesFor(List<IEvent> events, ZoneId from, ZoneId to) {
+    List<IEvent> copies = new ArrayList<>(events.size());
+    if (events.isEmpty()) {
+      return copies;
+    }
+    long first = Long.MAX_VALUE;
+    long last = Long.MIN_VALUE;
+    for (IEvent event : events) {
+      first = Math.min(first, event.getStartInstant());
+      last = Math.max(last, event.getEndInstant());
+    }
+    ZoneShift shift = ZoneShift.between(from, to, first, last);
     for (IEvent event : events) {
-      target.addEvent(event.deepCopy(timeDifference));
+      copies.add(copyFor(event, shift));
     }
+    return copies;
   }
 }
@@ -1,15 +1,19 @@
 package calendar;
 
 /**
- * This class represents a Date. A Date has a year, month, day, and day of the week.
- * Its toString method returns a string of "YYYY-MM-DD".
+ * This class represents a Date. A Date is stored as the number of days since 1970-01-01, so
+ * moving between dates, comparing dates and finding the day of the week are simple arithmetic.
+ * The year, month, and day are worked out once when the date is made. Dates are immutable. Its
+ * toString method returns a string of "YYYY-MM-DD".
  */
-public class Date implements IDate {
+public final class Date implements IDate {
 
-  protected int year;
-  protected int month;
-  protected int day;
-  String dayOfWeek;
+  private static final String DAYS_OF_WEEK = "MTWRFSU";
+
+  private final int epochDay;
+  private final int year;
+  private final int month;
+  private final int day;
 
   /**
    * Constructs a new Date from the given "YYYY-MM-DD".
@@ -17,28 +21,68 @@ public class Date implements IDate {
    * @param dateString "YYYY-MM-DD"
    */
   public Date(String dateString) {
-    String[] strings = dateString.split("-");
-    this.year = Integer.parseInt(strings[0]);
-    this.month = Integer.parseInt(strings[1]);
-    this.day = Integer.parseInt(strings[2]);
-    this.dayOfWeek = findDayOfWeek();
-
-    boolean valid = verify();
-    if (!valid) {
+    this(parse(dateString));
+  }
+
+  /**
+   * Returns the number of days between 1970-01-01 and the given "YYYY-MM-DD".
+   *
+   * @param dateString "YYYY-MM-DD"
+   * @return int
+   * @throws IllegalArgumentException if the date does not exist
+   */
+  private static int parse(String dateString) throws IllegalArgumentException {
+    int epochDay = DateTimeCodec.parseEpochDay(dateString);
+    if (epochDay == DateTimeCodec.INVALID_DAY) {
       throw new IllegalArgumentException("Invalid date");
     }
+    return epochDay;
   }
 
-  private Date(int year, int month, int day) {
-    this.year = year;
-    this.month = month;
-    this.day = day;
-    this.dayOfWeek = findDayOfWeek();
+  /**
+   * Constructs the date the given number of days after 1970-01-01.
+   *
+   * @param epochDay days since 1970-01-01, negative for earlier dates
+   */
+  private Date(int epochDay) {
+    // civil-from-days: shift to eras of 400 years starting on March 1st
+    int shifted = epochDay + 719468;
+    int era = (shifted >= 0 ? shifted : shifted - 146096) / 146097;
+    int dayOfEra = shifted - era * 146097;
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int monthIndex = (5 * dayOfYear + 2) / 153; // March is 0
+    this.epochDay = epochDay;
+    this.day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+    this.month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+    this.year = yearOfEra + era * 400 + (this.month <= 2 ? 1 : 0);
+  }
 
-    boolean valid = verify();
-    if (!valid) {
-      throw new IllegalArgumentException("Invalid date");
-    }
+  /**
+   * Returns the date the given number of days after 1970-01-01.
+   *
+   * @param epochDay days since 1970-01-01, negative for earlier dates
+   * @return Date
+   */
+  static Date ofEpochDay(int epochDay) {
+    return new Date(epochDay);
+  }
+
+  /**
+   * Returns the number of days between 1970-01-01 and the given year, month, and day.
+   *
+   * @param year  int
+   * @param month 1-12
+   * @param day   1-31
+   * @return int
+   */
+  static int toEpochDay(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    int era = (y >= 0 ? y : y - 399) / 400;
+    int yearOfEra = y - era * 400;
+    int dayOfYear = (153 * ((month + 9) % 12) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
   }
 
   @Override
@@ -58,138 +102,52 @@ public class Date implements IDate {
 
   @Override
   public String getDayOfWeek() {
-    return this.dayOfWeek;
+    return String.valueOf(DAYS_OF_WEEK.charAt(this.getWeekday()));
   }
 
-  @Override
-  public int compare(IDate otherDate) {
-    if (this.year > otherDate.getYear()) {
-      return 1;
-    } else if (this.year < otherDate.getYear()) {
-      return -1;
-    } else if (this.month > otherDate.getMonth()) {
-      return 1;
-    } else if (this.month < otherDate.getMonth()) {
-      return -1;
-    } else if (this.day > otherDate.getDay()) {
-      return 1;
-    } else if (this.day < otherDate.getDay()) {
-      return -1;
-    } else {
-      return 0;
-    }
+  /**
+   * Returns the day of the week of this date as 0 for Monday through 6 for Sunday.
+   *
+   * @return 0-6
+   */
+  int getWeekday() {
+    // 1970-01-01 was a Thursday
+    return Math.floorMod(this.epochDay + 3, 7);
   }
 
   @Override
-  public Date getNextDate(int days) {
-    if (days < 0) {
-      throw new IllegalArgumentException("Invalid days");
-    }
-    int nextday = this.day;
-    int nextmonth = this.month;
-    int nextyear = this.year;
-    nextday += days;
-    while (days > 0) {
-      if (nextmonth == 2 && leap() && nextday > 29) {
-        nextday -= 29;
-        nextmonth++;
-      } else if (nextmonth == 2 && !leap() && nextday > 28) {
-        nextday -= 28;
-        nextmonth++;
-      } else if ((nextmonth == 4 || nextmonth == 6 || nextmonth == 9
-              || nextmonth == 11) && nextday > 30) {
-        nextday -= 30;
-        nextmonth++;
-      } else if (nextday > 31) {
-        nextday -= 31;
-        nextmonth++;
-      } else {
-        days = 0;
-      }
-      if (nextmonth == 13) {
-        nextyear++;
-        nextmonth = 1;
-      }
-    }
-    return new Date(nextyear, nextmonth, nextday);
+  public int toEpochDay() {
+    return this.epochDay;
   }
 
   @Override
-  public String toString() {
-    String y = Integer.toString(this.year);
-    String m = Integer.toString(this.month);
-    String d = Integer.toString(this.day);
-    while (y.length() < 4) {
-      y = "0" + y;
-    }
-    if (m.length() < 2) {
-      m = "0" + m;
-    }
-    if (d.length() < 2) {
-      d = "0" + d;
-    }
-    return y + "-" + m + "-" + d;
+  public int compare(IDate otherDate) {
+    return Integer.compare(this.epochDay, otherDate.toEpochDay());
   }
 
-  /**
-   * Returns true if date is valid.
-   *
-   * @return true or false
-   */
-  private boolean verify() {
-    boolean bool = month <= 12 && month >= 1 && day >= 1 && year >= 0;
-    if ((month == 4 || month == 6 || month == 9 || month == 11) && day >= 31) {
-      bool = false;
-    }
-    if (month == 2 && day >= 29) {
-      bool = leap() && day == 29;
-    }
-    if (day > 31) {
-      bool = false;
+  @Override
+  public Date getNextDate(int days) {
+    if (days < 0) {
+      throw new IllegalArgumentException("Invalid days");
     }
-    return bool;
+    return this.plusDays(days);
   }
 
   /**
-   * Returns true if the year is a leap year.
+   * Returns the date the given number of days after this date. Negative days move backwards.
    *
-   * @return true or false
-   */
-  private boolean leap() {
-    return this.year % 4 == 0 && (this.year % 100 != 0
-            || (this.year % 400 == 0 && this.year % 100 == 0));
-  }
-
-  /**
-   * Finds what day of the week a given date is on.
-   *
-   * @return String
+   * @param days integer
+   * @return Date
    */
-
-  private String findDayOfWeek() {
-    int q = this.day;
-    int m = this.month;
-    int year = this.year;
-    if (this.month == 1 || this.month == 2) {
-      m += 12;
-      year -= 1;
+  Date plusDays(int days) {
+    if (days == 0) {
+      return this;
     }
-    int k = year % 100;
-    int j = year / 100;
-
-    int h = (q + (13 * (m + 1)) / 5 + k + k / 4 + j / 4 + 5 * j) % 7;
-
-    String[] daysOfWeek = new String[]{"S", "U", "M", "T", "W", "R", "F"};
-    return daysOfWeek[h];
+    return new Date(this.epochDay + days);
   }
 
-  /**
-   * Creates a copy of this date.
-   *
-   * @return Date
-   */
-
-  protected Date copy() {
-    return new Date(this.year, this.month, this.day);
+  @Override
+  public String toString() {
+    return DateTimeCodec.formatDate(this.year, this.month, this.day);
   }
 }
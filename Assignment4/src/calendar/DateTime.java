@@ -0,0 +1,183 @@
+package calendar;
+
+/**
+ * This class represents a date and a time of day to the minute. A DateTime is a Date plus the
+ * number of minutes since midnight, so moving it by days or minutes and comparing two of them
+ * is simple arithmetic. DateTimes are immutable. Its toString method returns a string of
+ * "YYYY-MM-DDThh:mm".
+ */
+public final class DateTime {
+
+  private final Date date;
+  private final int minuteOfDay;
+
+  /**
+   * Constructs a DateTime on the given date at the given minute of the day.
+   *
+   * @param date        Date
+   * @param minuteOfDay 0-1439
+   */
+  private DateTime(Date date, int minuteOfDay) {
+    this.date = date;
+    this.minuteOfDay = minuteOfDay;
+  }
+
+  /**
+   * Returns the DateTime on the given date at the given hour and minute.
+   *
+   * @param date   Date
+   * @param hour   0-23
+   * @param minute 0-59
+   * @return DateTime
+   */
+  static DateTime of(Date date, int hour, int minute) {
+    return new DateTime(date, hour * 60 + minute);
+  }
+
+  /**
+   * Returns the DateTime the given number of minutes after 1970-01-01T00:00.
+   *
+   * @param instant minutes since 1970-01-01T00:00
+   * @return DateTime
+   */
+  static DateTime ofInstant(long instant) {
+    return new DateTime(Date.ofEpochDay((int) Math.floorDiv(instant, 1440L)),
+            (int) Math.floorMod(instant, 1440L));
+  }
+
+  /**
+   * Parses the given "YYYY-MM-DDThh:mm" into a DateTime.
+   *
+   * @param dateTtime "YYYY-MM-DDThh:mm"
+   * @return DateTime
+   * @throws IllegalArgumentException if the dateTtime is malformed or does not exist
+   */
+  static DateTime parse(String dateTtime) throws IllegalArgumentException {
+    long instant = DateTimeCodec.parseInstant(dateTtime);
+    if (instant == DateTimeCodec.INVALID_INSTANT) {
+      throw new IllegalArgumentException(DateTimeCodec.isDateTime(dateTtime) ? "Invalid date"
+              : "Invalid dateTtime: " + dateTtime);
+    }
+    return ofInstant(instant);
+  }
+
+  /**
+   * Returns the date of this DateTime.
+   *
+   * @return Date
+   */
+  public Date getDate() {
+    return this.date;
+  }
+
+  /**
+   * Returns the hour of this DateTime.
+   *
+   * @return 0-23
+   */
+  public int getHour() {
+    return this.minuteOfDay / 60;
+  }
+
+  /**
+   * Returns the minute of the hour of this DateTime.
+   *
+   * @return 0-59
+   */
+  public int getMinute() {
+    return this.minuteOfDay % 60;
+  }
+
+  /**
+   * Returns the number of minutes since midnight of this DateTime.
+   *
+   * @return 0-1439
+   */
+  public int getMinuteOfDay() {
+    return this.minuteOfDay;
+  }
+
+  /**
+   * Returns this DateTime as minutes counted from 1970-01-01T00:00.
+   *
+   * @return long
+   */
+  public long toInstant() {
+    return this.date.toEpochDay() * 1440L + this.minuteOfDay;
+  }
+
+  /**
+   * Returns the same time of day the given number of days later. Negative days move backwards.
+   *
+   * @param days integer
+   * @return DateTime
+   */
+  public DateTime plusDays(int days) {
+    if (days == 0) {
+      return this;
+    }
+    return new DateTime(this.date.plusDays(days), this.minuteOfDay);
+  }
+
+  /**
+   * Returns the DateTime the given number of minutes later. Negative minutes move backwards.
+   *
+   * @param minutes long
+   * @return DateTime
+   */
+  public DateTime plusMinutes(long minutes) {
+    if (minutes == 0) {
+      return this;
+    }
+    return ofInstant(this.toInstant() + minutes);
+  }
+
+  /**
+   * Returns this DateTime on the given date.
+   *
+   * @param otherDate Date
+   * @return DateTime
+   */
+  public DateTime withDate(Date otherDate) {
+    return new DateTime(otherDate, this.minuteOfDay);
+  }
+
+  /**
+   * Compares otherDateTime to this DateTime. Returns 1 when this is after otherDateTime, -1 when
+   * this is before otherDateTime, and 0 if they are the same minute.
+   *
+   * @param otherDateTime DateTime
+   * @return -1, 0, 1
+   */
+  public int compare(DateTime otherDateTime) {
+    return Long.compare(this.toInstant(), otherDateTime.toInstant());
+  }
+
+  /**
+   * Returns the time of this DateTime as "hh:mm".
+   *
+   * @return String
+   */
+  public String timeString() {
+    return DateTimeCodec.formatTime(this.minuteOfDay);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof DateTime)) {
+      return false;
+    }
+    return this.toInstant() == ((DateTime) obj).toInstant();
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(this.toInstant());
+  }
+
+  @Override
+  public String toString() {
+    return DateTimeCodec.formatDateTime(this.date.getYear(), this.date.getMonth(),
+            this.date.getDay(), this.minuteOfDay);
+  }
+}
@@ -0,0 +1,277 @@
+package calendar;
+
+/**
+ * Reads and writes the date and time strings used throughout the calendar. Dates are
+ * "YYYY-M(M)-D(D)" and dateTtimes are "YYYY-M(M)-D(D)Th(h):m(m)" when read, and are always written
+ * zero padded as "YYYY-MM-DD" and "YYYY-MM-DDThh:mm". Strings are checked and decoded in a single
+ * pass over their characters, and the decoders return a sentinel rather than throwing so that
+ * each caller can report bad input in its own words.
+ */
+final class DateTimeCodec {
+
+  /**
+   * Returned by parseEpochDay when the string is not a date that exists.
+   */
+  static final int INVALID_DAY = Integer.MIN_VALUE;
+
+  /**
+   * Returned by parseInstant when the string is not a dateTtime that exists.
+   */
+  static final long INVALID_INSTANT = Long.MIN_VALUE;
+
+  private DateTimeCodec() {
+  }
+
+  /**
+   * Returns true if the given string is written "YYYY-M(M)-D(D)". The date does not have to
+   * exist.
+   *
+   * @param date String
+   * @return boolean
+   */
+  static boolean isDate(CharSequence date) {
+    return scanDate(date, 0) == date.length();
+  }
+
+  /**
+   * Returns true if the given string is written "YYYY-M(M)-D(D)Th(h):m(m)" with an hour of at most
+   * 23 and a minute of at most 59. The date does not have to exist.
+   *
+   * @param dateTtime String
+   * @return boolean
+   */
+  static boolean isDateTime(CharSequence dateTtime) {
+    int end = scanDate(dateTtime, 0);
+    return end > 0 && end < dateTtime.length() && dateTtime.charAt(end) == 'T'
+            && parseTime(dateTtime, end + 1) >= 0;
+  }
+
+  /**
+   * Returns the number of days between 1970-01-01 and the date written "YYYY-M(M)-D(D)" in the
+   * first length characters of the given string, or INVALID_DAY if they are not a date that
+   * exists.
+   *
+   * @param date   String
+   * @param length number of characters holding the date
+   * @return days since 1970-01-01 or INVALID_DAY
+   */
+  static int parseEpochDay(CharSequence date, int length) {
+    if (length > date.length() || scanDate(date, 0) != length) {
+      return INVALID_DAY;
+    }
+    return decodeEpochDay(date, length);
+  }
+
+  /**
+   * Returns the number of days between 1970-01-01 and the date in the first length characters of
+   * the given string, which scanDate has already found to be written "YYYY-M(M)-D(D)", or
+   * INVALID_DAY if it is not a date that exists.
+   *
+   * @param date   String
+   * @param length number of characters holding the date, as returned by scanDate
+   * @return days since 1970-01-01 or INVALID_DAY
+   */
+  private static int decodeEpochDay(CharSequence date, int length) {
+    int year = digits(date, 0, 4);
+    int monthEnd = date.charAt(6) == '-' ? 6 : 7;
+    int month = digits(date, 5, monthEnd);
+    int day = digits(date, monthEnd + 1, length);
+    if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+      return INVALID_DAY;
+    }
+    return Date.toEpochDay(year, month, day);
+  }
+
+  /**
+   * Returns the number of days between 1970-01-01 and the date written "YYYY-M(M)-D(D)", or
+   * INVALID_DAY if it is not a date that exists.
+   *
+   * @param date String
+   * @return days since 1970-01-01 or INVALID_DAY
+   */
+  static int parseEpochDay(CharSequence date) {
+    return parseEpochDay(date, date.length());
+  }
+
+  /**
+   * Returns the number of minutes between 1970-01-01T00:00 and the dateTtime written
+   * "YYYY-M(M)-D(D)Th(h):m(m)", or INVALID_INSTANT if it is not a dateTtime that exists.
+   *
+   * @param dateTtime String
+   * @return minutes since 1970-01-01T00:00 or INVALID_INSTANT
+   */
+  static long parseInstant(CharSequence dateTtime) {
+    int end = scanDate(dateTtime, 0);
+    if (end < 0 || end >= dateTtime.length() || dateTtime.charAt(end) != 'T') {
+      return INVALID_INSTANT;
+    }
+    int minuteOfDay = parseTime(dateTtime, end + 1);
+    if (minuteOfDay < 0) {
+      return INVALID_INSTANT;
+    }
+    int epochDay = decodeEpochDay(dateTtime, end);
+    if (epochDay == INVALID_DAY) {
+      return INVALID_INSTANT;
+    }
+    return epochDay * 1440L + minuteOfDay;
+  }
+
+  /**
+   * Returns the given date as "YYYY-MM-DD".
+   *
+   * @param year  0-9999
+   * @param month 1-12
+   * @param day   1-31
+   * @return String
+   */
+  static String formatDate(int year, int month, int day) {
+    char[] chars = new char[10];
+    writeDate(chars, year, month, day);
+    return new String(chars);
+  }
+
+  /**
+   * Returns the given minute of the day as "hh:mm".
+   *
+   * @param minuteOfDay 0-1439
+   * @return String
+   */
+  static String formatTime(int minuteOfDay) {
+    char[] chars = new char[5];
+    writeTime(chars, 0, minuteOfDay);
+    return new String(chars);
+  }
+
+  /**
+   * Returns the given date and minute of the day as "YYYY-MM-DDThh:mm".
+   *
+   * @param year        0-9999
+   * @param month       1-12
+   * @param day         1-31
+   * @param minuteOfDay 0-1439
+   * @return String
+   */
+  static String formatDateTime(int year, int month, int day, int minuteOfDay) {
+    char[] chars = new char[16];
+    writeDate(chars, year, month, day);
+    chars[10] = 'T';
+    writeTime(chars, 11, minuteOfDay);
+    return new String(chars);
+  }
+
+  /**
+   * Returns the number of days in the given month.
+   *
+   * @param year  int
+   * @param month 1-12
+   * @return 28-31
+   */
+  static int daysInMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+        return leap ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  /**
+   * Returns the index just past a "YYYY-M(M)-D(D)" starting at from, or -1 if there is none.
+   */
+  private static int scanDate(CharSequence s, int from) {
+    int i = from;
+    for (int end = from + 4; i < end; i++) {
+      if (i >= s.length() || !isDigit(s.charAt(i))) {
+        return -1;
+      }
+    }
+    for (int part = 0; part < 2; part++) {
+      if (i >= s.length() || s.charAt(i) != '-') {
+        return -1;
+      }
+      i = scanOneOrTwoDigits(s, i + 1);
+      if (i < 0) {
+        return -1;
+      }
+    }
+    return i;
+  }
+
+  /**
+   * Returns the minute of the day of an "h(h):m(m)" running from from to the end of the string,
+   * or -1 if there is none.
+   */
+  private static int parseTime(CharSequence s, int from) {
+    int colon = scanOneOrTwoDigits(s, from);
+    if (colon < 0 || colon >= s.length() || s.charAt(colon) != ':') {
+      return -1;
+    }
+    int end = scanOneOrTwoDigits(s, colon + 1);
+    if (end != s.length()) {
+      return -1;
+    }
+    int hour = digits(s, from, colon);
+    int minute = digits(s, colon + 1, end);
+    if (hour > 23 || minute > 59) {
+      return -1;
+    }
+    return hour * 60 + minute;
+  }
+
+  /**
+   * Returns the index just past one or two digits starting at from, or -1 if there are none.
+   */
+  private static int scanOneOrTwoDigits(CharSequence s, int from) {
+    if (from >= s.length() || !isDigit(s.charAt(from))) {
+      return -1;
+    }
+    if (from + 1 < s.length() && isDigit(s.charAt(from + 1))) {
+      return from + 2;
+    }
+    return from + 1;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * Returns the number written by the digits in [from, to).
+   */
+  private static int digits(CharSequence s, int from, int to) {
+    int value = 0;
+    for (int i = from; i < to; i++) {
+      value = value * 10 + (s.charAt(i) - '0');
+    }
+    return value;
+  }
+
+  private static void writeDate(char[] chars, int year, int month, int day) {
+    chars[0] = (char) ('0' + year / 1000 % 10);
+    chars[1] = (char) ('0' + year / 100 % 10);
+    chars[2] = (char) ('0' + year / 10 % 10);
+    chars[3] = (char) ('0' + year % 10);
+    chars[4] = '-';
+    chars[5] = (char) ('0' + month / 10);
+    chars[6] = (char) ('0' + month % 10);
+    chars[7] = '-';
+    chars[8] = (char) ('0' + day / 10);
+    chars[9] = (char) ('0' + day % 10);
+  }
+
+  private static void writeTime(char[] chars, int at, int minuteOfDay) {
+    int hour = minuteOfDay / 60;
+    int minute = minuteOfDay % 60;
+    chars[at] = (char) ('0' + hour / 10);
+    chars[at + 1] = (char) ('0' + hour % 10);
+    chars[at + 2] = ':';
+    chars[at + 3] = (char) ('0' + minute / 10);
+    chars[at + 4] = (char) ('0' + minute % 10);
+  }
+}
@@ -0,0 +1,117 @@
+package calendar;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded cache of the event occurrences on each day. The least recently used day is dropped
+ * once the cache is full, and the days an event covers are dropped whenever it is added, removed
+ * or edited. The cache counts how often a day was found in it and how often it was not. Its
+ * methods are synchronized, since any number of readers of a calendar may use it at once.
+ *
+ * <p>Each invalidation starts a new generation. A reader takes the generation before it reads the
+ * events of a day and hands it back with the occurrences it found, which are kept only if nothing
+ * was invalidated meanwhile, so a day read from an old version of the calendar is never cached.
+ */
+final class DayCache {
+
+  private final int capacity;
+  private final LinkedHashMap<Integer, List<IEvent>> days; // epoch day to its occurrences
+  private long hits;
+  private long misses;
+  private long generation; // invalidations so far
+
+  /**
+   * Creates an empty cache holding at most the given number of days.
+   *
+   * @param capacity most days kept
+   */
+  DayCache(int capacity) {
+    this.capacity = capacity;
+    this.days = new LinkedHashMap<Integer, List<IEvent>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, List<IEvent>> eldest) {
+        return this.size() > DayCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns a copy of the occurrences cached for the given day, or null if the day is not cached.
+   *
+   * @param epochDay days since 1970-01-01
+   * @return list of occurrences or null
+   */
+  synchronized ArrayList<IEvent> get(int epochDay) {
+    List<IEvent> events = this.days.get(epochDay);
+    if (events == null) {
+      this.misses++;
+      return null;
+    }
+    this.hits++;
+    return new ArrayList<>(events);
+  }
+
+  /**
+   * Returns the current generation, to be taken before the events of a day are read.
+   *
+   * @return long
+   */
+  synchronized long generation() {
+    return this.generation;
+  }
+
+  /**
+   * Caches a copy of the given occurrences for the given day, unless something was invalidated
+   * since the given generation was taken.
+   *
+   * @param epochDay   days since 1970-01-01
+   * @param events     the occurrences on that day
+   * @param generation the generation taken before the events were read
+   */
+  synchronized void put(int epochDay, List<IEvent> events, long generation) {
+    if (generation == this.generation) {
+      this.days.put(epochDay, new ArrayList<>(events));
+    }
+  }
+
+  /**
+   * Forgets every day the window [fromInstant, toInstant] touches. Must be called whenever an
+   * event spanning that window is added, removed or changed.
+   *
+   * @param fromInstant first minute of the window
+   * @param toInstant   last minute of the window
+   */
+  synchronized void invalidate(long fromInstant, long toInstant) {
+    this.generation++;
+    int firstDay = (int) Math.floorDiv(fromInstant, 1440L);
+    int lastDay = (int) Math.floorDiv(Math.max(fromInstant, toInstant), 1440L);
+    if ((long) lastDay - firstDay >= this.days.size()) {
+      this.days.keySet().removeIf(day -> day >= firstDay && day <= lastDay);
+    } else {
+      for (int day = firstDay; day <= lastDay; day++) {
+        this.days.remove(day);
+      }
+    }
+  }
+
+  /**
+   * Returns how many lookups found their day in the cache.
+   *
+   * @return long
+   */
+  synchronized long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Returns how many lookups did not find their day in the cache.
+   *
+   * @return long
+   */
+  synchronized long getMisses() {
+    return this.misses;
+  }
+}
@@ -0,0 +1,60 @@
+package calendar;
+
+/**
+ * A position in the chronological list of a calendar's event occurrences. A cursor points at the
+ * occurrences starting at a minute, after skipping the given number of occurrences that also
+ * start at that minute. Cursors are immutable and can be used to page through any calendar.
+ */
+public final class EventCursor {
+
+  private final long instant;
+  private final int skip;
+
+  /**
+   * Constructs a cursor at the given minute, past skip occurrences starting at that minute.
+   *
+   * @param instant minutes since 1970-01-01T00:00
+   * @param skip    number of occurrences starting at instant to pass over
+   */
+  EventCursor(long instant, int skip) {
+    this.instant = instant;
+    this.skip = skip;
+  }
+
+  /**
+   * Returns the minute this cursor points at, counted from 1970-01-01T00:00.
+   *
+   * @return long
+   */
+  long getInstant() {
+    return this.instant;
+  }
+
+  /**
+   * Returns how many occurrences starting at this cursor's minute come before it.
+   *
+   * @return int
+   */
+  int getSkip() {
+    return this.skip;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof EventCursor)) {
+      return false;
+    }
+    EventCursor other = (EventCursor) obj;
+    return this.instant == other.instant && this.skip == other.skip;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Long.hashCode(this.instant) + this.skip;
+  }
+
+  @Override
+  public String toString() {
+    return DateTime.ofInstant(this.instant) + "+" + this.skip;
+  }
+}
@@ -0,0 +1,83 @@
+package calendar;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a calendar's event occurrences in chronological order. A page knows the cursor of
+ * its first occurrence and the cursor just past its last one, so the pages either side of it can
+ * be asked for without going back to the start of the calendar.
+ */
+public final class EventPage {
+
+  private final List<IEvent> events;
+  private final EventCursor start;
+  private final EventCursor end;
+  private final boolean hasPrevious;
+  private final boolean hasNext;
+
+  /**
+   * Constructs a page of the given occurrences.
+   *
+   * @param events      the occurrences on this page, in order
+   * @param start       cursor of the first occurrence
+   * @param end         cursor just past the last occurrence
+   * @param hasPrevious true if occurrences come before this page
+   * @param hasNext     true if occurrences come after this page
+   */
+  EventPage(List<IEvent> events, EventCursor start, EventCursor end, boolean hasPrevious,
+            boolean hasNext) {
+    this.events = Collections.unmodifiableList(events);
+    this.start = start;
+    this.end = end;
+    this.hasPrevious = hasPrevious;
+    this.hasNext = hasNext;
+  }
+
+  /**
+   * Returns the occurrences on this page.
+   *
+   * @return list of events
+   */
+  public List<IEvent> getEvents() {
+    return this.events;
+  }
+
+  /**
+   * Returns the cursor of the first occurrence on this page. Paging backwards from it gives the
+   * previous page.
+   *
+   * @return EventCursor
+   */
+  public EventCursor getStart() {
+    return this.start;
+  }
+
+  /**
+   * Returns the cursor just past the last occurrence on this page. Paging forwards from it gives
+   * the next page.
+   *
+   * @return EventCursor
+   */
+  public EventCursor getEnd() {
+    return this.end;
+  }
+
+  /**
+   * Returns true if there are occurrences before this page.
+   *
+   * @return boolean
+   */
+  public boolean hasPrevious() {
+    return this.hasPrevious;
+  }
+
+  /**
+   * Returns true if there are occurrences after this page.
+   *
+   * @return boolean
+   */
+  public boolean hasNext() {
+    return this.hasNext;
+  }
+}
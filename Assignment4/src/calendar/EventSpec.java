@@ -0,0 +1,190 @@
+package calendar;
+
+/**
+ * A description of one event to create, holding the same inputs as one of the create methods of
+ * ICalendar. A list of them can be created at once with ICalendar.createEvents. The inputs are
+ * only checked when the event is created.
+ */
+public final class EventSpec {
+
+  /**
+   * Which create method the spec stands for.
+   */
+  enum Kind {
+    SINGLE, SERIES_TIMES, SERIES_UNTIL, ALL_DAY, ALL_DAY_SERIES_TIMES, ALL_DAY_SERIES_UNTIL
+  }
+
+  private final Kind kind;
+  private final String subject;
+  private final String start; // dateTtime, or date for all day events
+  private final String end; // dateTtime, empty for all day events
+  private final String weekdays; // empty for single events
+  private final int timesRepeated;
+  private final String stopDate; // empty unless the series runs until a date
+
+  private EventSpec(Kind kind, String subject, String start, String end, String weekdays,
+                    int timesRepeated, String stopDate) {
+    if (subject == null || start == null || end == null || weekdays == null
+            || stopDate == null) {
+      throw new IllegalArgumentException("Event spec inputs cannot be null");
+    }
+    this.kind = kind;
+    this.subject = subject;
+    this.start = start;
+    this.end = end;
+    this.weekdays = weekdays;
+    this.timesRepeated = timesRepeated;
+    this.stopDate = stopDate;
+  }
+
+  /**
+   * Returns a spec of a single event, as createSingleEvent takes.
+   *
+   * @param subject        String
+   * @param startDateTtime "YYYY-MM-DDThh:mm"
+   * @param endDateTtime   "YYYY-MM-DDThh:mm"
+   * @return EventSpec
+   */
+  public static EventSpec single(String subject, String startDateTtime, String endDateTtime) {
+    return new EventSpec(Kind.SINGLE, subject, startDateTtime, endDateTtime, "", 0, "");
+  }
+
+  /**
+   * Returns a spec of a series repeating a number of times, as createEventSeriesTimesRepeated
+   * takes.
+   *
+   * @param subject        String
+   * @param startDateTtime "YYYY-MM-DDThh:mm"
+   * @param endDateTtime   "YYYY-MM-DDThh:mm"
+   * @param weekdays       "MTWRFSU"
+   * @param timesRepeated  int
+   * @return EventSpec
+   */
+  public static EventSpec seriesTimes(String subject, String startDateTtime,
+                                      String endDateTtime, String weekdays, int timesRepeated) {
+    return new EventSpec(Kind.SERIES_TIMES, subject, startDateTtime, endDateTtime, weekdays,
+            timesRepeated, "");
+  }
+
+  /**
+   * Returns a spec of a series repeating until a date, as createEventSeriesStopDate takes.
+   *
+   * @param subject        String
+   * @param startDateTtime "YYYY-MM-DDThh:mm"
+   * @param endDateTtime   "YYYY-MM-DDThh:mm"
+   * @param weekdays       "MTWRFSU"
+   * @param stopDate       "YYYY-MM-DD"
+   * @return EventSpec
+   */
+  public static EventSpec seriesUntil(String subject, String startDateTtime,
+                                      String endDateTtime, String weekdays, String stopDate) {
+    return new EventSpec(Kind.SERIES_UNTIL, subject, startDateTtime, endDateTtime, weekdays, 0,
+            stopDate);
+  }
+
+  /**
+   * Returns a spec of a single all day event, as createSingleAllDayEvent takes.
+   *
+   * @param subject String
+   * @param date    "YYYY-MM-DD"
+   * @return EventSpec
+   */
+  public static EventSpec allDay(String subject, String date) {
+    return new EventSpec(Kind.ALL_DAY, subject, date, "", "", 0, "");
+  }
+
+  /**
+   * Returns a spec of an all day series repeating a number of times, as
+   * createAllDayEventSeriesTimesRepeated takes.
+   *
+   * @param subject       String
+   * @param startDate     "YYYY-MM-DD"
+   * @param weekdays      "MTWRFSU"
+   * @param timesRepeated int
+   * @return EventSpec
+   */
+  public static EventSpec allDaySeriesTimes(String subject, String startDate, String weekdays,
+                                            int timesRepeated) {
+    return new EventSpec(Kind.ALL_DAY_SERIES_TIMES, subject, startDate, "", weekdays,
+            timesRepeated, "");
+  }
+
+  /**
+   * Returns a spec of an all day series repeating until a date, as
+   * createAllDayEventSeriesStopDate takes.
+   *
+   * @param subject   String
+   * @param startDate "YYYY-MM-DD"
+   * @param weekdays  "MTWRFSU"
+   * @param stopDate  "YYYY-MM-DD"
+   * @return EventSpec
+   */
+  public static EventSpec allDaySeriesUntil(String subject, String startDate, String weekdays,
+                                            String stopDate) {
+    return new EventSpec(Kind.ALL_DAY_SERIES_UNTIL, subject, startDate, "", weekdays, 0,
+            stopDate);
+  }
+
+  /**
+   * Returns which create method the spec stands for.
+   *
+   * @return Kind
+   */
+  Kind getKind() {
+    return this.kind;
+  }
+
+  /**
+   * Returns the subject of the event.
+   *
+   * @return String
+   */
+  String getSubject() {
+    return this.subject;
+  }
+
+  /**
+   * Returns the start dateTtime, or the date of an all day event.
+   *
+   * @return String
+   */
+  String getStart() {
+    return this.start;
+  }
+
+  /**
+   * Returns the end dateTtime, or an empty string for an all day event.
+   *
+   * @return String
+   */
+  String getEnd() {
+    return this.end;
+  }
+
+  /**
+   * Returns the weekdays a series repeats on, or an empty string for a single event.
+   *
+   * @return String
+   */
+  String getWeekdays() {
+    return this.weekdays;
+  }
+
+  /**
+   * Returns how many times a series repeats, or 0 if it does not repeat a number of times.
+   *
+   * @return int
+   */
+  int getTimesRepeated() {
+    return this.timesRepeated;
+  }
+
+  /**
+   * Returns the date a series stops, or an empty string if it has none.
+   *
+   * @return String
+   */
+  String getStopDate() {
+    return this.stopDate;
+  }
+}
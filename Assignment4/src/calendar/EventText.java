@@ -0,0 +1,143 @@
+package calendar;
+
+import java.util.Objects;
+
+/**
+ * The subject, location, description and status of an event. It never changes, so an event and
+ * every occurrence and copy made of it hold the same one, and a TextDictionary can hand the same
+ * one to every event with the same text. Editing any of them makes a new one.
+ */
+final class EventText {
+
+  private final String subject;
+  private final String location;
+  private final String description;
+  private final Status status;
+  private int hash; // computed when first asked for, as texts are looked up by it often
+
+  /**
+   * Constructs the text of an event.
+   *
+   * @param subject     String
+   * @param location    String
+   * @param description String
+   * @param status      Status
+   */
+  EventText(String subject, String location, String description, Status status) {
+    this.subject = subject;
+    this.location = location;
+    this.description = description;
+    this.status = status;
+  }
+
+  /**
+   * Returns the text of an event with only a subject.
+   *
+   * @param subject String
+   * @return EventText
+   */
+  static EventText of(String subject) {
+    return new EventText(subject, "", "", Status.UNSPECIFIED);
+  }
+
+  /**
+   * Returns the subject.
+   *
+   * @return String
+   */
+  String getSubject() {
+    return this.subject;
+  }
+
+  /**
+   * Returns the location, or an empty string if it has none.
+   *
+   * @return String
+   */
+  String getLocation() {
+    return this.location;
+  }
+
+  /**
+   * Returns the description, or an empty string if it has none.
+   *
+   * @return String
+   */
+  String getDescription() {
+    return this.description;
+  }
+
+  /**
+   * Returns the status.
+   *
+   * @return Status
+   */
+  Status getStatus() {
+    return this.status;
+  }
+
+  /**
+   * Returns this text with the given subject.
+   *
+   * @param subject String
+   * @return EventText
+   */
+  EventText withSubject(String subject) {
+    return new EventText(subject, this.location, this.description, this.status);
+  }
+
+  /**
+   * Returns this text with the given location.
+   *
+   * @param location String
+   * @return EventText
+   */
+  EventText withLocation(String location) {
+    return new EventText(this.subject, location, this.description, this.status);
+  }
+
+  /**
+   * Returns this text with the given description.
+   *
+   * @param description String
+   * @return EventText
+   */
+  EventText withDescription(String description) {
+    return new EventText(this.subject, this.location, description, this.status);
+  }
+
+  /**
+   * Returns this text with the status the given text names.
+   *
+   * @param status "", "public" or "private"
+   * @return EventText
+   * @throws IllegalArgumentException if the text names no status
+   */
+  EventText withStatus(String status) throws IllegalArgumentException {
+    return new EventText(this.subject, this.location, this.description, Status.of(status));
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof EventText)) {
+      return false;
+    }
+    EventText other = (EventText) obj;
+    return Objects.equals(this.subject, other.subject)
+            && this.location.equals(other.location)
+            && this.description.equals(other.description)
+            && this.status == other.status;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = this.hash;
+    if (hash == 0) {
+      hash = 31 * Objects.hashCode(this.subject) + this.location.hashCode();
+      hash = 31 * hash + this.description.hashCode();
+      hash = 31 * hash + this.status.ordinal();
+      this.hash = hash;
+    }
+    return hash;
+  }
+}
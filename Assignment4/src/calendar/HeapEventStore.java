@@ -0,0 +1,290 @@
+package calendar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a calendar's events in memory. Events are held in an interval tree ordered by start, and
+ * single events and duplicates are found through the tree by their start. Series are also looked
+ * up by hash, by subject and the minute of the day their occurrences start. Nothing else is kept
+ * for each event, so a large calendar costs little more than its events.
+ *
+ * <p>The interval tree is persistent, so publishing a version of it takes constant time and the
+ * version never changes. Readers are answered from the version last published, through a
+ * volatile field, and never wait for the thread changing the store.
+ */
+final class HeapEventStore implements IEventStore {
+
+  // the most events addAll sorts by packing their start and position into one long
+  private static final int PACKED_EVENTS = 1 << 30;
+  // the widest span of starts, in minutes, addAll sorts that way
+  private static final long PACKED_SPAN = 1L << 33;
+
+  // every event keyed by the minutes it spans, ordered by start
+  private final IntervalTree<IEvent> intervals;
+  // series keyed by subject and the minute of the day their occurrences start
+  private final Map<EventKey, List<IEvent>> seriesByTime;
+  // the events readers see
+  private volatile Version published;
+
+  /**
+   * A subject paired with a time, used to look events up by hash.
+   */
+  private static final class EventKey {
+    private final String subject;
+    private final long time;
+
+    private EventKey(String subject, long time) {
+      this.subject = subject;
+      this.time = time;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof EventKey)) {
+        return false;
+      }
+      EventKey other = (EventKey) obj;
+      return this.time == other.time && this.subject.equals(other.subject);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * this.subject.hashCode() + Long.hashCode(this.time);
+    }
+  }
+
+  /**
+   * The events as they were when a version was published.
+   */
+  private static final class Version implements IEventView {
+    private final IntervalTree.Version<IEvent> intervals;
+
+    private Version(IntervalTree.Version<IEvent> intervals) {
+      this.intervals = intervals;
+    }
+
+    @Override
+    public void overlapping(long from, long to, Consumer<? super IEvent> action) {
+      this.intervals.query(from, to, action);
+    }
+
+    @Override
+    public List<IEvent> all() {
+      List<IEvent> events = new ArrayList<>(this.intervals.size());
+      this.intervals.ascending(Long.MIN_VALUE, Integer.MAX_VALUE, events);
+      return events;
+    }
+
+    @Override
+    public long minStart() {
+      return this.intervals.minStart();
+    }
+
+    @Override
+    public long maxEnd() {
+      return this.intervals.maxEnd();
+    }
+  }
+
+  /**
+   * Constructs an empty store.
+   */
+  HeapEventStore() {
+    this.intervals = new IntervalTree<>();
+    this.seriesByTime = new HashMap<>();
+    this.publish();
+  }
+
+  /**
+   * Fills an empty store with the given events without checking them against each other. The
+   * events must be in order of start.
+   *
+   * @param events the events in order of start
+   * @throws IllegalArgumentException if the events are not in order of start
+   */
+  void load(List<IEvent> events) throws IllegalArgumentException {
+    long[] starts = new long[events.size()];
+    long[] ends = new long[events.size()];
+    for (int i = 0; i < events.size(); i++) {
+      starts[i] = events.get(i).getStartInstant();
+      ends[i] = events.get(i).getEndInstant();
+    }
+    this.intervals.load(events, starts, ends);
+    for (IEvent event : events) {
+      this.indexSeries(event);
+    }
+    this.publish();
+  }
+
+  /**
+   * Returns the key a series is looked up by: its subject and the minute of the day its
+   * occurrences start.
+   *
+   * @param event IEvent
+   * @return EventKey
+   */
+  private static EventKey seriesKey(IEvent event) {
+    return new EventKey(event.getSubject(), event.getStart().getMinuteOfDay());
+  }
+
+  private void indexSeries(IEvent event) {
+    if (event.isSeries()) {
+      this.seriesByTime.computeIfAbsent(seriesKey(event), key -> new ArrayList<>(1)).add(event);
+    }
+  }
+
+  @Override
+  public void add(IEvent event) {
+    this.intervals.insert(event, event.getStartInstant(), event.getEndInstant());
+    this.indexSeries(event);
+  }
+
+  @Override
+  public List<IEvent> addAll(List<IEvent> events) {
+    int count = events.size();
+    long first = Long.MAX_VALUE;
+    long last = Long.MIN_VALUE;
+    for (IEvent event : events) {
+      first = Math.min(first, event.getStartInstant());
+      last = Math.max(last, event.getStartInstant());
+    }
+    if (count < this.intervals.size() / 16 || count >= PACKED_EVENTS
+            || last - first >= PACKED_SPAN) {
+      // too few to be worth rebuilding the tree for, or too many to sort packed
+      List<IEvent> added = new ArrayList<>(count);
+      for (IEvent event : events) {
+        if (!this.contains(event)) {
+          this.add(event);
+          added.add(event);
+        }
+      }
+      return added;
+    }
+    // each event's start and position packed into one long, so a sort of plain longs puts the
+    // events in order of start and, among equal starts, in the order given
+    long[] order = new long[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = (events.get(i).getStartInstant() - first) << 30 | i;
+    }
+    Arrays.sort(order);
+    List<IEvent> kept = new ArrayList<>(this.intervals.size());
+    this.intervals.ascending(Long.MIN_VALUE, Integer.MAX_VALUE, kept);
+    List<IEvent> merged = new ArrayList<>(kept.size() + count);
+    boolean[] isAdded = new boolean[count];
+    int i = 0;
+    for (long packed : order) {
+      IEvent event = events.get((int) (packed & (PACKED_EVENTS - 1)));
+      long start = event.getStartInstant();
+      // events already held come first among equal starts, as if the new ones came after
+      while (i < kept.size() && kept.get(i).getStartInstant() <= start) {
+        merged.add(kept.get(i++));
+      }
+      // an equal event can only be among those just merged with the same start
+      boolean duplicate = false;
+      for (int k = merged.size() - 1;
+           k >= 0 && merged.get(k).getStartInstant() == start && !duplicate; k--) {
+        duplicate = merged.get(k).equals(event);
+      }
+      if (!duplicate) {
+        merged.add(event);
+        isAdded[(int) (packed & (PACKED_EVENTS - 1))] = true;
+      }
+    }
+    while (i < kept.size()) {
+      merged.add(kept.get(i++));
+    }
+    List<IEvent> added = new ArrayList<>(merged.size() - kept.size());
+    for (int k = 0; k < count; k++) {
+      if (isAdded[k]) {
+        added.add(events.get(k));
+        this.indexSeries(events.get(k));
+      }
+    }
+    long[] starts = new long[merged.size()];
+    long[] ends = new long[merged.size()];
+    for (int k = 0; k < merged.size(); k++) {
+      starts[k] = merged.get(k).getStartInstant();
+      ends[k] = merged.get(k).getEndInstant();
+    }
+    this.intervals.clear();
+    this.intervals.load(merged, starts, ends);
+    return added;
+  }
+
+  @Override
+  public void remove(IEvent event) {
+    this.intervals.remove(event, event.getStartInstant());
+    if (event.isSeries()) {
+      EventKey key = seriesKey(event);
+      List<IEvent> sameKey = this.seriesByTime.get(key);
+      if (sameKey != null) {
+        sameKey.removeIf(indexed -> indexed == event);
+        if (sameKey.isEmpty()) {
+          this.seriesByTime.remove(key);
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean contains(IEvent event) {
+    List<IEvent> sameStart = new ArrayList<>(2);
+    this.intervals.startingAt(event.getStartInstant(), sameStart);
+    return sameStart.contains(event);
+  }
+
+  @Override
+  public IEvent findSingle(String subject, long start, DateTime end) {
+    List<IEvent> sameStart = new ArrayList<>(2);
+    this.intervals.startingAt(start, sameStart);
+    for (IEvent event : sameStart) {
+      if (!event.isSeries() && event.getSubject().equals(subject)
+              && (end == null || event.getEnd().equals(end))) {
+        return event;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public List<IEvent> findSeries(String subject, int minuteOfDay) {
+    List<IEvent> series = this.seriesByTime.get(new EventKey(subject, minuteOfDay));
+    return series == null ? Collections.emptyList() : series;
+  }
+
+  @Override
+  public void publish() {
+    this.published = new Version(this.intervals.snapshot());
+  }
+
+  @Override
+  public IEventView version() {
+    return this.published;
+  }
+
+  @Override
+  public void overlapping(long from, long to, Consumer<? super IEvent> action) {
+    this.published.overlapping(from, to, action);
+  }
+
+  @Override
+  public List<IEvent> all() {
+    return this.published.all();
+  }
+
+  @Override
+  public long minStart() {
+    return this.published.minStart();
+  }
+
+  @Override
+  public long maxEnd() {
+    return this.published.maxEnd();
+  }
+}
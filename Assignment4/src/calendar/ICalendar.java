@@ -1,7 +1,9 @@
 package calendar;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface for all Calendars. All calendars can have single events and even series. This class
@@ -20,6 +22,16 @@ public interface ICalendar {
    */
   void addEvent(IEvent event);
 
+  /**
+   * Adds the given events to this calendar at once, leaving out any already in it or repeated
+   * in the list. The events are put in order and indexed once rather than one at a time, so
+   * many events are added much faster than by addEvent.
+   *
+   * @param events the events to add
+   * @return the events that were added, in the order given
+   */
+  List<IEvent> addEvents(List<IEvent> events);
+
   /**
    * Creates a single event in this calendar.
    *
@@ -98,6 +110,17 @@ public interface ICalendar {
                                        String stopDate)
           throws IllegalArgumentException;
 
+  /**
+   * Creates the events the given specs describe at once. Each spec is checked the way its
+   * create method checks its inputs, but a spec that is invalid, or whose event is already in
+   * this calendar or earlier in the list, is reported rather than thrown, and the others are
+   * still created. The events are put in order and indexed once, so many events are created
+   * much faster than one at a time.
+   *
+   * @param specs the events to create
+   * @return how many were created and why the others were not
+   */
+  BulkReport createEvents(Collection<EventSpec> specs);
 
   /**
    * Updates the property of the event matching the given subject and dateTtimes with the new
@@ -155,6 +178,20 @@ public interface ICalendar {
    */
   ArrayList<IEvent> getEvents(String date) throws IllegalArgumentException;
 
+  /**
+   * Returns how many times getEvents(date) was answered from the cache of recently listed days.
+   *
+   * @return number of cache hits
+   */
+  long getDayCacheHits();
+
+  /**
+   * Returns how many times getEvents(date) had to look a day up because it was not cached.
+   *
+   * @return number of cache misses
+   */
+  long getDayCacheMisses();
+
   /**
    * Returns a list of events planned between two dateTtimes.
    *
@@ -167,22 +204,79 @@ public interface ICalendar {
           throws IllegalArgumentException;
 
   /**
-   * Returns the true if this calendar has an event during the given dateTtime.
+   * Returns the true if this calendar has an event during the given dateTtime. An event takes up
+   * the minutes from its start up to its end.
    *
-   * @param dateTtime "YYYY-MM-DD"
+   * @param dateTtime "YYYY-MM-DDThh:mm"
    * @return boolean
    * @throws IllegalArgumentException when input doesn't match specified pattern
    */
   boolean showStatus(String dateTtime) throws IllegalArgumentException;
 
   /**
-   * Returns the list of events from this calendar.
+   * Returns how many minutes from startDateTtime through endDateTtime are taken up by at least
+   * one event.
+   *
+   * @param startDateTtime "YYYY-MM-DDThh:mm"
+   * @param endDateTtime   "YYYY-MM-DDThh:mm"
+   * @return number of busy minutes
+   * @throws IllegalArgumentException when input doesn't match specified pattern
+   */
+  long busyMinutes(String startDateTtime, String endDateTtime) throws IllegalArgumentException;
+
+  /**
+   * Returns how many days' free/busy bitmaps showStatus and busyMinutes keep. At most a fixed
+   * number of days are kept, the least recently used dropped first.
+   *
+   * @return number of days kept
+   */
+  int getBusyDaysCached();
+
+  /**
+   * Returns the minute the earliest event of this calendar starts, counted from
+   * 1970-01-01T00:00, or Long.MAX_VALUE if it has no events.
+   *
+   * @return minutes since 1970-01-01T00:00
+   */
+  long getEarliestStart();
+
+  /**
+   * Returns a minute no event of this calendar ends after, counted from 1970-01-01T00:00, or
+   * Long.MIN_VALUE if it has never had events.
+   *
+   * @return minutes since 1970-01-01T00:00
+   */
+  long getLatestEnd();
+
+  /**
+   * Returns the list of events from this calendar, ordered by when they start.
    *
    * @return list of events
    */
 
   List<IEvent> getCalendarEvents();
 
+  /**
+   * Passes every event of this calendar to the given action in order of start, each series as
+   * a whole rather than as its occurrences. The events are not collected first.
+   *
+   * @param action receives the events
+   */
+  void forEachEvent(Consumer<? super IEvent> action);
+
+  /**
+   * Passes every event with an occurrence between two dateTtimes to the given action in order
+   * of start, each series as a whole rather than as its occurrences. The events are not
+   * collected first.
+   *
+   * @param startDateTtime "YYYY-MM-DDThh:mm"
+   * @param endDateTtime   "YYYY-MM-DDThh:mm"
+   * @param action         receives the events
+   * @throws IllegalArgumentException when input doesn't match specified pattern
+   */
+  void forEachEvent(String startDateTtime, String endDateTtime, Consumer<? super IEvent> action)
+          throws IllegalArgumentException;
+
   /**
    * Returns all events between two dates from the calendar formatted as a string.
    *
@@ -194,18 +288,36 @@ public interface ICalendar {
   String getEventsToString(String startDateTtime, String endDateTtime);
 
   /**
-   * Finds the first 10 events from this calendar that occur on or after a given
-   * start date.
+   * Returns the first page of event occurrences starting at or after the given dateTtime, in
+   * chronological order. A series is listed as its separate occurrences.
    *
-   * @param startDateString a string that represents a date YYYY-MM-DD
-   * @return list of events
+   * @param startDateTtime "YYYY-MM-DDThh:mm"
+   * @param pageSize       most occurrences on the page
+   * @return EventPage
+   * @throws IllegalArgumentException when input doesn't match specified pattern or the page size
+   *                                  is not positive
    */
-
-  ArrayList<IEvent> getFirstTen(String startDateString);
+  EventPage getPage(String startDateTtime, int pageSize) throws IllegalArgumentException;
 
   /**
-   * Sorts the events in this calendar by their date.
+   * Returns the page of event occurrences starting at the given cursor, in chronological order.
+   * Passing the end cursor of a page gives the page after it.
+   *
+   * @param cursor   EventCursor
+   * @param pageSize most occurrences on the page
+   * @return EventPage
+   * @throws IllegalArgumentException when the page size is not positive
    */
+  EventPage getPageAfter(EventCursor cursor, int pageSize) throws IllegalArgumentException;
 
-  void sortEvents();
+  /**
+   * Returns the page of event occurrences just before the given cursor, in chronological order.
+   * Passing the start cursor of a page gives the page before it.
+   *
+   * @param cursor   EventCursor
+   * @param pageSize most occurrences on the page
+   * @return EventPage
+   * @throws IllegalArgumentException when the page size is not positive
+   */
+  EventPage getPageBefore(EventCursor cursor, int pageSize) throws IllegalArgumentException;
 }
@@ -21,6 +21,20 @@ public interface ICalendarSuite {
    */
   void createCalendar(String name, String timezone) throws IllegalArgumentException;
 
+  /**
+   * Creates a new Calendar with the given name and timezone whose events are kept in files in
+   * the given directory rather than in memory. If the directory already holds a calendar's
+   * events, the new calendar starts with them.
+   *
+   * @param name      String
+   * @param timezone  String - "place/place"
+   * @param directory where the calendar's events are kept
+   * @throws IllegalArgumentException when timezone is not supported, calendar name already
+   *                                  exists within this suite, or the directory cannot be used
+   */
+  void createCalendar(String name, String timezone, String directory)
+          throws IllegalArgumentException;
+
   /**
    * Returns the calendar currently in use. Throws and error if no calendar is in use.
    *
@@ -66,6 +80,15 @@ public interface ICalendarSuite {
    */
   void useCalendar(String name) throws IllegalArgumentException;
 
+  /**
+   * Returns a session of this suite: a suite sharing its calendars, so changes made through
+   * either are seen by both, but with its own calendar in use, starting as this one's. Threads
+   * sharing a suite should each work through their own session.
+   *
+   * @return ICalendarSuite
+   */
+  ICalendarSuite newSession();
+
   /**
    * Copies a single event matching the given eventName and startDateTtime from the calendar
    * currently marked as in-use to the target calendar at the given newDateTtime. The
@@ -108,4 +131,49 @@ public interface ICalendarSuite {
    */
   void copyEventsRange(String startDate, String endDate, String targetCalendarName,
                        String targetStartDate) throws IllegalArgumentException;
+
+  /**
+   * Saves every calendar in this suite, with its time zone and events, to a binary snapshot
+   * file. The suite can be loaded again with CalendarSuite.loadSnapshot.
+   *
+   * @param filePath where the snapshot goes
+   * @throws IllegalArgumentException when the file cannot be written
+   */
+  void saveSnapshot(String filePath) throws IllegalArgumentException;
+
+  /**
+   * Writes every event of the calendar with the given name to an iCalendar (.ics) file. Series
+   * are written as rules rather than as their occurrences.
+   *
+   * @param name     String
+   * @param filePath where the file goes
+   * @throws IllegalArgumentException if there is no such calendar or the file cannot be written
+   */
+  void exportCalendar(String name, String filePath) throws IllegalArgumentException;
+
+  /**
+   * Writes the events of the calendar with the given name that occur between two dateTtimes to
+   * an iCalendar file. A series is written as a rule cut down to its occurrences in that time.
+   *
+   * @param name           String
+   * @param startDateTtime "YYYY-MM-DDThh:mm"
+   * @param endDateTtime   "YYYY-MM-DDThh:mm"
+   * @param filePath       where the file goes
+   * @throws IllegalArgumentException if there is no such calendar, a dateTtime is invalid, or
+   *                                  the file cannot be written
+   */
+  void exportCalendar(String name, String startDateTtime, String endDateTtime, String filePath)
+          throws IllegalArgumentException;
+
+  /**
+   * Adds the events of an iCalendar (.ics) file to the calendar with the given name, moving
+   * their times into its time zone. Daily and weekly rules become series. Events that cannot be
+   * read or are already in the calendar are skipped.
+   *
+   * @param name     String
+   * @param filePath an iCalendar file
+   * @return what was imported
+   * @throws IllegalArgumentException if there is no such calendar or the file cannot be read
+   */
+  ImportReport importCalendar(String name, String filePath) throws IllegalArgumentException;
 }
@@ -60,4 +60,12 @@ public interface IDate {
 
   String getDayOfWeek();
 
+  /**
+   * Returns the number of days between 1970-01-01 and this date. Dates before 1970-01-01 are
+   * negative.
+   *
+   * @return int
+   */
+  int toEpochDay();
+
 }
@@ -1,5 +1,7 @@
 package calendar;
 
+import java.util.List;
+
 /**
  * This interface is for all events. All events can have their properties editted, and all event
  * objects have getters for their subject; start and end dateTtimes; busy status; and toString of
@@ -17,6 +19,25 @@ public interface IEvent {
    */
   IEvent deepCopy(int timeAdjustment);
 
+  /**
+   * Returns a copy of this event with its start moved by startShift minutes and its end by
+   * endShift minutes. Negative minutes move backwards. A series keeps its days of the week
+   * relative to its start, so a series whose start moves to another day moves to other weekdays.
+   *
+   * @param startShift minutes to move the start by
+   * @param endShift   minutes to move the end by
+   * @return IEvent
+   */
+  IEvent moved(int startShift, int endShift);
+
+  /**
+   * Returns a copy of this event with the same properties, which can be edited without changing
+   * this event.
+   *
+   * @return IEvent
+   */
+  IEvent duplicate();
+
   /**
    * Returns a copy of this event if this event is during the given date. Returns null otherwise.
    *
@@ -25,6 +46,32 @@ public interface IEvent {
    */
   IEvent sameDay(IDate date);
 
+  /**
+   * Adds a copy of every occurrence of this event that overlaps the window [fromInstant,
+   * toInstant] to the given list, in chronological order. Instants are minutes counted from
+   * 1970-01-01T00:00.
+   *
+   * @param fromInstant first minute of the window
+   * @param toInstant   last minute of the window
+   * @param into        list receiving the occurrences
+   */
+  void collectOccurrences(long fromInstant, long toInstant, List<IEvent> into);
+
+  /**
+   * Returns the minute this event starts at, counted from 1970-01-01T00:00.
+   *
+   * @return long
+   */
+  long getStartInstant();
+
+  /**
+   * Returns the minute this event ends at, counted from 1970-01-01T00:00. For a series this is
+   * the end of its last occurrence.
+   *
+   * @return long
+   */
+  long getEndInstant();
+
   /**
    * Returns true if this event matches the given subject, startDateTtime, and endDateTtime.
    *
@@ -41,7 +88,7 @@ public interface IEvent {
    * @param prop         String
    * @param dateTtime    "YYYY-MM-DDThh:mm"
    * @param newPropvalue String
-   * @return IEvent
+   * @return this event, or the occurrence taken out of this series to be kept on its own
    */
   IEvent editEventProperty(String prop, String dateTtime, String newPropvalue);
 
@@ -52,6 +99,7 @@ public interface IEvent {
    * @param prop         String
    * @param dateTtime    "YYYY-MM-DDThh:mm"
    * @param newPropvalue String
+   * @return this event, or the part of this series split off to be kept on its own
    */
   IEvent editEventsProperty(String prop, String dateTtime, String newPropvalue);
 
@@ -61,17 +109,10 @@ public interface IEvent {
    *
    * @param prop         String
    * @param newPropvalue String
+   * @return this event
    */
   IEvent editSeriesProperty(String prop, String newPropvalue);
 
-  /**
-   * Returns true if there is an event during the given day and time.
-   *
-   * @param dateTtime String
-   * @return boolean
-   */
-  boolean isBusy(String dateTtime);
-
   /**
    * Returns true when the event is an event series.
    *
@@ -100,6 +141,20 @@ public interface IEvent {
   @Override
   String toString();
 
+  /**
+   * Returns the date and time an event starts.
+   *
+   * @return DateTime
+   */
+  DateTime getStart();
+
+  /**
+   * Returns the date and time an event ends.
+   *
+   * @return DateTime
+   */
+  DateTime getEnd();
+
   /**
    * Returns the start date of an event.
    *
@@ -0,0 +1,85 @@
+package calendar;
+
+import java.util.List;
+
+/**
+ * Where a calendar keeps its events. A store holds events as they were added, single events and
+ * series alike, and answers the lookups a calendar needs. Every list it fills is ordered by the
+ * start of the events, and events starting at the same minute keep the order they were added
+ * in. Events are changed by removing them and adding changed copies.
+ *
+ * <p>Only one thread may change a store at a time. The lookups are for that thread; other
+ * threads read through the IEventView methods, which a store may answer from the last version
+ * published.
+ */
+interface IEventStore extends IEventView {
+
+  /**
+   * Adds the given event.
+   *
+   * @param event IEvent
+   */
+  void add(IEvent event);
+
+  /**
+   * Adds those of the given events that are not equal to an event the store holds or to one
+   * before them in the list, as if they were added one at a time in the order given. A store may
+   * put them in order and rebuild its indexes once rather than adding them one at a time.
+   *
+   * @param events the events to add
+   * @return the events added, in the order given
+   */
+  List<IEvent> addAll(List<IEvent> events);
+
+  /**
+   * Removes the given event. The event must be one this store handed out and must not have been
+   * changed since.
+   *
+   * @param event IEvent
+   */
+  void remove(IEvent event);
+
+  /**
+   * Returns true if the store holds an event equal to the given one.
+   *
+   * @param event IEvent
+   * @return boolean
+   */
+  boolean contains(IEvent event);
+
+  /**
+   * Returns the first single event with the given subject and start, and with the given end if
+   * one is given, or null if there is none.
+   *
+   * @param subject String
+   * @param start   minutes since 1970-01-01T00:00
+   * @param end     DateTime, or null to match any end
+   * @return IEvent or null
+   */
+  IEvent findSingle(String subject, long start, DateTime end);
+
+  /**
+   * Returns every series with the given subject whose occurrences start at the given minute of
+   * the day.
+   *
+   * @param subject     String
+   * @param minuteOfDay 0-1439
+   * @return list of series
+   */
+  List<IEvent> findSeries(String subject, int minuteOfDay);
+
+  /**
+   * Makes every change since the last call visible to readers at once. Until then the read
+   * methods of a store that keeps versions answer as before the changes.
+   */
+  void publish();
+
+  /**
+   * Returns the events as they were last published. A store that keeps versions returns a view
+   * that never changes, which any thread may read without locking; any other store returns
+   * itself, and must not be changed while it is read.
+   *
+   * @return IEventView
+   */
+  IEventView version();
+}
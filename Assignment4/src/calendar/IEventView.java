@@ -0,0 +1,43 @@
+package calendar;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read access to a calendar's events. Every list it fills is ordered by the start of the events,
+ * and events starting at the same minute keep the order they were added in.
+ */
+interface IEventView {
+
+  /**
+   * Passes every event whose span overlaps the window [from, to] to the given action. A series
+   * spans from its first start to its last end. Nothing is collected on the way, so a whole
+   * store can be walked without holding it in memory.
+   *
+   * @param from   first minute of the window
+   * @param to     last minute of the window
+   * @param action receives the events
+   */
+  void overlapping(long from, long to, Consumer<? super IEvent> action);
+
+  /**
+   * Returns every event.
+   *
+   * @return list of events
+   */
+  List<IEvent> all();
+
+  /**
+   * Returns the earliest start of any event, or Long.MAX_VALUE when there are none.
+   *
+   * @return long
+   */
+  long minStart();
+
+  /**
+   * Returns the latest end of any event, or Long.MIN_VALUE when there are none.
+   *
+   * @return long
+   */
+  long maxEnd();
+}
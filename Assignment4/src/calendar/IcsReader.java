@@ -0,0 +1,663 @@
+package calendar;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Reads the events of an iCalendar (RFC 5545) file in blocks, keeping only the event being read
+ * and the events read so far. Lines are read as bytes and only the text an event keeps is
+ * decoded. Times are moved into the time zone of the calendar they are read for, and seconds
+ * are dropped.
+ *
+ * <p>A daily or weekly RRULE with no interval, weekdays without ordinals, and a COUNT, an UNTIL
+ * or neither becomes a SeriesEvent, with its EXDATEs as the days removed from it. A rule with
+ * neither ends ten years after it starts. Events with any other rule, without a start, or ending
+ * before they start are skipped. An event given as dates alone lasts from 8 am to 5 pm, like
+ * the all day events of this calendar. The text of each event is shared through the dictionary
+ * of the suite it is read for as soon as the event is read, so events with the same text do not
+ * each keep a copy of it while the rest of the file is read.
+ */
+final class IcsReader {
+
+  private static final int BLOCK = 1 << 20;
+  private static final int OPEN_ENDED_DAYS = 3652;
+  private static final int ALL_DAY_START = 8 * 60;
+  private static final int ALL_DAY_END = 17 * 60;
+  private static final long NONE = Long.MIN_VALUE;
+  private static final String WEEKDAYS = "MOTUWETHFRSASU";
+
+  private static final byte[] BEGIN = bytes("BEGIN");
+  private static final byte[] END = bytes("END");
+  private static final byte[] VEVENT = bytes("VEVENT");
+  private static final byte[] DTSTART = bytes("DTSTART");
+  private static final byte[] DTEND = bytes("DTEND");
+  private static final byte[] DURATION = bytes("DURATION");
+  private static final byte[] SUMMARY = bytes("SUMMARY");
+  private static final byte[] LOCATION = bytes("LOCATION");
+  private static final byte[] DESCRIPTION = bytes("DESCRIPTION");
+  private static final byte[] CLASS = bytes("CLASS");
+  private static final byte[] STATUS = bytes("X-CALENDAR-STATUS");
+  private static final byte[] RRULE = bytes("RRULE");
+  private static final byte[] EXDATE = bytes("EXDATE");
+  private static final byte[] TZID = bytes("TZID=");
+
+  private final ZoneId zone;
+  private final byte[] zoneId;
+  private final Map<String, ZoneId> zones;
+  private final TextDictionary dictionary;
+  private int skipped;
+
+  // the file being read, and the line being read from it
+  private InputStream in;
+  private final byte[] block;
+  private int position;
+  private int limit;
+  private byte[] line;
+  private int length;
+
+  // the date of the last DateTime made, which most events share with the one before
+  private Date lastDate;
+
+  // the event being read
+  private long start;
+  private boolean startIsDate;
+  private long end;
+  private boolean endIsDate;
+  private String duration;
+  private String subject;
+  private String location;
+  private String description;
+  private String status;
+  private String rule;
+  private final List<String> exdates;
+  private final List<ZoneId> exdateZones;
+
+  /**
+   * Creates a reader for a calendar in the given time zone.
+   *
+   * @param timezone   the time zone of the calendar the events are read for
+   * @param dictionary the dictionary of the suite the events are read for
+   */
+  IcsReader(TimeZone timezone, TextDictionary dictionary) {
+    this.zone = timezone.toZoneId();
+    this.zoneId = bytes(timezone.getID());
+    this.zones = new HashMap<>();
+    this.dictionary = dictionary;
+    this.block = new byte[BLOCK];
+    this.line = new byte[256];
+    this.exdates = new ArrayList<>();
+    this.exdateZones = new ArrayList<>();
+  }
+
+  private static byte[] bytes(String ascii) {
+    return ascii.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Returns how many events were skipped because they could not be read.
+   *
+   * @return int
+   */
+  int getSkipped() {
+    return this.skipped;
+  }
+
+  /**
+   * Reads every event in the given file.
+   *
+   * @param file an iCalendar file
+   * @return the events in the order they appear
+   * @throws IOException if the file cannot be read
+   */
+  List<IEvent> read(Path file) throws IOException {
+    List<IEvent> events = new ArrayList<>();
+    try (InputStream stream = Files.newInputStream(file)) {
+      this.in = stream;
+      this.position = 0;
+      this.limit = 0;
+      boolean inEvent = false;
+      int nested = 0; // depth of components inside the event, such as alarms
+      while (this.readLine()) {
+        int nameEnd = 0;
+        while (nameEnd < this.length && this.line[nameEnd] != ':' && this.line[nameEnd] != ';') {
+          nameEnd++;
+        }
+        if (this.is(BEGIN, nameEnd)) {
+          if (inEvent) {
+            nested++;
+          } else if (this.valueIs(VEVENT, nameEnd)) {
+            inEvent = true;
+            this.clear();
+          }
+        } else if (this.is(END, nameEnd)) {
+          if (nested > 0) {
+            nested--;
+          } else if (inEvent) {
+            inEvent = false;
+            IEvent event = this.build();
+            if (event == null) {
+              this.skipped++;
+            } else {
+              events.add(event);
+            }
+          }
+        } else if (inEvent && nested == 0) {
+          this.property(nameEnd);
+        }
+      }
+    } finally {
+      this.in = null;
+    }
+    return events;
+  }
+
+  /**
+   * Reads the next content line into the line buffer, joining folded lines and dropping the
+   * line break. Returns false at the end of the file.
+   */
+  private boolean readLine() throws IOException {
+    this.length = 0;
+    if (!this.fill()) {
+      return false;
+    }
+    while (true) {
+      int from = this.position;
+      while (this.position < this.limit && this.block[this.position] != '\n') {
+        this.position++;
+      }
+      this.append(from, this.position);
+      if (this.position == this.limit) {
+        if (this.fill()) {
+          continue;
+        }
+        break;
+      }
+      this.position++;
+      if (this.length > 0 && this.line[this.length - 1] == '\r') {
+        this.length--;
+      }
+      if (!this.fill() || (this.block[this.position] != ' ' && this.block[this.position] != '\t')) {
+        break;
+      }
+      this.position++; // a folded line goes on without its leading space
+    }
+    return true;
+  }
+
+  /**
+   * Makes sure there are bytes left in the block, reading the next block if needed. Returns
+   * false at the end of the file.
+   */
+  private boolean fill() throws IOException {
+    while (this.position >= this.limit) {
+      int read = this.in.read(this.block);
+      if (read < 0) {
+        return false;
+      }
+      this.position = 0;
+      this.limit = read;
+    }
+    return true;
+  }
+
+  private void append(int from, int to) {
+    int needed = this.length + to - from;
+    if (needed > this.line.length) {
+      byte[] grown = new byte[Math.max(needed, 2 * this.line.length)];
+      System.arraycopy(this.line, 0, grown, 0, this.length);
+      this.line = grown;
+    }
+    System.arraycopy(this.block, from, this.line, this.length, to - from);
+    this.length = needed;
+  }
+
+  /**
+   * Returns true if the line's property name, which ends at the given index, is the given one.
+   */
+  private boolean is(byte[] name, int nameEnd) {
+    if (nameEnd != name.length) {
+      return false;
+    }
+    for (int i = 0; i < nameEnd; i++) {
+      if ((this.line[i] & 0xDF) != name[i] && this.line[i] != name[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if the line's value, which follows a name ending at the given index, is the
+   * given one.
+   */
+  private boolean valueIs(byte[] value, int nameEnd) {
+    int from = this.valueStart(nameEnd);
+    if (this.length - from != value.length) {
+      return false;
+    }
+    for (int i = 0; i < value.length; i++) {
+      if ((this.line[from + i] & 0xDF) != value[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the index the line's value starts at, just past the first colon outside quotes.
+   */
+  private int valueStart(int nameEnd) {
+    boolean quoted = false;
+    for (int i = nameEnd; i < this.length; i++) {
+      if (this.line[i] == '"') {
+        quoted = !quoted;
+      } else if (this.line[i] == ':' && !quoted) {
+        return i + 1;
+      }
+    }
+    return this.length;
+  }
+
+  private void clear() {
+    this.start = NONE;
+    this.end = NONE;
+    this.duration = null;
+    this.subject = "";
+    this.location = "";
+    this.description = "";
+    this.status = null;
+    this.rule = null;
+    this.exdates.clear();
+    this.exdateZones.clear();
+  }
+
+  /**
+   * Keeps what the current line says about the event being read. The first of each property
+   * counts.
+   */
+  private void property(int nameEnd) {
+    int from = this.valueStart(nameEnd);
+    int to = this.length;
+    if (this.is(DTSTART, nameEnd)) {
+      if (this.start == NONE) {
+        this.startIsDate = to - from == 8;
+        this.start = this.toLocal(this.line, from, to, this.zoneOf(nameEnd, from),
+                ALL_DAY_START);
+      }
+    } else if (this.is(DTEND, nameEnd)) {
+      if (this.end == NONE) {
+        this.endIsDate = to - from == 8;
+        // an all day event ends the day before its end date
+        this.end = this.toLocal(this.line, from, to, this.zoneOf(nameEnd, from),
+                ALL_DAY_END - 1440);
+      }
+    } else if (this.is(SUMMARY, nameEnd)) {
+      this.subject = this.text(from, to);
+    } else if (this.is(LOCATION, nameEnd)) {
+      this.location = this.text(from, to);
+    } else if (this.is(DESCRIPTION, nameEnd)) {
+      this.description = this.text(from, to);
+    } else if (this.is(CLASS, nameEnd)) {
+      if (this.status == null) {
+        String classification = this.text(from, to).toUpperCase();
+        if (classification.equals("PUBLIC")) {
+          this.status = "public";
+        } else if (classification.equals("PRIVATE") || classification.equals("CONFIDENTIAL")) {
+          this.status = "private";
+        }
+      }
+    } else if (this.is(STATUS, nameEnd)) {
+      // older files may hold any status; only public and private are kept
+      String status = this.text(from, to);
+      if (status.equalsIgnoreCase("public") || status.equalsIgnoreCase("private")) {
+        this.status = status.toLowerCase();
+      }
+    } else if (this.is(DURATION, nameEnd)) {
+      this.duration = this.text(from, to);
+    } else if (this.is(RRULE, nameEnd)) {
+      this.rule = this.text(from, to);
+    } else if (this.is(EXDATE, nameEnd)) {
+      ZoneId source = this.zoneOf(nameEnd, from);
+      for (String date : this.text(from, to).split(",")) {
+        this.exdates.add(date);
+        this.exdateZones.add(source);
+      }
+    }
+  }
+
+  /**
+   * Returns the zone named by the TZID parameter of the current line, or null if it has none.
+   */
+  private ZoneId zoneOf(int nameEnd, int valueStart) {
+    int parameters = valueStart - 1;
+    for (int i = nameEnd; i + TZID.length <= parameters; i++) {
+      if (this.line[i] != ';') {
+        continue;
+      }
+      boolean matches = true;
+      for (int j = 0; j < TZID.length && matches; j++) {
+        matches = (this.line[i + 1 + j] & 0xDF) == (TZID[j] & 0xDF);
+      }
+      if (!matches) {
+        continue;
+      }
+      int from = i + 1 + TZID.length;
+      int to = from;
+      while (to < parameters && this.line[to] != ';') {
+        to++;
+      }
+      if (to - from >= 2 && this.line[from] == '"' && this.line[to - 1] == '"') {
+        from++;
+        to--;
+      }
+      if (to - from == this.zoneId.length) {
+        boolean same = true;
+        for (int j = 0; j < this.zoneId.length && same; j++) {
+          same = this.line[from + j] == this.zoneId[j];
+        }
+        if (same) {
+          return this.zone;
+        }
+      }
+      return this.zone(new String(this.line, from, to - from, StandardCharsets.UTF_8));
+    }
+    return null;
+  }
+
+  /**
+   * Returns the zone with the given ID, or the calendar's zone if there is no such zone.
+   */
+  private ZoneId zone(String timezoneId) {
+    return this.zones.computeIfAbsent(timezoneId, id -> {
+      try {
+        return ZoneId.of(id);
+      } catch (DateTimeException e) {
+        return this.zone;
+      }
+    });
+  }
+
+  /**
+   * Returns the event read, or null if it cannot be kept.
+   */
+  private IEvent build() {
+    if (this.start == NONE) {
+      return null;
+    }
+    long end = this.end;
+    if (end == NONE && this.duration != null) {
+      long minutes = duration(this.duration);
+      if (minutes != NONE) {
+        end = this.startIsDate ? this.start - ALL_DAY_START + minutes - 1440 + ALL_DAY_END
+                : this.start + minutes;
+      }
+    } else if (end == NONE && this.duration == null) {
+      end = this.startIsDate ? this.start - ALL_DAY_START + ALL_DAY_END : this.start;
+    }
+    if (end == NONE || end < this.start) {
+      return null;
+    }
+    Status status = this.status == null ? Status.UNSPECIFIED : Status.read(this.status);
+    EventText text = this.dictionary.intern(
+            new EventText(this.subject, this.location, this.description, status));
+    DateTime startTime = this.dateTime(this.start);
+    DateTime endTime = this.dateTime(end);
+    if (this.rule == null) {
+      return new SingleEvent(text, startTime, endTime);
+    }
+    return this.series(text, startTime, endTime);
+  }
+
+  /**
+   * Returns the DateTime of the given minute, reusing the date of the last one when it can.
+   */
+  private DateTime dateTime(long instant) {
+    int day = (int) Math.floorDiv(instant, 1440L);
+    if (this.lastDate == null || this.lastDate.toEpochDay() != day) {
+      this.lastDate = Date.ofEpochDay(day);
+    }
+    int minute = (int) Math.floorMod(instant, 1440L);
+    return DateTime.of(this.lastDate, minute / 60, minute % 60);
+  }
+
+  /**
+   * Returns the series the rule of the event read describes, or null if it cannot be kept.
+   */
+  private IEvent series(EventText text, DateTime start, DateTime end) {
+    String frequency = null;
+    String count = null;
+    String until = null;
+    int mask = 0;
+    for (String part : this.rule.split(";")) {
+      int equals = part.indexOf('=');
+      String name = equals < 0 ? part : part.substring(0, equals).toUpperCase();
+      String value = equals < 0 ? "" : part.substring(equals + 1);
+      switch (name) {
+        case "FREQ":
+          frequency = value.toUpperCase();
+          break;
+        case "COUNT":
+          count = value;
+          break;
+        case "UNTIL":
+          until = value;
+          break;
+        case "INTERVAL":
+          if (!value.equals("1")) {
+            return null;
+          }
+          break;
+        case "WKST":
+          break;
+        case "BYDAY":
+          for (String day : value.split(",")) {
+            int weekday = WEEKDAYS.indexOf(day.toUpperCase());
+            if (day.length() != 2 || weekday < 0 || weekday % 2 != 0) {
+              return null;
+            }
+            mask |= 1 << (weekday / 2);
+          }
+          break;
+        default:
+          return null;
+      }
+    }
+    if ("DAILY".equals(frequency)) {
+      mask = mask == 0 ? 0x7F : mask;
+    } else if ("WEEKLY".equals(frequency)) {
+      mask = mask == 0 ? 1 << start.getDate().getWeekday() : mask;
+    } else {
+      return null;
+    }
+    int firstDay = start.getDate().toEpochDay();
+    int lastDay;
+    if (count != null) {
+      int remaining;
+      try {
+        remaining = Integer.parseInt(count);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+      if (remaining <= 0) {
+        return null;
+      }
+      lastDay = firstDay - 1;
+      while (remaining > 0) {
+        lastDay++;
+        if ((mask & (1 << Math.floorMod(lastDay + 3, 7))) != 0) {
+          remaining--;
+        }
+      }
+    } else if (until != null) {
+      byte[] value = bytes(until);
+      long last = this.toLocal(value, 0, value.length, null, 1439);
+      if (last == NONE) {
+        return null;
+      }
+      // the last day whose occurrence starts by the end of the rule
+      lastDay = (int) Math.floorDiv(last - start.getMinuteOfDay(), 1440L);
+    } else {
+      lastDay = firstDay + OPEN_ENDED_DAYS;
+    }
+    Set<Integer> exceptions = new HashSet<>();
+    for (int i = 0; i < this.exdates.size(); i++) {
+      byte[] value = bytes(this.exdates.get(i));
+      long excluded = this.toLocal(value, 0, value.length, this.exdateZones.get(i),
+              start.getMinuteOfDay());
+      if (excluded != NONE) {
+        exceptions.add((int) Math.floorDiv(excluded, 1440L));
+      }
+    }
+    return new SeriesEvent(text, start, end, mask, firstDay, lastDay, exceptions);
+  }
+
+  /**
+   * Returns the given DATE or DATE-TIME value as minutes since 1970-01-01T00:00 in the
+   * calendar's time zone, or NONE if it cannot be read. A DATE is taken at the given minute of
+   * its day.
+   *
+   * @param value      holds YYYYMMDD, YYYYMMDDTHHMMSS or YYYYMMDDTHHMMSSZ
+   * @param from       where the value starts
+   * @param to         where the value ends
+   * @param source     the zone named by the value's TZID, or null for UTC or local times
+   * @param dateMinute minute of the day a DATE stands for
+   * @return long
+   */
+  private long toLocal(byte[] value, int from, int to, ZoneId source, int dateMinute) {
+    int year = digits(value, from, 4);
+    int month = digits(value, from + 4, 2);
+    int day = digits(value, from + 6, 2);
+    if (to - from < 8 || year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+      return NONE;
+    }
+    long epochDay = Date.toEpochDay(year, month, day);
+    if (to - from == 8) {
+      return epochDay * 1440 + dateMinute;
+    }
+    int hour = to - from >= 15 && value[from + 8] == 'T' ? digits(value, from + 9, 2) : -1;
+    int minute = hour < 0 ? -1 : digits(value, from + 11, 2);
+    if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+      return NONE;
+    }
+    long local = epochDay * 1440 + hour * 60 + minute;
+    if (value[to - 1] == 'Z') {
+      source = ZoneOffset.UTC;
+    }
+    if (source == null || source.equals(this.zone)) {
+      return local;
+    }
+    try {
+      LocalDateTime moved = LocalDateTime.of(year, month, day, hour, minute).atZone(source)
+              .withZoneSameInstant(this.zone).toLocalDateTime();
+      return moved.toLocalDate().toEpochDay() * 1440 + moved.getHour() * 60 + moved.getMinute();
+    } catch (DateTimeException e) {
+      return NONE;
+    }
+  }
+
+  /**
+   * Returns the number written in the given count of ASCII digits, or -1 if they are not all
+   * digits.
+   */
+  private static int digits(byte[] value, int from, int count) {
+    if (from + count > value.length) {
+      return -1;
+    }
+    int number = 0;
+    for (int i = from; i < from + count; i++) {
+      int digit = value[i] - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      number = number * 10 + digit;
+    }
+    return number;
+  }
+
+  /**
+   * Returns the given DURATION value in minutes, or NONE if it cannot be read.
+   */
+  private static long duration(String value) {
+    int i = 0;
+    boolean negative = false;
+    if (i < value.length() && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+      negative = value.charAt(i) == '-';
+      i++;
+    }
+    if (i >= value.length() || value.charAt(i) != 'P') {
+      return NONE;
+    }
+    long minutes = 0;
+    long number = -1;
+    for (i++; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c >= '0' && c <= '9') {
+        number = Math.max(number, 0) * 10 + (c - '0');
+      } else if (c == 'T') {
+        continue;
+      } else if (number < 0) {
+        return NONE;
+      } else {
+        switch (c) {
+          case 'W':
+            minutes += number * 7 * 1440;
+            break;
+          case 'D':
+            minutes += number * 1440;
+            break;
+          case 'H':
+            minutes += number * 60;
+            break;
+          case 'M':
+            minutes += number;
+            break;
+          case 'S':
+            minutes += number / 60;
+            break;
+          default:
+            return NONE;
+        }
+        number = -1;
+      }
+    }
+    return negative ? -minutes : minutes;
+  }
+
+  /**
+   * Returns the TEXT value held between the given indexes of the line, decoded from UTF-8 and
+   * without the escapes RFC 5545 adds.
+   */
+  private String text(int from, int to) {
+    int escape = from;
+    while (escape < to && this.line[escape] != '\\') {
+      escape++;
+    }
+    if (escape == to) {
+      return new String(this.line, from, to - from, StandardCharsets.UTF_8);
+    }
+    int kept = escape;
+    for (int i = escape; i < to; i++) {
+      byte c = this.line[i];
+      if (c == '\\' && i + 1 < to) {
+        byte escaped = this.line[++i];
+        c = escaped == 'n' || escaped == 'N' ? (byte) '\n' : escaped;
+      }
+      this.line[kept++] = c;
+    }
+    return new String(this.line, from, kept - from, StandardCharsets.UTF_8);
+  }
+}
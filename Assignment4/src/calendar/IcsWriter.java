@@ -0,0 +1,358 @@
+package calendar;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.TimeZone;
+
+/**
+ * Writes events to an iCalendar (RFC 5545) file as they are handed to it, so a calendar of any
+ * size is exported without being held in memory. Each event becomes one VEVENT. A series is
+ * written as its rule, a weekly RRULE with the days removed from it as EXDATEs, rather than as
+ * its occurrences.
+ *
+ * <p>Times are written as local times of the calendar's time zone, named by its tz database ID
+ * (RFC 7809), and the end of a rule is written in UTC as RFC 5545 asks. The zone is described by
+ * a VTIMEZONE written before the events, holding its offset at the start of the exported span
+ * and every change of offset during it. When only part of a calendar is exported, a series is cut
+ * down to its occurrences in that part.
+ */
+final class IcsWriter implements Closeable {
+
+  private static final String[] WEEKDAYS = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+  private static final int LINE_OCTETS = 75;
+  private static final int FLUSH_CHARS = 1 << 15;
+
+  private final Writer out;
+  private final String calendarName;
+  private final String timezoneId;
+  private final ZoneId zone;
+  private final String stamp;
+  private final StringBuilder line; // the content line being built
+  private final StringBuilder pending; // folded lines not yet handed to the writer
+  private int written;
+
+  /**
+   * Creates the given file and writes the start of a calendar to it, with the calendar's time
+   * zone as it is over the span [from, to] the events written will cover.
+   *
+   * @param file         where the calendar goes
+   * @param calendarName name of the calendar
+   * @param timezone     the calendar's time zone
+   * @param from         first minute, in the calendar's time zone, of the span
+   * @param to           last minute, in the calendar's time zone, of the span
+   * @throws IOException if the file cannot be written
+   */
+  IcsWriter(Path file, String calendarName, TimeZone timezone, long from, long to)
+          throws IOException {
+    this.out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file),
+            StandardCharsets.UTF_8), 1 << 16);
+    this.calendarName = calendarName;
+    this.timezoneId = timezone.getID();
+    this.zone = timezone.toZoneId();
+    this.line = new StringBuilder(128);
+    this.pending = new StringBuilder(FLUSH_CHARS + 256);
+    ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+    this.stamp = utc(now.toLocalDateTime());
+    this.writeLine("BEGIN:VCALENDAR");
+    this.writeLine("VERSION:2.0");
+    this.writeLine("PRODID:-//Assignment4//Calendar//EN");
+    this.writeLine("CALSCALE:GREGORIAN");
+    this.text("X-WR-CALNAME:", calendarName);
+    this.writeLine("X-WR-TIMEZONE:" + this.timezoneId);
+    this.writeTimezone(from, to);
+  }
+
+  /**
+   * Writes a VTIMEZONE for the calendar's time zone: the offset in effect at the start of the
+   * span [from, to], and each change of offset up to its end. An empty span stands for now.
+   */
+  private void writeTimezone(long from, long to) throws IOException {
+    ZoneRules rules = this.zone.getRules();
+    Instant start = Instant.now();
+    Instant end = start;
+    if (from <= to) {
+      start = this.toInstant(from);
+      end = this.toInstant(to);
+    }
+    this.writeLine("BEGIN:VTIMEZONE");
+    this.writeLine("TZID:" + this.timezoneId);
+    ZoneOffsetTransition last = rules.previousTransition(start.plusSeconds(1));
+    if (last == null) {
+      // the zone has always had this offset
+      ZoneOffset offset = rules.getOffset(start);
+      this.observance("STANDARD", LocalDateTime.of(1970, 1, 1, 0, 0), offset, offset);
+    } else {
+      this.observance(last);
+    }
+    for (ZoneOffsetTransition next = rules.nextTransition(start);
+         next != null && !next.getInstant().isAfter(end);
+         next = rules.nextTransition(next.getInstant())) {
+      this.observance(next);
+    }
+    this.writeLine("END:VTIMEZONE");
+  }
+
+  /**
+   * Writes the observance a transition of the calendar's time zone starts.
+   */
+  private void observance(ZoneOffsetTransition transition) throws IOException {
+    boolean daylight = this.zone.getRules().isDaylightSavings(transition.getInstant());
+    this.observance(daylight ? "DAYLIGHT" : "STANDARD", transition.getDateTimeBefore(),
+            transition.getOffsetBefore(), transition.getOffsetAfter());
+  }
+
+  private void observance(String kind, LocalDateTime start, ZoneOffset before,
+                          ZoneOffset after) throws IOException {
+    this.writeLine("BEGIN:" + kind);
+    this.line.setLength(0);
+    this.line.append("DTSTART:");
+    appendDateTime(this.line, start.toLocalDate().toEpochDay(),
+            start.getHour() * 60 + start.getMinute());
+    if (start.getSecond() != 0) {
+      // only local mean times changed at a second
+      this.line.setLength(this.line.length() - 2);
+      pad(this.line, start.getSecond(), 2);
+    }
+    this.writeLine(this.line);
+    this.writeLine("TZOFFSETFROM:" + offset(before));
+    this.writeLine("TZOFFSETTO:" + offset(after));
+    this.writeLine("END:" + kind);
+  }
+
+  /**
+   * Returns the given offset as (+/-)HHMM, or (+/-)HHMMSS if it has seconds.
+   */
+  private static String offset(ZoneOffset offset) {
+    int seconds = offset.getTotalSeconds();
+    StringBuilder builder = new StringBuilder(8);
+    builder.append(seconds < 0 ? '-' : '+');
+    seconds = Math.abs(seconds);
+    pad(builder, seconds / 3600, 2);
+    pad(builder, seconds / 60 % 60, 2);
+    if (seconds % 60 != 0) {
+      pad(builder, seconds % 60, 2);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Returns the moment the given local time of the calendar's time zone happens.
+   */
+  private Instant toInstant(long instant) {
+    Date date = Date.ofEpochDay((int) Math.floorDiv(instant, 1440L));
+    int minute = (int) Math.floorMod(instant, 1440L);
+    return LocalDateTime.of(date.getYear(), date.getMonth(), date.getDay(), minute / 60,
+            minute % 60).atZone(this.zone).toInstant();
+  }
+
+  /**
+   * Returns how many events have been written.
+   *
+   * @return int
+   */
+  int getWritten() {
+    return this.written;
+  }
+
+  /**
+   * Writes the given event, keeping only what falls in the window [from, to]. A series with no
+   * occurrence in the window is left out.
+   *
+   * @param event IEvent
+   * @param from  first minute of the window
+   * @param to    last minute of the window
+   * @throws IOException if the file cannot be written
+   */
+  void write(IEvent event, long from, long to) throws IOException {
+    if (!event.isSeries()) {
+      this.begin(event);
+      this.local("DTSTART", event.getStart().toInstant());
+      this.local("DTEND", event.getEnd().toInstant());
+      this.end();
+      return;
+    }
+    SeriesEvent series = (SeriesEvent) event;
+    int startMinute = series.getStart().getMinuteOfDay();
+    int endMinute = series.getEnd().getMinuteOfDay();
+    // the first and last weekdays of the rule with an occurrence in the window
+    long first = Math.max(series.getFirstDay(), Math.floorDiv(from, 1440L) - 1);
+    while (first <= series.getLastDay()
+            && (!onWeekday(series, first) || first * 1440 + endMinute < from)) {
+      first++;
+    }
+    long last = Math.min(series.getLastDay(), Math.floorDiv(to, 1440L));
+    while (last >= first && (!onWeekday(series, last) || last * 1440 + startMinute > to)) {
+      last--;
+    }
+    if (first > last) {
+      return;
+    }
+    this.begin(series);
+    this.local("DTSTART", first * 1440 + startMinute);
+    this.local("DTEND", first * 1440 + endMinute);
+    this.line.setLength(0);
+    this.line.append("RRULE:FREQ=WEEKLY;BYDAY=");
+    String separator = "";
+    for (int weekday = 0; weekday < WEEKDAYS.length; weekday++) {
+      if ((series.getWeekdayMask() & (1 << weekday)) != 0) {
+        this.line.append(separator).append(WEEKDAYS[weekday]);
+        separator = ",";
+      }
+    }
+    this.line.append(";UNTIL=").append(this.toUtc(last * 1440 + startMinute));
+    this.writeLine(this.line);
+    for (int day : series.getExceptions()) {
+      if (day >= first && day <= last && onWeekday(series, day)) {
+        this.local("EXDATE", day * 1440L + startMinute);
+      }
+    }
+    this.end();
+  }
+
+  /**
+   * Writes the end of the calendar and closes the file.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      this.writeLine("END:VCALENDAR");
+      this.out.append(this.pending);
+    } finally {
+      this.out.close();
+    }
+  }
+
+  private static boolean onWeekday(SeriesEvent series, long day) {
+    return (series.getWeekdayMask() & (1 << Math.floorMod(day + 3, 7))) != 0;
+  }
+
+  private void begin(IEvent event) throws IOException {
+    this.writeLine("BEGIN:VEVENT");
+    this.text("UID:", (this.written + 1) + "-" + event.getStartInstant() + "@"
+            + this.calendarName);
+    this.writeLine("DTSTAMP:" + this.stamp);
+    this.text("SUMMARY:", event.getSubject());
+    if (!event.getLocation().isEmpty()) {
+      this.text("LOCATION:", event.getLocation());
+    }
+    if (!event.getDescription().isEmpty()) {
+      this.text("DESCRIPTION:", event.getDescription());
+    }
+    String status = event.getStatus();
+    if (!status.isEmpty()) {
+      this.writeLine("CLASS:" + status.toUpperCase());
+    }
+  }
+
+  private void end() throws IOException {
+    this.writeLine("END:VEVENT");
+    this.written++;
+  }
+
+  /**
+   * Writes a property holding a local time of the calendar's time zone.
+   */
+  private void local(String name, long instant) throws IOException {
+    this.line.setLength(0);
+    this.line.append(name).append(";TZID=").append(this.timezoneId).append(':');
+    appendDateTime(this.line, Math.floorDiv(instant, 1440L),
+            (int) Math.floorMod(instant, 1440L));
+    this.writeLine(this.line);
+  }
+
+  /**
+   * Returns the given local time of the calendar's time zone as a UTC date-time.
+   */
+  private String toUtc(long instant) {
+    return utc(LocalDateTime.ofInstant(this.toInstant(instant), ZoneOffset.UTC));
+  }
+
+  private static String utc(LocalDateTime time) {
+    StringBuilder builder = new StringBuilder(16);
+    appendDateTime(builder, (int) time.toLocalDate().toEpochDay(),
+            time.getHour() * 60 + time.getMinute());
+    return builder.append('Z').toString();
+  }
+
+  /**
+   * Appends the given day and minute as YYYYMMDDTHHMMSS.
+   */
+  private static void appendDateTime(StringBuilder builder, long day, int minuteOfDay) {
+    Date date = Date.ofEpochDay((int) day);
+    pad(builder, date.getYear(), 4);
+    pad(builder, date.getMonth(), 2);
+    pad(builder, date.getDay(), 2);
+    builder.append('T');
+    pad(builder, minuteOfDay / 60, 2);
+    pad(builder, minuteOfDay % 60, 2);
+    builder.append("00");
+  }
+
+  private static void pad(StringBuilder builder, int value, int digits) {
+    String number = Integer.toString(value);
+    for (int i = number.length(); i < digits; i++) {
+      builder.append('0');
+    }
+    builder.append(number);
+  }
+
+  /**
+   * Writes a property holding text, escaping the characters RFC 5545 reserves.
+   */
+  private void text(String name, String value) throws IOException {
+    this.line.setLength(0);
+    this.line.append(name);
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' || c == ';' || c == ',') {
+        this.line.append('\\').append(c);
+      } else if (c == '\n') {
+        this.line.append("\\n");
+      } else if (c != '\r') {
+        this.line.append(c);
+      }
+    }
+    this.writeLine(this.line);
+  }
+
+  /**
+   * Writes one content line, folding it after every 75 octets of UTF-8. Lines are gathered and
+   * handed to the writer in large blocks.
+   */
+  private void writeLine(CharSequence content) throws IOException {
+    int octets = 0;
+    for (int i = 0; i < content.length(); i++) {
+      char c = content.charAt(i);
+      int size = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : 3;
+      if (octets + size > LINE_OCTETS) {
+        this.pending.append("\r\n ");
+        octets = 1;
+      }
+      this.pending.append(c);
+      if (size == 4 && i + 1 < content.length()) {
+        this.pending.append(content.charAt(++i));
+      }
+      octets += size;
+    }
+    this.pending.append("\r\n");
+    if (this.pending.length() >= FLUSH_CHARS) {
+      this.out.append(this.pending);
+      this.pending.setLength(0);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package calendar;
+
+/**
+ * What came of importing a file into a calendar: how many events were added, how many were left
+ * out, and how long it took.
+ */
+public final class ImportReport {
+
+  private final int imported;
+  private final int skipped;
+  private final long nanos;
+
+  /**
+   * Constructs a report.
+   *
+   * @param imported events added to the calendar
+   * @param skipped  events that could not be read or were already in the calendar
+   * @param nanos    time the import took, in nanoseconds
+   */
+  ImportReport(int imported, int skipped, long nanos) {
+    this.imported = imported;
+    this.skipped = skipped;
+    this.nanos = nanos;
+  }
+
+  /**
+   * Returns how many events were added to the calendar.
+   *
+   * @return int
+   */
+  public int getImported() {
+    return this.imported;
+  }
+
+  /**
+   * Returns how many events could not be read or were already in the calendar.
+   *
+   * @return int
+   */
+  public int getSkipped() {
+    return this.skipped;
+  }
+
+  /**
+   * Returns how long the import took, in milliseconds.
+   *
+   * @return long
+   */
+  public long getMillis() {
+    return this.nanos / 1_000_000;
+  }
+
+  /**
+   * Returns how many events were added per second.
+   *
+   * @return long
+   */
+  public long getEventsPerSecond() {
+    return this.nanos == 0 ? 0 : (long) (this.imported * 1e9 / this.nanos);
+  }
+
+  @Override
+  public String toString() {
+    return "Imported " + this.imported + " events, skipped " + this.skipped + ", in "
+            + this.getMillis() + " ms (" + this.getEventsPerSecond() + " events/s)";
+  }
+}
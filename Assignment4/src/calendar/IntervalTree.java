@@ -0,0 +1,450 @@
+package calendar;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An augmented interval tree. Each value is stored with a closed interval of minutes [start, end]
+ * and the tree is kept balanced (AVL) on the key (start, insertion order). Every node also
+ * remembers the largest end below it so that overlap queries can skip whole subtrees, giving
+ * O(log n + k) range queries where k is the number of overlapping values.
+ *
+ * <p>The tree is persistent: nodes never change once made, and a change copies only the nodes on
+ * the path to the value changed. A version of the tree taken with snapshot therefore stays as it
+ * was however the tree changes afterwards, and may be read by any thread without locking. Only
+ * one thread may change the tree at a time.
+ *
+ * <p>A value is found again by the start it was added with and its identity, so the tree keeps
+ * nothing for each value but its node.
+ *
+ * @param <T> the type of value stored in the tree
+ */
+final class IntervalTree<T> {
+
+  /**
+   * A node of the tree holding one value and its interval.
+   */
+  private static final class Node<T> {
+    private final T value;
+    private final long start;
+    private final long end;
+    private final long seq;
+    private final long maxEnd;
+    private final int height;
+    private final Node<T> left;
+    private final Node<T> right;
+
+    private Node(T value, long start, long end, long seq, Node<T> left, Node<T> right) {
+      this.value = value;
+      this.start = start;
+      this.end = end;
+      this.seq = seq;
+      this.left = left;
+      this.right = right;
+      this.height = 1 + Math.max(height(left), height(right));
+      long max = end;
+      if (left != null) {
+        max = Math.max(max, left.maxEnd);
+      }
+      if (right != null) {
+        max = Math.max(max, right.maxEnd);
+      }
+      this.maxEnd = max;
+    }
+
+    /**
+     * Returns a copy of this node with the given children.
+     */
+    private Node<T> with(Node<T> left, Node<T> right) {
+      return new Node<>(this.value, this.start, this.end, this.seq, left, right);
+    }
+  }
+
+  /**
+   * The tree as it was when the version was taken. It never changes.
+   *
+   * @param <T> the type of value stored in the tree
+   */
+  static final class Version<T> {
+    private final Node<T> root;
+    private final int size;
+
+    private Version(Node<T> root, int size) {
+      this.root = root;
+      this.size = size;
+    }
+
+    /**
+     * Returns the number of values in this version.
+     *
+     * @return int
+     */
+    int size() {
+      return this.size;
+    }
+
+    /**
+     * Returns the earliest start of any interval, or Long.MAX_VALUE when there is none.
+     *
+     * @return long
+     */
+    long minStart() {
+      Node<T> node = this.root;
+      if (node == null) {
+        return Long.MAX_VALUE;
+      }
+      while (node.left != null) {
+        node = node.left;
+      }
+      return node.start;
+    }
+
+    /**
+     * Returns the latest end of any interval, or Long.MIN_VALUE when there is none.
+     *
+     * @return long
+     */
+    long maxEnd() {
+      return this.root == null ? Long.MIN_VALUE : this.root.maxEnd;
+    }
+
+    /**
+     * Passes every value whose interval overlaps [from, to] to the given action, ordered by the
+     * start of their intervals.
+     *
+     * @param from   first minute of the window
+     * @param to     last minute of the window
+     * @param action receives the overlapping values
+     */
+    void query(long from, long to, Consumer<? super T> action) {
+      IntervalTree.query(this.root, from, to, action);
+    }
+
+    /**
+     * Adds up to limit values whose intervals start at or after fromStart to the given list, in
+     * order of their keys.
+     *
+     * @param fromStart first minute a value may start at
+     * @param limit     most values to add
+     * @param into      list receiving the values
+     */
+    void ascending(long fromStart, int limit, List<T> into) {
+      IntervalTree.ascending(this.root, fromStart, into.size() + limit, into);
+    }
+  }
+
+  private Node<T> root;
+  private int size;
+  private long nextSeq;
+
+  /**
+   * Creates an empty interval tree.
+   */
+  IntervalTree() {
+    this.root = null;
+    this.size = 0;
+    this.nextSeq = 0;
+  }
+
+  /**
+   * Returns the tree as it is now. Later changes to the tree do not change the version.
+   *
+   * @return Version
+   */
+  Version<T> snapshot() {
+    return new Version<>(this.root, this.size);
+  }
+
+  /**
+   * Adds the given value over the interval [start, end].
+   *
+   * @param value T
+   * @param start first minute of the interval
+   * @param end   last minute of the interval
+   */
+  void insert(T value, long start, long end) {
+    Node<T> node = new Node<>(value, start, Math.max(start, end), this.nextSeq++, null, null);
+    this.root = insert(this.root, node);
+    this.size++;
+  }
+
+  /**
+   * Fills an empty tree with the given values, already in order of start, in linear time. The
+   * values keep their order among equal starts.
+   *
+   * @param values the values in order of start
+   * @param starts the first minute of each value's interval
+   * @param ends   the last minute of each value's interval
+   * @throws IllegalStateException    if the tree is not empty
+   * @throws IllegalArgumentException if the values are not in order of start
+   */
+  void load(List<T> values, long[] starts, long[] ends)
+          throws IllegalStateException, IllegalArgumentException {
+    if (this.root != null) {
+      throw new IllegalStateException("Tree is not empty");
+    }
+    for (int i = 1; i < values.size(); i++) {
+      if (starts[i] < starts[i - 1]) {
+        throw new IllegalArgumentException("Values are not in order");
+      }
+    }
+    this.root = this.build(values, starts, ends, 0, values.size() - 1);
+    this.size = values.size();
+  }
+
+  /**
+   * Returns a balanced subtree of the values from index low to index high, inclusive.
+   */
+  private Node<T> build(List<T> values, long[] starts, long[] ends, int low, int high) {
+    if (low > high) {
+      return null;
+    }
+    int middle = (low + high) >>> 1;
+    Node<T> left = this.build(values, starts, ends, low, middle - 1);
+    long seq = this.nextSeq++;
+    Node<T> right = this.build(values, starts, ends, middle + 1, high);
+    return new Node<>(values.get(middle), starts[middle],
+            Math.max(starts[middle], ends[middle]), seq, left, right);
+  }
+
+  /**
+   * Removes every value from the tree.
+   */
+  void clear() {
+    this.root = null;
+    this.size = 0;
+  }
+
+  /**
+   * Removes the given value, added with the given start, from the tree. Returns false if the
+   * value was not in the tree.
+   *
+   * @param value T
+   * @param start first minute of the interval the value was added with
+   * @return true if the value was removed
+   */
+  boolean remove(T value, long start) {
+    Node<T> node = find(this.root, value, start);
+    if (node == null) {
+      return false;
+    }
+    this.root = remove(this.root, node.start, node.seq);
+    this.size--;
+    return true;
+  }
+
+  /**
+   * Returns the node holding the given value, which starts at the given minute, or null.
+   */
+  private static <T> Node<T> find(Node<T> node, T value, long start) {
+    if (node == null) {
+      return null;
+    }
+    if (start < node.start) {
+      return find(node.left, value, start);
+    }
+    if (start > node.start) {
+      return find(node.right, value, start);
+    }
+    if (node.value == value) {
+      return node;
+    }
+    // values starting together may sit on either side
+    Node<T> found = find(node.left, value, start);
+    return found != null ? found : find(node.right, value, start);
+  }
+
+  /**
+   * Adds the values whose intervals start at the given minute to the given list, in the order
+   * they were added.
+   *
+   * @param start first minute of the intervals
+   * @param into  list receiving the values
+   */
+  void startingAt(long start, List<T> into) {
+    startingAt(this.root, start, into);
+  }
+
+  private static <T> void startingAt(Node<T> node, long start, List<T> into) {
+    if (node == null) {
+      return;
+    }
+    if (start <= node.start) {
+      startingAt(node.left, start, into);
+    }
+    if (start == node.start) {
+      into.add(node.value);
+    }
+    if (start >= node.start) {
+      startingAt(node.right, start, into);
+    }
+  }
+
+  /**
+   * Returns the number of values in the tree.
+   *
+   * @return int
+   */
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the earliest start of any interval in the tree, or Long.MAX_VALUE when it is empty.
+   *
+   * @return long
+   */
+  long minStart() {
+    return this.snapshot().minStart();
+  }
+
+  /**
+   * Returns the latest end of any interval in the tree, or Long.MIN_VALUE when it is empty.
+   *
+   * @return long
+   */
+  long maxEnd() {
+    return this.snapshot().maxEnd();
+  }
+
+  /**
+   * Passes every value whose interval overlaps [from, to] to the given action, ordered by the
+   * start of their intervals.
+   *
+   * @param from   first minute of the window
+   * @param to     last minute of the window
+   * @param action receives the overlapping values
+   */
+  void query(long from, long to, Consumer<? super T> action) {
+    query(this.root, from, to, action);
+  }
+
+  private static <T> void query(Node<T> node, long from, long to, Consumer<? super T> action) {
+    if (node == null || node.maxEnd < from) {
+      return;
+    }
+    query(node.left, from, to, action);
+    if (node.start > to) {
+      return;
+    }
+    if (node.end >= from) {
+      action.accept(node.value);
+    }
+    query(node.right, from, to, action);
+  }
+
+  /**
+   * Adds up to limit values whose intervals start at or after fromStart to the given list, in
+   * order of their keys.
+   *
+   * @param fromStart first minute a value may start at
+   * @param limit     most values to add
+   * @param into      list receiving the values
+   */
+  void ascending(long fromStart, int limit, List<T> into) {
+    ascending(this.root, fromStart, into.size() + limit, into);
+  }
+
+  private static <T> void ascending(Node<T> node, long fromStart, int stopSize, List<T> into) {
+    if (node == null || into.size() >= stopSize) {
+      return;
+    }
+    if (node.start >= fromStart) {
+      ascending(node.left, fromStart, stopSize, into);
+      if (into.size() >= stopSize) {
+        return;
+      }
+      into.add(node.value);
+    }
+    ascending(node.right, fromStart, stopSize, into);
+  }
+
+  /**
+   * Returns negative, zero or positive as the key (start, seq) is before, equal to or after the
+   * given node's key.
+   */
+  private static int compare(long start, long seq, Node<?> node) {
+    if (start != node.start) {
+      return Long.compare(start, node.start);
+    }
+    return Long.compare(seq, node.seq);
+  }
+
+  private static <T> Node<T> insert(Node<T> node, Node<T> added) {
+    if (node == null) {
+      return added;
+    }
+    if (compare(added.start, added.seq, node) < 0) {
+      return balance(node.with(insert(node.left, added), node.right));
+    }
+    return balance(node.with(node.left, insert(node.right, added)));
+  }
+
+  private static <T> Node<T> remove(Node<T> node, long start, long seq) {
+    if (node == null) {
+      return null;
+    }
+    int cmp = compare(start, seq, node);
+    if (cmp < 0) {
+      return balance(node.with(remove(node.left, start, seq), node.right));
+    }
+    if (cmp > 0) {
+      return balance(node.with(node.left, remove(node.right, start, seq)));
+    }
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    Node<T> successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor.with(node.left, removeMin(node.right)));
+  }
+
+  private static <T> Node<T> removeMin(Node<T> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    return balance(node.with(removeMin(node.left), node.right));
+  }
+
+  private static int height(Node<?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static <T> Node<T> balance(Node<T> node) {
+    int factor = height(node.left) - height(node.right);
+    if (factor > 1) {
+      Node<T> left = node.left;
+      if (height(left.left) < height(left.right)) {
+        left = rotateLeft(left, left.right);
+      }
+      return rotateRight(node, left);
+    }
+    if (factor < -1) {
+      Node<T> right = node.right;
+      if (height(right.right) < height(right.left)) {
+        right = rotateRight(right, right.left);
+      }
+      return rotateLeft(node, right);
+    }
+    return node;
+  }
+
+  /**
+   * Returns the given node rotated right around the given left child, which takes its place.
+   */
+  private static <T> Node<T> rotateRight(Node<T> node, Node<T> pivot) {
+    return pivot.with(pivot.left, node.with(pivot.right, node.right));
+  }
+
+  /**
+   * Returns the given node rotated left around the given right child, which takes its place.
+   */
+  private static <T> Node<T> rotateLeft(Node<T> node, Node<T> pivot) {
+    return pivot.with(node.with(node.left, pivot.left), pivot.right);
+  }
+}
@@ -0,0 +1,368 @@
+package calendar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of records kept in numbered segment files in one directory. Each record is
+ * framed by its length and a CRC32 of its bytes, so a record torn by a crash is found and dropped
+ * when the journal is read back.
+ *
+ * <p>Records are written by a committer thread. Appending only copies the record into a buffer,
+ * and the committer writes everything buffered and forces it to disk in one go (group commit).
+ * How long a record may wait to be forced is set by syncMillis: zero makes every append wait
+ * until its record is on disk, and anything larger lets appends return at once and forces the
+ * buffer at least that often, bounding how much can be lost in a crash rather than how long an
+ * append takes.
+ */
+final class Journal implements AutoCloseable {
+
+  private static final String PREFIX = "journal-";
+  private static final String SUFFIX = ".log";
+  private static final int HEADER_BYTES = 8; // length and checksum
+  private static final int MAX_BATCH_BYTES = 1 << 20; // forced once this much is buffered
+
+  private final Path directory;
+  private final long syncMillis;
+  private final Object lock;
+  private final Thread committer;
+
+  // guarded by lock
+  private ByteBuffer pending;
+  private long oldestPendingAt; // nanos, when the first buffered record was appended
+  private long appended; // records appended
+  private long durable; // records forced to disk
+  private long segmentBytes; // bytes appended to the current segment
+  private int segment;
+  private boolean syncRequested;
+  private boolean rotateRequested;
+  private boolean closing;
+  private IOException failure;
+
+  // only touched by the committer once started
+  private FileChannel channel;
+
+  /**
+   * Opens a new segment with the given number in the given directory and starts committing
+   * records to it.
+   *
+   * @param directory  where the segments are kept
+   * @param segment    number of the first segment written
+   * @param syncMillis how long an appended record may wait before it is forced to disk
+   * @throws IOException if the segment cannot be created
+   */
+  Journal(Path directory, int segment, long syncMillis) throws IOException {
+    if (syncMillis < 0) {
+      throw new IllegalArgumentException("Invalid sync interval");
+    }
+    this.directory = directory;
+    this.syncMillis = syncMillis;
+    this.lock = new Object();
+    this.pending = ByteBuffer.allocate(64 * 1024);
+    this.segment = segment;
+    this.channel = open(directory, segment);
+    this.committer = new Thread(this::commit, "journal-committer");
+    this.committer.setDaemon(true);
+    this.committer.start();
+  }
+
+  /**
+   * Returns the path of the segment with the given number.
+   *
+   * @param directory where the segments are kept
+   * @param segment   segment number
+   * @return Path
+   */
+  static Path segmentPath(Path directory, int segment) {
+    return directory.resolve(PREFIX + segment + SUFFIX);
+  }
+
+  /**
+   * Returns the numbers of the segments in the given directory, in order.
+   *
+   * @param directory where the segments are kept
+   * @return list of segment numbers
+   * @throws IOException if the directory cannot be listed
+   */
+  static List<Integer> segments(Path directory) throws IOException {
+    List<Integer> found = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+            PREFIX + "*" + SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        try {
+          found.add(Integer.parseInt(name.substring(PREFIX.length(),
+                  name.length() - SUFFIX.length())));
+        } catch (NumberFormatException e) {
+          // not one of ours
+        }
+      }
+    }
+    Collections.sort(found);
+    return found;
+  }
+
+  /**
+   * Hands every whole record in the given segment to the consumer, in order. Reading stops at
+   * the first record that is cut short or fails its checksum, and the segment is truncated
+   * there so later appends are not hidden behind it.
+   *
+   * @param segment the segment file
+   * @param into    receives each record
+   * @throws IOException if the segment cannot be read
+   */
+  static void replay(Path segment, Consumer<byte[]> into) throws IOException {
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      CRC32 crc = new CRC32();
+      int valid = 0;
+      while (in.remaining() >= HEADER_BYTES) {
+        int length = in.getInt();
+        int checksum = in.getInt();
+        if (length < 0 || length > in.remaining()) {
+          break;
+        }
+        byte[] record = new byte[length];
+        in.get(record);
+        crc.reset();
+        crc.update(record, 0, length);
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+        into.accept(record);
+        valid = in.position();
+      }
+      if (valid < channel.size()) {
+        channel.truncate(valid);
+        channel.force(true);
+      }
+    }
+  }
+
+  /**
+   * Adds the given record to the journal. Returns once the record is buffered, or once it is on
+   * disk if syncMillis is zero.
+   *
+   * @param record the bytes of the record
+   * @throws IllegalStateException if the journal is closed or could not be written
+   */
+  void append(byte[] record) throws IllegalStateException {
+    CRC32 crc = new CRC32();
+    crc.update(record, 0, record.length);
+    long sequence;
+    synchronized (this.lock) {
+      this.checkOpen();
+      int needed = HEADER_BYTES + record.length;
+      if (this.pending.remaining() < needed) {
+        ByteBuffer larger = ByteBuffer.allocate(
+                Math.max(2 * this.pending.capacity(), this.pending.position() + needed));
+        this.pending.flip();
+        larger.put(this.pending);
+        this.pending = larger;
+      }
+      if (this.pending.position() == 0) {
+        this.oldestPendingAt = System.nanoTime();
+      }
+      this.pending.putInt(record.length).putInt((int) crc.getValue()).put(record);
+      this.segmentBytes += needed;
+      sequence = ++this.appended;
+      this.lock.notifyAll();
+      if (this.syncMillis == 0) {
+        this.awaitDurable(sequence);
+      }
+    }
+  }
+
+  /**
+   * Waits until every record appended so far is on disk.
+   *
+   * @throws IllegalStateException if the journal is closed or could not be written
+   */
+  void sync() throws IllegalStateException {
+    synchronized (this.lock) {
+      this.checkOpen();
+      this.syncRequested = true;
+      this.lock.notifyAll();
+      this.awaitDurable(this.appended);
+    }
+  }
+
+  /**
+   * Forces every record appended so far to disk and starts a new segment for the records that
+   * follow. Returns the number of the segment that was finished.
+   *
+   * @return segment number
+   * @throws IllegalStateException if the journal is closed or could not be written
+   */
+  int rotate() throws IllegalStateException {
+    synchronized (this.lock) {
+      this.checkOpen();
+      int finished = this.segment;
+      this.rotateRequested = true;
+      this.lock.notifyAll();
+      while (this.rotateRequested && this.failure == null) {
+        this.await();
+      }
+      this.checkOpen();
+      return finished;
+    }
+  }
+
+  /**
+   * Returns how many bytes have been appended to the current segment.
+   *
+   * @return long
+   */
+  long segmentBytes() {
+    synchronized (this.lock) {
+      return this.segmentBytes;
+    }
+  }
+
+  /**
+   * Forces what is left to disk and stops the committer.
+   *
+   * @throws IllegalStateException if the last records could not be written
+   */
+  @Override
+  public void close() throws IllegalStateException {
+    synchronized (this.lock) {
+      if (this.closing) {
+        return;
+      }
+      this.closing = true;
+      this.lock.notifyAll();
+    }
+    try {
+      this.committer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this.lock) {
+      if (this.failure != null) {
+        throw new IllegalStateException("Could not write journal", this.failure);
+      }
+    }
+  }
+
+  private static FileChannel open(Path directory, int segment) throws IOException {
+    return FileChannel.open(segmentPath(directory, segment), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  private void checkOpen() throws IllegalStateException {
+    if (this.failure != null) {
+      throw new IllegalStateException("Could not write journal", this.failure);
+    }
+    if (this.closing) {
+      throw new IllegalStateException("Journal is closed");
+    }
+  }
+
+  private void awaitDurable(long sequence) throws IllegalStateException {
+    while (this.durable < sequence && this.failure == null) {
+      this.await();
+    }
+    this.checkOpen();
+  }
+
+  private void await() {
+    try {
+      this.lock.wait();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing journal", e);
+    }
+  }
+
+  /**
+   * Runs on the committer thread: waits for records, writes and forces them in batches, and
+   * starts new segments when asked.
+   */
+  private void commit() {
+    ByteBuffer spare = ByteBuffer.allocate(this.pending.capacity());
+    try {
+      while (true) {
+        ByteBuffer batch;
+        long batchEnd;
+        boolean rotating;
+        synchronized (this.lock) {
+          while (!this.isDue()) {
+            long waitNanos = this.oldestPendingAt + this.syncMillis * 1_000_000L
+                    - System.nanoTime();
+            if (this.pending.position() == 0) {
+              this.lock.wait();
+            } else {
+              this.lock.wait(Math.max(1, waitNanos / 1_000_000L));
+            }
+          }
+          batch = this.pending;
+          spare.clear();
+          this.pending = spare.capacity() >= batch.capacity() ? spare
+                  : ByteBuffer.allocate(batch.capacity());
+          batchEnd = this.appended;
+          rotating = this.rotateRequested;
+          this.syncRequested = false;
+        }
+        batch.flip();
+        if (batch.hasRemaining()) {
+          while (batch.hasRemaining()) {
+            this.channel.write(batch);
+          }
+          this.channel.force(false);
+        }
+        spare = batch;
+        if (rotating) {
+          this.channel.close();
+          this.channel = open(this.directory, this.segment + 1);
+        }
+        synchronized (this.lock) {
+          this.durable = batchEnd;
+          if (rotating) {
+            this.segment++;
+            this.segmentBytes = 0;
+            this.rotateRequested = false;
+          }
+          this.lock.notifyAll();
+          if (this.closing && this.pending.position() == 0 && !this.rotateRequested) {
+            break;
+          }
+        }
+      }
+      this.channel.close();
+    } catch (IOException e) {
+      synchronized (this.lock) {
+        this.failure = e;
+        this.lock.notifyAll();
+      }
+    } catch (InterruptedException e) {
+      // the committer is never interrupted; stop as if closed
+    }
+  }
+
+  /**
+   * Returns true if the buffered records should be written now. Called with the lock held.
+   */
+  private boolean isDue() {
+    if (this.closing || this.rotateRequested) {
+      return true;
+    }
+    if (this.pending.position() == 0) {
+      return false;
+    }
+    return this.syncMillis == 0 || this.syncRequested
+            || this.pending.position() >= MAX_BATCH_BYTES
+            || System.nanoTime() - this.oldestPendingAt >= this.syncMillis * 1_000_000L;
+  }
+}
@@ -0,0 +1,279 @@
+package calendar;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import calendar.JournaledSuite.Operation;
+
+/**
+ * A calendar of a JournaledSuite. Calls are passed on to the calendar itself, and the ones that
+ * change it are journaled under the calendar's name once they return or throw, holding the
+ * suite's write order between the two.
+ */
+final class JournaledCalendar implements ICalendar {
+
+  private final JournaledSuite suite;
+  private final String name;
+  private final ICalendar calendar;
+
+  /**
+   * Constructs a journaled view of the given calendar.
+   *
+   * @param suite    the suite that journals the calls
+   * @param name     the calendar's name
+   * @param calendar the calendar itself
+   */
+  JournaledCalendar(JournaledSuite suite, String name, ICalendar calendar) {
+    this.suite = suite;
+    this.name = name;
+    this.calendar = calendar;
+  }
+
+  @Override
+  public void addEvent(IEvent event) {
+    synchronized (this.suite.writeOrder()) {
+      try {
+        this.calendar.addEvent(event);
+      } finally {
+        this.suite.recordOnCalendar(this.name, Operation.ADD_EVENT, event);
+      }
+    }
+  }
+
+  @Override
+  public List<IEvent> addEvents(List<IEvent> events) {
+    synchronized (this.suite.writeOrder()) {
+      List<IEvent> added = this.calendar.addEvents(events);
+      for (IEvent event : added) {
+        this.suite.recordOnCalendar(this.name, Operation.ADD_EVENT, event);
+      }
+      return added;
+    }
+  }
+
+  @Override
+  public void createSingleEvent(String subject, String startDateTtime, String endDateTtime)
+          throws IllegalArgumentException {
+    synchronized (this.suite.writeOrder()) {
+      try {
+        this.calendar.createSingleEvent(subject, startDateTtime, endDateTtime);
+      } finally {
+        this.suite.recordOnCalendar(this.name, Operation.CREATE_EVENT, subject, startDateTtime,
+                endDateTtime);
+      }
+    }
+  }
+
+  @Override
+  public void createEventSeriesTimesRepeated(String subject, String startDateTtime,
+                                             String endDateTtime, String weekdays,
+                                             int timesRepeated)
+          throws IllegalArgumentException {
+    synchronized (this.suite.writeOrder()) {
+      try {
+        this.calendar.createEventSeriesTimesRepeated(subject, startDateTtime, endDateTtime,
+                weekdays, timesRepeated);
+      } finally {
+        this.suite.recordOnCalendar(this.name, Operation.CREATE_SERIES_TIMES, subject,
+                startDateTtime, endDateTtime, weekdays, timesRepeated);
+      }
+    }
+  }
+
+  @Override
+  public void createEventSeriesStopDate(String subject, String startDateTtime,
+                                        String endDateTtime, String weekdays, String stopDate)
+          throws IllegalArgumentException {
+    synchronized (this.suite.writeOrder()) {
+      try {
+        this.calendar.createEventSeriesStopDate(subject, startDateTtime, endDateTtime, weekdays,
+                stopDate);
+      } finally {
+        this.suite.recordOnCalendar(this.name, Operation.CREATE_SERIES_UNTIL, subject,
+                startDateTtime, endDateTtime, weekdays, stopDate);
+      }
+    }
+  }
+
+  @Override
+  public void createSingleAllDayEvent(String subject, String date)
+          throws IllegalArgumentException {
+    synchronized (this.suite.writeOrder()) {
+      try {
+        this.calendar.createSingleAllDayEvent(subject, date);
+      } finally {
+        this.suite.recordOnCalendar(this.name, Operation.CREATE_ALL_DAY_EVENT, subject, date);
+      }
+    }
+  }
+
+  @Override
+  public void createAllDayEventSeriesTimesRepeated(String subject, String startDate,
+                                                   String weekdays, int timesRepeated)
+          throws IllegalArgumentException {
+    synchronized (this.suite.writeOrder()) {
+      try {
+        this.calendar.createAllDayEventSeriesTimesRepeated(subject, startDate, weekdays,
+                timesRepeated);
+      } finally {
+        this.suite.recordOnCalendar(this.name, Operation.CREATE_ALL_DAY_SERIES_TIMES, subject,
+                startDate, weekdays, timesRepeated);
+      }
+    }
+  }
+
+  @Override
+  public void createAllDayEventSeriesStopDate(String subject, String startDate, String weekdays,
+                                              String stopDate)
+          throws IllegalArgumentException {
+    synchronized (this.suite.writeOrder()) {
+      try {
+        this.calendar.createAllDayEventSeriesStopDate(subject, startDate, weekdays, stopDate);
+      } finally {
+        this.suite.recordOnCalendar(this.name, Operation.CREATE_ALL_DAY_SERIES_UNTIL, subject,
+                startDate, weekdays, stopDate);
+      }
+    }
+  }
+
+  @Override
+  public BulkReport createEvents(Collection<EventSpec> specs) {
+    synchronized (this.suite.writeOrder()) {
+      BulkReport report = this.calendar.createEvents(specs);
+      // the created events are journaled, so replay does not check the specs again
+      for (IEvent event : report.getCreatedEvents()) {
+        this.suite.recordOnCalendar(this.name, Operation.ADD_EVENT, event);
+      }
+      return report;
+    }
+  }
+
+  @Override
+  public void editEventProperty(String prop, String eventSubject, String startDateTtime,
+                                String endDateTtime, String newPropvalue)
+          throws IllegalArgumentException {
+    synchronized (this.suite.writeOrder()) {
+      try {
+        this.calendar.editEventProperty(prop, eventSubject, startDateTtime, endDateTtime,
+                newPropvalue);
+      } finally {
+        this.suite.recordOnCalendar(this.name, Operation.EDIT_EVENT, prop, eventSubject,
+                startDateTtime, endDateTtime, newPropvalue);
+      }
+    }
+  }
+
+  @Override
+  public void editEventsProperty(String prop, String eventSubject, String dateTtime,
+                                 String newPropvalue) throws IllegalArgumentException {
+    synchronized (this.suite.writeOrder()) {
+      try {
+        this.calendar.editEventsProperty(prop, eventSubject, dateTtime, newPropvalue);
+      } finally {
+        this.suite.recordOnCalendar(this.name, Operation.EDIT_EVENTS, prop, eventSubject,
+                dateTtime, newPropvalue);
+      }
+    }
+  }
+
+  @Override
+  public void editSeriesProperty(String prop, String eventSubject, String dateTtime,
+                                 String newPropvalue) throws IllegalArgumentException {
+    synchronized (this.suite.writeOrder()) {
+      try {
+        this.calendar.editSeriesProperty(prop, eventSubject, dateTtime, newPropvalue);
+      } finally {
+        this.suite.recordOnCalendar(this.name, Operation.EDIT_SERIES, prop, eventSubject,
+                dateTtime, newPropvalue);
+      }
+    }
+  }
+
+  @Override
+  public ArrayList<IEvent> getEvents(String date) throws IllegalArgumentException {
+    return this.calendar.getEvents(date);
+  }
+
+  @Override
+  public long getDayCacheHits() {
+    return this.calendar.getDayCacheHits();
+  }
+
+  @Override
+  public long getDayCacheMisses() {
+    return this.calendar.getDayCacheMisses();
+  }
+
+  @Override
+  public ArrayList<IEvent> getEvents(String startDateTtime, String endDateTtime)
+          throws IllegalArgumentException {
+    return this.calendar.getEvents(startDateTtime, endDateTtime);
+  }
+
+  @Override
+  public boolean showStatus(String dateTtime) throws IllegalArgumentException {
+    return this.calendar.showStatus(dateTtime);
+  }
+
+  @Override
+  public long busyMinutes(String startDateTtime, String endDateTtime)
+          throws IllegalArgumentException {
+    return this.calendar.busyMinutes(startDateTtime, endDateTtime);
+  }
+
+  @Override
+  public int getBusyDaysCached() {
+    return this.calendar.getBusyDaysCached();
+  }
+
+  @Override
+  public long getEarliestStart() {
+    return this.calendar.getEarliestStart();
+  }
+
+  @Override
+  public long getLatestEnd() {
+    return this.calendar.getLatestEnd();
+  }
+
+  @Override
+  public List<IEvent> getCalendarEvents() {
+    return this.calendar.getCalendarEvents();
+  }
+
+  @Override
+  public void forEachEvent(Consumer<? super IEvent> action) {
+    this.calendar.forEachEvent(action);
+  }
+
+  @Override
+  public void forEachEvent(String startDateTtime, String endDateTtime,
+                           Consumer<? super IEvent> action) throws IllegalArgumentException {
+    this.calendar.forEachEvent(startDateTtime, endDateTtime, action);
+  }
+
+  @Override
+  public String getEventsToString(String startDateTtime, String endDateTtime) {
+    return this.calendar.getEventsToString(startDateTtime, endDateTtime);
+  }
+
+  @Override
+  public EventPage getPage(String startDateTtime, int pageSize)
+          throws IllegalArgumentException {
+    return this.calendar.getPage(startDateTtime, pageSize);
+  }
+
+  @Override
+  public EventPage getPageAfter(EventCursor cursor, int pageSize)
+          throws IllegalArgumentException {
+    return this.calendar.getPageAfter(cursor, pageSize);
+  }
+
+  @Override
+  public EventPage getPageBefore(EventCursor cursor, int pageSize)
+          throws IllegalArgumentException {
+    return this.calendar.getPageBefore(cursor, pageSize);
+  }
+}
@@ -0,0 +1,616 @@
+package calendar;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * A calendar suite whose changes survive a restart. Every call that changes the suite or one of
+ * its calendars is carried out on an in-memory CalendarSuite and then appended to a journal in a
+ * data directory. When the suite is opened again it loads the latest snapshot in the directory
+ * and replays the journal written after it.
+ *
+ * <p>Calls are journaled whether or not they throw, and replay ignores the same errors, so a
+ * call that changed part of the suite before failing is repeated the same way. Once the journal
+ * grows past a limit it is folded into a new snapshot in the background: the finished segments
+ * are replayed onto the previous snapshot in a separate suite, which is written out as the next
+ * snapshot, and the folded files are deleted. The suite in use is never paused for it.
+ *
+ * <p>A snapshot numbered N holds everything in the segments numbered below N.
+ *
+ * <p>Calendars whose events are kept on disk keep their own events, so only their creation is
+ * journaled, and calls that change their events are not. Copies out of them are journaled as the
+ * events added to the target, since replaying the copy would read the store as it is now rather
+ * than as it was, and compaction leaves their stores closed.
+ *
+ * <p>Calls that change the suite are carried out and journaled one at a time, so the journal
+ * holds them in the order they were carried out; calls that only read run at once. Sessions
+ * share the journal, and a copy is journaled after the calendar it copies from, since each
+ * session has its own calendar in use.
+ */
+public final class JournaledSuite implements ICalendarSuite, AutoCloseable {
+
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".bin";
+  private static final long COMPACT_BYTES = 16L << 20;
+
+  /**
+   * The calls that are journaled.
+   */
+  enum Operation {
+    CREATE_CALENDAR, EDIT_CALENDAR, USE_CALENDAR, COPY_EVENT, COPY_DAY, COPY_RANGE,
+    ADD_EVENT, CREATE_EVENT, CREATE_SERIES_TIMES, CREATE_SERIES_UNTIL, CREATE_ALL_DAY_EVENT,
+    CREATE_ALL_DAY_SERIES_TIMES, CREATE_ALL_DAY_SERIES_UNTIL, EDIT_EVENT, EDIT_EVENTS,
+    EDIT_SERIES, CREATE_STORED_CALENDAR
+  }
+
+  private final Path directory;
+  private final CalendarSuite suite;
+  private final Journal journal;
+  private final ExecutorService compactor;
+  private final long compactBytes;
+  private final JournaledSuite root; // the suite that opened the journal
+  private final Object writes; // held while a change is carried out and journaled
+  private volatile int snapshot; // number of the latest snapshot, or -1 if there is none
+  private volatile boolean compacting;
+
+  private JournaledSuite(Path directory, CalendarSuite suite, Journal journal, int snapshot,
+                         long compactBytes) {
+    this.directory = directory;
+    this.suite = suite;
+    this.journal = journal;
+    this.snapshot = snapshot;
+    this.compactBytes = compactBytes;
+    this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "journal-compactor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.root = this;
+    this.writes = new Object();
+  }
+
+  /**
+   * Creates a session of the given suite, journaling to its journal.
+   */
+  private JournaledSuite(JournaledSuite root, CalendarSuite session) {
+    this.directory = root.directory;
+    this.suite = session;
+    this.journal = root.journal;
+    this.compactBytes = root.compactBytes;
+    this.compactor = root.compactor;
+    this.root = root;
+    this.writes = root.writes;
+  }
+
+  /**
+   * Opens the suite kept in the given directory, creating the directory if needed.
+   *
+   * @param directory  where the snapshots and journal are kept
+   * @param syncMillis how long a journaled call may wait before it is forced to disk; zero
+   *                   forces every call before it returns
+   * @return JournaledSuite
+   * @throws IllegalArgumentException if the directory cannot be read or written
+   */
+  public static JournaledSuite open(String directory, long syncMillis)
+          throws IllegalArgumentException {
+    return open(Paths.get(directory), syncMillis, COMPACT_BYTES);
+  }
+
+  /**
+   * Opens the suite kept in the given directory, folding the journal into a snapshot once a
+   * segment reaches the given size rather than the default of 16 MB.
+   *
+   * @param directory    where the snapshots and journal are kept
+   * @param syncMillis   how long a journaled call may wait before it is forced to disk
+   * @param compactBytes journal size that starts a compaction
+   * @return JournaledSuite
+   * @throws IllegalArgumentException if the directory cannot be read or written
+   */
+  public static JournaledSuite open(String directory, long syncMillis, long compactBytes)
+          throws IllegalArgumentException {
+    return open(Paths.get(directory), syncMillis, compactBytes);
+  }
+
+  /**
+   * Opens the suite kept in the given directory, folding the journal into a snapshot once a
+   * segment reaches the given size.
+   *
+   * @param directory    where the snapshots and journal are kept
+   * @param syncMillis   how long a journaled call may wait before it is forced to disk
+   * @param compactBytes journal size that starts a compaction
+   * @return JournaledSuite
+   * @throws IllegalArgumentException if the directory cannot be read or written
+   */
+  static JournaledSuite open(Path directory, long syncMillis, long compactBytes)
+          throws IllegalArgumentException {
+    try {
+      Files.createDirectories(directory);
+      int snapshot = latestSnapshot(directory);
+      CalendarSuite suite = snapshot < 0 ? new CalendarSuite()
+              : SuiteSnapshot.read(snapshotPath(directory, snapshot));
+      int next = Math.max(snapshot, 0);
+      for (int segment : Journal.segments(directory)) {
+        if (segment < snapshot) {
+          // already folded into the snapshot by a compaction that did not finish cleaning up
+          Files.deleteIfExists(Journal.segmentPath(directory, segment));
+        } else {
+          Journal.replay(Journal.segmentPath(directory, segment), record -> apply(suite, record));
+          next = segment + 1;
+        }
+      }
+      Journal journal = new Journal(directory, next, syncMillis);
+      return new JournaledSuite(directory, suite, journal, snapshot, compactBytes);
+    } catch (IOException | UncheckedIOException e) {
+      throw new IllegalArgumentException("Could not open journal: " + directory);
+    }
+  }
+
+  /**
+   * Waits for the journal and any compaction to finish and closes the journal. Closing a
+   * session does nothing; the journal is closed with the suite that opened it.
+   *
+   * @throws IllegalStateException if the last calls could not be journaled
+   */
+  @Override
+  public void close() throws IllegalStateException {
+    if (this.root != this) {
+      return;
+    }
+    this.compactor.shutdown();
+    try {
+      this.compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    this.journal.close();
+  }
+
+  /**
+   * Waits until every call journaled so far is on disk.
+   *
+   * @throws IllegalStateException if the journal could not be written
+   */
+  public void sync() throws IllegalStateException {
+    this.journal.sync();
+  }
+
+  @Override
+  public void createCalendar(String name, String timezone) throws IllegalArgumentException {
+    synchronized (this.writes) {
+      try {
+        this.suite.createCalendar(name, timezone);
+      } finally {
+        this.record(Operation.CREATE_CALENDAR, name, timezone);
+      }
+    }
+  }
+
+  @Override
+  public void createCalendar(String name, String timezone, String directory)
+          throws IllegalArgumentException {
+    synchronized (this.writes) {
+      try {
+        this.suite.createCalendar(name, timezone, directory);
+      } finally {
+        this.record(Operation.CREATE_STORED_CALENDAR, name, timezone, directory);
+      }
+    }
+  }
+
+  @Override
+  public ICalendar getCalendar() throws IllegalArgumentException {
+    String name = this.suite.getCalendarInUseName();
+    if (this.suite.getStore(name) != null) {
+      return this.suite.getCalendar();
+    }
+    return new JournaledCalendar(this, name, this.suite.getCalendar());
+  }
+
+  @Override
+  public String getCalendarInUseName() throws IllegalArgumentException {
+    return this.suite.getCalendarInUseName();
+  }
+
+  @Override
+  public ArrayList<String> getCalendarNames() {
+    return this.suite.getCalendarNames();
+  }
+
+  @Override
+  public void editCalendar(String name, String prop, String newPropValue)
+          throws IllegalArgumentException {
+    synchronized (this.writes) {
+      try {
+        this.suite.editCalendar(name, prop, newPropValue);
+      } finally {
+        this.record(Operation.EDIT_CALENDAR, name, prop, newPropValue);
+      }
+    }
+  }
+
+  @Override
+  public void useCalendar(String name) throws IllegalArgumentException {
+    synchronized (this.writes) {
+      try {
+        this.suite.useCalendar(name);
+      } finally {
+        this.record(Operation.USE_CALENDAR, name);
+      }
+    }
+  }
+
+  @Override
+  public void copySingleEvent(String eventName, String startDateTtime, String targetCalendarName,
+                              String newDateTtime) throws IllegalArgumentException {
+    synchronized (this.writes) {
+      try {
+        this.suite.copySingleEvent(eventName, startDateTtime, targetCalendarName, newDateTtime,
+                this.copyTarget(targetCalendarName));
+      } finally {
+        this.recordCopy(targetCalendarName, Operation.COPY_EVENT, eventName, startDateTtime,
+                targetCalendarName, newDateTtime);
+      }
+    }
+  }
+
+  @Override
+  public void copyDayEvents(String date, String targetCalendarName, String targetDate)
+          throws IllegalArgumentException {
+    synchronized (this.writes) {
+      try {
+        this.suite.copyDayEvents(date, targetCalendarName, targetDate,
+                this.copyTarget(targetCalendarName));
+      } finally {
+        this.recordCopy(targetCalendarName, Operation.COPY_DAY, date, targetCalendarName,
+                targetDate);
+      }
+    }
+  }
+
+  @Override
+  public void copyEventsRange(String startDate, String endDate, String targetCalendarName,
+                              String targetStartDate) throws IllegalArgumentException {
+    synchronized (this.writes) {
+      try {
+        this.suite.copyEventsRange(startDate, endDate, targetCalendarName, targetStartDate,
+                this.copyTarget(targetCalendarName));
+      } finally {
+        this.recordCopy(targetCalendarName, Operation.COPY_RANGE, startDate, endDate,
+                targetCalendarName, targetStartDate);
+      }
+    }
+  }
+
+  @Override
+  public JournaledSuite newSession() {
+    return new JournaledSuite(this.root, this.suite.newSession());
+  }
+
+  @Override
+  public void saveSnapshot(String filePath) throws IllegalArgumentException {
+    this.suite.saveSnapshot(filePath);
+  }
+
+  @Override
+  public ImportReport importCalendar(String name, String filePath)
+          throws IllegalArgumentException {
+    return this.suite.importCalendar(name, filePath, calendar ->
+            this.suite.getStore(name) == null ? new JournaledCalendar(this, name, calendar)
+                    : calendar);
+  }
+
+  @Override
+  public void exportCalendar(String name, String filePath) throws IllegalArgumentException {
+    this.suite.exportCalendar(name, filePath);
+  }
+
+  @Override
+  public void exportCalendar(String name, String startDateTtime, String endDateTtime,
+                             String filePath) throws IllegalArgumentException {
+    this.suite.exportCalendar(name, startDateTtime, endDateTtime, filePath);
+  }
+
+  /**
+   * Returns the lock held while a change is carried out and journaled, so changes are journaled
+   * in the order they were carried out.
+   *
+   * @return Object
+   */
+  Object writeOrder() {
+    return this.writes;
+  }
+
+  /**
+   * Returns whether a copy into the given calendar is journaled as the events it adds, which is
+   * when it copies out of a calendar kept on disk into one kept in memory.
+   */
+  private boolean copiesFromStore(String targetCalendarName) {
+    String source = this.suite.calendarInUse();
+    return !source.isEmpty() && this.suite.getStore(source) != null
+            && this.suite.getStore(targetCalendarName) == null;
+  }
+
+  /**
+   * Returns the view a copy into the given calendar adds its events through: a journaled one if
+   * the copy is journaled as the events it adds, or the calendar itself.
+   */
+  private UnaryOperator<ICalendar> copyTarget(String targetCalendarName) {
+    if (!this.copiesFromStore(targetCalendarName)) {
+      return calendar -> calendar;
+    }
+    return calendar -> new JournaledCalendar(this, targetCalendarName, calendar);
+  }
+
+  /**
+   * Journals a copy into the given calendar, after the calendar in use it was copied from. A
+   * copy into a calendar kept on disk, or with no calendar in use, is not journaled, and a copy
+   * out of one was journaled as the events it added.
+   */
+  private void recordCopy(String targetCalendarName, Operation operation, Object... args) {
+    String source = this.suite.calendarInUse();
+    if (source.isEmpty() || this.suite.getStore(source) != null
+            || this.suite.getStore(targetCalendarName) != null) {
+      return;
+    }
+    this.record(Operation.USE_CALENDAR, source);
+    this.record(operation, args);
+  }
+
+  /**
+   * Journals a call made on the calendar with the given name.
+   *
+   * @param calendarName the calendar the call was made on
+   * @param operation    which call
+   * @param args         its arguments: Strings, Integers or an IEvent
+   */
+  void recordOnCalendar(String calendarName, Operation operation, Object... args) {
+    Object[] all = new Object[args.length + 1];
+    all[0] = calendarName;
+    System.arraycopy(args, 0, all, 1, args.length);
+    this.record(operation, all);
+  }
+
+  /**
+   * Journals a call and starts a compaction if the journal has grown past its limit.
+   */
+  private void record(Operation operation, Object... args) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(operation.ordinal());
+      for (Object arg : args) {
+        if (arg instanceof String) {
+          out.writeUTF((String) arg);
+        } else if (arg instanceof Integer) {
+          out.writeInt((Integer) arg);
+        } else {
+          writeEvent(out, (IEvent) arg);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.journal.append(bytes.toByteArray());
+    if (!this.root.compacting && this.journal.segmentBytes() >= this.compactBytes) {
+      this.root.compact();
+    }
+  }
+
+  /**
+   * Finishes the current segment and folds every finished segment into a new snapshot on the
+   * compactor thread.
+   */
+  private void compact() {
+    this.compacting = true;
+    int finished = this.journal.rotate();
+    int base = this.snapshot;
+    this.compactor.execute(() -> {
+      try {
+        // stores are open in the suite in use; the snapshot only needs their directories
+        CalendarSuite folded = base < 0 ? new CalendarSuite(false)
+                : SuiteSnapshot.read(snapshotPath(this.directory, base), false);
+        for (int segment : Journal.segments(this.directory)) {
+          if (segment <= finished) {
+            Journal.replay(Journal.segmentPath(this.directory, segment),
+                record -> apply(folded, record));
+          }
+        }
+        SuiteSnapshot.write(folded, snapshotPath(this.directory, finished + 1));
+        for (int segment : Journal.segments(this.directory)) {
+          if (segment <= finished) {
+            Files.deleteIfExists(Journal.segmentPath(this.directory, segment));
+          }
+        }
+        if (base >= 0) {
+          Files.deleteIfExists(snapshotPath(this.directory, base));
+        }
+        this.snapshot = finished + 1;
+      } catch (IOException | RuntimeException e) {
+        // the journal still holds everything; the next compaction tries again
+      } finally {
+        this.compacting = false;
+      }
+    });
+  }
+
+  /**
+   * Carries out one journaled call on the given suite. Errors the call throws are ignored, as
+   * they were when it was first made.
+   *
+   * @param suite  CalendarSuite
+   * @param record the journaled call
+   */
+  private static void apply(CalendarSuite suite, byte[] record) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+      Operation operation = Operation.values()[in.readUnsignedByte()];
+      try {
+        switch (operation) {
+          case CREATE_CALENDAR:
+            suite.createCalendar(in.readUTF(), in.readUTF());
+            break;
+          case EDIT_CALENDAR:
+            suite.editCalendar(in.readUTF(), in.readUTF(), in.readUTF());
+            break;
+          case USE_CALENDAR:
+            suite.useCalendar(in.readUTF());
+            break;
+          case COPY_EVENT:
+            suite.copySingleEvent(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+            break;
+          case COPY_DAY:
+            suite.copyDayEvents(in.readUTF(), in.readUTF(), in.readUTF());
+            break;
+          case COPY_RANGE:
+            suite.copyEventsRange(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+            break;
+          case CREATE_STORED_CALENDAR:
+            suite.createCalendar(in.readUTF(), in.readUTF(), in.readUTF());
+            break;
+          default:
+            applyOnCalendar(suite.getCalendar(in.readUTF()), operation, in);
+        }
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        // the call failed the same way when it was made
+      }
+    } catch (IOException | ArrayIndexOutOfBoundsException e) {
+      throw new UncheckedIOException(new IOException("Invalid journal record", e));
+    }
+  }
+
+  private static void applyOnCalendar(ICalendar calendar, Operation operation,
+                                      DataInputStream in) throws IOException {
+    if (calendar == null) {
+      return;
+    }
+    switch (operation) {
+      case ADD_EVENT:
+        calendar.addEvent(readEvent(in));
+        break;
+      case CREATE_EVENT:
+        calendar.createSingleEvent(in.readUTF(), in.readUTF(), in.readUTF());
+        break;
+      case CREATE_SERIES_TIMES:
+        calendar.createEventSeriesTimesRepeated(in.readUTF(), in.readUTF(), in.readUTF(),
+                in.readUTF(), in.readInt());
+        break;
+      case CREATE_SERIES_UNTIL:
+        calendar.createEventSeriesStopDate(in.readUTF(), in.readUTF(), in.readUTF(),
+                in.readUTF(), in.readUTF());
+        break;
+      case CREATE_ALL_DAY_EVENT:
+        calendar.createSingleAllDayEvent(in.readUTF(), in.readUTF());
+        break;
+      case CREATE_ALL_DAY_SERIES_TIMES:
+        calendar.createAllDayEventSeriesTimesRepeated(in.readUTF(), in.readUTF(), in.readUTF(),
+                in.readInt());
+        break;
+      case CREATE_ALL_DAY_SERIES_UNTIL:
+        calendar.createAllDayEventSeriesStopDate(in.readUTF(), in.readUTF(), in.readUTF(),
+                in.readUTF());
+        break;
+      case EDIT_EVENT:
+        calendar.editEventProperty(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+                in.readUTF());
+        break;
+      case EDIT_EVENTS:
+        calendar.editEventsProperty(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+        break;
+      case EDIT_SERIES:
+        calendar.editSeriesProperty(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+        break;
+      default:
+        throw new IOException("Invalid journal record");
+    }
+  }
+
+  private static void writeEvent(DataOutputStream out, IEvent event) throws IOException {
+    out.writeBoolean(event.isSeries());
+    out.writeUTF(event.getSubject());
+    out.writeUTF(event.getLocation());
+    out.writeUTF(event.getDescription());
+    out.writeUTF(event.getStatus());
+    out.writeLong(event.getStart().toInstant());
+    out.writeLong(event.getEnd().toInstant());
+    if (event.isSeries()) {
+      SeriesEvent series = (SeriesEvent) event;
+      out.writeByte(series.getWeekdayMask());
+      out.writeInt(series.getFirstDay());
+      out.writeInt(series.getLastDay());
+      out.writeInt(series.getExceptions().size());
+      for (int day : series.getExceptions()) {
+        out.writeInt(day);
+      }
+    }
+  }
+
+  private static IEvent readEvent(DataInputStream in) throws IOException {
+    boolean isSeries = in.readBoolean();
+    String subject = in.readUTF();
+    String location = in.readUTF();
+    String description = in.readUTF();
+    String status = in.readUTF();
+    DateTime start = DateTime.ofInstant(in.readLong());
+    DateTime end = DateTime.ofInstant(in.readLong());
+    if (!isSeries) {
+      return new SingleEvent(subject, start, end, location, description, status);
+    }
+    int weekdayMask = in.readByte();
+    int firstDay = in.readInt();
+    int lastDay = in.readInt();
+    Set<Integer> exceptions = new HashSet<>();
+    for (int i = in.readInt(); i > 0; i--) {
+      exceptions.add(in.readInt());
+    }
+    return new SeriesEvent(subject, start, end, weekdayMask, firstDay, lastDay, exceptions,
+            location, description, status);
+  }
+
+  private static Path snapshotPath(Path directory, int snapshot) {
+    return directory.resolve(SNAPSHOT_PREFIX + snapshot + SNAPSHOT_SUFFIX);
+  }
+
+  /**
+   * Returns the number of the latest snapshot in the given directory, or -1 if there is none.
+   * Older snapshots left behind by an unfinished compaction are deleted.
+   */
+  private static int latestSnapshot(Path directory) throws IOException {
+    List<Integer> found = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+            SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        try {
+          found.add(Integer.parseInt(name.substring(SNAPSHOT_PREFIX.length(),
+                  name.length() - SNAPSHOT_SUFFIX.length())));
+        } catch (NumberFormatException e) {
+          // not one of ours
+        }
+      }
+    }
+    int latest = -1;
+    for (int snapshot : found) {
+      latest = Math.max(latest, snapshot);
+    }
+    for (int snapshot : found) {
+      if (snapshot < latest) {
+        Files.deleteIfExists(snapshotPath(directory, snapshot));
+      }
+    }
+    return latest;
+  }
+}
@@ -0,0 +1,279 @@
+package calendar;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A calendar of a CalendarSuite that can be shared between threads. Calls that change the
+ * calendar hold its write lock, so they run alone. The lock is reentrant, so a call holding the
+ * write lock may also read.
+ *
+ * <p>A calendar kept in memory publishes each change as a new version of its events that never
+ * changes afterwards, so calls that only read it take no lock at all: they read the version that
+ * was published when they started, and never wait for a writer or make one wait. A calendar kept
+ * on disk changes its files in place, so calls that read it hold its read lock instead.
+ */
+final class LockedCalendar implements ICalendar {
+
+  private static final AtomicLong CREATED = new AtomicLong();
+
+  private final ICalendar calendar;
+  private final ReentrantReadWriteLock lock;
+  private final boolean lockReads; // whether reads must hold the read lock
+  private final long order; // when this calendar was created, the order its lock is taken in
+
+  /**
+   * Constructs a locked view of the given calendar. Only this view may be used once it is made.
+   *
+   * @param calendar  the calendar itself
+   * @param lockReads whether reads must hold the read lock, for a calendar that changes its
+   *                  events in place
+   */
+  LockedCalendar(ICalendar calendar, boolean lockReads) {
+    this.calendar = calendar;
+    this.lock = new ReentrantReadWriteLock();
+    this.lockReads = lockReads;
+    this.order = CREATED.getAndIncrement();
+  }
+
+  /**
+   * Runs the given call holding the read lock of the source and the write lock of the target,
+   * so the events read from the source cannot change while they are copied. The locks are
+   * always taken in the order the calendars were created, so two copies between the same
+   * calendars in opposite directions cannot deadlock. A copy within one calendar, or from a
+   * calendar whose reads take no lock, only takes the write lock of the target.
+   *
+   * @param source the calendar copied from
+   * @param target the calendar copied to
+   * @param call   the copy
+   */
+  static void copying(LockedCalendar source, LockedCalendar target, Runnable call) {
+    if (source == target || !source.lockReads) {
+      target.writing(call);
+      return;
+    }
+    Lock read = source.lock.readLock();
+    Lock write = target.lock.writeLock();
+    Lock first = source.order < target.order ? read : write;
+    Lock second = first == read ? write : read;
+    first.lock();
+    try {
+      second.lock();
+      try {
+        call.run();
+      } finally {
+        second.unlock();
+      }
+    } finally {
+      first.unlock();
+    }
+  }
+
+  private <T> T reading(Supplier<T> call) {
+    if (!this.lockReads) {
+      return call.get();
+    }
+    this.lock.readLock().lock();
+    try {
+      return call.get();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  private <T> T writing(Supplier<T> call) {
+    this.lock.writeLock().lock();
+    try {
+      return call.get();
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  private void writing(Runnable call) {
+    this.writing(() -> {
+      call.run();
+      return null;
+    });
+  }
+
+  @Override
+  public void addEvent(IEvent event) {
+    this.writing(() -> this.calendar.addEvent(event));
+  }
+
+  @Override
+  public List<IEvent> addEvents(List<IEvent> events) {
+    return this.writing(() -> this.calendar.addEvents(events));
+  }
+
+  @Override
+  public void createSingleEvent(String subject, String startDateTtime, String endDateTtime)
+          throws IllegalArgumentException {
+    this.writing(() -> this.calendar.createSingleEvent(subject, startDateTtime, endDateTtime));
+  }
+
+  @Override
+  public void createEventSeriesTimesRepeated(String subject, String startDateTtime,
+                                             String endDateTtime, String weekdays,
+                                             int timesRepeated)
+          throws IllegalArgumentException {
+    this.writing(() -> this.calendar.createEventSeriesTimesRepeated(subject, startDateTtime,
+            endDateTtime, weekdays, timesRepeated));
+  }
+
+  @Override
+  public void createEventSeriesStopDate(String subject, String startDateTtime,
+                                        String endDateTtime, String weekdays, String stopDate)
+          throws IllegalArgumentException {
+    this.writing(() -> this.calendar.createEventSeriesStopDate(subject, startDateTtime,
+            endDateTtime, weekdays, stopDate));
+  }
+
+  @Override
+  public void createSingleAllDayEvent(String subject, String date)
+          throws IllegalArgumentException {
+    this.writing(() -> this.calendar.createSingleAllDayEvent(subject, date));
+  }
+
+  @Override
+  public void createAllDayEventSeriesTimesRepeated(String subject, String startDate,
+                                                   String weekdays, int timesRepeated)
+          throws IllegalArgumentException {
+    this.writing(() -> this.calendar.createAllDayEventSeriesTimesRepeated(subject, startDate,
+            weekdays, timesRepeated));
+  }
+
+  @Override
+  public void createAllDayEventSeriesStopDate(String subject, String startDate, String weekdays,
+                                              String stopDate)
+          throws IllegalArgumentException {
+    this.writing(() -> this.calendar.createAllDayEventSeriesStopDate(subject, startDate,
+            weekdays, stopDate));
+  }
+
+  @Override
+  public BulkReport createEvents(Collection<EventSpec> specs) {
+    return this.writing(() -> this.calendar.createEvents(specs));
+  }
+
+  @Override
+  public void editEventProperty(String prop, String eventSubject, String startDateTtime,
+                                String endDateTtime, String newPropvalue)
+          throws IllegalArgumentException {
+    this.writing(() -> this.calendar.editEventProperty(prop, eventSubject, startDateTtime,
+            endDateTtime, newPropvalue));
+  }
+
+  @Override
+  public void editEventsProperty(String prop, String eventSubject, String dateTtime,
+                                 String newPropvalue) throws IllegalArgumentException {
+    this.writing(() -> this.calendar.editEventsProperty(prop, eventSubject, dateTtime,
+            newPropvalue));
+  }
+
+  @Override
+  public void editSeriesProperty(String prop, String eventSubject, String dateTtime,
+                                 String newPropvalue) throws IllegalArgumentException {
+    this.writing(() -> this.calendar.editSeriesProperty(prop, eventSubject, dateTtime,
+            newPropvalue));
+  }
+
+  @Override
+  public ArrayList<IEvent> getEvents(String date) throws IllegalArgumentException {
+    return this.reading(() -> this.calendar.getEvents(date));
+  }
+
+  @Override
+  public long getDayCacheHits() {
+    return this.calendar.getDayCacheHits();
+  }
+
+  @Override
+  public long getDayCacheMisses() {
+    return this.calendar.getDayCacheMisses();
+  }
+
+  @Override
+  public ArrayList<IEvent> getEvents(String startDateTtime, String endDateTtime)
+          throws IllegalArgumentException {
+    return this.reading(() -> this.calendar.getEvents(startDateTtime, endDateTtime));
+  }
+
+  @Override
+  public boolean showStatus(String dateTtime) throws IllegalArgumentException {
+    return this.reading(() -> this.calendar.showStatus(dateTtime));
+  }
+
+  @Override
+  public long busyMinutes(String startDateTtime, String endDateTtime)
+          throws IllegalArgumentException {
+    return this.reading(() -> this.calendar.busyMinutes(startDateTtime, endDateTtime));
+  }
+
+  @Override
+  public int getBusyDaysCached() {
+    return this.calendar.getBusyDaysCached();
+  }
+
+  @Override
+  public long getEarliestStart() {
+    return this.reading(this.calendar::getEarliestStart);
+  }
+
+  @Override
+  public long getLatestEnd() {
+    return this.reading(this.calendar::getLatestEnd);
+  }
+
+  @Override
+  public List<IEvent> getCalendarEvents() {
+    return this.reading(this.calendar::getCalendarEvents);
+  }
+
+  @Override
+  public void forEachEvent(Consumer<? super IEvent> action) {
+    this.reading(() -> {
+      this.calendar.forEachEvent(action);
+      return null;
+    });
+  }
+
+  @Override
+  public void forEachEvent(String startDateTtime, String endDateTtime,
+                           Consumer<? super IEvent> action) throws IllegalArgumentException {
+    this.reading(() -> {
+      this.calendar.forEachEvent(startDateTtime, endDateTtime, action);
+      return null;
+    });
+  }
+
+  @Override
+  public String getEventsToString(String startDateTtime, String endDateTtime) {
+    return this.reading(() -> this.calendar.getEventsToString(startDateTtime, endDateTtime));
+  }
+
+  @Override
+  public EventPage getPage(String startDateTtime, int pageSize)
+          throws IllegalArgumentException {
+    return this.reading(() -> this.calendar.getPage(startDateTtime, pageSize));
+  }
+
+  @Override
+  public EventPage getPageAfter(EventCursor cursor, int pageSize)
+          throws IllegalArgumentException {
+    return this.reading(() -> this.calendar.getPageAfter(cursor, pageSize));
+  }
+
+  @Override
+  public EventPage getPageBefore(EventCursor cursor, int pageSize)
+          throws IllegalArgumentException {
+    return this.reading(() -> this.calendar.getPageBefore(cursor, pageSize));
+  }
+}
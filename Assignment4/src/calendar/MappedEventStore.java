@@ -0,0 +1,732 @@
+package calendar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a calendar's events in memory-mapped files in a directory, so a calendar can hold more
+ * events than fit on the heap. Each event is a fixed-width record in events.dat. Its strings are
+ * numbers into a dictionary kept in strings.dat, and the days removed from a series are kept in
+ * exceptions.dat. Two sorted indexes of record numbers, singles.idx and series.idx, order the
+ * records by start. Events are built from their records when they are asked for.
+ *
+ * <p>The dictionary stays on disk too. strings.off holds where each numbered string starts in
+ * strings.dat, and strings.hash is an open-addressing hash table of string numbers for finding
+ * the number of a string. Strings are decoded when an event needs them, and only the most
+ * recently used ones are kept on the heap. Both files can be worked out again from strings.dat,
+ * and are when they are missing or behind it.
+ *
+ * <p>A removed event's record is marked as removed and left in place. Files are written through
+ * the mappings, so what is written is kept by the operating system even if the program stops
+ * without closing the store.
+ *
+ * <p>Record layout, 64 bytes: flags (removed, series), weekday mask, subject, location,
+ * description and status as dictionary numbers, first day, start, end, end of the whole span,
+ * last day, and the position of the removed days or -1.
+ */
+final class MappedEventStore implements IEventStore, AutoCloseable {
+
+  private static final int MAGIC = 0x43414C45; // "CALE"
+  private static final int VERSION = 1;
+  private static final int HEADER = 32;
+  private static final int RECORD = 64;
+  private static final int INITIAL_RECORDS = 1024;
+  private static final byte REMOVED = 1;
+  private static final byte SERIES = 2;
+  private static final int INITIAL_SLOTS = 2048; // hash table slots, a power of two
+  private static final int DECODED_STRINGS = 1024; // most decoded strings kept on the heap
+
+  // field offsets within a record
+  private static final int FLAGS = 0;
+  private static final int WEEKDAYS = 1;
+  private static final int SUBJECT = 4;
+  private static final int LOCATION = 8;
+  private static final int DESCRIPTION = 12;
+  private static final int STATUS = 16;
+  private static final int FIRST_DAY = 20;
+  private static final int START = 24;
+  private static final int END = 32;
+  private static final int SPAN_END = 40;
+  private static final int LAST_DAY = 48;
+  private static final int EXCEPTIONS = 56;
+
+  // header offsets in events.dat
+  private static final int RECORD_COUNT = 8;
+  private static final int MAX_END = 16;
+  private static final int MAX_SINGLE_SPAN = 24;
+
+  // header offsets in strings.hash; slots follow, each a string number plus one, or 0 if empty
+  private static final int SLOT_COUNT = 0;
+  private static final int ENTRY_COUNT = 4;
+  private static final int SLOTS = 8;
+
+  /**
+   * A file mapped into memory that is remapped larger when it fills up.
+   */
+  private static final class Region {
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    private Region(Path file, int minSize) throws IOException {
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0,
+              Math.max(this.channel.size(), minSize));
+    }
+
+    /**
+     * Returns the mapping, making it at least the given size first.
+     */
+    private MappedByteBuffer ensure(long size) {
+      if (size > this.buffer.capacity()) {
+        if (size > Integer.MAX_VALUE) {
+          throw new IllegalStateException("Calendar store is full");
+        }
+        long grown = Math.min(Integer.MAX_VALUE, Math.max(size, 2L * this.buffer.capacity()));
+        try {
+          this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, grown);
+        } catch (IOException e) {
+          throw new IllegalStateException("Could not grow calendar store", e);
+        }
+      }
+      return this.buffer;
+    }
+
+    private void close() throws IOException {
+      this.buffer.force();
+      this.channel.close();
+    }
+  }
+
+  /**
+   * Record numbers ordered by the start of their records, then by record number. The count is
+   * kept in the first four bytes.
+   */
+  private final class SortedIndex {
+    private final Region region;
+
+    private SortedIndex(Path file) throws IOException {
+      this.region = new Region(file, 4 + 4 * INITIAL_RECORDS);
+    }
+
+    private int size() {
+      return this.region.buffer.getInt(0);
+    }
+
+    private int record(int position) {
+      return this.region.buffer.getInt(4 + 4 * position);
+    }
+
+    private long start(int position) {
+      return MappedEventStore.this.start(this.record(position));
+    }
+
+    /**
+     * Returns the first position whose record starts at or after the given minute.
+     */
+    private int firstFrom(long start) {
+      int low = 0;
+      int high = this.size();
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (this.start(middle) < start) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * Adds a record numbered after every record already in the index.
+     */
+    private void insert(int record) {
+      int size = this.size();
+      MappedByteBuffer buffer = this.region.ensure(4 + 4L * (size + 1));
+      int position = this.firstFrom(MappedEventStore.this.start(record) + 1);
+      for (int i = size; i > position; i--) {
+        buffer.putInt(4 + 4 * i, buffer.getInt(4 + 4 * (i - 1)));
+      }
+      buffer.putInt(4 + 4 * position, record);
+      buffer.putInt(0, size + 1);
+    }
+
+    /**
+     * Adds the given records, numbered after every record already in the index and ordered by
+     * start, rewriting the index once.
+     */
+    private void merge(int[] added, int count) {
+      if (count == 0) {
+        return;
+      }
+      int size = this.size();
+      MappedByteBuffer buffer = this.region.ensure(4 + 4L * (size + count));
+      int[] merged = new int[size + count];
+      int i = 0;
+      int j = 0;
+      for (int k = 0; k < merged.length; k++) {
+        if (j == count || (i < size
+                && this.start(i) <= MappedEventStore.this.start(added[j]))) {
+          merged[k] = this.record(i++);
+        } else {
+          merged[k] = added[j++];
+        }
+      }
+      for (int k = 0; k < merged.length; k++) {
+        buffer.putInt(4 + 4 * k, merged[k]);
+      }
+      buffer.putInt(0, merged.length);
+    }
+
+    private void removeAt(int position) {
+      int size = this.size();
+      MappedByteBuffer buffer = this.region.buffer;
+      for (int i = position; i < size - 1; i++) {
+        buffer.putInt(4 + 4 * i, buffer.getInt(4 + 4 * (i + 1)));
+      }
+      buffer.putInt(0, size - 1);
+    }
+  }
+
+  private final Region events;
+  private final Region dictionary;
+  private final Region offsets; // count, then where each numbered string starts in dictionary
+  private final Region hashes;
+  private final Region exceptions;
+  private final SortedIndex singles;
+  private final SortedIndex series;
+  private final LinkedHashMap<Integer, String> decoded; // recently used strings by number
+
+  private MappedEventStore(Path directory) throws IOException {
+    this.events = new Region(directory.resolve("events.dat"), HEADER + RECORD * INITIAL_RECORDS);
+    this.dictionary = new Region(directory.resolve("strings.dat"), 64 * 1024);
+    this.offsets = new Region(directory.resolve("strings.off"), 4 + 4 * INITIAL_RECORDS);
+    this.hashes = new Region(directory.resolve("strings.hash"), SLOTS + 4 * INITIAL_SLOTS);
+    this.exceptions = new Region(directory.resolve("exceptions.dat"), 64 * 1024);
+    this.singles = new SortedIndex(directory.resolve("singles.idx"));
+    this.series = new SortedIndex(directory.resolve("series.idx"));
+    this.decoded = new LinkedHashMap<Integer, String>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+        return this.size() > DECODED_STRINGS;
+      }
+    };
+  }
+
+  /**
+   * Opens the store kept in the given directory, creating it if it does not exist.
+   *
+   * @param directory where the store's files are kept
+   * @return MappedEventStore
+   * @throws IOException              if the files cannot be opened
+   * @throws IllegalArgumentException if the directory holds something other than a store
+   */
+  static MappedEventStore open(Path directory) throws IOException, IllegalArgumentException {
+    Files.createDirectories(directory);
+    MappedEventStore store = new MappedEventStore(directory);
+    MappedByteBuffer header = store.events.buffer;
+    if (header.getInt(0) == 0) {
+      header.putInt(0, MAGIC);
+      header.putInt(4, VERSION);
+      header.putLong(MAX_END, Long.MIN_VALUE);
+      store.dictionary.buffer.putLong(0, 8);
+      store.exceptions.buffer.putLong(0, 8);
+    } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+      store.close();
+      throw new IllegalArgumentException("Invalid calendar store: " + directory);
+    }
+    store.indexDictionary();
+    return store;
+  }
+
+  /**
+   * Forces everything written to disk and closes the files.
+   *
+   * @throws IOException if the files cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    this.events.close();
+    this.dictionary.close();
+    this.offsets.close();
+    this.hashes.close();
+    this.exceptions.close();
+    this.singles.region.close();
+    this.series.region.close();
+  }
+
+  /**
+   * Brings the offsets and the hash table up to date with the strings in the dictionary, which
+   * may hold strings written after them if the program stopped in between, or before they
+   * existed.
+   */
+  private void indexDictionary() {
+    int count = this.stringCount();
+    long used = this.dictionary.buffer.getLong(0);
+    int position = count == 0 ? 8 : this.stringAt(count - 1) + 4
+            + this.dictionary.buffer.getInt(this.stringAt(count - 1));
+    while (position < used) {
+      this.offsets.ensure(4 + 4L * (count + 1)).putInt(4 + 4 * count, position);
+      count++;
+      this.offsets.buffer.putInt(0, count);
+      position += 4 + this.dictionary.buffer.getInt(position);
+    }
+    MappedByteBuffer table = this.hashes.buffer;
+    if (table.getInt(SLOT_COUNT) == 0 || table.getInt(ENTRY_COUNT) != count) {
+      int slots = INITIAL_SLOTS;
+      while (slots < 2L * count) {
+        slots *= 2;
+      }
+      this.rehash(slots);
+    }
+  }
+
+  private int stringCount() {
+    return this.offsets.buffer.getInt(0);
+  }
+
+  /**
+   * Returns where the string with the given number starts in the dictionary.
+   */
+  private int stringAt(int number) {
+    return this.offsets.buffer.getInt(4 + 4 * number);
+  }
+
+  /**
+   * Returns the string with the given number, decoding it from the dictionary if it was not
+   * used recently.
+   */
+  private String string(int number) {
+    synchronized (this.decoded) {
+      String string = this.decoded.get(number);
+      if (string != null) {
+        return string;
+      }
+    }
+    MappedByteBuffer buffer = this.dictionary.buffer;
+    int position = this.stringAt(number);
+    byte[] bytes = new byte[buffer.getInt(position)];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(position + 4 + i);
+    }
+    String string = new String(bytes, StandardCharsets.UTF_8);
+    synchronized (this.decoded) {
+      this.decoded.put(number, string);
+    }
+    return string;
+  }
+
+  /**
+   * Returns the FNV-1a hash of the given bytes of a buffer.
+   */
+  private static int hash(ByteBuffer buffer, int from, int length) {
+    int hash = 0x811C9DC5;
+    for (int i = from; i < from + length; i++) {
+      hash = (hash ^ (buffer.get(i) & 0xFF)) * 0x01000193;
+    }
+    return hash;
+  }
+
+  /**
+   * Returns the slot of the hash table holding the number of the string with the given bytes, or
+   * the empty slot where it would go.
+   */
+  private int slotOf(byte[] bytes) {
+    MappedByteBuffer table = this.hashes.buffer;
+    MappedByteBuffer buffer = this.dictionary.buffer;
+    int mask = table.getInt(SLOT_COUNT) - 1;
+    int slot = hash(ByteBuffer.wrap(bytes), 0, bytes.length) & mask;
+    for (int entry = table.getInt(SLOTS + 4 * slot); entry != 0;
+         entry = table.getInt(SLOTS + 4 * slot)) {
+      int position = this.stringAt(entry - 1);
+      if (buffer.getInt(position) == bytes.length && this.sameBytes(position + 4, bytes)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private boolean sameBytes(int position, byte[] bytes) {
+    MappedByteBuffer buffer = this.dictionary.buffer;
+    for (int i = 0; i < bytes.length; i++) {
+      if (buffer.get(position + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Rebuilds the hash table with the given number of slots from the strings in the dictionary.
+   */
+  private void rehash(int slots) {
+    MappedByteBuffer table = this.hashes.ensure(SLOTS + 4L * slots);
+    for (int slot = 0; slot < slots; slot++) {
+      table.putInt(SLOTS + 4 * slot, 0);
+    }
+    table.putInt(SLOT_COUNT, slots);
+    MappedByteBuffer buffer = this.dictionary.buffer;
+    int count = this.stringCount();
+    for (int number = 0; number < count; number++) {
+      int position = this.stringAt(number);
+      int slot = hash(buffer, position + 4, buffer.getInt(position)) & (slots - 1);
+      while (table.getInt(SLOTS + 4 * slot) != 0) {
+        slot = (slot + 1) & (slots - 1);
+      }
+      table.putInt(SLOTS + 4 * slot, number + 1);
+    }
+    table.putInt(ENTRY_COUNT, count);
+  }
+
+  /**
+   * Returns the dictionary number of the given string, adding it if it is new.
+   */
+  private int intern(String string) {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    int slot = this.slotOf(bytes);
+    int entry = this.hashes.buffer.getInt(SLOTS + 4 * slot);
+    if (entry != 0) {
+      return entry - 1;
+    }
+    long used = this.dictionary.buffer.getLong(0);
+    MappedByteBuffer buffer = this.dictionary.ensure(used + 4 + bytes.length);
+    int position = (int) used;
+    buffer.putInt(position, bytes.length);
+    for (int i = 0; i < bytes.length; i++) {
+      buffer.put(position + 4 + i, bytes[i]);
+    }
+    buffer.putLong(0, used + 4 + bytes.length);
+    int number = this.stringCount();
+    this.offsets.ensure(4 + 4L * (number + 1)).putInt(4 + 4 * number, position);
+    this.offsets.buffer.putInt(0, number + 1);
+    MappedByteBuffer table = this.hashes.buffer;
+    if (2L * (number + 1) > table.getInt(SLOT_COUNT)) {
+      // kept at most half full
+      this.rehash(2 * table.getInt(SLOT_COUNT));
+    } else {
+      table.putInt(SLOTS + 4 * slot, number + 1);
+      table.putInt(ENTRY_COUNT, number + 1);
+    }
+    return number;
+  }
+
+  /**
+   * Returns the dictionary number of the given string, or -1 if it is not in the dictionary.
+   */
+  private int numberOf(String string) {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    return this.hashes.buffer.getInt(SLOTS + 4 * this.slotOf(bytes)) - 1;
+  }
+
+  private static int offset(int record) {
+    return HEADER + RECORD * record;
+  }
+
+  private long start(int record) {
+    return this.events.buffer.getLong(offset(record) + START);
+  }
+
+  private int recordCount() {
+    return this.events.buffer.getInt(RECORD_COUNT);
+  }
+
+  @Override
+  public void add(IEvent event) {
+    int record = this.append(event);
+    (event.isSeries() ? this.series : this.singles).insert(record);
+  }
+
+  @Override
+  public List<IEvent> addAll(List<IEvent> events) {
+    List<IEvent> added = new ArrayList<>(events.size());
+    Set<IEvent> seen = new HashSet<>(Math.max(16, events.size() * 2));
+    for (IEvent event : events) {
+      if (seen.add(event) && !this.contains(event)) {
+        added.add(event);
+      }
+    }
+    List<IEvent> sorted = new ArrayList<>(added);
+    sorted.sort(Comparator.comparingLong(IEvent::getStartInstant));
+    int[] singleRecords = new int[sorted.size()];
+    int[] seriesRecords = new int[sorted.size()];
+    int singleCount = 0;
+    int seriesCount = 0;
+    for (IEvent event : sorted) {
+      if (event.isSeries()) {
+        seriesRecords[seriesCount++] = this.append(event);
+      } else {
+        singleRecords[singleCount++] = this.append(event);
+      }
+    }
+    this.singles.merge(singleRecords, singleCount);
+    this.series.merge(seriesRecords, seriesCount);
+    return added;
+  }
+
+  /**
+   * Writes the given event as a new record without indexing it, and returns its number.
+   */
+  private int append(IEvent event) {
+    int record = this.recordCount();
+    MappedByteBuffer buffer = this.events.ensure(offset(record + 1));
+    int at = offset(record);
+    long start = event.getStartInstant();
+    long spanEnd = Math.max(start, event.getEndInstant());
+    buffer.put(at + FLAGS, event.isSeries() ? SERIES : 0);
+    buffer.putInt(at + SUBJECT, this.intern(event.getSubject()));
+    buffer.putInt(at + LOCATION, this.intern(event.getLocation()));
+    buffer.putInt(at + DESCRIPTION, this.intern(event.getDescription()));
+    buffer.putInt(at + STATUS, this.intern(event.getStatus()));
+    buffer.putLong(at + START, start);
+    buffer.putLong(at + END, event.getEnd().toInstant());
+    buffer.putLong(at + SPAN_END, spanEnd);
+    buffer.putLong(at + EXCEPTIONS, -1);
+    if (event.isSeries()) {
+      SeriesEvent rule = (SeriesEvent) event;
+      buffer.put(at + WEEKDAYS, (byte) rule.getWeekdayMask());
+      buffer.putInt(at + FIRST_DAY, rule.getFirstDay());
+      buffer.putInt(at + LAST_DAY, rule.getLastDay());
+      if (!rule.getExceptions().isEmpty()) {
+        buffer.putLong(at + EXCEPTIONS, this.writeExceptions(rule.getExceptions()));
+      }
+    }
+    buffer.putInt(RECORD_COUNT, record + 1);
+    buffer.putLong(MAX_END, Math.max(buffer.getLong(MAX_END), spanEnd));
+    if (!event.isSeries()) {
+      buffer.putLong(MAX_SINGLE_SPAN, Math.max(buffer.getLong(MAX_SINGLE_SPAN),
+              spanEnd - start));
+    }
+    return record;
+  }
+
+  private long writeExceptions(Set<Integer> days) {
+    long used = this.exceptions.buffer.getLong(0);
+    MappedByteBuffer buffer = this.exceptions.ensure(used + 4 + 4L * days.size());
+    int position = (int) used;
+    buffer.putInt(position, days.size());
+    for (int day : days) {
+      position += 4;
+      buffer.putInt(position, day);
+    }
+    buffer.putLong(0, position + 4);
+    return used;
+  }
+
+  private Set<Integer> readExceptions(long position) {
+    Set<Integer> days = new HashSet<>();
+    if (position < 0) {
+      return days;
+    }
+    MappedByteBuffer buffer = this.exceptions.buffer;
+    int count = buffer.getInt((int) position);
+    for (int i = 1; i <= count; i++) {
+      days.add(buffer.getInt((int) position + 4 * i));
+    }
+    return days;
+  }
+
+  /**
+   * Builds the event held in the given record.
+   */
+  private IEvent read(int record) {
+    MappedByteBuffer buffer = this.events.buffer;
+    int at = offset(record);
+    String subject = this.string(buffer.getInt(at + SUBJECT));
+    String location = this.string(buffer.getInt(at + LOCATION));
+    String description = this.string(buffer.getInt(at + DESCRIPTION));
+    String status = this.string(buffer.getInt(at + STATUS));
+    DateTime start = DateTime.ofInstant(buffer.getLong(at + START));
+    DateTime end = DateTime.ofInstant(buffer.getLong(at + END));
+    if ((buffer.get(at + FLAGS) & SERIES) == 0) {
+      return new SingleEvent(subject, start, end, location, description, status);
+    }
+    return new SeriesEvent(subject, start, end, buffer.get(at + WEEKDAYS),
+            buffer.getInt(at + FIRST_DAY), buffer.getInt(at + LAST_DAY),
+            this.readExceptions(buffer.getLong(at + EXCEPTIONS)), location, description, status);
+  }
+
+  /**
+   * Returns true if the given record holds exactly the given event.
+   */
+  private boolean holds(int record, IEvent event) {
+    MappedByteBuffer buffer = this.events.buffer;
+    int at = offset(record);
+    if (buffer.getInt(at + SUBJECT) != this.numberOf(event.getSubject())
+            || buffer.getInt(at + LOCATION) != this.numberOf(event.getLocation())
+            || buffer.getInt(at + DESCRIPTION) != this.numberOf(event.getDescription())
+            || buffer.getInt(at + STATUS) != this.numberOf(event.getStatus())
+            || buffer.getLong(at + END) != event.getEnd().toInstant()) {
+      return false;
+    }
+    if (!event.isSeries()) {
+      return true;
+    }
+    SeriesEvent rule = (SeriesEvent) event;
+    return buffer.get(at + WEEKDAYS) == rule.getWeekdayMask()
+            && buffer.getInt(at + FIRST_DAY) == rule.getFirstDay()
+            && buffer.getInt(at + LAST_DAY) == rule.getLastDay()
+            && this.readExceptions(buffer.getLong(at + EXCEPTIONS)).equals(rule.getExceptions());
+  }
+
+  @Override
+  public void remove(IEvent event) {
+    SortedIndex index = event.isSeries() ? this.series : this.singles;
+    long start = event.getStartInstant();
+    for (int i = index.firstFrom(start); i < index.size() && index.start(i) == start; i++) {
+      int record = index.record(i);
+      if (this.holds(record, event)) {
+        int at = offset(record) + FLAGS;
+        this.events.buffer.put(at, (byte) (this.events.buffer.get(at) | REMOVED));
+        index.removeAt(i);
+        return;
+      }
+    }
+  }
+
+  @Override
+  public boolean contains(IEvent event) {
+    int subject = this.numberOf(event.getSubject());
+    if (subject < 0) {
+      return false;
+    }
+    long start = event.getStartInstant();
+    long end = event.getEnd().toInstant();
+    for (SortedIndex index : new SortedIndex[]{this.singles, this.series}) {
+      for (int i = index.firstFrom(start); i < index.size() && index.start(i) == start; i++) {
+        int at = offset(index.record(i));
+        if (this.events.buffer.getInt(at + SUBJECT) == subject
+                && this.events.buffer.getLong(at + END) == end) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public IEvent findSingle(String subject, long start, DateTime end) {
+    int number = this.numberOf(subject);
+    if (number < 0) {
+      return null;
+    }
+    for (int i = this.singles.firstFrom(start);
+         i < this.singles.size() && this.singles.start(i) == start; i++) {
+      int at = offset(this.singles.record(i));
+      if (this.events.buffer.getInt(at + SUBJECT) == number
+              && (end == null || this.events.buffer.getLong(at + END) == end.toInstant())) {
+        return this.read(this.singles.record(i));
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public List<IEvent> findSeries(String subject, int minuteOfDay) {
+    List<IEvent> found = new ArrayList<>();
+    int number = this.numberOf(subject);
+    if (number < 0) {
+      return found;
+    }
+    for (int i = 0; i < this.series.size(); i++) {
+      int record = this.series.record(i);
+      if (this.events.buffer.getInt(offset(record) + SUBJECT) == number
+              && Math.floorMod(this.start(record), 1440L) == minuteOfDay) {
+        found.add(this.read(record));
+      }
+    }
+    return found;
+  }
+
+  @Override
+  public void overlapping(long from, long to, Consumer<? super IEvent> action) {
+    long widest = this.events.buffer.getLong(MAX_SINGLE_SPAN);
+    // no single event starting before this can reach the window
+    long earliest = from < Long.MIN_VALUE + widest ? Long.MIN_VALUE : from - widest;
+    int i = this.nextOverlapping(this.singles, this.singles.firstFrom(earliest), from, to);
+    int j = this.nextOverlapping(this.series, 0, from, to);
+    while (i >= 0 || j >= 0) {
+      boolean takeSingle;
+      if (j < 0) {
+        takeSingle = true;
+      } else if (i < 0) {
+        takeSingle = false;
+      } else {
+        int single = this.singles.record(i);
+        int rule = this.series.record(j);
+        long a = this.start(single);
+        long b = this.start(rule);
+        takeSingle = a < b || (a == b && single < rule);
+      }
+      if (takeSingle) {
+        action.accept(this.read(this.singles.record(i)));
+        i = this.nextOverlapping(this.singles, i + 1, from, to);
+      } else {
+        action.accept(this.read(this.series.record(j)));
+        j = this.nextOverlapping(this.series, j + 1, from, to);
+      }
+    }
+  }
+
+  /**
+   * Returns the first position at or after the given one whose record overlaps the window
+   * [from, to], or -1 once the index has no more records starting in the window.
+   */
+  private int nextOverlapping(SortedIndex index, int position, long from, long to) {
+    for (int i = position; i < index.size() && index.start(i) <= to; i++) {
+      if (this.events.buffer.getLong(offset(index.record(i)) + SPAN_END) >= from) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public List<IEvent> all() {
+    List<IEvent> events = new ArrayList<>(this.singles.size() + this.series.size());
+    this.overlapping(Long.MIN_VALUE, Long.MAX_VALUE, events::add);
+    return events;
+  }
+
+  @Override
+  public long minStart() {
+    long min = Long.MAX_VALUE;
+    if (this.singles.size() > 0) {
+      min = this.singles.start(0);
+    }
+    if (this.series.size() > 0) {
+      min = Math.min(min, this.series.start(0));
+    }
+    return min;
+  }
+
+  @Override
+  public long maxEnd() {
+    return this.events.buffer.getLong(MAX_END);
+  }
+
+  @Override
+  public void publish() {
+    // changes are written straight to the files; readers lock the calendar instead
+  }
+
+  @Override
+  public IEventView version() {
+    return this;
+  }
+}
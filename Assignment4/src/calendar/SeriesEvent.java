@@ -1,19 +1,32 @@
 package calendar;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * This class represents a series of events. A series of events repeat for a specified number of
  * days--recurring on specific days of the week and/or a specific number of times. If a series is
  * set to repeat a specific number of times with no specific days, the event will recur on that
  * day every week for the specified number of times.
+ *
+ * <p>A series is stored as a rule rather than a list of dates: the first and last day it may
+ * occur on, the weekdays it occurs on, and the days removed from it by editing single
+ * occurrences. Occurrences are worked out from the rule when they are needed.
  */
 public class SeriesEvent extends AbstractEvent {
 
-  private ArrayList<IDate> recurringDates;
-  private final String weekdays;
-  private final int timesRepeated; // -1 when unused
-  private final IDate stopDate; // null when unused
+  private static final String DAYS_OF_WEEK = "MTWRFSU";
+  private static final int NONE = Integer.MIN_VALUE; // no occurrence
+
+  private final int weekdayMask; // bit 0 is Monday through bit 6 for Sunday
+  private final int firstDay; // epoch day
+  private int lastDay; // epoch day, inclusive
+  // epoch days no longer in the series; never changed, only replaced, so copies share it
+  private Set<Integer> exceptions;
 
   /**
    * Constructs an event that repeats on given weekdays a given number of times.
@@ -27,11 +40,11 @@ public class SeriesEvent extends AbstractEvent {
   public SeriesEvent(String subject, String startDateTtime, String endDateTtime, String weekdays,
                      int timesRepeated) {
     super(subject, startDateTtime, endDateTtime);
-    this.weekdays = weekdays;
-    this.timesRepeated = timesRepeated;
-    this.stopDate = null;
+    this.weekdayMask = toWeekdayMask(weekdays);
+    this.firstDay = this.start.getDate().toEpochDay();
+    this.lastDay = this.firstDay + 7 * timesRepeated - 1;
+    this.exceptions = Collections.emptySet();
     super.initializeOtherProperties();
-    this.recurringDates();
   }
 
   /**
@@ -46,11 +59,11 @@ public class SeriesEvent extends AbstractEvent {
   public SeriesEvent(String subject, String startDateTtime, String endDateTtime, String weekdays,
                      String stopDate) {
     super(subject, startDateTtime, endDateTtime);
-    this.weekdays = weekdays;
-    this.timesRepeated = -1;
-    this.stopDate = new Date(stopDate);
+    this.weekdayMask = toWeekdayMask(weekdays);
+    this.firstDay = this.start.getDate().toEpochDay();
+    this.lastDay = new Date(stopDate).toEpochDay();
+    this.exceptions = Collections.emptySet();
     super.initializeOtherProperties();
-    this.recurringDates();
   }
 
   /**
@@ -63,11 +76,11 @@ public class SeriesEvent extends AbstractEvent {
    */
   public SeriesEvent(String subject, String startDate, String weekdays, int timesRepeated) {
     super(subject, startDate);
-    this.weekdays = weekdays;
-    this.timesRepeated = timesRepeated;
-    this.stopDate = null;
+    this.weekdayMask = toWeekdayMask(weekdays);
+    this.firstDay = this.start.getDate().toEpochDay();
+    this.lastDay = this.firstDay + 7 * timesRepeated - 1;
+    this.exceptions = Collections.emptySet();
     super.initializeOtherProperties();
-    this.recurringDates();
   }
 
   /**
@@ -80,271 +93,339 @@ public class SeriesEvent extends AbstractEvent {
    */
   public SeriesEvent(String subject, String startDate, String weekdays, String stopDate) {
     super(subject, startDate);
-    this.weekdays = weekdays;
-    this.timesRepeated = -1;
-    this.stopDate = new Date(stopDate);
+    this.weekdayMask = toWeekdayMask(weekdays);
+    this.firstDay = this.start.getDate().toEpochDay();
+    this.lastDay = new Date(stopDate).toEpochDay();
+    this.exceptions = Collections.emptySet();
     super.initializeOtherProperties();
-    this.recurringDates();
   }
 
   /**
    * Constructs a new Series Event.
    *
-   * @param subject        String
-   * @param startDateTtime "YYYY-MM-DDThh:mm"
-   * @param endDateTtime   "YYYY-MM-DDThh:mm"
-   * @param weekdays       MTWRFSU
-   * @param timesRepeated  integer
-   * @param stopDate       Date
-   * @param location       String
-   * @param description    String
-   * @param status         String
-   * @param recurringDates ArrayList of Dates
+   * @param subject     String
+   * @param start       DateTime
+   * @param end         DateTime
+   * @param weekdayMask bit 0 for Monday through bit 6 for Sunday
+   * @param firstDay    first epoch day the series may occur on
+   * @param lastDay     last epoch day the series may occur on
+   * @param exceptions  epoch days removed from the series, kept rather than copied, so not to be
+   *                    changed afterwards
+   * @param location    String
+   * @param description String
+   * @param status      "public" or "private"; anything else is unspecified
    */
-  private SeriesEvent(String subject, String startDateTtime, String endDateTtime, String weekdays,
-                      int timesRepeated, IDate stopDate, String location, String description,
-                      String status, ArrayList<IDate> recurringDates) {
-    super(subject, startDateTtime, endDateTtime);
-    this.recurringDates = new ArrayList<IDate>(recurringDates);
-    this.weekdays = weekdays;
-    this.timesRepeated = timesRepeated;
-    this.stopDate = stopDate;
-    this.location = location;
-    this.description = description;
-    this.status = status;
+  SeriesEvent(String subject, DateTime start, DateTime end, int weekdayMask,
+                      int firstDay, int lastDay, Set<Integer> exceptions, String location,
+                      String description, String status) {
+    this(new EventText(subject, location, description, Status.read(status)), start, end,
+            weekdayMask, firstDay, lastDay, exceptions);
   }
 
   /**
-   * Adds the all the days that a series event occurs into a list.
+   * Constructs a new Series Event with the given text.
+   *
+   * @param text        EventText
+   * @param start       DateTime
+   * @param end         DateTime
+   * @param weekdayMask bit 0 for Monday through bit 6 for Sunday
+   * @param firstDay    first epoch day the series may occur on
+   * @param lastDay     last epoch day the series may occur on
+   * @param exceptions  epoch days removed from the series, kept rather than copied, so not to be
+   *                    changed afterwards
    */
+  SeriesEvent(EventText text, DateTime start, DateTime end, int weekdayMask, int firstDay,
+              int lastDay, Set<Integer> exceptions) {
+    super(text, start, end);
+    this.weekdayMask = weekdayMask;
+    this.firstDay = firstDay;
+    this.lastDay = lastDay;
+    this.exceptions = exceptions;
+  }
 
-  private void recurringDates() {
-    this.recurringDates = new ArrayList<IDate>();
-    String[] daysThatRecur = this.weekdays.split("(?!^)");
-    Date current = this.startDate.copy();
-
-    if (this.timesRepeated > 0) {
-      int weeksAdded = 0;
-      while (weeksAdded < this.timesRepeated) {
-        for (int i = 0; i < 7; i++) {
-          for (int j = 0; j < daysThatRecur.length; j++) {
-            if (current.dayOfWeek.equals(daysThatRecur[j])) {
-              this.recurringDates.add(current.copy());
-            }
-          }
-          current = current.getNextDate(1);
-        }
-        weeksAdded++;
-      }
-    } else {
-      while (current.compare(this.stopDate) <= 0) {
-        for (int j = 0; j < daysThatRecur.length; j++) {
-          if (current.dayOfWeek.equals(daysThatRecur[j])) {
-            this.recurringDates.add(current.copy());
-          }
-        }
-        current = current.getNextDate(1);
+  /**
+   * Returns the weekdays this series occurs on, bit 0 for Monday through bit 6 for Sunday.
+   *
+   * @return int
+   */
+  int getWeekdayMask() {
+    return this.weekdayMask;
+  }
+
+  /**
+   * Returns the first epoch day this series may occur on.
+   *
+   * @return int
+   */
+  int getFirstDay() {
+    return this.firstDay;
+  }
+
+  /**
+   * Returns the last epoch day this series may occur on.
+   *
+   * @return int
+   */
+  int getLastDay() {
+    return this.lastDay;
+  }
+
+  /**
+   * Returns the epoch days removed from this series.
+   *
+   * @return Set of epoch days, not to be changed
+   */
+  Set<Integer> getExceptions() {
+    return this.exceptions;
+  }
+
+  /**
+   * Returns the weekdays as a bit mask, bit 0 for Monday through bit 6 for Sunday.
+   *
+   * @param weekdays MTWRFSU
+   * @return int
+   */
+  private static int toWeekdayMask(String weekdays) {
+    int mask = 0;
+    for (int i = 0; i < weekdays.length(); i++) {
+      int weekday = DAYS_OF_WEEK.indexOf(weekdays.charAt(i));
+      if (weekday >= 0) {
+        mask |= 1 << weekday;
       }
     }
+    return mask;
   }
 
   /**
-   * Returns a dateTtime string of the event at the given index.
+   * Returns true if the series occurs on the given epoch day.
    *
-   * @param eventIndex positive integer
-   * @param isStart    boolean, true if getting startDateTtime,
-   * @return String
+   * @param day epoch day
+   * @return boolean
    */
-  private String getDateTtime(int eventIndex, boolean isStart) {
-    if (isStart) {
-      return this.recurringDates.get(eventIndex).toString() + "T" + String.format("%02d",
-              this.times[0]) + ":" + String.format("%02d", this.times[1]);
-    } else {
-      return this.recurringDates.get(eventIndex).toString() + "T" + String.format("%02d",
-              this.times[2]) + ":" + String.format("%02d", this.times[3]);
-    }
+  private boolean occursOn(int day) {
+    return day >= this.firstDay && day <= this.lastDay
+            && (this.weekdayMask & (1 << Math.floorMod(day + 3, 7))) != 0
+            && !this.exceptions.contains(day);
   }
 
-  @Override
-  public IEvent deepCopy(int timeAdjustment) {
-    SeriesEvent copy = new SeriesEvent(this.subject,
-            this.getStartDate() + "T" + this.getStartTime(),
-            this.getEndDate() + "T" + this.getEndTime(), this.weekdays,
-            this.timesRepeated, this.stopDate, this.location, this.description,
-            this.status, this.recurringDates);
-    if (timeAdjustment > 0) {
-      copy.times[0] += timeAdjustment;
-      copy.times[2] += timeAdjustment;
-      if (copy.times[0] > 23) {
-        copy.times[0] -= 23;
-        copy.startDate = copy.startDate.getNextDate(1);
+  /**
+   * Returns the first epoch day on or after the given day that the series occurs on, or NONE.
+   *
+   * @param day epoch day
+   * @return epoch day or NONE
+   */
+  private int nextOccurrence(int day) {
+    if (this.weekdayMask == 0) {
+      return NONE;
+    }
+    for (int current = Math.max(day, this.firstDay); current <= this.lastDay; current++) {
+      if (this.occursOn(current)) {
+        return current;
       }
-      if (copy.times[2] > 23) {
-        copy.times[2] -= 23;
-        copy.endDate = copy.endDate.getNextDate(1);
+    }
+    return NONE;
+  }
+
+  /**
+   * Returns the last epoch day on or before the given day that the series occurs on, or NONE.
+   *
+   * @param day epoch day
+   * @return epoch day or NONE
+   */
+  private int previousOccurrence(int day) {
+    if (this.weekdayMask == 0) {
+      return NONE;
+    }
+    for (int current = Math.min(day, this.lastDay); current >= this.firstDay; current--) {
+      if (this.occursOn(current)) {
+        return current;
       }
-      return copy;
-    } else if (timeAdjustment < 0) {
-      copy.times[0] += timeAdjustment;
-      copy.times[2] += timeAdjustment;
-      if (copy.times[0] < 0) {
-        copy.times[0] += 23;
-        // copy.startDate = copy.startDate.getNextDate(-1);
+    }
+    return NONE;
+  }
+
+  /**
+   * Returns the epoch day of the occurrence on the date of the given dateTtime. Throws an error
+   * if the series does not occur on that date.
+   *
+   * @param dateTtime "YYYY-MM-DDThh:mm"
+   * @return epoch day
+   * @throws IllegalArgumentException if the series does not occur on that date
+   */
+  private int occurrenceDay(String dateTtime) throws IllegalArgumentException {
+    int day = DateTime.parse(dateTtime).getDate().toEpochDay();
+    if (!this.occursOn(day)) {
+      throw new IllegalArgumentException("Event does not exist");
+    }
+    return day;
+  }
+
+  /**
+   * Returns the dates this series occurs on, in order. The dates are worked out as the iterator
+   * is advanced.
+   *
+   * @return iterator of Dates
+   */
+  public Iterator<Date> occurrenceDates() {
+    return new Iterator<Date>() {
+      private int next = nextOccurrence(firstDay);
+
+      @Override
+      public boolean hasNext() {
+        return this.next != NONE;
       }
-      if (copy.times[2] < 0) {
-        copy.times[2] += 23;
-        // copy.endDate = copy.endDate.getNextDate(-1);
+
+      @Override
+      public Date next() {
+        if (this.next == NONE) {
+          throw new NoSuchElementException();
+        }
+        Date date = Date.ofEpochDay(this.next);
+        this.next = nextOccurrence(this.next + 1);
+        return date;
       }
-      return copy;
+    };
+  }
+
+  /**
+   * Returns the start or end of the occurrence on the given epoch day.
+   *
+   * @param day     epoch day
+   * @param isStart boolean, true if getting the start
+   * @return DateTime
+   */
+  private DateTime getDateTime(int day, boolean isStart) {
+    if (isStart) {
+      return this.start.withDate(Date.ofEpochDay(day));
     } else {
-      return copy;
+      return this.end.withDate(Date.ofEpochDay(day));
     }
   }
 
   @Override
-  public IEvent sameDay(IDate date) {
-    for (int i = 0; i < this.recurringDates.size(); i++) {
-      if (this.recurringDates.get(i).compare(date) == 0) {
-        return copy(this.subject, this.getDateTtime(i, true), this.getDateTtime(i, false),
-                this.location, this.description, this.status);
-      }
+  public IEvent moved(int startShift, int endShift) {
+    DateTime newStart = this.start.plusMinutes(startShift);
+    int days = newStart.getDate().toEpochDay() - this.start.getDate().toEpochDay();
+    if (days == 0) {
+      return new SeriesEvent(this.text, newStart, this.end.plusMinutes(endShift),
+              this.weekdayMask, this.firstDay, this.lastDay, this.exceptions);
+    }
+    // every occurrence moves to another day, and with it the weekdays and removed days
+    int turn = Math.floorMod(days, 7);
+    int mask = ((this.weekdayMask << turn) | (this.weekdayMask >>> (7 - turn))) & 0x7F;
+    Set<Integer> exceptions = new HashSet<>();
+    for (int day : this.exceptions) {
+      exceptions.add(day + days);
     }
-    return null;
+    return new SeriesEvent(this.text, newStart, this.end.plusMinutes(endShift), mask,
+            this.firstDay + days, this.lastDay + days, exceptions);
   }
 
   @Override
-  public boolean match(String subject, String startDateTtime, String endDateTtime) {
-    if (!this.subject.equals(subject)) {
-      return false;
-    }
-    for (int i = 0; i < this.recurringDates.size(); i++) {
-      if (getDateTtime(i, true).equals(startDateTtime)
-              && (getDateTtime(i, false).equals(endDateTtime) || endDateTtime.isEmpty())) {
-        return true;
-      }
+  public IEvent duplicate() {
+    return new SeriesEvent(this.text, this.start, this.end, this.weekdayMask, this.firstDay,
+            this.lastDay, this.exceptions);
+  }
+
+  @Override
+  public IEvent sameDay(IDate date) {
+    int day = date.toEpochDay();
+    if (!this.occursOn(day)) {
+      return null;
     }
-    return false;
+    return copy(this.text, this.getDateTime(day, true), this.getDateTime(day, false));
   }
 
   @Override
-  public IEvent editEventProperty(String prop, String dateTtime, String newPropvalue) {
-    String[] dateTime = dateTtime.split("T");
-    int eventIndex = -1;
-    for (int i = 0; i < this.recurringDates.size(); i++) {
-      if (this.recurringDates.get(i).compare(new Date(dateTime[0])) == 0) {
-        eventIndex = i;
+  public void collectOccurrences(long fromInstant, long toInstant, List<IEvent> into) {
+    // start a day early in case an occurrence's end time is before its start time
+    int day = this.nextOccurrence((int) Math.floorDiv(fromInstant, 1440L) - 1);
+    while (day != NONE && this.getDateTime(day, true).toInstant() <= toInstant) {
+      if (this.getDateTime(day, false).toInstant() >= fromInstant) {
+        into.add(copy(this.text, this.getDateTime(day, true), this.getDateTime(day, false)));
       }
+      day = this.nextOccurrence(day + 1);
     }
-    IEvent temp;
-    switch (prop) {
-      case "subject":
-        temp = super.copy(newPropvalue, this.getDateTtime(eventIndex, true),
-                this.getDateTtime(eventIndex, false),
-                this.location, this.description, this.status);
-        this.recurringDates.remove(eventIndex);
-        break;
-      case "start":
-        temp = super.copy(this.subject, this.getDateTtime(eventIndex, true),
-                this.getDateTtime(eventIndex, false), this.location,
-                this.description, this.status);
-        this.recurringDates.remove(eventIndex);
-        break;
-      case "end":
-        temp = super.copy(this.subject, this.getDateTtime(eventIndex, true),
-                this.getDateTtime(eventIndex, false), this.location,
-                this.description, this.status);
-        this.recurringDates.remove(eventIndex);
-        break;
-      case "description":
-        temp = super.copy(this.subject, this.getDateTtime(eventIndex, true),
-                this.getDateTtime(eventIndex, false), this.location,
-                newPropvalue, this.status);
-        this.recurringDates.remove(eventIndex);
-        break;
-      case "location":
-        temp = super.copy(this.subject, this.getDateTtime(eventIndex, true),
-                this.getDateTtime(eventIndex, false), newPropvalue,
-                this.description, this.status);
-        this.recurringDates.remove(eventIndex);
-        break;
-      case "status":
-        temp = super.copy(this.subject, this.getDateTtime(eventIndex, true),
-                this.getDateTtime(eventIndex, false), this.location,
-                this.description, newPropvalue);
-        this.recurringDates.remove(eventIndex);
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid property");
+  }
+
+  @Override
+  public long getEndInstant() {
+    int day = this.previousOccurrence(this.lastDay);
+    if (day == NONE) {
+      return this.getStartInstant();
     }
-    return temp;
+    return this.getDateTime(day, false).toInstant();
   }
 
-  /**
-   * Removes all the dates in this series following the given index, inclusively, and adds them
-   * to a new ArrayList to be returned.
-   *
-   * @param eventIndex integer
-   * @return ArrayList of Dates
-   */
-  private ArrayList<IDate> removeDatesAfter(int eventIndex) {
-    ArrayList<IDate> temp = new ArrayList<>();
-    for (int i = eventIndex; i < this.recurringDates.size(); i++) {
-      temp.add(this.recurringDates.get(eventIndex));
-      this.recurringDates.remove(eventIndex);
+  @Override
+  public boolean match(String subject, String startDateTtime, String endDateTtime) {
+    if (!this.text.getSubject().equals(subject)) {
+      return false;
     }
+    DateTime matchStart = DateTime.parse(startDateTtime);
+    int day = matchStart.getDate().toEpochDay();
+    return this.occursOn(day) && this.getDateTime(day, true).equals(matchStart)
+            && (endDateTtime.isEmpty()
+            || this.getDateTime(day, false).equals(DateTime.parse(endDateTtime)));
+  }
+
+  @Override
+  public IEvent editEventProperty(String prop, String dateTtime, String newPropvalue) {
+    int day = this.occurrenceDay(dateTtime);
+    IEvent temp = super.copy(this.text, this.getDateTime(day, true),
+            this.getDateTime(day, false));
+    temp.editEventProperty(prop, dateTtime, newPropvalue);
+    Set<Integer> exceptions = new HashSet<>(this.exceptions);
+    exceptions.add(day);
+    this.exceptions = exceptions;
     return temp;
   }
 
   @Override
   public IEvent editEventsProperty(String prop, String dateTtime, String newPropvalue) {
-    String[] dateTime = dateTtime.split("T");
-    int eventIndex = -1;
-    for (int i = 0; i < this.recurringDates.size(); i++) {
-      if (this.recurringDates.get(i).compare(new Date(dateTime[0])) == 0) {
-        eventIndex = i;
-      }
-    }
-    IEvent temp;
+    int day = this.occurrenceDay(dateTtime);
+    EventText newText = this.text;
+    DateTime newStart = this.getDateTime(day, true);
+    DateTime newEnd = this.getDateTime(day, false);
     switch (prop) {
       case "subject":
-        temp = new SeriesEvent(newPropvalue, this.getDateTtime(eventIndex, true),
-                this.getDateTtime(eventIndex, false), this.weekdays, this.timesRepeated,
-                this.stopDate, this.location, this.description, this.status,
-                this.removeDatesAfter(eventIndex));
+        newText = newText.withSubject(newPropvalue);
         break;
       case "start":
-        temp = new SeriesEvent(this.subject, newPropvalue,
-                this.getDateTtime(eventIndex, false), this.weekdays, this.timesRepeated,
-                this.stopDate, this.location, this.description, this.status,
-                this.removeDatesAfter(eventIndex));
+        newStart = DateTime.parse(newPropvalue);
         break;
       case "end":
-        temp = new SeriesEvent(this.subject, this.getDateTtime(eventIndex, true),
-                newPropvalue, this.weekdays, this.timesRepeated,
-                this.stopDate, this.location, this.description, this.status,
-                this.removeDatesAfter(eventIndex));
+        newEnd = DateTime.parse(newPropvalue);
         break;
       case "description":
-        temp = new SeriesEvent(this.subject, this.getDateTtime(eventIndex, true),
-                this.getDateTtime(eventIndex, false), this.weekdays, this.timesRepeated,
-                this.stopDate, this.location, newPropvalue, this.status,
-                this.removeDatesAfter(eventIndex));
+        newText = newText.withDescription(newPropvalue);
         break;
       case "location":
-        temp = new SeriesEvent(this.subject, this.getDateTtime(eventIndex, true),
-                this.getDateTtime(eventIndex, false), this.weekdays, this.timesRepeated,
-                this.stopDate, newPropvalue, this.description, this.status,
-                this.removeDatesAfter(eventIndex));
+        newText = newText.withLocation(newPropvalue);
         break;
       case "status":
-        temp = new SeriesEvent(this.subject, this.getDateTtime(eventIndex, true),
-                this.getDateTtime(eventIndex, false), this.weekdays, this.timesRepeated,
-                this.stopDate, this.location, this.description, newPropvalue,
-                this.removeDatesAfter(eventIndex));
+        newText = newText.withStatus(newPropvalue);
         break;
       default:
         throw new IllegalArgumentException("Invalid property");
     }
+    if (this.previousOccurrence(day - 1) == NONE) {
+      // editing from the first occurrence edits the whole series
+      this.text = newText;
+      this.start = newStart;
+      this.end = newEnd;
+      return this;
+    }
+    // the rest of the series, from this occurrence on, becomes a new series
+    Set<Integer> before = new HashSet<>();
+    Set<Integer> after = new HashSet<>();
+    for (int exception : this.exceptions) {
+      (exception < day ? before : after).add(exception);
+    }
+    SeriesEvent temp = new SeriesEvent(newText, newStart, newEnd, this.weekdayMask, day,
+            this.lastDay, after);
+    this.exceptions = before;
+    this.lastDay = day - 1;
     return temp;
   }
 
@@ -352,7 +433,7 @@ public class SeriesEvent extends AbstractEvent {
   public IEvent editSeriesProperty(String prop, String newPropvalue) {
     switch (prop) {
       case "subject":
-        this.subject = newPropvalue;
+        this.text = this.text.withSubject(newPropvalue);
         break;
       case "start":
         parseDateTtime(newPropvalue, true);
@@ -361,46 +442,28 @@ public class SeriesEvent extends AbstractEvent {
         parseDateTtime(newPropvalue, false);
         break;
       case "description":
-        this.description = newPropvalue;
+        this.text = this.text.withDescription(newPropvalue);
         break;
       case "location":
-        this.location = newPropvalue;
+        this.text = this.text.withLocation(newPropvalue);
         break;
       case "status":
-        this.status = newPropvalue;
+        this.text = this.text.withStatus(newPropvalue);
         break;
       default:
         throw new IllegalArgumentException("Invalid property");
     }
-    return new SeriesEvent(this.subject, this.getDateTtime(0, true),
-            this.getDateTtime(0, false), this.weekdays, this.timesRepeated,
-            this.stopDate, this.location, this.description, this.status,
-            this.recurringDates);
+    return this;
   }
 
-
-  @Override
-  public boolean isBusy(String dateTtime) {
-    String[] dateTime = dateTtime.split("T");
-    String[] timeString = dateTime[1].split(":");
-    int[] time = new int[2];
-    time[0] = Integer.parseInt(timeString[0]);
-    time[1] = Integer.parseInt(timeString[1]);
-    IDate date = new Date(dateTime[0]);
-    for (int i = 0; i < this.recurringDates.size(); i++) {
-      if (date.compare(this.recurringDates.get(i)) == 0
-              && date.compare(this.recurringDates.get(i)) == 0) {
-        if (this.times[0] <= time[0] && time[0] <= this.times[2] && this.times[1] <= time[1]
-                && time[1] <= this.times[3]) {
-          return true;
-        }
-      }
-      if (date.compare(this.recurringDates.get(i)) >= 0
-              && date.compare(this.recurringDates.get(i)) <= 0) {
-        return true;
-      }
-    }
-    return false;
+  /**
+   * Returns true if the series still occurs on at least one day. Removing every occurrence of a
+   * series by editing them one at a time leaves it with none.
+   *
+   * @return boolean
+   */
+  boolean hasOccurrences() {
+    return this.nextOccurrence(this.firstDay) != NONE;
   }
 
   @Override
@@ -414,15 +477,15 @@ public class SeriesEvent extends AbstractEvent {
    * @return String
    */
   public String recurringDatesAsString() {
-    String result = "";
-    for (int i = 0; i < this.recurringDates.size(); i++) {
-      if (i == this.recurringDates.size() - 1) {
-        result += this.recurringDates.get(i).toString();
-      } else {
-        result += this.recurringDates.get(i).toString() + ", ";
+    StringBuilder result = new StringBuilder();
+    Iterator<Date> dates = this.occurrenceDates();
+    while (dates.hasNext()) {
+      result.append(dates.next());
+      if (dates.hasNext()) {
+        result.append(", ");
       }
     }
-    return result;
+    return result.toString();
   }
 
 }
@@ -15,46 +15,23 @@ public class SingleEvent extends AbstractEvent {
 
 
   @Override
-  public IEvent deepCopy(int timeAdjustment) {
-    SingleEvent copy = (SingleEvent) super.copy(this.subject,
-            this.getStartDate() + "T" + this.getStartTime(),
-            this.getEndDate() + "T" + this.getEndTime(), this.location,
-            this.description, this.description);
-    if (timeAdjustment > 0) {
-      copy.times[0] += timeAdjustment;
-      copy.times[2] += timeAdjustment;
-      if (copy.times[0] > 23) {
-        copy.times[0] -= 23;
-        copy.startDate = copy.startDate.getNextDate(1);
-      }
-      if (copy.times[2] > 23) {
-        copy.times[2] -= 23;
-        copy.endDate = copy.endDate.getNextDate(1);
-      }
-      return copy;
-    } else if (timeAdjustment < 0) {
-      copy.times[0] += timeAdjustment;
-      copy.times[2] += timeAdjustment;
-      if (copy.times[0] < 0) {
-        copy.times[0] += 23;
-        // copy.startDate = copy.startDate.getNextDate(-1);
-      }
-      if (copy.times[2] < 0) {
-        copy.times[2] += 23;
-        // copy.endDate = copy.endDate.getNextDate(-1);
-      }
-      return copy;
-    } else {
-      return copy;
-    }
+  public IEvent moved(int startShift, int endShift) {
+    return super.copy(this.text, this.start.plusMinutes(startShift),
+            this.end.plusMinutes(endShift));
   }
 
-  SingleEvent(String subject, String startDateTtime, String endDateTtime, String location,
+  @Override
+  public IEvent duplicate() {
+    return new SingleEvent(this.text, this.start, this.end);
+  }
+
+  SingleEvent(String subject, DateTime start, DateTime end, String location,
               String description, String status) {
-    super(subject, startDateTtime, endDateTtime);
-    this.location = location;
-    this.description = description;
-    this.status = status;
+    this(new EventText(subject, location, description, Status.read(status)), start, end);
+  }
+
+  SingleEvent(EventText text, DateTime start, DateTime end) {
+    super(text, start, end);
   }
 
   @Override
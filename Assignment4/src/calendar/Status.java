@@ -0,0 +1,59 @@
+package calendar;
+
+/**
+ * Whether an event is public or private, or neither if it was never said.
+ */
+enum Status {
+  UNSPECIFIED(""), PUBLIC("public"), PRIVATE("private");
+
+  private final String text;
+
+  Status(String text) {
+    this.text = text;
+  }
+
+  /**
+   * Returns the status the given text names, ignoring case. An empty string is an unspecified
+   * status.
+   *
+   * @param text "", "public" or "private"
+   * @return Status
+   * @throws IllegalArgumentException if the text names no status
+   */
+  static Status of(String text) throws IllegalArgumentException {
+    Status status = find(text);
+    if (status == null) {
+      throw new IllegalArgumentException("Invalid status");
+    }
+    return status;
+  }
+
+  /**
+   * Returns the status the given text names, ignoring case, or UNSPECIFIED if it names none.
+   * Used for statuses read back from files, which older versions let hold any text.
+   *
+   * @param text a stored status
+   * @return Status
+   */
+  static Status read(String text) {
+    Status status = find(text);
+    return status == null ? UNSPECIFIED : status;
+  }
+
+  /**
+   * Returns the status the given text names, ignoring case, or null if it names none.
+   */
+  private static Status find(String text) {
+    for (Status status : values()) {
+      if (status.text.equalsIgnoreCase(text)) {
+        return status;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return this.text;
+  }
+}
@@ -0,0 +1,237 @@
+package calendar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Writes a whole calendar suite to a compact binary file and reads it back. Events are stored as
+ * they are held in memory: single events by their start and end, and series by their rule rather
+ * than their occurrences. Every string is written once to a table at the front of the file and
+ * events refer to it by index, so strings shared by many events are shared again once loaded.
+ *
+ * <p>The file is read through one memory mapping, and nothing in it is parsed from text apart
+ * from the string table. Events are written in order of start, so each calendar's tree is built
+ * directly from them rather than by inserting them one at a time.
+ *
+ * <p>Layout, big-endian: the magic number and version, the string table as a count followed by
+ * the UTF-8 length and bytes of each string, the index of the calendar in use or -1, and then
+ * each calendar as its name, its time zone, the directory its events are kept in or -1, and its
+ * events. A calendar whose events are kept on disk has none written here; it is opened from its
+ * directory when the snapshot is read. Version 1 files, which have no directories, can still be
+ * read.
+ */
+final class SuiteSnapshot {
+
+  private static final int MAGIC = 0x43414C53; // "CALS"
+  private static final int VERSION = 2;
+  private static final byte SINGLE = 0;
+  private static final byte SERIES = 1;
+
+  private SuiteSnapshot() {
+  }
+
+  /**
+   * Writes the given suite to the given file. The file is written beside its final place and
+   * moved there once complete, so a reader never sees half a snapshot.
+   *
+   * @param suite CalendarSuite
+   * @param file  where the snapshot goes
+   * @throws IOException if the file cannot be written
+   */
+  static void write(CalendarSuite suite, Path file) throws IOException {
+    Map<String, Integer> strings = new LinkedHashMap<>();
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(body);
+    String inUse = suite.calendarInUse();
+    out.writeInt(inUse.isEmpty() ? -1 : intern(strings, inUse));
+    List<String> names = suite.getCalendarNames();
+    out.writeInt(names.size());
+    for (String name : names) {
+      out.writeInt(intern(strings, name));
+      out.writeInt(intern(strings, suite.getTimezone(name).getID()));
+      String store = suite.getStore(name);
+      out.writeInt(store == null ? -1 : intern(strings, store));
+      if (store != null) {
+        continue;
+      }
+      List<IEvent> events = suite.getCalendar(name).getCalendarEvents();
+      out.writeInt(events.size());
+      for (IEvent event : events) {
+        writeEvent(out, strings, event);
+      }
+    }
+    out.flush();
+
+    ByteArrayOutputStream whole = new ByteArrayOutputStream(body.size() + 64 * strings.size());
+    DataOutputStream header = new DataOutputStream(whole);
+    header.writeInt(MAGIC);
+    header.writeInt(VERSION);
+    header.writeInt(strings.size());
+    for (String string : strings.keySet()) {
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      header.writeInt(bytes.length);
+      header.write(bytes);
+    }
+    header.flush();
+    body.writeTo(whole);
+
+    Path absolute = file.toAbsolutePath();
+    Path partial = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+    Files.write(partial, whole.toByteArray());
+    Files.move(partial, absolute, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads the suite written to the given file.
+   *
+   * @param file a snapshot
+   * @return CalendarSuite
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the file is not a snapshot
+   */
+  static CalendarSuite read(Path file) throws IOException, IllegalArgumentException {
+    return read(file, true);
+  }
+
+  /**
+   * Reads the suite written to the given file. A suite that does not open stores gives each
+   * calendar kept on disk only its name, time zone and directory.
+   *
+   * @param file       a snapshot
+   * @param openStores whether calendars kept on disk open their stores
+   * @return CalendarSuite
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the file is not a snapshot
+   */
+  static CalendarSuite read(Path file, boolean openStores)
+          throws IOException, IllegalArgumentException {
+    MappedByteBuffer in;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    try {
+      int version = in.getInt() == MAGIC ? in.getInt() : -1;
+      if (version != 1 && version != VERSION) {
+        throw new IllegalArgumentException("Invalid snapshot");
+      }
+      String[] strings = new String[in.getInt()];
+      for (int i = 0; i < strings.length; i++) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        strings[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+      int inUse = in.getInt();
+      int calendarCount = in.getInt();
+      Map<String, ICalendar> calendars = new HashMap<>();
+      Map<String, TimeZone> timezones = new HashMap<>();
+      Map<String, String> stores = new HashMap<>();
+      TextDictionary dictionary = new TextDictionary();
+      for (int i = 0; i < calendarCount; i++) {
+        String name = strings[in.getInt()];
+        timezones.put(name, TimeZone.getTimeZone(strings[in.getInt()]));
+        int directory = version == 1 ? -1 : in.getInt();
+        if (directory >= 0) {
+          stores.put(name, strings[directory]);
+          IEventStore store = openStores ? MappedEventStore.open(Paths.get(strings[directory]))
+                  : new HeapEventStore();
+          calendars.put(name, new Calendar(store, dictionary));
+          continue;
+        }
+        int eventCount = in.getInt();
+        List<IEvent> events = new ArrayList<>(eventCount);
+        for (int j = 0; j < eventCount; j++) {
+          AbstractEvent event = readEvent(in, strings);
+          event.shareText(dictionary);
+          events.add(event);
+        }
+        HeapEventStore store = new HeapEventStore();
+        store.load(events);
+        calendars.put(name, new Calendar(store, dictionary));
+      }
+      if (in.hasRemaining()) {
+        throw new IllegalArgumentException("Invalid snapshot");
+      }
+      return new CalendarSuite(calendars, timezones, stores, inUse < 0 ? "" : strings[inUse],
+              dictionary, openStores);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException
+             | NegativeArraySizeException e) {
+      throw new IllegalArgumentException("Invalid snapshot");
+    }
+  }
+
+  private static int intern(Map<String, Integer> strings, String string) {
+    Integer index = strings.get(string);
+    if (index == null) {
+      index = strings.size();
+      strings.put(string, index);
+    }
+    return index;
+  }
+
+  private static void writeEvent(DataOutputStream out, Map<String, Integer> strings,
+                                 IEvent event) throws IOException {
+    out.writeByte(event.isSeries() ? SERIES : SINGLE);
+    out.writeInt(intern(strings, event.getSubject()));
+    out.writeInt(intern(strings, event.getLocation()));
+    out.writeInt(intern(strings, event.getDescription()));
+    out.writeInt(intern(strings, event.getStatus()));
+    out.writeLong(event.getStart().toInstant());
+    out.writeLong(event.getEnd().toInstant());
+    if (event.isSeries()) {
+      SeriesEvent series = (SeriesEvent) event;
+      out.writeByte(series.getWeekdayMask());
+      out.writeInt(series.getFirstDay());
+      out.writeInt(series.getLastDay());
+      Set<Integer> exceptions = series.getExceptions();
+      out.writeInt(exceptions.size());
+      for (int day : exceptions) {
+        out.writeInt(day);
+      }
+    }
+  }
+
+  private static AbstractEvent readEvent(ByteBuffer in, String[] strings) {
+    byte kind = in.get();
+    String subject = strings[in.getInt()];
+    String location = strings[in.getInt()];
+    String description = strings[in.getInt()];
+    String status = strings[in.getInt()];
+    DateTime start = DateTime.ofInstant(in.getLong());
+    DateTime end = DateTime.ofInstant(in.getLong());
+    if (kind == SINGLE) {
+      return new SingleEvent(subject, start, end, location, description, status);
+    } else if (kind != SERIES) {
+      throw new IllegalArgumentException("Invalid snapshot");
+    }
+    int weekdayMask = in.get();
+    int firstDay = in.getInt();
+    int lastDay = in.getInt();
+    int exceptionCount = in.getInt();
+    Set<Integer> exceptions = new HashSet<>(Math.max(16, exceptionCount * 2));
+    for (int i = 0; i < exceptionCount; i++) {
+      exceptions.add(in.getInt());
+    }
+    return new SeriesEvent(subject, start, end, weekdayMask, firstDay, lastDay, exceptions,
+            location, description, status);
+  }
+}
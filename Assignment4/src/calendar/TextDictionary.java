@@ -0,0 +1,68 @@
+package calendar;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The texts of the events of a calendar suite, each kept once. A calendar hands every event it
+ * takes in to its suite's dictionary, which swaps the event's text for the equal one it already
+ * holds, so the events, occurrences and copies with the same subject, location, description and
+ * status share one text, and texts that differ still share the strings they have in common.
+ *
+ * <p>Texts are never dropped, since events may be copied back from any calendar, so a dictionary
+ * grows with the number of different texts its events have had rather than the number of events.
+ * Any number of threads may use it at once.
+ */
+final class TextDictionary {
+
+  private final ConcurrentHashMap<String, String> strings;
+  private final ConcurrentHashMap<EventText, EventText> texts;
+
+  /**
+   * Creates an empty dictionary.
+   */
+  TextDictionary() {
+    this.strings = new ConcurrentHashMap<>();
+    this.texts = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the text held for the given one, holding it first if no equal text is held.
+   *
+   * @param text EventText
+   * @return the equal text held
+   */
+  EventText intern(EventText text) {
+    EventText known = this.texts.get(text);
+    if (known != null) {
+      return known;
+    }
+    EventText shared = new EventText(this.intern(text.getSubject()),
+            this.intern(text.getLocation()), this.intern(text.getDescription()),
+            text.getStatus());
+    known = this.texts.putIfAbsent(shared, shared);
+    return known == null ? shared : known;
+  }
+
+  /**
+   * Returns the string held for the given one, holding it first if no equal string is held.
+   *
+   * @param string String or null
+   * @return the equal string held, or null
+   */
+  private String intern(String string) {
+    if (string == null) {
+      return null;
+    }
+    String known = this.strings.putIfAbsent(string, string);
+    return known == null ? string : known;
+  }
+
+  /**
+   * Returns how many different texts are held.
+   *
+   * @return int
+   */
+  int size() {
+    return this.texts.size();
+  }
+}
@@ -0,0 +1,89 @@
+package calendar;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * Moves local times in one time zone to the same instants on another zone's clocks, for the
+ * times of a window. The difference between the zones is worked out once for each stretch of the
+ * window in which neither zone changes its clocks, so moving many times costs a search of a
+ * table of a few entries rather than a conversion each.
+ */
+final class ZoneShift {
+
+  private final long[] starts; // local minute in the source zone each stretch begins
+  private final int[] shifts; // minutes to add to a local time in each stretch
+
+  private ZoneShift(long[] starts, int[] shifts) {
+    this.starts = starts;
+    this.shifts = shifts;
+  }
+
+  /**
+   * Returns the shift from one zone to another for local times in the source zone within the
+   * window [fromLocal, toLocal]. Times outside the window are moved by the nearest stretch.
+   *
+   * @param from      the source zone
+   * @param to        the target zone
+   * @param fromLocal first local minute of the window in the source zone
+   * @param toLocal   last local minute of the window in the source zone
+   * @return ZoneShift
+   */
+  static ZoneShift between(ZoneId from, ZoneId to, long fromLocal, long toLocal) {
+    ZoneTable source = ZoneTable.of(from);
+    ZoneTable target = ZoneTable.of(to);
+    if (from.equals(to)) {
+      return new ZoneShift(new long[] {fromLocal}, new int[] {0});
+    }
+    // the difference can only change where a zone's clocks do; a day either side covers every
+    // offset a local time in the window can have
+    long fromUtc = fromLocal - 1440;
+    long toUtc = toLocal + 1440;
+    TreeSet<Long> breaks = new TreeSet<>();
+    breaks.add(fromLocal);
+    for (long change : source.transitions(fromUtc, toUtc)) {
+      // the clocks jump from one local time to another; both may begin a stretch
+      breaks.add(change + source.offsetAt(change - 1));
+      breaks.add(change + source.offsetAt(change));
+    }
+    for (long change : target.transitions(fromUtc, toUtc)) {
+      breaks.add(source.toLocal(change));
+    }
+    long[] starts = new long[breaks.size()];
+    int[] shifts = new int[breaks.size()];
+    int count = 0;
+    for (long start : breaks.tailSet(fromLocal)) {
+      if (start > toLocal) {
+        break;
+      }
+      int shift = (int) (target.toLocal(source.toUtc(start)) - start);
+      if (count == 0 || shifts[count - 1] != shift) {
+        starts[count] = start;
+        shifts[count] = shift;
+        count++;
+      }
+    }
+    return new ZoneShift(Arrays.copyOf(starts, count), Arrays.copyOf(shifts, count));
+  }
+
+  /**
+   * Returns the given local time of the source zone on the target zone's clocks.
+   *
+   * @param local minutes since 1970-01-01T00:00 in the source zone
+   * @return minutes since 1970-01-01T00:00 in the target zone
+   */
+  long move(long local) {
+    int low = 0;
+    int high = this.starts.length - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (this.starts[middle] <= local) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return local + this.shifts[low];
+  }
+}
@@ -0,0 +1,152 @@
+package calendar;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The offsets of a time zone from UTC, to the minute, taken once from its ZoneRules and kept as
+ * a table of the periods between its transitions. Times are minutes since 1970-01-01T00:00,
+ * either in UTC or on the zone's clocks (local). Local times a clock change skips are moved
+ * forward by the length of the gap, and local times that happen twice take the earlier offset,
+ * the same as java.time does. Tables are made once per zone and shared.
+ */
+final class ZoneTable {
+
+  private static final long FIRST = toMinutes(Instant.parse("1900-01-01T00:00:00Z"));
+  private static final long LAST = toMinutes(Instant.parse("2200-01-01T00:00:00Z"));
+  private static final ConcurrentHashMap<ZoneId, ZoneTable> TABLES = new ConcurrentHashMap<>();
+
+  private final ZoneId zone;
+  private final long[] starts; // UTC minute each period begins, the first at Long.MIN_VALUE
+  private final int[] offsets; // offset of each period, in minutes
+  private final long[] localStarts; // local minute each period begins
+
+  private ZoneTable(ZoneId zone) {
+    this.zone = zone;
+    ZoneRules rules = zone.getRules();
+    long[] starts = new long[16];
+    int[] offsets = new int[16];
+    starts[0] = Long.MIN_VALUE;
+    offsets[0] = rules.getOffset(Instant.ofEpochSecond(FIRST * 60)).getTotalSeconds() / 60;
+    int count = 1;
+    ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochSecond(FIRST * 60));
+    while (next != null && toMinutes(next.getInstant()) < LAST) {
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count * 2);
+        offsets = Arrays.copyOf(offsets, count * 2);
+      }
+      starts[count] = toMinutes(next.getInstant());
+      offsets[count] = next.getOffsetAfter().getTotalSeconds() / 60;
+      count++;
+      next = rules.nextTransition(next.getInstant());
+    }
+    this.starts = Arrays.copyOf(starts, count);
+    this.offsets = Arrays.copyOf(offsets, count);
+    this.localStarts = new long[count];
+    this.localStarts[0] = Long.MIN_VALUE;
+    for (int i = 1; i < count; i++) {
+      this.localStarts[i] = this.starts[i] + this.offsets[i];
+    }
+  }
+
+  /**
+   * Returns the table of the given zone.
+   *
+   * @param zone ZoneId
+   * @return ZoneTable
+   */
+  static ZoneTable of(ZoneId zone) {
+    return TABLES.computeIfAbsent(zone, ZoneTable::new);
+  }
+
+  /**
+   * Returns the given instant as whole minutes since 1970-01-01T00:00 UTC.
+   */
+  private static long toMinutes(Instant instant) {
+    return Math.floorDiv(instant.getEpochSecond(), 60L);
+  }
+
+  /**
+   * Returns the UTC minutes of the given local time in this zone.
+   *
+   * @param local minutes since 1970-01-01T00:00 on this zone's clocks
+   * @return long
+   */
+  long toUtc(long local) {
+    if (local < FIRST || local >= LAST) {
+      LocalDateTime time = LocalDateTime.ofEpochSecond(local * 60, 0, ZoneOffset.UTC);
+      return toMinutes(ZonedDateTime.ofLocal(time, this.zone, null).toInstant());
+    }
+    int i = period(this.localStarts, local);
+    if (i > 0 && local < this.starts[i] + this.offsets[i - 1]) {
+      // the clocks went back and this time happens twice; take the first
+      return local - this.offsets[i - 1];
+    }
+    return local - this.offsets[i];
+  }
+
+  /**
+   * Returns the local time in this zone of the given UTC minutes.
+   *
+   * @param utc minutes since 1970-01-01T00:00 UTC
+   * @return long
+   */
+  long toLocal(long utc) {
+    return utc + this.offsetAt(utc);
+  }
+
+  /**
+   * Returns this zone's offset from UTC at the given UTC minutes, in minutes.
+   *
+   * @param utc minutes since 1970-01-01T00:00 UTC
+   * @return int
+   */
+  int offsetAt(long utc) {
+    if (utc < FIRST || utc >= LAST) {
+      return this.zone.getRules().getOffset(Instant.ofEpochSecond(utc * 60)).getTotalSeconds()
+              / 60;
+    }
+    return this.offsets[period(this.starts, utc)];
+  }
+
+  /**
+   * Returns the UTC minutes of the transitions of this zone in the window [fromUtc, toUtc].
+   *
+   * @param fromUtc first UTC minute of the window
+   * @param toUtc   last UTC minute of the window
+   * @return the transitions in order
+   */
+  long[] transitions(long fromUtc, long toUtc) {
+    int first = period(this.starts, fromUtc) + 1;
+    int last = period(this.starts, toUtc);
+    if (first > last) {
+      return new long[0];
+    }
+    return Arrays.copyOfRange(this.starts, first, last + 1);
+  }
+
+  /**
+   * Returns the index of the last entry of the given ascending array at or before the given
+   * value. The first entry is always at or before it.
+   */
+  private static int period(long[] starts, long value) {
+    int low = 0;
+    int high = starts.length - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (starts[middle] <= value) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,178 @@
+package controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import calendar.ICalendarSuite;
+import view.OutputSink;
+import view.TextView;
+
+/**
+ * Serves the text command language over TCP on the loopback address. Every connection is a
+ * client typing commands as in interactive mode: it gets its own session of the shared suite,
+ * so its calendar in use is its own, and its own controller writing each command's output back
+ * to it. A connection ends when the client sends quit or closes it.
+ *
+ * <p>Each connection runs on its own virtual thread when the JVM has them (Java 21 on), so
+ * thousands of mostly idle clients cost little. On older JVMs connections run on a pool of
+ * platform threads that grows as clients connect.
+ */
+public final class CalendarServer implements AutoCloseable {
+
+  private final ICalendarSuite suite;
+  private final ServerSocket server;
+  private final ExecutorService connections;
+  private final Set<Socket> clients; // connections still open
+
+  /**
+   * Opens a server on the given port of the loopback address. Port 0 picks a free port.
+   *
+   * @param suite the suite every connection shares; it must be safe to share between threads
+   * @param port  the port to listen on
+   * @throws IllegalArgumentException if the port cannot be listened on
+   */
+  public CalendarServer(ICalendarSuite suite, int port) throws IllegalArgumentException {
+    Objects.requireNonNull(suite);
+    if (port < 0 || port > 65535) {
+      throw new IllegalArgumentException("Invalid port: " + port);
+    }
+    this.suite = suite;
+    try {
+      this.server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not listen on port " + port);
+    }
+    this.connections = connectionThreads();
+    this.clients = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * Returns an executor running every task on a new virtual thread, or a growing pool of
+   * platform threads on a JVM without virtual threads.
+   *
+   * @return ExecutorService
+   */
+  private static ExecutorService connectionThreads() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+              .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool();
+    }
+  }
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return int
+   */
+  public int getPort() {
+    return this.server.getLocalPort();
+  }
+
+  /**
+   * Accepts connections until the server is closed, handing each to its own thread, then waits
+   * for the commands the connections are running to finish.
+   */
+  public void serve() {
+    while (!this.server.isClosed()) {
+      Socket client;
+      try {
+        client = this.server.accept();
+      } catch (IOException e) {
+        // accept fails once the server is closed
+        continue;
+      }
+      this.clients.add(client);
+      try {
+        this.connections.execute(() -> this.handle(client));
+      } catch (RejectedExecutionException e) {
+        // the server was closed while the client connected
+        this.clients.remove(client);
+        closeQuietly(client);
+      }
+    }
+    this.awaitConnections();
+  }
+
+  /**
+   * Runs the commands a client sends until it quits or goes away, then closes its connection.
+   *
+   * @param client the client's connection
+   */
+  private void handle(Socket client) {
+    try (Socket connection = client) {
+      Writer out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(),
+              StandardCharsets.UTF_8));
+      Scanner in = new Scanner(connection.getInputStream(), StandardCharsets.UTF_8.name());
+      IController controller = new Controller(this.suite.newSession(),
+              new TextView(OutputSink.everyCommand(out)));
+      controller.commandPattern(in);
+    } catch (NoSuchElementException | UncheckedIOException e) {
+      // the client closed the connection without sending quit
+    } catch (IOException e) {
+      // the connection broke; nothing can be sent back
+    } finally {
+      this.clients.remove(client);
+    }
+  }
+
+  /**
+   * Stops accepting connections, closes the connections still open and waits for the commands
+   * they are running to finish.
+   */
+  @Override
+  public void close() {
+    try {
+      this.server.close();
+    } catch (IOException e) {
+      // the server socket is gone either way
+    }
+    this.connections.shutdown();
+    for (Socket client : this.clients) {
+      closeQuietly(client);
+    }
+    this.awaitConnections();
+  }
+
+  /**
+   * Waits for every connection's thread to end once no more are accepted.
+   */
+  private void awaitConnections() {
+    this.connections.shutdown();
+    try {
+      this.connections.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Closes the given connection, ignoring a connection that is already broken.
+   *
+   * @param client the connection
+   */
+  private static void closeQuietly(Socket client) {
+    try {
+      client.close();
+    } catch (IOException e) {
+      // already closed
+    }
+  }
+}
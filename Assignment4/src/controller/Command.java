@@ -0,0 +1,64 @@
+package controller;
+
+/**
+ * A parsed command: which form of command it is and the words it gave for that form's
+ * arguments. Commands are immutable.
+ */
+final class Command {
+
+  private final CommandType type;
+  private final String line;
+  private final String[] args;
+
+  /**
+   * Constructs a command of the given type.
+   *
+   * @param type CommandType
+   * @param line the line the command was read from
+   * @param args the arguments, in order
+   */
+  Command(CommandType type, String line, String[] args) {
+    this.type = type;
+    this.line = line;
+    this.args = args;
+  }
+
+  /**
+   * Returns which form of command this is.
+   *
+   * @return CommandType
+   */
+  CommandType getType() {
+    return this.type;
+  }
+
+  /**
+   * Returns the line this command was read from.
+   *
+   * @return String
+   */
+  String getLine() {
+    return this.line;
+  }
+
+  /**
+   * Returns the argument at the given position.
+   *
+   * @param index position among the arguments
+   * @return String
+   */
+  String arg(int index) {
+    return this.args[index];
+  }
+
+  /**
+   * Returns the whole number argument at the given position.
+   *
+   * @param index position among the arguments
+   * @return int
+   * @throws NumberFormatException if the number is too large
+   */
+  int number(int index) throws NumberFormatException {
+    return Integer.parseInt(this.args[index]);
+  }
+}
@@ -0,0 +1,197 @@
+package controller;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns lines into commands. A line is split into words in a single pass and then walked down a
+ * trie built from every command form, so the cost of reading a line depends on how many words it
+ * has rather than on how many forms of command there are. Words are separated by single spaces
+ * and may not hold any other whitespace. When a line fits more than one form the form declared
+ * first in CommandType wins.
+ */
+final class CommandParser {
+
+  /**
+   * A point in the trie, reached by the words read so far.
+   */
+  private static final class Node {
+    private final Map<String, Node> words = new HashMap<>();
+    private Node any;
+    private Node number;
+    private Node zone;
+    private CommandType type; // the form ending here, if any
+  }
+
+  private static final Node ROOT = build();
+  private static final Map<CommandType, int[]> ARGUMENTS = argumentPositions();
+
+  private CommandParser() {
+  }
+
+  /**
+   * Returns the command written on the given line, or null if the line is not a command.
+   *
+   * @param line String
+   * @return Command or null
+   */
+  static Command parse(String line) {
+    if (line.equalsIgnoreCase("quit")) {
+      return new Command(CommandType.QUIT, line, new String[0]);
+    }
+    String[] words = tokenize(line);
+    if (words == null) {
+      return null;
+    }
+    CommandType type = match(ROOT, words, 0);
+    if (type == null) {
+      return null;
+    }
+    int[] positions = ARGUMENTS.get(type);
+    String[] args = new String[positions.length];
+    for (int i = 0; i < positions.length; i++) {
+      args[i] = words[positions[i]];
+    }
+    return new Command(type, line, args);
+  }
+
+  /**
+   * Returns the words of the given line, or null if two spaces are next to each other, the line
+   * starts or ends with a space, or it holds any other whitespace.
+   */
+  private static String[] tokenize(String line) {
+    int count = 1;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == ' ') {
+        if (i == 0 || i == line.length() - 1 || line.charAt(i - 1) == ' ') {
+          return null;
+        }
+        count++;
+      } else if (c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+        return null;
+      }
+    }
+    if (line.isEmpty()) {
+      return null;
+    }
+    String[] words = new String[count];
+    int start = 0;
+    int word = 0;
+    for (int i = 0; i <= line.length(); i++) {
+      if (i == line.length() || line.charAt(i) == ' ') {
+        words[word++] = line.substring(start, i);
+        start = i + 1;
+      }
+    }
+    return words;
+  }
+
+  /**
+   * Returns the first declared form that the words from index onwards complete from the given
+   * node, or null if there is none.
+   */
+  private static CommandType match(Node node, String[] words, int index) {
+    if (index == words.length) {
+      return node.type;
+    }
+    String word = words[index];
+    CommandType best = null;
+    Node literal = node.words.get(word);
+    if (literal != null) {
+      best = match(literal, words, index + 1);
+    }
+    if (node.any != null) {
+      best = first(best, match(node.any, words, index + 1));
+    }
+    if (node.number != null && isNumber(word)) {
+      best = first(best, match(node.number, words, index + 1));
+    }
+    if (node.zone != null && isZone(word)) {
+      best = first(best, match(node.zone, words, index + 1));
+    }
+    return best;
+  }
+
+  private static CommandType first(CommandType a, CommandType b) {
+    if (a == null) {
+      return b;
+    }
+    if (b == null) {
+      return a;
+    }
+    return a.ordinal() <= b.ordinal() ? a : b;
+  }
+
+  private static boolean isNumber(String word) {
+    for (int i = 0; i < word.length(); i++) {
+      if (word.charAt(i) < '0' || word.charAt(i) > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if the word has a slash with something on both sides of it.
+   */
+  private static boolean isZone(String word) {
+    int slash = word.indexOf('/', 1);
+    return slash >= 0 && slash < word.length() - 1;
+  }
+
+  private static Node build() {
+    Node root = new Node();
+    for (CommandType type : CommandType.values()) {
+      if (type == CommandType.QUIT) {
+        continue;
+      }
+      Node node = root;
+      for (String word : type.getForm().split(" ")) {
+        switch (word) {
+          case "$":
+            if (node.any == null) {
+              node.any = new Node();
+            }
+            node = node.any;
+            break;
+          case "#":
+            if (node.number == null) {
+              node.number = new Node();
+            }
+            node = node.number;
+            break;
+          case "$/$":
+            if (node.zone == null) {
+              node.zone = new Node();
+            }
+            node = node.zone;
+            break;
+          default:
+            node = node.words.computeIfAbsent(word, key -> new Node());
+        }
+      }
+      node.type = type;
+    }
+    return root;
+  }
+
+  private static Map<CommandType, int[]> argumentPositions() {
+    Map<CommandType, int[]> positions = new EnumMap<>(CommandType.class);
+    for (CommandType type : CommandType.values()) {
+      String[] words = type.getForm().split(" ");
+      int count = 0;
+      int[] found = new int[words.length];
+      for (int i = 0; i < words.length; i++) {
+        if (words[i].startsWith("$") || words[i].equals("#")) {
+          found[count++] = i;
+        }
+      }
+      int[] exact = new int[count];
+      System.arraycopy(found, 0, exact, 0, count);
+      positions.put(type, exact);
+    }
+    return positions;
+  }
+}
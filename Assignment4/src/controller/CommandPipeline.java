@@ -0,0 +1,239 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads and parses a command script ahead of the thread running it. A reader thread pulls the
+ * file through a large buffer and cuts it into batches of lines. The batches are parsed in
+ * parallel by a pool of parser threads. The thread running the script takes the parsed batches
+ * in file order. A bounded queue of pending batches between the stages stops the reader from
+ * getting too far ahead. Lines are split the same way Scanner.nextLine splits them.
+ */
+final class CommandPipeline implements AutoCloseable {
+
+  private static final int BUFFER_SIZE = 1 << 20;
+  private static final int LINES_PER_BATCH = 512;
+  private static final int PENDING_BATCHES = 64;
+
+  /**
+   * A run of consecutive lines of the script and the commands parsed from them.
+   */
+  static final class Batch {
+    private final String[] lines;
+    private final Command[] commands;
+
+    private Batch(List<String> lines) {
+      this.lines = lines.toArray(new String[0]);
+      this.commands = new Command[this.lines.length];
+      for (int i = 0; i < this.lines.length; i++) {
+        this.commands[i] = CommandParser.parse(this.lines[i]);
+      }
+    }
+
+    /**
+     * Returns the number of lines in this batch.
+     *
+     * @return int
+     */
+    int size() {
+      return this.lines.length;
+    }
+
+    /**
+     * Returns the line at the given position in this batch.
+     *
+     * @param index position in the batch
+     * @return String
+     */
+    String line(int index) {
+      return this.lines[index];
+    }
+
+    /**
+     * Returns the command on the line at the given position, or null if it is not a command.
+     *
+     * @param index position in the batch
+     * @return Command or null
+     */
+    Command command(int index) {
+      return this.commands[index];
+    }
+  }
+
+  private final FileChannel channel;
+  private final CharsetDecoder decoder;
+  private final ExecutorService parsers;
+  private final BlockingQueue<Future<Batch>> pending;
+  private final Thread reader;
+  private volatile boolean closed;
+
+  // reader state, only touched by the reader thread
+  private final StringBuilder partialLine;
+  private boolean afterCarriageReturn;
+  private List<String> lines;
+
+  /**
+   * Opens the given script and starts reading and parsing it.
+   *
+   * @param script     the file of commands
+   * @param parserCount number of parser threads
+   * @throws IOException if the file cannot be opened
+   */
+  CommandPipeline(Path script, int parserCount) throws IOException {
+    this.channel = FileChannel.open(script, StandardOpenOption.READ);
+    this.decoder = Charset.defaultCharset().newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.parsers = Executors.newFixedThreadPool(parserCount, runnable -> {
+      Thread thread = new Thread(runnable, "command-parser");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.pending = new ArrayBlockingQueue<>(PENDING_BATCHES);
+    this.partialLine = new StringBuilder();
+    this.lines = new ArrayList<>(LINES_PER_BATCH);
+    this.reader = new Thread(this::read, "command-reader");
+    this.reader.setDaemon(true);
+    this.reader.start();
+  }
+
+  /**
+   * Returns the next batch of the script in order, waiting for it to be parsed, or null once
+   * the whole script has been returned.
+   *
+   * @return Batch or null
+   * @throws IllegalStateException if the script could not be read
+   */
+  Batch nextBatch() throws IllegalStateException {
+    try {
+      return this.pending.take().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading commands", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Could not read commands", e.getCause());
+    }
+  }
+
+  /**
+   * Stops reading and parsing and closes the script.
+   */
+  @Override
+  public void close() {
+    this.closed = true;
+    this.reader.interrupt();
+    this.parsers.shutdownNow();
+    try {
+      this.channel.close();
+    } catch (IOException e) {
+      // nothing more will be read from it either way
+    }
+  }
+
+  /**
+   * Reads the whole script, handing each full batch of lines to the parsers, then marks the end.
+   */
+  private void read() {
+    try {
+      ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+      boolean endOfFile = false;
+      while (!endOfFile) {
+        endOfFile = this.channel.read(bytes) < 0;
+        bytes.flip();
+        CoderResult result;
+        do {
+          result = this.decoder.decode(bytes, chars, endOfFile);
+          this.split(chars);
+        } while (result.isOverflow());
+        bytes.compact();
+      }
+      while (this.decoder.flush(chars).isOverflow()) {
+        this.split(chars);
+      }
+      this.split(chars);
+      if (this.partialLine.length() > 0) {
+        this.endLine();
+      }
+      this.submitBatch();
+      this.pending.put(CompletableFuture.completedFuture(null));
+    } catch (InterruptedException e) {
+      // closed before the script was finished
+    } catch (IOException | RuntimeException e) {
+      if (!this.closed) {
+        CompletableFuture<Batch> failed = new CompletableFuture<>();
+        failed.completeExceptionally(e);
+        try {
+          // waits for room like a batch does, so the failure always reaches the executor
+          this.pending.put(failed);
+        } catch (InterruptedException interrupted) {
+          // closed before the failure was taken
+        }
+      }
+    }
+  }
+
+  /**
+   * Cuts the decoded characters into lines and empties the buffer. A line ends at "\r\n" or any
+   * one of '\n', '\r', '\u2028', '\u2029' and '\u0085'.
+   */
+  private void split(CharBuffer chars) throws InterruptedException {
+    chars.flip();
+    while (chars.hasRemaining()) {
+      char c = chars.get();
+      if (this.afterCarriageReturn) {
+        this.afterCarriageReturn = false;
+        if (c == '\n') {
+          continue;
+        }
+      }
+      if (c == '\r') {
+        this.afterCarriageReturn = true;
+        this.endLine();
+      } else if (c == '\n' || c == '\u2028' || c == '\u2029' || c == '\u0085') {
+        this.endLine();
+      } else {
+        this.partialLine.append(c);
+      }
+    }
+    chars.clear();
+  }
+
+  private void endLine() throws InterruptedException {
+    this.lines.add(this.partialLine.toString());
+    this.partialLine.setLength(0);
+    if (this.lines.size() == LINES_PER_BATCH) {
+      this.submitBatch();
+    }
+  }
+
+  /**
+   * Hands the lines read so far to the parsers, waiting while too many batches are pending.
+   */
+  private void submitBatch() throws InterruptedException {
+    if (this.lines.isEmpty()) {
+      return;
+    }
+    List<String> batch = this.lines;
+    this.lines = new ArrayList<>(LINES_PER_BATCH);
+    this.pending.put(this.parsers.submit(() -> new Batch(batch)));
+  }
+}
@@ -0,0 +1,53 @@
+package controller;
+
+/**
+ * The forms of command the controller understands. Each form is written as its words separated by
+ * single spaces, where "$" stands for any word, "#" for a whole number, and "$/$" for a time zone.
+ * The words a command fills those places with are its arguments, in order.
+ */
+enum CommandType {
+  CREATE_CALENDAR("create calendar --name $ --timezone $/$"),
+  CREATE_STORED_CALENDAR("create calendar --name $ --timezone $/$ --store $"),
+  EDIT_CALENDAR("edit calendar --name $ --property $ $"),
+  USE_CALENDAR("use calendar --name $"),
+  COPY_EVENT("copy event $ on $ --target $ to $"),
+  COPY_DAY("copy events on $ --target $ to $"),
+  COPY_RANGE("copy events between $ and $ --target $ to $"),
+  CREATE_EVENT("create event $ from $ to $"),
+  CREATE_SERIES_TIMES("create event $ from $ to $ repeats $ for # times"),
+  CREATE_SERIES_UNTIL("create event $ from $ to $ repeats $ until $"),
+  CREATE_ALL_DAY_EVENT("create event $ on $"),
+  CREATE_ALL_DAY_SERIES_TIMES("create event $ on $ repeats $ for # times"),
+  CREATE_ALL_DAY_SERIES_UNTIL("create event $ on $ repeats $ until $"),
+  EDIT_EVENT("edit event $ $ from $ to $ with $"),
+  EDIT_EVENTS("edit events $ $ from $ with $"),
+  EDIT_SERIES("edit series $ $ from $ with $"),
+  PRINT_DAY("print events on $"),
+  PRINT_RANGE("print events from $ to $"),
+  PRINT_PAGE("print page from $"),
+  PRINT_NEXT_PAGE("print next page"),
+  PRINT_PREVIOUS_PAGE("print previous page"),
+  SHOW_STATUS("show status on $"),
+  SAVE_SNAPSHOT("save snapshot --file $"),
+  EXPORT_CALENDAR("export calendar --name $ --file $"),
+  EXPORT_RANGE("export calendar --name $ from $ to $ --file $"),
+  IMPORT_CALENDAR("import calendar --name $ --file $"),
+  BULK_BEGIN("bulk begin"),
+  BULK_END("bulk end"),
+  QUIT("quit");
+
+  private final String form;
+
+  CommandType(String form) {
+    this.form = form;
+  }
+
+  /**
+   * Returns how this command is written.
+   *
+   * @return String
+   */
+  String getForm() {
+    return this.form;
+  }
+}
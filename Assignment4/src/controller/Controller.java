@@ -2,11 +2,18 @@ package controller;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Scanner;
-import java.util.regex.Pattern;
 
+import calendar.BulkReport;
+import calendar.EventPage;
+import calendar.EventSpec;
 import calendar.ICalendarSuite;
 import calendar.IEvent;
 import view.IView;
@@ -17,8 +24,12 @@ import view.IView;
  */
 public class Controller implements IController {
 
+  private static final int PAGE_SIZE = 10;
+
   private final ICalendarSuite suite;
   private final IView view;
+  private EventPage page; // the last page printed, null before any
+  private List<EventSpec> bulk; // events of the open bulk block, null outside one
 
   /**
    * Constructs a new controller with the given calendar.
@@ -45,7 +56,32 @@ public class Controller implements IController {
       Scanner scanner = new Scanner(commands);
       this.commandPattern(scanner);
     } catch (FileNotFoundException e) {
-      System.out.println("File not found");
+      this.view.print("File not found");
+      this.view.flush();
+    }
+  }
+
+  @Override
+  public void goPipelinedHeadlessCalendar(String filePath) {
+    int parsers = Math.max(1, Runtime.getRuntime().availableProcessors() - 2);
+    try (CommandPipeline pipeline = new CommandPipeline(Paths.get(filePath), parsers)) {
+      try {
+        for (CommandPipeline.Batch batch = pipeline.nextBatch(); batch != null;
+             batch = pipeline.nextBatch()) {
+          for (int i = 0; i < batch.size(); i++) {
+            if (!this.run(batch.line(i), batch.command(i))) {
+              return;
+            }
+          }
+        }
+        throw new NoSuchElementException("No line found");
+      } finally {
+        this.discardBulk();
+        this.view.flush();
+      }
+    } catch (IOException e) {
+      this.view.print("File not found");
+      this.view.flush();
     }
   }
 
@@ -57,109 +93,332 @@ public class Controller implements IController {
    */
   @Override
   public void commandPattern(Scanner input) {
-    while (true) {
-      String command = input.nextLine();
-      if (Pattern.matches("create calendar --name \\S+ --timezone \\S+/\\S+", command)) {
+    try {
+      while (true) {
+        String line = input.nextLine();
+        if (!this.run(line, CommandParser.parse(line))) {
+          break;
+        }
+      }
+    } finally {
+      // the input ran out, or the client went away, inside a block
+      this.discardBulk();
+      this.view.flush();
+    }
+  }
+
+  /**
+   * Runs the command read from the given line. Returns false when the user wants to quit, returns
+   * true otherwise.
+   *
+   * @param line    the line the command was read from
+   * @param command the command on the line, or null if it is not a command
+   * @return boolean
+   */
+  private boolean run(String line, Command command) {
+    if (command == null) {
+      this.view.print("Invalid command: " + line);
+    } else if (command.getType() == CommandType.QUIT) {
+      this.discardBulk();
+      return false;
+    } else {
+      try {
+        this.execute(command);
+      } catch (UncheckedIOException e) {
+        // the output broke, so nothing more can be said
+        throw e;
+      } catch (RuntimeException e) {
+        // a command that fails says why, and the commands after it still run
+        this.view.print(e.getMessage() == null ? e.toString() : e.getMessage());
+      }
+    }
+    this.view.endCommand();
+    return true;
+  }
+
+  /**
+   * Carries out the given command.
+   *
+   * @param command Command
+   */
+  private void execute(Command command) {
+    if (this.bulk != null && command.getType() != CommandType.BULK_END) {
+      this.addToBulk(command);
+      return;
+    }
+    switch (command.getType()) {
+      case CREATE_CALENDAR:
+      case CREATE_STORED_CALENDAR:
         this.createCalendar(command);
-      } else if (Pattern.matches("edit calendar --name \\S+ --property \\S+ \\S+", command)) {
+        break;
+      case EDIT_CALENDAR:
         this.editCalendar(command);
-      } else if (Pattern.matches("use calendar --name \\S+", command)) {
+        break;
+      case USE_CALENDAR:
         this.useCalendar(command);
-      } else if (Pattern.matches("copy event \\S+ on \\S+ --target \\S+ to \\S+", command)) {
+        break;
+      case COPY_EVENT:
         this.copySingleEvent(command);
-      } else if (Pattern.matches("copy events on \\S+ --target \\S+ to \\S+", command)) {
+        break;
+      case COPY_DAY:
         this.copyDayEvent(command);
-      } else if (Pattern.matches("copy events between \\S+ and \\S+ --target \\S+ to \\S+",
-              command)) {
+        break;
+      case COPY_RANGE:
         this.copyEventsRange(command);
-      } else if (Pattern.matches("create event \\S+ from \\S+ to \\S+", command)) {
+        break;
+      case CREATE_EVENT:
         this.createSingleEvent(command);
-      } else if (Pattern.matches("create event \\S+ from \\S+ to \\S+ repeats \\S+ for \\d+ "
-              + "times", command)) {
+        break;
+      case CREATE_SERIES_TIMES:
         this.createEventSeriesTimesRepeated(command);
-      } else if (Pattern.matches("create event \\S+ from \\S+ to \\S+ repeats \\S+ until \\S+",
-              command)) {
+        break;
+      case CREATE_SERIES_UNTIL:
         this.createEventSeriesStopDate(command);
-      } else if (Pattern.matches("create event \\S+ on \\S+", command)) {
+        break;
+      case CREATE_ALL_DAY_EVENT:
         this.createSingleEventAllDay(command);
-      } else if (Pattern.matches("create event \\S+ on \\S+ repeats \\S+ for \\d+ times",
-              command)) {
+        break;
+      case CREATE_ALL_DAY_SERIES_TIMES:
         this.createEventSeriesAllDayTimesRepeated(command);
-      } else if (Pattern.matches("create event \\S+ on \\S+ repeats \\S+ until \\S+", command)) {
+        break;
+      case CREATE_ALL_DAY_SERIES_UNTIL:
         this.createEventSeriesAllDayStopDate(command);
-      } else if (Pattern.matches("edit event \\S+ \\S+ from \\S+ to \\S+ with \\S+", command)) {
+        break;
+      case EDIT_EVENT:
         this.editEventProperty(command);
-      } else if (Pattern.matches("edit events \\S+ \\S+ from \\S+ with \\S+", command)) {
+        break;
+      case EDIT_EVENTS:
         this.editEventsProperty(command);
-      } else if (Pattern.matches("edit series \\S+ \\S+ from \\S+ with \\S+", command)) {
+        break;
+      case EDIT_SERIES:
         this.editSeriesProperty(command);
-      } else if (Pattern.matches("print events on \\S+", command)) {
-        System.out.println(this.view.display(this.printEventsDay(command)));
-      } else if (Pattern.matches("print events from \\S+ to \\S+", command)) {
-        System.out.println(this.view.display(this.printEventsRange(command)));
-      } else if (Pattern.matches("show status on \\S+", command)) {
-        System.out.println(this.view.display(this.showStatus(command)));
-      } else if (command.equalsIgnoreCase("quit")) {
         break;
-      } else {
-        System.out.println("Invalid command: " + command);
+      case PRINT_DAY:
+        this.view.print(this.printEventsDay(command));
+        break;
+      case PRINT_RANGE:
+        this.view.print(this.printEventsRange(command));
+        break;
+      case PRINT_PAGE:
+      case PRINT_NEXT_PAGE:
+      case PRINT_PREVIOUS_PAGE:
+        this.view.print(this.printPage(command));
+        break;
+      case SHOW_STATUS:
+        this.view.print(this.showStatus(command));
+        break;
+      case SAVE_SNAPSHOT:
+        this.saveSnapshot(command);
+        break;
+      case EXPORT_CALENDAR:
+      case EXPORT_RANGE:
+        this.exportCalendar(command);
+        break;
+      case IMPORT_CALENDAR:
+        this.importCalendar(command);
+        break;
+      case BULK_BEGIN:
+        this.bulk = new ArrayList<>();
+        break;
+      case BULK_END:
+        this.endBulk();
+        break;
+      default:
+        this.view.print("Invalid command: " + command.getLine());
+    }
+  }
+
+  /**
+   * Keeps the event the given create command describes until the bulk block ends. Any other
+   * command is refused inside a block.
+   *
+   * @param command Command
+   */
+  private void addToBulk(Command command) {
+    try {
+      switch (command.getType()) {
+        case CREATE_EVENT:
+          this.bulk.add(EventSpec.single(command.arg(0), command.arg(1), command.arg(2)));
+          break;
+        case CREATE_SERIES_TIMES:
+          this.bulk.add(EventSpec.seriesTimes(command.arg(0), command.arg(1), command.arg(2),
+                  command.arg(3), command.number(4)));
+          break;
+        case CREATE_SERIES_UNTIL:
+          this.bulk.add(EventSpec.seriesUntil(command.arg(0), command.arg(1), command.arg(2),
+                  command.arg(3), command.arg(4)));
+          break;
+        case CREATE_ALL_DAY_EVENT:
+          this.bulk.add(EventSpec.allDay(command.arg(0), command.arg(1)));
+          break;
+        case CREATE_ALL_DAY_SERIES_TIMES:
+          this.bulk.add(EventSpec.allDaySeriesTimes(command.arg(0), command.arg(1),
+                  command.arg(2), command.number(3)));
+          break;
+        case CREATE_ALL_DAY_SERIES_UNTIL:
+          this.bulk.add(EventSpec.allDaySeriesUntil(command.arg(0), command.arg(1),
+                  command.arg(2), command.arg(3)));
+          break;
+        default:
+          this.view.print("Only create event commands can be in a bulk block: "
+                  + command.getLine());
+      }
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
+    }
+  }
+
+  /**
+   * Creates the events of the bulk block at once, printing why each one that failed did, then
+   * how many were created.
+   */
+  private void endBulk() {
+    if (this.bulk == null) {
+      this.view.print("No bulk block to end");
+      return;
+    }
+    List<EventSpec> specs = this.bulk;
+    this.bulk = null;
+    try {
+      BulkReport report = this.suite.getCalendar().createEvents(specs);
+      for (BulkReport.Failure failure : report.getFailures()) {
+        this.view.print("Event " + (failure.getRow() + 1) + " of bulk block: "
+                + failure.getMessage());
+      }
+      this.view.print(report.toString());
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
+    }
+  }
+
+  /**
+   * Drops the events of a bulk block that was never ended, saying how many were dropped.
+   */
+  private void discardBulk() {
+    if (this.bulk != null) {
+      this.view.print("Bulk block not ended, " + this.bulk.size() + " events discarded");
+      this.bulk = null;
+    }
+  }
+
+  /**
+   * Returns the given line as a command of one of the given types.
+   *
+   * @param line  String
+   * @param types the types the line may be
+   * @return Command
+   * @throws IllegalArgumentException if the line is not a command of those types
+   */
+  private static Command parse(String line, CommandType... types)
+          throws IllegalArgumentException {
+    Command command = CommandParser.parse(line);
+    if (command != null) {
+      for (CommandType type : types) {
+        if (command.getType() == type) {
+          return command;
+        }
       }
     }
+    throw new IllegalArgumentException("Invalid command: " + line);
   }
 
   /**
    * Creates a calendar in this calendar suite.
    *
-   * @param command String
+   * @param command Command
    */
-  private void createCalendar(String command) {
-    String[] input = command.split(" ");
+  private void createCalendar(Command command) {
     try {
-      this.suite.createCalendar(input[3], input[5]);
+      if (command.getType() == CommandType.CREATE_STORED_CALENDAR) {
+        this.suite.createCalendar(command.arg(0), command.arg(1), command.arg(2));
+      } else {
+        this.suite.createCalendar(command.arg(0), command.arg(1));
+      }
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
     }
   }
 
   /**
    * Edits a calendar in this calendar suite.
    *
-   * @param command String
+   * @param command Command
    */
-  private void editCalendar(String command) {
-    String[] input = command.split(" ");
+  private void editCalendar(Command command) {
     try {
-      this.suite.editCalendar(input[3], input[5], input[6]);
+      this.suite.editCalendar(command.arg(0), command.arg(1), command.arg(2));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
     }
   }
 
   /**
    * Marks a calendar in this suite as in use.
    *
-   * @param command String
+   * @param command Command
    */
-  private void useCalendar(String command) {
-    String[] input = command.split(" ");
+  private void useCalendar(Command command) {
     try {
-      this.suite.useCalendar(input[3]);
+      this.suite.useCalendar(command.arg(0));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
+    }
+  }
+
+  /**
+   * Saves this calendar suite to a snapshot file.
+   *
+   * @param command Command
+   */
+  private void saveSnapshot(Command command) {
+    try {
+      this.suite.saveSnapshot(command.arg(0));
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
+    }
+  }
+
+  /**
+   * Exports a calendar, or the part of it between two dateTtimes, to an iCalendar file.
+   *
+   * @param command Command
+   */
+  private void exportCalendar(Command command) {
+    try {
+      if (command.getType() == CommandType.EXPORT_RANGE) {
+        this.suite.exportCalendar(command.arg(0), command.arg(1), command.arg(2),
+                command.arg(3));
+      } else {
+        this.suite.exportCalendar(command.arg(0), command.arg(1));
+      }
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
+    }
+  }
+
+  /**
+   * Imports the events of an iCalendar file into a calendar and prints how it went.
+   *
+   * @param command Command
+   */
+  private void importCalendar(Command command) {
+    try {
+      this.view.print(this.suite.importCalendar(command.arg(0), command.arg(1)).toString());
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
     }
   }
 
   /**
    * Copies an event from the calendar marked in use to the target calendar.
    *
-   * @param command String
+   * @param command Command
    */
-  private void copySingleEvent(String command) {
-    String[] input = command.split(" ");
+  private void copySingleEvent(Command command) {
     try {
-      this.suite.copySingleEvent(input[2], input[4], input[6], input[8]);
+      this.suite.copySingleEvent(command.arg(0), command.arg(1), command.arg(2), command.arg(3));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
     }
   }
 
@@ -167,14 +426,13 @@ public class Controller implements IController {
    * Copies events on one day from the calendar marked in use to the target calendar. Accounts
    * for change in timezones.
    *
-   * @param command String
+   * @param command Command
    */
-  private void copyDayEvent(String command) {
-    String[] input = command.split(" ");
+  private void copyDayEvent(Command command) {
     try {
-      this.suite.copyDayEvents(input[3], input[5], input[7]);
+      this.suite.copyDayEvents(command.arg(0), command.arg(1), command.arg(2));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
     }
   }
 
@@ -182,14 +440,13 @@ public class Controller implements IController {
    * Copies events in a range from the calendar marked in use to the target calendar. Accounts
    * for change in timezones.
    *
-   * @param command String
+   * @param command Command
    */
-  private void copyEventsRange(String command) {
-    String[] input = command.split(" ");
+  private void copyEventsRange(Command command) {
     try {
-      this.suite.copyEventsRange(input[3], input[5], input[7], input[9]);
+      this.suite.copyEventsRange(command.arg(0), command.arg(1), command.arg(2), command.arg(3));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
     }
   }
 
@@ -200,11 +457,18 @@ public class Controller implements IController {
    */
   @Override
   public void createSingleEvent(String command) {
-    String[] input = command.split(" ");
     try {
-      this.suite.getCalendar().createSingleEvent(input[2], input[4], input[6]);
+      this.createSingleEvent(parse(command, CommandType.CREATE_EVENT));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
+    }
+  }
+
+  private void createSingleEvent(Command command) {
+    try {
+      this.suite.getCalendar().createSingleEvent(command.arg(0), command.arg(1), command.arg(2));
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
     }
   }
 
@@ -215,12 +479,19 @@ public class Controller implements IController {
    */
   @Override
   public void createEventSeriesTimesRepeated(String command) {
-    String[] input = command.split(" ");
     try {
-      this.suite.getCalendar().createEventSeriesTimesRepeated(input[2], input[4], input[6],
-              input[8], Integer.parseInt(input[10]));
+      this.createEventSeriesTimesRepeated(parse(command, CommandType.CREATE_SERIES_TIMES));
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
+    }
+  }
+
+  private void createEventSeriesTimesRepeated(Command command) {
+    try {
+      this.suite.getCalendar().createEventSeriesTimesRepeated(command.arg(0), command.arg(1),
+              command.arg(2), command.arg(3), command.number(4));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
     }
   }
 
@@ -231,12 +502,19 @@ public class Controller implements IController {
    */
   @Override
   public void createEventSeriesStopDate(String command) {
-    String[] input = command.split(" ");
     try {
-      this.suite.getCalendar().createEventSeriesStopDate(input[2], input[4], input[6], input[8],
-              input[10]);
+      this.createEventSeriesStopDate(parse(command, CommandType.CREATE_SERIES_UNTIL));
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
+    }
+  }
+
+  private void createEventSeriesStopDate(Command command) {
+    try {
+      this.suite.getCalendar().createEventSeriesStopDate(command.arg(0), command.arg(1),
+              command.arg(2), command.arg(3), command.arg(4));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
     }
   }
 
@@ -246,11 +524,18 @@ public class Controller implements IController {
    * @param command String
    */
   public void createSingleEventAllDay(String command) {
-    String[] input = command.split(" ");
     try {
-      this.suite.getCalendar().createSingleAllDayEvent(input[2], input[4]);
+      this.createSingleEventAllDay(parse(command, CommandType.CREATE_ALL_DAY_EVENT));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
+    }
+  }
+
+  private void createSingleEventAllDay(Command command) {
+    try {
+      this.suite.getCalendar().createSingleAllDayEvent(command.arg(0), command.arg(1));
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
     }
   }
 
@@ -260,12 +545,20 @@ public class Controller implements IController {
    * @param command String
    */
   public void createEventSeriesAllDayTimesRepeated(String command) {
-    String[] input = command.split(" ");
     try {
-      this.suite.getCalendar().createAllDayEventSeriesTimesRepeated(input[2], input[4], input[6],
-              Integer.parseInt(input[8]));
+      this.createEventSeriesAllDayTimesRepeated(parse(command,
+              CommandType.CREATE_ALL_DAY_SERIES_TIMES));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
+    }
+  }
+
+  private void createEventSeriesAllDayTimesRepeated(Command command) {
+    try {
+      this.suite.getCalendar().createAllDayEventSeriesTimesRepeated(command.arg(0),
+              command.arg(1), command.arg(2), command.number(3));
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
     }
   }
 
@@ -275,12 +568,20 @@ public class Controller implements IController {
    * @param command String
    */
   public void createEventSeriesAllDayStopDate(String command) {
-    String[] input = command.split(" ");
     try {
-      this.suite.getCalendar().createAllDayEventSeriesStopDate(input[2], input[4], input[6],
-              input[8]);
+      this.createEventSeriesAllDayStopDate(parse(command,
+              CommandType.CREATE_ALL_DAY_SERIES_UNTIL));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
+    }
+  }
+
+  private void createEventSeriesAllDayStopDate(Command command) {
+    try {
+      this.suite.getCalendar().createAllDayEventSeriesStopDate(command.arg(0), command.arg(1),
+              command.arg(2), command.arg(3));
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
     }
   }
 
@@ -290,11 +591,19 @@ public class Controller implements IController {
    * @param command String
    */
   public void editEventProperty(String command) {
-    String[] input = command.split(" ");
     try {
-      this.suite.getCalendar().editEventProperty(input[2], input[3], input[5], input[7], input[9]);
+      this.editEventProperty(parse(command, CommandType.EDIT_EVENT));
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
+    }
+  }
+
+  private void editEventProperty(Command command) {
+    try {
+      this.suite.getCalendar().editEventProperty(command.arg(0), command.arg(1), command.arg(2),
+              command.arg(3), command.arg(4));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
     }
   }
 
@@ -304,11 +613,19 @@ public class Controller implements IController {
    * @param command String
    */
   public void editEventsProperty(String command) {
-    String[] input = command.split(" ");
     try {
-      this.suite.getCalendar().editEventsProperty(input[2], input[3], input[5], input[7]);
+      this.editEventsProperty(parse(command, CommandType.EDIT_EVENTS));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
+    }
+  }
+
+  private void editEventsProperty(Command command) {
+    try {
+      this.suite.getCalendar().editEventsProperty(command.arg(0), command.arg(1), command.arg(2),
+              command.arg(3));
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
     }
   }
 
@@ -318,11 +635,19 @@ public class Controller implements IController {
    * @param command String
    */
   public void editSeriesProperty(String command) {
-    String[] input = command.split(" ");
     try {
-      this.suite.getCalendar().editSeriesProperty(input[2], input[3], input[5], input[7]);
+      this.editSeriesProperty(parse(command, CommandType.EDIT_SERIES));
     } catch (IllegalArgumentException e) {
-      System.out.println(e.getMessage());
+      this.view.print(e.getMessage());
+    }
+  }
+
+  private void editSeriesProperty(Command command) {
+    try {
+      this.suite.getCalendar().editSeriesProperty(command.arg(0), command.arg(1), command.arg(2),
+              command.arg(3));
+    } catch (IllegalArgumentException e) {
+      this.view.print(e.getMessage());
     }
   }
 
@@ -334,10 +659,12 @@ public class Controller implements IController {
    */
   @Override
   public String printEventsDay(String command) {
-    String[] input = command.split(" ");
-    String date = input[3];
+    return this.printEventsDay(parse(command, CommandType.PRINT_DAY));
+  }
+
+  private String printEventsDay(Command command) {
     StringBuilder builder = new StringBuilder();
-    for (IEvent event : this.suite.getCalendar().getEvents(date)) {
+    for (IEvent event : this.suite.getCalendar().getEvents(command.arg(0))) {
       builder.append("•");
       builder.append(event.toString());
       builder.append("\n");
@@ -353,17 +680,55 @@ public class Controller implements IController {
    */
   @Override
   public String printEventsRange(String command) {
-    String[] input = command.split(" ");
-    String start = input[3];
-    String end = input[5];
+    return this.printEventsRange(parse(command, CommandType.PRINT_RANGE));
+  }
+
+  private String printEventsRange(Command command) {
     StringBuilder builder = new StringBuilder();
-    ArrayList<IEvent> events = this.suite.getCalendar().getEvents(start, end);
+    ArrayList<IEvent> events = this.suite.getCalendar().getEvents(command.arg(0),
+            command.arg(1));
     if (events.isEmpty()) {
       builder.append("No events found");
     }
-    for (IEvent event : this.suite.getCalendar().getEvents(start, end)) {
-      // get Events only gets events on the start date
-      //System.out.println("hit");
+    for (IEvent event : events) {
+      builder.append("•");
+      builder.append(event.toString());
+      builder.append("\n");
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Returns a string listing a page of events.
+   *
+   * @param command String
+   * @return String
+   */
+  @Override
+  public String printPage(String command) {
+    return this.printPage(parse(command, CommandType.PRINT_PAGE, CommandType.PRINT_NEXT_PAGE,
+            CommandType.PRINT_PREVIOUS_PAGE));
+  }
+
+  private String printPage(Command command) {
+    try {
+      if (command.getType() == CommandType.PRINT_PAGE) {
+        this.page = this.suite.getCalendar().getPage(command.arg(0), PAGE_SIZE);
+      } else if (this.page == null) {
+        return "No page to move from";
+      } else if (command.getType() == CommandType.PRINT_NEXT_PAGE) {
+        this.page = this.suite.getCalendar().getPageAfter(this.page.getEnd(), PAGE_SIZE);
+      } else {
+        this.page = this.suite.getCalendar().getPageBefore(this.page.getStart(), PAGE_SIZE);
+      }
+    } catch (IllegalArgumentException e) {
+      return e.getMessage();
+    }
+    StringBuilder builder = new StringBuilder();
+    if (this.page.getEvents().isEmpty()) {
+      builder.append("No events found");
+    }
+    for (IEvent event : this.page.getEvents()) {
       builder.append("•");
       builder.append(event.toString());
       builder.append("\n");
@@ -379,8 +744,11 @@ public class Controller implements IController {
    */
   @Override
   public String showStatus(String command) {
-    String[] input = command.split(" ");
-    if (this.suite.getCalendar().showStatus(input[3])) {
+    return this.showStatus(parse(command, CommandType.SHOW_STATUS));
+  }
+
+  private String showStatus(Command command) {
+    if (this.suite.getCalendar().showStatus(command.arg(0))) {
       return "busy";
     }
     return "available";
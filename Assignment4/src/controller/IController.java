@@ -20,6 +20,14 @@ public interface IController {
    */
   void goHeadlessCalendar(String filePath);
 
+  /**
+   * Activates the calendar. Hands off user input to the calendar, reading and parsing the file
+   * on other threads while the commands run in order.
+   *
+   * @param filePath File containing commands for the calendar
+   */
+  void goPipelinedHeadlessCalendar(String filePath);
+
   /**
    * Effectively executes the command, given it matches one of the valid commands. Returns true
    * when the user wants to quit, returns false otherwise.
@@ -108,6 +116,15 @@ public interface IController {
    */
   String printEventsRange(String command);
 
+  /**
+   * Returns a string listing a page of events. "print page from" starts paging at a dateTtime,
+   * and "print next page" and "print previous page" move from the last page printed.
+   *
+   * @param command String
+   * @return String
+   */
+  String printPage(String command);
+
   /**
    * Returns the status of a certain time.
    *
@@ -11,4 +11,21 @@ public interface IView {
    * @return String
    */
   String display(String message);
+
+  /**
+   * Writes the given message to this view's output on its own line.
+   *
+   * @param message String
+   */
+  void print(String message);
+
+  /**
+   * Marks the end of a command, letting the view pass on what it printed for that command.
+   */
+  void endCommand();
+
+  /**
+   * Passes on everything this view has printed so far.
+   */
+  void flush();
 }
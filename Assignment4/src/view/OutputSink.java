@@ -0,0 +1,124 @@
+package view;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Collects the lines a view prints and hands them to the real output in batches. How often the
+ * batch is handed over is set by a flush policy: after every command, once a number of lines has
+ * built up, or only when the script ends. Lines end with the system line separator, the same as
+ * System.out.println, so the output is the same whichever policy is used.
+ */
+public final class OutputSink implements Flushable {
+
+  /**
+   * When an OutputSink hands its lines to the real output.
+   */
+  public enum FlushPolicy {
+    EVERY_COMMAND, EVERY_N_LINES, END_OF_SCRIPT
+  }
+
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  private final Appendable out;
+  private final FlushPolicy policy;
+  private final int linesPerFlush;
+  private final StringBuilder buffer;
+  private int lines;
+
+  /**
+   * Constructs a sink writing to the given output.
+   *
+   * @param out           where the lines go
+   * @param policy        when the lines are handed over
+   * @param linesPerFlush how many lines to collect under EVERY_N_LINES
+   */
+  public OutputSink(Appendable out, FlushPolicy policy, int linesPerFlush) {
+    if (out == null || policy == null) {
+      throw new IllegalArgumentException("Output and flush policy cannot be null");
+    }
+    if (policy == FlushPolicy.EVERY_N_LINES && linesPerFlush <= 0) {
+      throw new IllegalArgumentException("Invalid number of lines");
+    }
+    this.out = out;
+    this.policy = policy;
+    this.linesPerFlush = linesPerFlush;
+    this.buffer = new StringBuilder();
+    this.lines = 0;
+  }
+
+  /**
+   * Returns a sink that hands its lines over after every command.
+   *
+   * @param out where the lines go
+   * @return OutputSink
+   */
+  public static OutputSink everyCommand(Appendable out) {
+    return new OutputSink(out, FlushPolicy.EVERY_COMMAND, 0);
+  }
+
+  /**
+   * Returns a sink that hands its lines over each time the given number of them has built up.
+   *
+   * @param out           where the lines go
+   * @param linesPerFlush how many lines to collect
+   * @return OutputSink
+   */
+  public static OutputSink everyLines(Appendable out, int linesPerFlush) {
+    return new OutputSink(out, FlushPolicy.EVERY_N_LINES, linesPerFlush);
+  }
+
+  /**
+   * Returns a sink that holds its lines until it is flushed at the end of the script.
+   *
+   * @param out where the lines go
+   * @return OutputSink
+   */
+  public static OutputSink endOfScript(Appendable out) {
+    return new OutputSink(out, FlushPolicy.END_OF_SCRIPT, 0);
+  }
+
+  /**
+   * Adds the given text and a line separator.
+   *
+   * @param text String
+   */
+  public void println(String text) {
+    this.buffer.append(text).append(LINE_SEPARATOR);
+    this.lines++;
+    if (this.policy == FlushPolicy.EVERY_N_LINES && this.lines >= this.linesPerFlush) {
+      this.flush();
+    }
+  }
+
+  /**
+   * Marks the end of a command, handing the lines over if the policy is EVERY_COMMAND.
+   */
+  public void endCommand() {
+    if (this.policy == FlushPolicy.EVERY_COMMAND) {
+      this.flush();
+    }
+  }
+
+  /**
+   * Hands every collected line to the real output.
+   *
+   * @throws UncheckedIOException if the output cannot be written
+   */
+  @Override
+  public void flush() {
+    try {
+      if (this.buffer.length() > 0) {
+        this.out.append(this.buffer);
+        this.buffer.setLength(0);
+        this.lines = 0;
+      }
+      if (this.out instanceof Flushable) {
+        ((Flushable) this.out).flush();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -6,7 +6,6 @@ import java.awt.FlowLayout;
 import java.awt.Dimension;
 import java.awt.BorderLayout;
 import java.awt.Color;
-import java.util.ArrayList;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
@@ -18,22 +17,28 @@ import javax.swing.JLabel;
 import javax.swing.JFormattedTextField;
 import javax.swing.BoxLayout;
 
+import calendar.EventPage;
 import calendar.ICalendarSuite;
 import calendar.IEvent;
 
 /**
  * Represents the GUI for the Calendar. This ScheduleView allows a user to view the calendar
  * showing up to 10 events from a specific start date. The starting date can be updated by the
- * user to update their view.
+ * user to update their view, and the user can page forwards and backwards from there.
  */
 public class ScheduleView extends JFrame implements ActionListener, ISwingView {
 
+  private static final int PAGE_SIZE = 10;
+
   private final ICalendarSuite calendarSuite;
+  private EventPage page; // the events being shown, null before a start date is chosen
 
   private JComboBox<String> startDay;
   private JComboBox<String> startMonth;
   private JComboBox<String> startYear;
   private JButton changeStartDateButton;
+  private JButton previousPageButton;
+  private JButton nextPageButton;
 
   private JButton createEventButton;
   private JTextField eventName;
@@ -122,6 +127,14 @@ public class ScheduleView extends JFrame implements ActionListener, ISwingView {
     this.changeStartDateButton = new JButton("Change Start Date");
     this.changeStartDateButton.addActionListener(this);
     this.rightPanel.add(this.changeStartDateButton);
+    this.previousPageButton = new JButton("Previous");
+    this.previousPageButton.addActionListener(this);
+    this.previousPageButton.setEnabled(false);
+    this.rightPanel.add(this.previousPageButton);
+    this.nextPageButton = new JButton("Next");
+    this.nextPageButton.addActionListener(this);
+    this.nextPageButton.setEnabled(false);
+    this.rightPanel.add(this.nextPageButton);
   }
 
   private void setUpLeftPanel() {
@@ -163,10 +176,14 @@ public class ScheduleView extends JFrame implements ActionListener, ISwingView {
       }
       this.placeTen();
     } else if (e.getSource() == this.changeStartDateButton) {
-      //pop up window
-      // or add text field to enter info
+      this.page = null;
       this.placeTen();
-      this.repaint();
+    } else if (e.getSource() == this.previousPageButton && this.page != null) {
+      this.showPage(this.calendarSuite.getCalendar().getPageBefore(this.page.getStart(),
+              PAGE_SIZE));
+    } else if (e.getSource() == this.nextPageButton && this.page != null) {
+      this.showPage(this.calendarSuite.getCalendar().getPageAfter(this.page.getEnd(),
+              PAGE_SIZE));
     } else if (e.getSource() == this.eventAllDay) {
       if (this.eventAllDay.isSelected()) {
         this.eventEndDate.setEnabled(false);
@@ -181,16 +198,40 @@ public class ScheduleView extends JFrame implements ActionListener, ISwingView {
     this.repaint();
   }
 
+  /**
+   * Shows the page of events the view is on again, or the first page from the chosen start date
+   * when there is none.
+   */
   private void placeTen() {
-    this.centerPanel.removeAll();
-    ArrayList<IEvent> events = this.calendarSuite.getCalendar().getFirstTen(
-            this.startYear.getSelectedItem().toString() + "-"
-                    + this.startMonth.getSelectedItem().toString() + "-"
-                    + this.startDay.getSelectedItem().toString());
+    if (this.page != null) {
+      this.showPage(this.calendarSuite.getCalendar().getPageAfter(this.page.getStart(),
+              PAGE_SIZE));
+      return;
+    }
+    try {
+      this.showPage(this.calendarSuite.getCalendar().getPage(
+              this.startYear.getSelectedItem().toString() + "-"
+                      + this.startMonth.getSelectedItem().toString() + "-"
+                      + this.startDay.getSelectedItem().toString() + "T00:00", PAGE_SIZE));
+    } catch (IllegalArgumentException ex) {
+      this.message.setText(ex.getMessage());
+    }
+  }
 
-    for (IEvent event : events) {
+  /**
+   * Lists the events of the given page and remembers it for paging.
+   *
+   * @param page EventPage
+   */
+  private void showPage(EventPage page) {
+    this.page = page;
+    this.centerPanel.removeAll();
+    for (IEvent event : page.getEvents()) {
       this.centerPanel.add(new JLabel(event.toString()));
     }
+    this.previousPageButton.setEnabled(page.hasPrevious());
+    this.nextPageButton.setEnabled(page.hasNext());
+    this.centerPanel.revalidate();
     this.centerPanel.setVisible(true);
   }
 
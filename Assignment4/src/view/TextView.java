@@ -1,12 +1,49 @@
 package view;
 
 /**
- * Displays the text for Calendar output to terminal.
+ * Displays the text for Calendar output to terminal. Printed text goes through an OutputSink,
+ * which by default passes it to System.out after every command.
  */
 public class TextView implements IView {
 
+  private final OutputSink sink;
+
+  /**
+   * Constructs a text view printing to System.out after every command.
+   */
+  public TextView() {
+    this(OutputSink.everyCommand(System.out));
+  }
+
+  /**
+   * Constructs a text view printing through the given sink.
+   *
+   * @param sink OutputSink
+   */
+  public TextView(OutputSink sink) {
+    if (sink == null) {
+      throw new IllegalArgumentException("Sink cannot be null");
+    }
+    this.sink = sink;
+  }
+
   @Override
   public String display(String message) {
     return String.valueOf(message);
   }
+
+  @Override
+  public void print(String message) {
+    this.sink.println(this.display(message));
+  }
+
+  @Override
+  public void endCommand() {
+    this.sink.endCommand();
+  }
+
+  @Override
+  public void flush() {
+    this.sink.flush();
+  }
 }
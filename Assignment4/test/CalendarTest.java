@@ -1,15 +1,43 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Before;
 import org.junit.Test;
 
+import calendar.BulkReport;
 import calendar.CalendarSuite;
+import calendar.EventPage;
+import calendar.EventSpec;
+import calendar.ICalendar;
 import calendar.ICalendarSuite;
+import calendar.IEvent;
+import calendar.ImportReport;
+import calendar.JournaledSuite;
+import controller.CalendarServer;
 import controller.Controller;
 import controller.IController;
 import view.IView;
+import view.OutputSink;
 import view.TextView;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -69,7 +97,7 @@ public class CalendarTest {
             "coffeeshop");
 
     assertEquals("coffeeshop",
-            this.testCalendarSuite.getCalendar().getCalendarEvents().get(3).getLocation());
+            this.testCalendarSuite.getCalendar().getCalendarEvents().get(5).getLocation());
     // assertEquals("coffee shop", this.testCalendar.getEvents().get(4).getLocation());
 
     // attempts to edit a property that doesn't exists
@@ -85,6 +113,42 @@ public class CalendarTest {
     }
   }
 
+  @Test
+  public void testEditFromFirstOccurrence() {
+    ICalendarSuite suite = new CalendarSuite();
+    ICalendar calendar = suite.getCalendar();
+    calendar.createEventSeriesTimesRepeated("gym", "2025-06-02T07:00", "2025-06-02T08:00",
+            "MW", 3);
+
+    // from the first occurrence on is the whole series
+    calendar.editEventsProperty("location", "gym", "2025-06-02T07:00", "x");
+    List<IEvent> events = calendar.getEvents("2025-06-01T00:00", "2025-06-30T23:59");
+    assertEquals(6, events.size());
+    for (IEvent event : events) {
+      assertEquals("x", event.getLocation());
+    }
+    assertEquals(1, calendar.getCalendarEvents().size());
+
+    // the first occurrence alone is taken out and kept on its own
+    calendar.editEventProperty("location", "gym", "2025-06-02T07:00", "2025-06-02T08:00", "y");
+    events = calendar.getEvents("2025-06-01T00:00", "2025-06-30T23:59");
+    assertEquals(6, events.size());
+    assertEquals("y", events.get(0).getLocation());
+    assertEquals("x", events.get(1).getLocation());
+    assertEquals(2, calendar.getCalendarEvents().size());
+
+    // a series whose every occurrence was taken out is gone
+    String[] days = {"2025-06-04", "2025-06-09", "2025-06-11", "2025-06-16", "2025-06-18"};
+    for (String day : days) {
+      calendar.editEventProperty("location", "gym", day + "T07:00", day + "T08:00", "z");
+    }
+    assertEquals(6, calendar.getEvents("2025-06-01T00:00", "2025-06-30T23:59").size());
+    assertEquals(6, calendar.getCalendarEvents().size());
+    for (IEvent event : calendar.getCalendarEvents()) {
+      assertFalse(event.isSeries());
+    }
+  }
+
   @Test
   public void testIsBusy() {
     setUp();
@@ -101,6 +165,59 @@ public class CalendarTest {
     assertTrue(this.testCalendarSuite.getCalendar().showStatus("2025-01-01T08:00"));
     assertTrue(this.testCalendarSuite.getCalendar().showStatus("2025-01-02T08:00"));
     assertFalse(this.testCalendarSuite.getCalendar().showStatus("2025-01-03T08:00"));
+
+    // the lecture ends at 11:30 and nothing else happens that day
+    assertTrue(this.testCalendarSuite.getCalendar().showStatus("2025-06-12T11:29"));
+    assertFalse(this.testCalendarSuite.getCalendar().showStatus("2025-06-12T11:30"));
+    assertFalse(this.testCalendarSuite.getCalendar().showStatus("2025-06-12T09:49"));
+  }
+
+  @Test
+  public void testBusyMinutes() {
+    // the lecture takes up 100 minutes of the day
+    assertEquals(100, this.testCalendarSuite.getCalendar().busyMinutes("2025-06-12T00:00",
+            "2025-06-12T23:59"));
+    assertEquals(30, this.testCalendarSuite.getCalendar().busyMinutes("2025-06-12T11:00",
+            "2025-06-12T23:59"));
+
+    // two overlapping events only count each minute once
+    this.testCalendarSuite.getCalendar().createSingleEvent("Office hours", "2025-06-12T11:00",
+            "2025-06-12T12:00");
+    assertEquals(130, this.testCalendarSuite.getCalendar().busyMinutes("2025-06-12T00:00",
+            "2025-06-12T23:59"));
+
+    // the all day running series occurs on 1/1 and 1/2, nine hours each
+    assertEquals(1080, this.testCalendarSuite.getCalendar().busyMinutes("2025-01-01T00:00",
+            "2025-01-03T23:59"));
+  }
+
+  @Test
+  public void testBusyIndexBound() {
+    ICalendar calendar = new CalendarSuite().getCalendar();
+    // an hour every Monday for twenty years, and a meeting overlapping one of them
+    calendar.createEventSeriesTimesRepeated("gym", "2025-01-06T07:00", "2025-01-06T08:00", "M",
+            1040);
+    calendar.createSingleEvent("meeting", "2025-01-13T07:30", "2025-01-13T09:00");
+
+    // a window wider than the index is counted without keeping its days
+    assertEquals(1040 * 60 + 60, calendar.busyMinutes("2025-01-01T00:00", "2044-12-31T23:59"));
+    assertEquals(0, calendar.getBusyDaysCached());
+    // and agrees with the days counted one at a time
+    assertEquals(calendar.busyMinutes("2025-01-01T00:00", "2025-06-30T23:59")
+                    + calendar.busyMinutes("2025-07-01T00:00", "2025-12-31T23:59"),
+            calendar.busyMinutes("2025-01-01T00:00", "2025-12-31T23:59"));
+    assertEquals(60 + calendar.busyMinutes("2025-01-13T00:00", "2025-01-13T08:30"),
+            calendar.busyMinutes("2024-01-13T07:45", "2025-01-13T08:30"));
+
+    // probing day after day keeps only the most recently used days
+    for (int day = 1; day <= 28; day++) {
+      for (int month = 1; month <= 12; month++) {
+        calendar.showStatus(String.format("2026-%02d-%02dT07:30", month, day));
+      }
+    }
+    assertTrue(calendar.getBusyDaysCached() <= 256);
+    assertTrue(calendar.showStatus("2026-01-05T07:30"));
+    assertFalse(calendar.showStatus("2026-01-06T07:30"));
   }
 
   @Test
@@ -114,6 +231,85 @@ public class CalendarTest {
                     "2025-06-25T09:00"));
   }
 
+  @Test
+  public void testQueryOverlapping() {
+    // a trip that starts before the queried window and ends inside of it
+    this.testCalendarSuite.getCalendar().createSingleEvent("Trip", "2025-06-10T12:00",
+            "2025-06-13T12:00");
+
+    assertEquals("Trip: 2025-06-10 12:00 - 12:00 Lecture: 2025-06-12 09:50 - 11:30",
+            this.testCalendarSuite.getCalendar().getEventsToString("2025-06-11T00:00",
+                    "2025-06-12T23:59"));
+
+    // nothing happens between the end of the trip and the first exercise
+    assertEquals("",
+            this.testCalendarSuite.getCalendar().getEventsToString("2025-06-13T12:01",
+                    "2025-06-22T23:59"));
+  }
+
+  @Test
+  public void testDayCache() {
+    ICalendar calendar = this.testCalendarSuite.getCalendar();
+    assertEquals("[Lecture: 2025-06-12 09:50 - 11:30]",
+            calendar.getEvents("2025-06-12").toString());
+    assertEquals("[Lecture: 2025-06-12 09:50 - 11:30]",
+            calendar.getEvents("2025-06-12").toString());
+    assertEquals(1, calendar.getDayCacheHits());
+    assertEquals(1, calendar.getDayCacheMisses());
+
+    // adding an event on the day drops it from the cache
+    calendar.createSingleEvent("Lunch", "2025-06-12T12:00", "2025-06-12T13:00");
+    assertEquals("[Lecture: 2025-06-12 09:50 - 11:30, Lunch: 2025-06-12 12:00 - 13:00]",
+            calendar.getEvents("2025-06-12").toString());
+    assertEquals(2, calendar.getDayCacheMisses());
+
+    // editing a series drops every day it covers, but not other days
+    calendar.getEvents("2025-07-08");
+    calendar.editSeriesProperty("location", "homework", "2025-07-08T17:00", "library");
+    assertEquals("[Exercise: 2025-07-08 07:00 - 09:00, "
+                    + "homework: 2025-07-08 17:00 - 19:00 @ library]",
+            calendar.getEvents("2025-07-08").toString());
+    calendar.getEvents("2025-06-12");
+    assertEquals(2, calendar.getDayCacheHits());
+    assertEquals(4, calendar.getDayCacheMisses());
+  }
+
+  @Test
+  public void testPaging() {
+    ICalendar calendar = this.testCalendarSuite.getCalendar();
+    // the running series is listed as its separate occurrences
+    EventPage first = calendar.getPage("2025-01-01T00:00", 10);
+    assertEquals(10, first.getEvents().size());
+    assertEquals("running: 2025-01-01 08:00 - 17:00", first.getEvents().get(0).toString());
+    assertEquals("running: 2025-01-02 08:00 - 17:00", first.getEvents().get(1).toString());
+    assertEquals("running: 2025-01-06 08:00 - 17:00", first.getEvents().get(2).toString());
+    assertFalse(first.hasPrevious());
+    assertTrue(first.hasNext());
+
+    // paging forward continues where the page ended and paging back returns to it
+    EventPage second = calendar.getPageAfter(first.getEnd(), 10);
+    assertEquals("running: 2025-01-23 08:00 - 17:00", second.getEvents().get(0).toString());
+    assertTrue(second.hasPrevious());
+    assertEquals(first.getEvents().toString(),
+            calendar.getPageBefore(second.getStart(), 10).getEvents().toString());
+
+    // events starting at the same minute are split across pages without being lost
+    calendar.createSingleEvent("Review", "2025-06-12T09:50", "2025-06-12T10:30");
+    EventPage lecture = calendar.getPage("2025-06-12T09:50", 1);
+    assertEquals("Lecture: 2025-06-12 09:50 - 11:30", lecture.getEvents().get(0).toString());
+    EventPage review = calendar.getPageAfter(lecture.getEnd(), 1);
+    assertEquals("Review: 2025-06-12 09:50 - 10:30", review.getEvents().get(0).toString());
+    assertEquals("Exercise: 2025-06-23 07:00 - 09:00",
+            calendar.getPageAfter(review.getEnd(), 1).getEvents().get(0).toString());
+    assertEquals(lecture.getEvents(),
+            calendar.getPageBefore(review.getStart(), 1).getEvents());
+
+    // nothing comes after the meeting on 12/4
+    EventPage last = calendar.getPage("2025-12-04T00:00", 10);
+    assertEquals(1, last.getEvents().size());
+    assertFalse(last.hasNext());
+  }
+
   @Test
   public void testCommands() {
     setUp();
@@ -122,7 +318,7 @@ public class CalendarTest {
             "create event dinner from 2025-06-12T20:00 to 2025-06-12T21:00");
 
     assertEquals("dinner: 2025-06-12 20:00 - 21:00",
-            this.testCalendarSuite.getCalendar().getCalendarEvents().get(6).toString());
+            this.testCalendarSuite.getCalendar().getCalendarEvents().get(2).toString());
 
     assertEquals("busy",
             this.testController.showStatus("show status on 2025-12-04T8:00"));
@@ -159,4 +355,1032 @@ public class CalendarTest {
     }
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testSnapshot() throws IOException {
+    this.testCalendarSuite.getCalendar().editEventProperty("location", "Exercise",
+            "2025-06-25T07:00", "2025-06-25T09:00", "gym");
+    this.testCalendarSuite.getCalendar().editSeriesProperty("description", "homework",
+            "2025-07-08T17:00", "read chapter 2");
+    File file = File.createTempFile("suite", ".snapshot");
+    file.deleteOnExit();
+    this.testCalendarSuite.saveSnapshot(file.getPath());
+
+    ICalendarSuite loaded = CalendarSuite.loadSnapshot(file.getPath());
+    assertEquals("myCalendar", loaded.getCalendarInUseName());
+    assertEquals(3, loaded.getCalendarNames().size());
+    assertEquals(this.testCalendarSuite.getCalendar().getCalendarEvents().size(),
+            loaded.getCalendar().getCalendarEvents().size());
+    assertEquals(
+            this.testCalendarSuite.getCalendar().getEventsToString("2025-01-01T00:00",
+                    "2025-12-31T23:59"),
+            loaded.getCalendar().getEventsToString("2025-01-01T00:00", "2025-12-31T23:59"));
+    assertEquals("read chapter 2",
+            loaded.getCalendar().getEvents("2025-07-09").get(1).getDescription());
+    assertTrue(loaded.getCalendar().showStatus("2025-06-25T08:00"));
+    assertFalse(loaded.getCalendar().showStatus("2025-06-28T08:00"));
+
+    // a file that is not a snapshot
+    File other = File.createTempFile("suite", ".txt");
+    other.deleteOnExit();
+    Files.write(other.toPath(), "create calendar --name a --timezone b/c".getBytes());
+    try {
+      CalendarSuite.loadSnapshot(other.getPath());
+      fail("only snapshots can be loaded");
+    } catch (IllegalArgumentException e) {
+      // the exception is caught
+    }
+  }
+
+  @Test
+  public void testJournal() throws IOException {
+    File directory = Files.createTempDirectory("journal").toFile();
+    directory.deleteOnExit();
+    JournaledSuite suite = JournaledSuite.open(directory.getPath(), 0);
+    suite.createCalendar("work", "Europe/Paris");
+    suite.useCalendar("work");
+    suite.getCalendar().createEventSeriesTimesRepeated("standup", "2025-06-02T09:00",
+            "2025-06-02T09:15", "MTWRF", 2);
+    suite.getCalendar().editEventProperty("location", "standup", "2025-06-04T09:00",
+            "2025-06-04T09:15", "room 4");
+    suite.copyDayEvents("2025-06-04", "Default", "2025-06-04");
+    try {
+      suite.getCalendar().createSingleEvent("late", "2025-06-04T12:00", "2025-06-04T11:00");
+      fail("the end comes before the start");
+    } catch (IllegalArgumentException e) {
+      // the failed call is journaled and fails again on replay
+    }
+    String expected = suite.getCalendar().getEventsToString("2025-06-01T00:00",
+            "2025-06-30T23:59");
+    suite.close();
+
+    JournaledSuite reopened = JournaledSuite.open(directory.getPath(), 0);
+    assertEquals("work", reopened.getCalendarInUseName());
+    assertEquals(expected, reopened.getCalendar().getEventsToString("2025-06-01T00:00",
+            "2025-06-30T23:59"));
+    assertEquals("standup: 2025-06-04 09:00 - 09:15 @ room 4",
+            reopened.getCalendar().getEvents("2025-06-04").get(0).toString());
+    reopened.useCalendar("Default");
+    assertEquals(1, reopened.getCalendar().getEvents("2025-06-04").size());
+    reopened.close();
+    for (File file : directory.listFiles()) {
+      file.deleteOnExit();
+    }
+  }
+
+  @Test
+  public void testJournalDropsBadRecords() throws IOException {
+    File directory = Files.createTempDirectory("journal").toFile();
+    directory.deleteOnExit();
+    JournaledSuite suite = JournaledSuite.open(directory.getPath(), 0);
+    suite.createCalendar("work", "Europe/Paris");
+    suite.close();
+    suite = JournaledSuite.open(directory.getPath(), 0);
+    suite.useCalendar("work");
+    suite.getCalendar().createSingleEvent("review", "2025-06-04T09:00", "2025-06-04T10:00");
+    suite.close();
+
+    // a record torn by a crash is dropped and cut off the segment
+    File last = lastSegment(directory);
+    long written = last.length();
+    Files.write(last.toPath(), new byte[] {0, 0, 0, 40, 1, 2, 3},
+            StandardOpenOption.APPEND);
+    suite = JournaledSuite.open(directory.getPath(), 0);
+    assertEquals(written, last.length());
+    assertEquals("work", suite.getCalendarInUseName());
+    assertEquals(1, suite.getCalendar().getEvents("2025-06-04").size());
+    suite.close();
+
+    // so is a record whose checksum does not match, with everything after it
+    byte[] bytes = Files.readAllBytes(last.toPath());
+    bytes[bytes.length - 1] ^= 1;
+    Files.write(last.toPath(), bytes);
+    suite = JournaledSuite.open(directory.getPath(), 0);
+    assertTrue(last.length() < written);
+    assertEquals(Arrays.asList("Default", "work"), sorted(suite.getCalendarNames()));
+    // the records before it are kept
+    assertEquals("work", suite.getCalendarInUseName());
+    assertEquals(0, suite.getCalendar().getEvents("2025-06-04").size());
+    suite.close();
+    for (File file : directory.listFiles()) {
+      file.deleteOnExit();
+    }
+  }
+
+  @Test
+  public void testJournalCompaction() throws IOException {
+    File directory = Files.createTempDirectory("journal").toFile();
+    File store = Files.createTempDirectory("store").toFile();
+    directory.deleteOnExit();
+    store.deleteOnExit();
+    // every record starts a compaction
+    JournaledSuite suite = JournaledSuite.open(directory.getPath(), 0, 1);
+    suite.createCalendar("archive", "America/New_York", store.getPath());
+    suite.useCalendar("archive");
+    suite.getCalendar().createSingleEvent("talk", "2025-06-04T10:00", "2025-06-04T11:00");
+    suite.copyDayEvents("2025-06-04", "Default", "2025-06-04");
+    suite.createCalendar("work", "Europe/Paris");
+    suite.useCalendar("work");
+    for (int i = 0; i < 50; i++) {
+      suite.getCalendar().createSingleEvent("standup " + i, "2025-06-04T09:00",
+              "2025-06-04T09:15");
+    }
+    String expected = suite.getCalendar().getEventsToString("2025-06-01T00:00",
+            "2025-06-30T23:59");
+    suite.close();
+
+    List<String> snapshots = new ArrayList<>();
+    for (File file : directory.listFiles()) {
+      if (file.getName().startsWith("snapshot-")) {
+        snapshots.add(file.getName());
+      }
+    }
+    assertEquals(1, snapshots.size());
+
+    JournaledSuite reopened = JournaledSuite.open(directory.getPath(), 0);
+    assertEquals("work", reopened.getCalendarInUseName());
+    assertEquals(expected, reopened.getCalendar().getEventsToString("2025-06-01T00:00",
+            "2025-06-30T23:59"));
+    reopened.useCalendar("Default");
+    assertEquals("[talk: 2025-06-04 10:00 - 11:00]",
+            reopened.getCalendar().getEvents("2025-06-04").toString());
+    reopened.close();
+    for (File file : directory.listFiles()) {
+      file.deleteOnExit();
+    }
+    for (File file : store.listFiles()) {
+      file.deleteOnExit();
+    }
+  }
+
+  /**
+   * Returns the journal segment with the highest number in the given directory.
+   */
+  private static File lastSegment(File directory) {
+    File last = null;
+    int highest = -1;
+    for (File file : directory.listFiles()) {
+      String name = file.getName();
+      if (name.startsWith("journal-") && name.endsWith(".log")) {
+        int number = Integer.parseInt(name.substring(8, name.length() - 4));
+        if (number > highest) {
+          highest = number;
+          last = file;
+        }
+      }
+    }
+    return last;
+  }
+
+  private static List<String> sorted(List<String> names) {
+    List<String> copy = new ArrayList<>(names);
+    copy.sort(null);
+    return copy;
+  }
+
+  @Test
+  public void testJournaledCopyFromStore() throws IOException {
+    File directory = Files.createTempDirectory("journal").toFile();
+    File store = Files.createTempDirectory("store").toFile();
+    directory.deleteOnExit();
+    store.deleteOnExit();
+    JournaledSuite suite = JournaledSuite.open(directory.getPath(), 0);
+    suite.createCalendar("archive", "America/New_York", store.getPath());
+    suite.useCalendar("archive");
+    suite.getCalendar().createSingleEvent("talk", "2025-06-04T10:00", "2025-06-04T11:00");
+    suite.copyDayEvents("2025-06-04", "Default", "2025-06-04");
+    // the store changes in place and is not journaled
+    suite.getCalendar().editEventProperty("subject", "talk", "2025-06-04T10:00",
+            "2025-06-04T11:00", "keynote");
+    suite.close();
+
+    // the copy comes back as it was made, not as the store is now
+    JournaledSuite reopened = JournaledSuite.open(directory.getPath(), 0);
+    reopened.useCalendar("Default");
+    assertEquals("[talk: 2025-06-04 10:00 - 11:00]",
+            reopened.getCalendar().getEvents("2025-06-04").toString());
+    reopened.useCalendar("archive");
+    assertEquals("[keynote: 2025-06-04 10:00 - 11:00]",
+            reopened.getCalendar().getEvents("2025-06-04").toString());
+    reopened.close();
+    for (File file : directory.listFiles()) {
+      file.deleteOnExit();
+    }
+    for (File file : store.listFiles()) {
+      file.deleteOnExit();
+    }
+  }
+
+  @Test
+  public void testStoredCalendar() throws IOException {
+    File directory = Files.createTempDirectory("store").toFile();
+    directory.deleteOnExit();
+    CalendarSuite suite = new CalendarSuite();
+    suite.createCalendar("work", "Europe/Paris", directory.getPath());
+    suite.useCalendar("work");
+    suite.getCalendar().createEventSeriesTimesRepeated("standup", "2025-06-02T09:00",
+            "2025-06-02T09:15", "MTWRF", 5);
+    suite.getCalendar().createSingleEvent("review", "2025-06-04T08:00", "2025-06-04T12:00");
+    suite.getCalendar().editEventProperty("location", "standup", "2025-06-04T09:00",
+            "2025-06-04T09:15", "room 4");
+    try {
+      suite.getCalendar().createSingleEvent("review", "2025-06-04T08:00", "2025-06-04T12:00");
+      fail("the event already exists");
+    } catch (IllegalArgumentException e) {
+      // duplicates are found on disk as in memory
+    }
+    String expected = suite.getCalendar().getEventsToString("2025-06-01T00:00",
+            "2025-06-30T23:59");
+    assertTrue(suite.getCalendar().showStatus("2025-06-04T10:00"));
+
+    CalendarSuite reopened = new CalendarSuite();
+    reopened.createCalendar("work", "Europe/Paris", directory.getPath());
+    reopened.useCalendar("work");
+    assertEquals(expected, reopened.getCalendar().getEventsToString("2025-06-01T00:00",
+            "2025-06-30T23:59"));
+    assertEquals(2, reopened.getCalendar().getEvents("2025-06-04").size());
+    assertEquals("standup: 2025-06-04 09:00 - 09:15 @ room 4",
+            reopened.getCalendar().getEvents("2025-06-04").get(1).toString());
+    for (File file : directory.listFiles()) {
+      file.deleteOnExit();
+    }
+  }
+
+  @Test
+  public void testStoredDictionary() throws IOException {
+    File directory = Files.createTempDirectory("store").toFile();
+    directory.deleteOnExit();
+    CalendarSuite suite = new CalendarSuite();
+    suite.createCalendar("archive", "Etc/UTC", directory.getPath());
+    suite.useCalendar("archive");
+    // more different subjects than the store keeps decoded or its hash table first holds
+    List<EventSpec> specs = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      String day = day(20000 + i / 10);
+      specs.add(EventSpec.single("task " + i, day + "T" + (10 + i % 10) + ":00",
+              day + "T" + (10 + i % 10) + ":30"));
+    }
+    assertEquals(3000, suite.getCalendar().createEvents(specs).getCreated());
+    String expected = suite.getCalendar().getEventsToString("2024-10-01T00:00",
+            "2025-12-31T23:59");
+
+    // reopened as written, then with the string offsets and hash table worked out again
+    for (int pass = 0; pass < 2; pass++) {
+      CalendarSuite reopened = new CalendarSuite();
+      reopened.createCalendar("archive", "Etc/UTC", directory.getPath());
+      reopened.useCalendar("archive");
+      ICalendar calendar = reopened.getCalendar();
+      assertEquals(expected, calendar.getEventsToString("2024-10-01T00:00", "2025-12-31T23:59"));
+      assertEquals("task 2995", calendar.getEvents(day(20299)).get(5)
+              .getSubject());
+      try {
+        calendar.createSingleEvent("task 1234", day(20123) + "T14:00",
+                day(20123) + "T14:30");
+        fail("the event already exists");
+      } catch (IllegalArgumentException e) {
+        assertEquals("event already exists", e.getMessage());
+      }
+      calendar.editEventProperty("location", "task 7", day(20000) + "T17:00",
+              day(20000) + "T17:30", "room " + pass);
+      assertEquals("room " + pass, calendar.getEvents(day(20000)).get(7)
+              .getLocation());
+      expected = calendar.getEventsToString("2024-10-01T00:00", "2025-12-31T23:59");
+      assertTrue(new File(directory, "strings.off").delete());
+      assertTrue(new File(directory, "strings.hash").delete());
+    }
+    for (File file : directory.listFiles()) {
+      file.deleteOnExit();
+    }
+  }
+
+  /**
+   * Returns the date the given number of days after 1970-01-01 as "YYYY-MM-DD".
+   */
+  private static String day(int epochDay) {
+    return LocalDate.ofEpochDay(epochDay).toString();
+  }
+
+  @Test
+  public void testExportCalendar() throws IOException {
+    File whole = File.createTempFile("calendar", ".ics");
+    File part = File.createTempFile("calendar", ".ics");
+    whole.deleteOnExit();
+    part.deleteOnExit();
+    CalendarSuite suite = new CalendarSuite();
+    suite.useCalendar("Default");
+    suite.getCalendar().createEventSeriesTimesRepeated("standup", "2025-06-02T09:00",
+            "2025-06-02T09:15", "MWF", 3);
+    suite.getCalendar().editEventProperty("location", "standup", "2025-06-04T09:00",
+            "2025-06-04T09:15", "room 4");
+    suite.getCalendar().createSingleEvent("lunch; team", "2025-06-10T12:00",
+            "2025-06-10T13:00");
+
+    suite.exportCalendar("Default", whole.getPath());
+    String ics = new String(Files.readAllBytes(whole.toPath()), "UTF-8");
+    assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+    assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+    assertTrue(ics.contains("DTSTART;TZID=America/New_York:20250602T090000\r\n"));
+    assertTrue(ics.contains("RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR;UNTIL=20250620T130000Z\r\n"));
+    assertTrue(ics.contains("EXDATE;TZID=America/New_York:20250604T090000\r\n"));
+    assertTrue(ics.contains("LOCATION:room 4\r\n"));
+    assertTrue(ics.contains("SUMMARY:lunch\\; team\r\n"));
+    assertEquals(3, ics.split("BEGIN:VEVENT").length - 1);
+    // the zone every TZID names is described before the events, as it is in June 2025
+    assertTrue(ics.contains("BEGIN:VTIMEZONE\r\nTZID:America/New_York\r\n"
+            + "BEGIN:DAYLIGHT\r\nDTSTART:20250309T020000\r\nTZOFFSETFROM:-0500\r\n"
+            + "TZOFFSETTO:-0400\r\nEND:DAYLIGHT\r\nEND:VTIMEZONE\r\nBEGIN:VEVENT\r\n"));
+    assertEquals(1, ics.split("BEGIN:VTIMEZONE").length - 1);
+
+    suite.exportCalendar("Default", "2025-06-11T00:00", "2025-06-13T23:59", part.getPath());
+    ics = new String(Files.readAllBytes(part.toPath()), "UTF-8");
+    assertEquals(1, ics.split("BEGIN:VEVENT").length - 1);
+    assertTrue(ics.contains("DTSTART;TZID=America/New_York:20250611T090000\r\n"));
+    assertTrue(ics.contains("UNTIL=20250613T130000Z\r\n"));
+
+    try {
+      suite.exportCalendar("Nope", whole.getPath());
+      fail("there is no such calendar");
+    } catch (IllegalArgumentException e) {
+      assertEquals("No such calendar: Nope", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testImportCalendar() throws IOException {
+    File file = File.createTempFile("calendar", ".ics");
+    file.deleteOnExit();
+    CalendarSuite suite = new CalendarSuite();
+    suite.useCalendar("Default");
+    suite.getCalendar().createEventSeriesTimesRepeated("standup", "2025-06-02T09:00",
+            "2025-06-02T09:15", "MWF", 3);
+    suite.getCalendar().editEventProperty("location", "standup", "2025-06-04T09:00",
+            "2025-06-04T09:15", "room 4");
+    suite.getCalendar().createSingleEvent("lunch; team", "2025-06-10T12:00",
+            "2025-06-10T13:00");
+    suite.exportCalendar("Default", file.getPath());
+
+    suite.createCalendar("Copy", "America/New_York");
+    ImportReport report = suite.importCalendar("Copy", file.getPath());
+    assertEquals(3, report.getImported());
+    assertEquals(0, report.getSkipped());
+    String events = suite.getCalendar().getEventsToString("2025-06-01T00:00",
+            "2025-06-30T23:59");
+    suite.useCalendar("Copy");
+    assertEquals(events, suite.getCalendar().getEventsToString("2025-06-01T00:00",
+            "2025-06-30T23:59"));
+
+    report = suite.importCalendar("Copy", file.getPath());
+    assertEquals(0, report.getImported());
+    assertEquals(3, report.getSkipped());
+
+    suite.createCalendar("Tokyo", "Asia/Tokyo");
+    suite.importCalendar("Tokyo", file.getPath());
+    suite.useCalendar("Tokyo");
+    assertTrue(suite.getCalendar().getEventsToString("2025-06-11T00:00", "2025-06-11T23:59")
+            .contains("lunch; team: 2025-06-11 01:00 - 02:00"));
+
+    try {
+      suite.importCalendar("Nope", file.getPath());
+      fail("there is no such calendar");
+    } catch (IllegalArgumentException e) {
+      assertEquals("No such calendar: Nope", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testConcurrentSuite() throws InterruptedException {
+    CalendarSuite suite = new CalendarSuite();
+    suite.createCalendar("Work", "America/New_York");
+    suite.createCalendar("Home", "America/New_York");
+
+    // each session has its own calendar in use
+    ICalendarSuite work = suite.newSession();
+    ICalendarSuite home = suite.newSession();
+    work.useCalendar("Work");
+    home.useCalendar("Home");
+    assertEquals("Default", suite.getCalendarInUseName());
+    assertEquals("Work", work.getCalendarInUseName());
+    assertEquals("Home", home.getCalendarInUseName());
+
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      int writer = t;
+      threads.add(new Thread(() -> {
+        ICalendarSuite session = suite.newSession();
+        session.useCalendar(writer % 2 == 0 ? "Work" : "Home");
+        for (int i = 0; i < 100; i++) {
+          session.getCalendar().createSingleEvent("w" + writer + "-" + i,
+                  String.format("2025-06-%02dT%02d:00", 1 + i % 28, writer),
+                  String.format("2025-06-%02dT%02d:30", 1 + i % 28, writer));
+        }
+      }));
+      threads.add(new Thread(() -> {
+        ICalendarSuite session = suite.newSession();
+        for (int i = 0; i < 200; i++) {
+          session.useCalendar(i % 2 == 0 ? "Work" : "Home");
+          session.getCalendar().busyMinutes("2025-06-01T00:00", "2025-06-28T23:59");
+          session.getCalendar().getEvents("2025-06-0" + (1 + i % 9));
+        }
+      }));
+    }
+    // copies in opposite directions must not deadlock
+    threads.add(new Thread(() -> {
+      for (int i = 0; i < 50; i++) {
+        work.copyEventsRange("2025-06-01", "2025-06-28", "Home", "2025-06-01");
+      }
+    }));
+    threads.add(new Thread(() -> {
+      for (int i = 0; i < 50; i++) {
+        home.copyEventsRange("2025-06-01", "2025-06-28", "Work", "2025-06-01");
+      }
+    }));
+    for (Thread thread : threads) {
+      thread.setUncaughtExceptionHandler((dead, e) -> failure.compareAndSet(null, e));
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join(60000);
+      assertFalse(thread.isAlive());
+    }
+    assertEquals(null, failure.get());
+
+    // after a last copy each way, both calendars hold every event once
+    work.copyEventsRange("2025-06-01", "2025-06-28", "Home", "2025-06-01");
+    home.copyEventsRange("2025-06-01", "2025-06-28", "Work", "2025-06-01");
+    assertEquals(400, work.getCalendar().getCalendarEvents().size());
+    assertEquals(400, home.getCalendar().getCalendarEvents().size());
+  }
+
+  @Test
+  public void testSnapshotReads() throws InterruptedException {
+    CalendarSuite suite = new CalendarSuite();
+    ICalendar calendar = suite.getCalendar();
+    calendar.createSingleEvent("standup", "2025-06-04T09:00", "2025-06-04T10:00");
+    List<IEvent> before = calendar.getEvents("2025-06-04T00:00", "2025-06-04T23:59");
+
+    // readers never see an event half edited, whatever the writer is doing
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < 2000; i++) {
+        calendar.editEventProperty("location", "standup", "2025-06-04T09:00",
+                "2025-06-04T10:00", "room " + i);
+      }
+    });
+    Thread reader = new Thread(() -> {
+      while (writer.isAlive()) {
+        assertEquals(1, calendar.getEvents("2025-06-04").size());
+        assertEquals(60, calendar.busyMinutes("2025-06-04T00:00", "2025-06-04T23:59"));
+        assertEquals(1, calendar.getPage("2025-06-04T00:00", 5).getEvents().size());
+      }
+    });
+    writer.setUncaughtExceptionHandler((dead, e) -> failure.compareAndSet(null, e));
+    reader.setUncaughtExceptionHandler((dead, e) -> failure.compareAndSet(null, e));
+    writer.start();
+    reader.start();
+    writer.join(60000);
+    reader.join(60000);
+    assertFalse(reader.isAlive());
+    assertEquals(null, failure.get());
+
+    // events already read are not changed by later edits
+    assertEquals("", before.get(0).getLocation());
+    assertEquals("room 1999", calendar.getEvents("2025-06-04").get(0).getLocation());
+  }
+
+  @Test
+  public void testRenameCalendar() {
+    CalendarSuite suite = new CalendarSuite();
+    suite.createCalendar("Work", "America/New_York");
+    suite.createCalendar("Home", "Europe/Paris");
+    suite.useCalendar("Work");
+    suite.getCalendar().createSingleEvent("standup", "2025-06-04T09:00", "2025-06-04T10:00");
+    ICalendarSuite other = suite.newSession();
+    other.useCalendar("Work");
+
+    // a name already taken is refused and nothing changes
+    try {
+      suite.editCalendar("Work", "name", "Home");
+      fail("name taken");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Calendar with name Home already exists", e.getMessage());
+    }
+    assertEquals(1, suite.getCalendar().getCalendarEvents().size());
+
+    // the renaming session follows the calendar; others are told it is gone
+    suite.editCalendar("Work", "name", "Job");
+    assertEquals("Job", suite.getCalendarInUseName());
+    assertEquals(1, suite.getCalendar().getCalendarEvents().size());
+    assertFalse(suite.getCalendarNames().contains("Work"));
+    try {
+      other.getCalendar();
+      fail("calendar renamed");
+    } catch (IllegalArgumentException e) {
+      assertEquals("No such calendar: Work", e.getMessage());
+    }
+    other.useCalendar("Job");
+    assertEquals(1, other.getCalendar().getCalendarEvents().size());
+  }
+
+  @Test
+  public void testServer() throws IOException, InterruptedException {
+    CalendarSuite suite = new CalendarSuite();
+    CalendarServer server = new CalendarServer(suite, 0);
+    Thread serving = new Thread(server::serve);
+    serving.start();
+
+    try (Socket work = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+         Socket other = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+      String workOutput = talk(work, "create calendar --name Work --timezone America/New_York\n"
+              + "use calendar --name Work\n"
+              + "create event standup from 2025-06-04T09:00 to 2025-06-04T10:00\n"
+              + "print events on 2025-06-04\n"
+              + "quit\n");
+      assertTrue(workOutput.contains("standup: 2025-06-04 09:00 - 10:00"));
+
+      // the other connection shares the calendars but not the calendar in use
+      String otherOutput = talk(other, "print events on 2025-06-04\n"
+              + "use calendar --name Work\n"
+              + "print events on 2025-06-04\n"
+              + "quit\n");
+      assertEquals(otherOutput.indexOf("standup"), otherOutput.lastIndexOf("standup"));
+      assertTrue(otherOutput.trim().endsWith("standup: 2025-06-04 09:00 - 10:00"));
+    }
+    assertEquals("Default", suite.getCalendarInUseName());
+
+    // a command that fails is answered and the connection stays open for the next one
+    try (Socket client = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+      String[] lines = talk(client, "print events from 2025-06-05T00:00 to 2025-06-04T00:00\n"
+              + "print events from 2025-06-04T00:00 to 2025-06-04T25:00\n"
+              + "show status on 2025-02-30T10:00\n"
+              + "use calendar --name Work\n"
+              + "print events on 2025-06-04\n"
+              + "quit\n").split(System.lineSeparator());
+      assertEquals(4, lines.length);
+      assertEquals("the from date can not come after the to date", lines[0]);
+      assertEquals("Invalid dateTtime: 2025-06-04T25:00", lines[1]);
+      assertEquals("Invalid date", lines[2]);
+      assertEquals("•standup: 2025-06-04 09:00 - 10:00", lines[3]);
+    }
+
+    server.close();
+    serving.join(10000);
+    assertFalse(serving.isAlive());
+  }
+
+  /**
+   * Sends the given commands over the given connection and returns everything sent back until
+   * the server closes it.
+   */
+  private static String talk(Socket connection, String commands) throws IOException {
+    connection.getOutputStream().write(commands.getBytes(StandardCharsets.UTF_8));
+    connection.getOutputStream().flush();
+    ByteArrayOutputStream received = new ByteArrayOutputStream();
+    InputStream in = connection.getInputStream();
+    byte[] buffer = new byte[4096];
+    for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+      received.write(buffer, 0, read);
+    }
+    return new String(received.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testBulkCreateDuplicates() {
+    CalendarSuite suite = new CalendarSuite();
+    suite.useCalendar("Default");
+    ICalendar calendar = suite.getCalendar();
+    List<EventSpec> specs = new ArrayList<>();
+    for (int i = 1; i <= 30; i++) {
+      specs.add(EventSpec.single("day " + i, String.format("2025-07-%02dT09:00", i),
+              String.format("2025-07-%02dT10:00", i)));
+    }
+    specs.add(EventSpec.single("a", "2025-07-01T09:00", "2025-07-01T10:00"));
+    specs.add(EventSpec.single("b", "2025-07-01T09:00", "2025-07-01T10:00"));
+    assertEquals(32, calendar.createEvents(specs).getCreated());
+
+    // enough events to be merged into the store, checked against those starting with them
+    BulkReport report = calendar.createEvents(Arrays.asList(
+            EventSpec.single("b", "2025-07-01T09:00", "2025-07-01T10:00"),
+            EventSpec.single("c", "2025-07-01T09:00", "2025-07-01T10:00"),
+            EventSpec.single("c", "2025-07-01T09:00", "2025-07-01T10:00"),
+            EventSpec.single("a", "2025-07-01T09:00", "2025-07-01T11:00"),
+            EventSpec.single("early", "2025-06-30T09:00", "2025-06-30T10:00")));
+    assertEquals(3, report.getCreated());
+    assertEquals(2, report.getFailures().size());
+    assertEquals(0, report.getFailures().get(0).getRow());
+    assertEquals(2, report.getFailures().get(1).getRow());
+
+    // too few to merge, so checked one at a time
+    report = calendar.createEvents(Arrays.asList(
+            EventSpec.single("c", "2025-07-01T09:00", "2025-07-01T10:00"),
+            EventSpec.single("d", "2025-07-01T09:00", "2025-07-01T10:00")));
+    assertEquals(1, report.getCreated());
+    assertEquals(0, report.getFailures().get(0).getRow());
+    assertEquals(6, calendar.getEvents("2025-07-01").size());
+    assertEquals(36, calendar.getCalendarEvents().size());
+
+    // each of the events starting together is still found and replaced on its own
+    calendar.editEventProperty("location", "a", "2025-07-01T09:00", "2025-07-01T10:00", "x");
+    calendar.editEventProperty("location", "a", "2025-07-01T09:00", "2025-07-01T11:00", "y");
+    calendar.editEventProperty("location", "d", "2025-07-01T09:00", "2025-07-01T10:00", "z");
+    String day = calendar.getEventsToString("2025-07-01T00:00", "2025-07-01T23:59");
+    assertTrue(day.contains("a: 2025-07-01 09:00 - 10:00 @ x"));
+    assertTrue(day.contains("a: 2025-07-01 09:00 - 11:00 @ y"));
+    assertTrue(day.contains("d: 2025-07-01 09:00 - 10:00 @ z"));
+    assertEquals(6, calendar.getEvents("2025-07-01").size());
+    assertEquals(36, calendar.getCalendarEvents().size());
+  }
+
+  @Test
+  public void testBulkCreate() {
+    ICalendar calendar = this.testCalendarSuite.getCalendar();
+    int before = calendar.getCalendarEvents().size();
+    BulkReport report = calendar.createEvents(Arrays.asList(
+            EventSpec.single("review", "2025-06-04T09:00", "2025-06-04T10:00"),
+            EventSpec.single("late", "2025-06-04T12:00", "2025-06-04T11:00"),
+            EventSpec.single("review", "2025-06-04T09:00", "2025-06-04T10:00"),
+            EventSpec.single("Lecture", "2025-06-12T09:50", "2025-06-12T11:30"),
+            EventSpec.seriesTimes("standup", "2025-06-02T09:00", "2025-06-02T09:15", "MTWRF", 5),
+            EventSpec.allDaySeriesUntil("trip", "2025-06-20", "FSU", "2025-06-22"),
+            EventSpec.allDay("holiday", "2025-13-01")));
+
+    // the bad rows are reported in order and the rest are still created
+    assertEquals(3, report.getCreated());
+    assertEquals(4, report.getFailures().size());
+    assertEquals(1, report.getFailures().get(0).getRow());
+    assertEquals("the from date can not come after the to date",
+            report.getFailures().get(0).getMessage());
+    assertEquals(2, report.getFailures().get(1).getRow());
+    assertEquals("event already exists", report.getFailures().get(1).getMessage());
+    assertEquals(3, report.getFailures().get(2).getRow());
+    assertEquals(6, report.getFailures().get(3).getRow());
+    assertEquals(before + 3, calendar.getCalendarEvents().size());
+    assertEquals(2, calendar.getEvents("2025-06-04").size());
+    assertTrue(calendar.showStatus("2025-06-21T12:00"));
+
+    // the same through a bulk block of commands
+    StringBuilder output = new StringBuilder();
+    IController controller = new Controller(this.testCalendarSuite,
+            new TextView(OutputSink.everyCommand(output)));
+    controller.commandPattern(new Scanner("bulk begin\n"
+            + "create event a from 2025-09-01T09:00 to 2025-09-01T10:00\n"
+            + "create event a from 2025-09-01T09:00 to 2025-09-01T10:00\n"
+            + "print events on 2025-09-01\n"
+            + "create event b on 2025-09-02 repeats MW for 3 times\n"
+            + "bulk end\n"
+            + "bulk end\n"
+            + "quit\n"));
+    String[] lines = output.toString().split(System.lineSeparator());
+    assertEquals("Only create event commands can be in a bulk block: "
+            + "print events on 2025-09-01", lines[0]);
+    assertEquals("Event 2 of bulk block: event already exists", lines[1]);
+    assertEquals("Created 2 events, 1 failed", lines[2]);
+    assertEquals("No bulk block to end", lines[3]);
+    assertEquals(before + 5, calendar.getCalendarEvents().size());
+
+    // quitting, or running out of input, inside a block says what was dropped
+    output.setLength(0);
+    controller.commandPattern(new Scanner("bulk begin\n"
+            + "create event c from 2025-09-03T09:00 to 2025-09-03T10:00\n"
+            + "create event d from 2025-09-03T11:00 to 2025-09-03T12:00\n"
+            + "quit\n"));
+    assertEquals("Bulk block not ended, 2 events discarded" + System.lineSeparator(),
+            output.toString());
+    output.setLength(0);
+    try {
+      controller.commandPattern(new Scanner("bulk begin\n"
+              + "create event c from 2025-09-03T09:00 to 2025-09-03T10:00\n"));
+      fail("the input ends without quit");
+    } catch (NoSuchElementException e) {
+      assertEquals("Bulk block not ended, 1 events discarded" + System.lineSeparator(),
+              output.toString());
+    }
+    assertEquals(before + 5, calendar.getCalendarEvents().size());
+  }
+
+  @Test
+  public void testPipelinedHeadless() throws IOException {
+    // more lines than one batch, so the batches must come back in order
+    StringBuilder script = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      script.append("create event e").append(i).append(" from 2025-06-04T09:00 to ")
+              .append("2025-06-04T09:30\n");
+      if (i % 250 == 0) {
+        script.append("print events on 2025-06-04\n").append("not a command ").append(i)
+                .append("\n");
+      }
+    }
+    File file = File.createTempFile("script", ".txt");
+    file.deleteOnExit();
+    Files.write(file.toPath(), (script + "quit\n").getBytes(StandardCharsets.UTF_8));
+    StringBuilder plain = new StringBuilder();
+    new Controller(new CalendarSuite(), new TextView(OutputSink.everyCommand(plain)))
+            .goHeadlessCalendar(file.getPath());
+    StringBuilder pipelined = new StringBuilder();
+    new Controller(new CalendarSuite(), new TextView(OutputSink.everyCommand(pipelined)))
+            .goPipelinedHeadlessCalendar(file.getPath());
+    assertTrue(plain.toString().contains("Invalid command: not a command 1750"));
+    assertEquals(plain.toString(), pipelined.toString());
+
+    // a script without quit ends the same way in both, after running every line
+    Files.write(file.toPath(), script.toString().getBytes(StandardCharsets.UTF_8));
+    StringBuilder unfinished = new StringBuilder();
+    try {
+      new Controller(new CalendarSuite(), new TextView(OutputSink.everyCommand(unfinished)))
+              .goPipelinedHeadlessCalendar(file.getPath());
+      fail("the script has no quit");
+    } catch (NoSuchElementException e) {
+      assertEquals(plain.toString(), unfinished.toString());
+    }
+
+    // a script that cannot be read fails instead of waiting forever
+    File directory = Files.createTempDirectory("script").toFile();
+    directory.deleteOnExit();
+    try {
+      new Controller(new CalendarSuite(), new TextView(OutputSink.everyCommand(unfinished)))
+              .goPipelinedHeadlessCalendar(directory.getPath());
+      fail("a directory is not a script");
+    } catch (IllegalStateException e) {
+      assertEquals("Could not read commands", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testCommandForms() throws IOException {
+    File directory = Files.createTempDirectory("forms").toFile();
+    directory.deleteOnExit();
+    String store = new File(directory, "store").getPath();
+    String snapshot = new File(directory, "suite.bin").getPath();
+    String ics = new File(directory, "work.ics").getPath();
+    String range = new File(directory, "june.ics").getPath();
+    // every form, with words of the forms as arguments where a form allows it
+    String[] forms = {
+        "create calendar --name work --timezone Europe/Paris",
+        "create calendar --name disk --timezone Europe/Paris --store " + store,
+        "edit calendar --name work --property timezone America/Chicago",
+        "use calendar --name work",
+        "create event from from 2025-06-02T09:00 to 2025-06-02T10:00",
+        "create event s from 2025-06-03T09:00 to 2025-06-03T10:00 repeats TR for 2 times",
+        "create event u from 2025-06-03T11:00 to 2025-06-03T12:00 repeats TR until 2025-06-12",
+        "create event on on 2025-06-04",
+        "create event d on 2025-06-06 repeats F for 2 times",
+        "create event e on 2025-06-06 repeats F until 2025-06-20",
+        "edit event location from from 2025-06-02T09:00 to 2025-06-02T10:00 with room",
+        "edit events location s from 2025-06-05T09:00 with hall",
+        "edit series location u from 2025-06-03T11:00 with lab",
+        "print events on 2025-06-02",
+        "print events from 2025-06-01T00:00 to 2025-06-30T23:59",
+        "print page from 2025-06-01T00:00",
+        "print next page",
+        "print previous page",
+        "show status on 2025-06-02T09:30",
+        "copy event from on 2025-06-02T09:00 --target Default to 2025-06-02T09:00",
+        "copy events on 2025-06-04 --target Default to 2025-06-04",
+        "copy events between 2025-06-01 and 2025-06-30 --target disk to 2025-06-01",
+        "save snapshot --file " + snapshot,
+        "export calendar --name work --file " + ics,
+        "export calendar --name work from 2025-06-01T00:00 to 2025-06-30T23:59 --file " + range,
+        "import calendar --name Default --file " + range,
+        "bulk begin",
+        "create event b from 2025-06-09T09:00 to 2025-06-09T10:00",
+        "bulk end",
+        "QUIT"};
+    CalendarSuite suite = new CalendarSuite();
+    StringBuilder output = new StringBuilder();
+    new Controller(suite, new TextView(OutputSink.everyCommand(output)))
+            .commandPattern(new Scanner(String.join("\n", forms) + "\n"));
+    assertFalse(output.toString(), output.toString().contains("Invalid command"));
+    suite.useCalendar("work");
+    assertEquals("room", suite.getCalendar().getEvents("2025-06-02").get(0).getLocation());
+    assertEquals("on", suite.getCalendar().getEvents("2025-06-04").get(0).getSubject());
+    assertEquals("", suite.getCalendar().getEvents("2025-06-03").get(0).getLocation());
+    for (IEvent event : suite.getCalendar().getEvents("2025-06-05")) {
+      assertEquals(event.getSubject().equals("s") ? "hall" : "lab", event.getLocation());
+    }
+    assertEquals("e", suite.getCalendar().getEvents("2025-06-20").get(0).getSubject());
+    assertEquals(1, suite.getCalendar().getEvents("2025-06-09").size());
+
+    // lines that are not quite any form
+    String[] rejected = {
+        "",
+        "print events  on 2025-06-02",
+        " print events on 2025-06-02",
+        "print events on 2025-06-02 ",
+        "print events on\t2025-06-02",
+        "print\u000Bevents on 2025-06-02",
+        "print events on 2025-06-02 now",
+        "print events",
+        "print events on",
+        "create event d on 2025-06-06 repeats F for two times",
+        "create event d on 2025-06-06 repeats F for -2 times",
+        "create calendar --name x --timezone Paris",
+        "create calendar --name x --timezone /Paris",
+        "create calendar --name x --timezone Europe/",
+        "copy event from on 2025-06-02T09:00 --target Default",
+        "create event x from 2025-06-02T09:00 to 2025-06-02T10:00 repeats TR",
+        "bulk",
+        "quit now"};
+    StringBuilder expected = new StringBuilder();
+    for (String line : rejected) {
+      expected.append("Invalid command: ").append(line).append(System.lineSeparator());
+    }
+    output.setLength(0);
+    new Controller(suite, new TextView(OutputSink.everyCommand(output)))
+            .commandPattern(new Scanner(String.join("\n", rejected) + "\nquit\n"));
+    assertEquals(expected.toString(), output.toString());
+    for (File file : directory.listFiles()) {
+      file.deleteOnExit();
+    }
+  }
+
+  @Test
+  public void testFlushPolicies() {
+    String script = "create calendar --name Paris --timezone Europe/Paris\n"
+            + "create event Party from 2025-06-10T18:00 to 2025-06-10T23:00\n"
+            + "create event Yoga from 2025-06-10T08:00 to 2025-06-10T09:30 repeats MWF for 3 times\n"
+            + "print events on 2025-06-10\n"
+            + "not a command\n"
+            + "print events from 2025-06-01T00:00 to 2025-06-30T23:59\n"
+            + "show status on 2025-06-10T18:30\n"
+            + "copy events on 2025-06-10 --target Paris to 2025-06-10\n"
+            + "use calendar --name Paris\n"
+            + "print events on 2025-06-11\n"
+            + "quit\n";
+    List<String> everyCommand = new ArrayList<>();
+    List<String> everyLines = new ArrayList<>();
+    List<String> endOfScript = new ArrayList<>();
+    runScript(script, OutputSink.everyCommand(chunks(everyCommand)));
+    runScript(script, OutputSink.everyLines(chunks(everyLines), 3));
+    runScript(script, OutputSink.endOfScript(chunks(endOfScript)));
+
+    // the same bytes come out whichever policy is used
+    byte[] expected = String.join("", everyCommand).getBytes(StandardCharsets.UTF_8);
+    assertTrue(expected.length > 0);
+    assertArrayEquals(expected, String.join("", everyLines).getBytes(StandardCharsets.UTF_8));
+    assertArrayEquals(expected, String.join("", endOfScript).getBytes(StandardCharsets.UTF_8));
+
+    // handed over after each command that printed, or once at the end
+    assertEquals(5, everyCommand.size());
+    assertEquals(1, endOfScript.size());
+
+    // every two printed lines, and whatever is left when flushed
+    List<String> pairs = new ArrayList<>();
+    OutputSink sink = OutputSink.everyLines(chunks(pairs), 2);
+    sink.println("a");
+    sink.endCommand();
+    assertEquals(0, pairs.size());
+    sink.println("b");
+    assertEquals(Arrays.asList("a" + System.lineSeparator() + "b" + System.lineSeparator()),
+            pairs);
+    sink.println("c");
+    sink.flush();
+    assertEquals(2, pairs.size());
+    assertEquals("c" + System.lineSeparator(), pairs.get(1));
+    sink.flush();
+    assertEquals(2, pairs.size());
+
+    try {
+      OutputSink.everyLines(chunks(pairs), 0);
+      fail("no lines per flush");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid number of lines", e.getMessage());
+    }
+    assertEquals(1, endOfScript.size());
+  }
+
+  /**
+   * Runs the given script through a controller of a new suite printing to the given sink.
+   */
+  private static void runScript(String script, OutputSink sink) {
+    new Controller(new CalendarSuite(), new TextView(sink)).commandPattern(new Scanner(script));
+  }
+
+  /**
+   * Returns an output that adds each piece of text handed to it to the given list.
+   */
+  private static Appendable chunks(List<String> into) {
+    return new Appendable() {
+      @Override
+      public Appendable append(CharSequence text) {
+        into.add(text.toString());
+        return this;
+      }
+
+      @Override
+      public Appendable append(CharSequence text, int start, int end) {
+        return this.append(text.subSequence(start, end));
+      }
+
+      @Override
+      public Appendable append(char c) {
+        return this.append(String.valueOf(c));
+      }
+    };
+  }
+
+  @Test
+  public void testCopiesShareEvents() {
+    CalendarSuite suite = new CalendarSuite();
+    suite.createCalendar("team", "America/New_York");
+    suite.createCalendar("mine", "America/New_York");
+    suite.createCalendar("away", "America/Chicago");
+    suite.useCalendar("team");
+    suite.getCalendar().createEventSeriesTimesRepeated("standup", "2025-06-02T09:00",
+            "2025-06-02T09:15", "MTWRF", 2);
+    suite.getCalendar().editEventProperty("status", "standup", "2025-06-04T09:00",
+            "2025-06-04T09:15", "private");
+    suite.copyEventsRange("2025-06-01", "2025-06-30", "mine", "2025-06-01");
+    suite.copyEventsRange("2025-06-01", "2025-06-30", "away", "2025-06-01");
+
+    // editing a copy leaves the calendar it was copied from as it was
+    suite.useCalendar("mine");
+    suite.getCalendar().editEventProperty("location", "standup", "2025-06-04T09:00",
+            "2025-06-04T09:15", "room 4");
+    assertEquals("room 4", suite.getCalendar().getEvents("2025-06-04").get(0).getLocation());
+    suite.useCalendar("team");
+    assertEquals("", suite.getCalendar().getEvents("2025-06-04").get(0).getLocation());
+    assertEquals(10, suite.getCalendar().getEvents("2025-06-01T00:00", "2025-06-30T23:59")
+            .size());
+
+    // a moved copy keeps every property
+    suite.useCalendar("away");
+    IEvent moved = suite.getCalendar().getEvents("2025-06-04").get(0);
+    assertEquals(8, moved.getStart().getHour());
+    assertEquals("private", moved.getStatus());
+  }
+
+  @Test
+  public void testZoneCopies() {
+    CalendarSuite suite = new CalendarSuite();
+    suite.createCalendar("home", "America/New_York");
+    suite.createCalendar("india", "Asia/Kolkata");
+    suite.createCalendar("london", "Europe/London");
+    suite.createCalendar("paris", "Europe/Paris");
+    suite.useCalendar("home");
+    suite.getCalendar().createSingleEvent("call", "2025-06-10T09:00", "2025-06-10T10:00");
+    suite.getCalendar().createSingleEvent("march", "2025-03-15T09:00", "2025-03-15T10:00");
+    suite.getCalendar().createSingleEvent("june", "2025-06-15T09:00", "2025-06-15T10:00");
+    suite.getCalendar().createSingleEvent("party", "2025-06-10T18:00", "2025-06-10T23:00");
+
+    // half hour zones keep their minutes
+    suite.copySingleEvent("call", "2025-06-10T09:00", "india", "2025-06-10T09:00");
+    suite.useCalendar("india");
+    IEvent call = suite.getCalendar().getEvents("2025-06-10").get(0);
+    assertEquals(18, call.getStart().getHour());
+    assertEquals(30, call.getStart().getMinute());
+    assertEquals(19, call.getEnd().getHour());
+
+    // New York moves its clocks on March 9 but London only on March 30
+    suite.useCalendar("home");
+    suite.copyEventsRange("2025-03-01", "2025-06-30", "london", "2025-03-01");
+    suite.useCalendar("london");
+    assertEquals(13, suite.getCalendar().getEvents("2025-03-15").get(0).getStart().getHour());
+    assertEquals(14, suite.getCalendar().getEvents("2025-06-15").get(0).getStart().getHour());
+
+    // an evening event lands past midnight on the next day
+    suite.useCalendar("home");
+    suite.copyDayEvents("2025-06-10", "paris", "2025-06-10");
+    suite.useCalendar("paris");
+    IEvent party = suite.getCalendar().getEvents("2025-06-11").get(0);
+    assertEquals("party", party.getSubject());
+    assertEquals(0, party.getStart().getHour());
+    assertEquals(5, party.getEnd().getHour());
+  }
+
+  @Test
+  public void testSharedText() {
+    CalendarSuite suite = new CalendarSuite();
+    suite.createCalendar("work", "America/New_York");
+    suite.createCalendar("home", "America/New_York");
+    suite.useCalendar("work");
+    suite.getCalendar().createSingleEvent(new String("review"), "2025-06-10T09:00",
+            "2025-06-10T10:00");
+    suite.getCalendar().editEventProperty("location", "review", "2025-06-10T09:00",
+            "2025-06-10T10:00", new String("room 4"));
+    suite.useCalendar("home");
+    suite.getCalendar().createSingleEvent(new String("review"), "2025-06-11T09:00",
+            "2025-06-11T10:00");
+    suite.getCalendar().editEventProperty("location", "review", "2025-06-11T09:00",
+            "2025-06-11T10:00", new String("room 4"));
+
+    // events of different calendars with the same text share its strings
+    IEvent home = suite.getCalendar().getEvents("2025-06-11").get(0);
+    suite.useCalendar("work");
+    IEvent work = suite.getCalendar().getEvents("2025-06-10").get(0);
+    assertSame(work.getSubject(), home.getSubject());
+    assertSame(work.getLocation(), home.getLocation());
+
+    // a status is public, private or unspecified
+    suite.getCalendar().editEventProperty("status", "review", "2025-06-10T09:00",
+            "2025-06-10T10:00", "PRIVATE");
+    assertEquals("private", suite.getCalendar().getEvents("2025-06-10").get(0).getStatus());
+    try {
+      suite.getCalendar().editEventProperty("status", "review", "2025-06-10T09:00",
+              "2025-06-10T10:00", "busy");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid status", e.getMessage());
+    }
+    assertEquals("private", suite.getCalendar().getEvents("2025-06-10").get(0).getStatus());
+  }
+
+}
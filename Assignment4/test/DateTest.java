@@ -4,6 +4,7 @@ import calendar.Date;
 import calendar.IDate;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 /**
  * Tests the date class.
@@ -32,4 +33,40 @@ public class DateTest {
 
     assertEquals(-1, new Date("2025-01-02").compare(new Date("2025-02-20")));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testNextDateAcrossMonthsAndYears() {
+    IDate testDate = new Date("2024-02-28");
+    // leap day, then into March
+    assertEquals("2024-02-29", testDate.getNextDate(1).toString());
+    assertEquals("2024-03-01", testDate.getNextDate(2).toString());
+    assertEquals("F", testDate.getNextDate(2).getDayOfWeek());
+
+    // a whole leap year later, into the next year
+    assertEquals("2025-02-28", testDate.getNextDate(366).toString());
+    assertEquals(366, testDate.getNextDate(366).toEpochDay() - testDate.toEpochDay());
+    assertEquals(1, testDate.getNextDate(366).compare(testDate));
+
+    assertEquals(0, new Date("1970-01-01").toEpochDay());
+    assertEquals("R", new Date("1970-01-01").getDayOfWeek());
+  }
+
+  @Test
+  public void testParseAndFormat() {
+    // single digit months and days are read and written back zero padded
+    assertEquals("2025-02-03", new Date("2025-2-3").toString());
+    assertEquals("0999-12-31", new Date("0999-12-31").toString());
+
+    // dates that don't exist or aren't written as dates are rejected
+    String[] invalid = {"2025-02-29", "2025-04-31", "2025-13-01", "2025-00-10", "2025-1-0",
+        "25-01-01", "2025-001-01", "2025/01/01", "2025-01-01T", ""};
+    for (String date : invalid) {
+      try {
+        new Date(date);
+        fail("accepted " + date);
+      } catch (IllegalArgumentException e) {
+        assertEquals("Invalid date", e.getMessage());
+      }
+    }
+  }
+}
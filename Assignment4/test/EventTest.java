@@ -63,6 +63,27 @@ public class EventTest {
 
   }
 
+  @Test
+  public void testEditSeriesOccurrences() {
+    SeriesEvent testSeriesEvent = new SeriesEvent("OOD Lecture",
+            "2025-06-09T09:50", "2025-06-19T11:30",
+            "TWR", 2);
+
+    // editing one occurrence takes it out of the series
+    assertEquals("room 101", testSeriesEvent.editEventProperty("location",
+            "2025-06-11T09:50", "room 101").getLocation());
+    assertEquals("2025-06-10, 2025-06-12, 2025-06-17, 2025-06-18, 2025-06-19",
+            testSeriesEvent.recurringDatesAsString());
+
+    // editing from an occurrence on splits the rest of the series off
+    SeriesEvent rest = (SeriesEvent) testSeriesEvent.editEventsProperty("subject",
+            "2025-06-17T09:50", "OOD Lab");
+    assertEquals("2025-06-10, 2025-06-12", testSeriesEvent.recurringDatesAsString());
+    assertEquals("2025-06-17, 2025-06-18, 2025-06-19", rest.recurringDatesAsString());
+    assertEquals("OOD Lab", rest.getSubject());
+    assertTrue(rest.match("OOD Lab", "2025-06-18T09:50", "2025-06-18T11:30"));
+  }
+
   @Test
   public void testCopyEvent() {
     testEvent = new SingleEvent("study", "2025-01-10T10:00",